@@ -30,7 +30,10 @@
 import org.apache.hc.core5.annotation.Contract;
 import org.apache.hc.core5.annotation.ThreadingBehavior;
 import org.apache.hc.core5.http2.frame.FrameConsts;
+import org.apache.hc.core5.reactor.IdleBufferPolicy;
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.ByteBufferAllocator;
+import org.apache.hc.core5.util.SimpleByteBufferAllocator;
 
 /**
  * HTTP/2 protocol configuration.
@@ -49,10 +52,13 @@ public class H2Config {
     private final int maxFrameSize;
     private final int maxHeaderListSize;
     private final boolean settingAckNeeded;
+    private final IdleBufferPolicy idleBufferPolicy;
+    private final ByteBufferAllocator byteBufferAllocator;
 
     H2Config(final int headerTableSize, final boolean pushEnabled, final int maxConcurrentStreams,
              final int initialWindowSize, final int maxFrameSize, final int maxHeaderListSize,
-             final boolean settingAckNeeded) {
+             final boolean settingAckNeeded, final IdleBufferPolicy idleBufferPolicy,
+             final ByteBufferAllocator byteBufferAllocator) {
         super();
         this.headerTableSize = headerTableSize;
         this.pushEnabled = pushEnabled;
@@ -61,6 +67,8 @@ public class H2Config {
         this.maxFrameSize = maxFrameSize;
         this.maxHeaderListSize = maxHeaderListSize;
         this.settingAckNeeded = settingAckNeeded;
+        this.idleBufferPolicy = idleBufferPolicy;
+        this.byteBufferAllocator = byteBufferAllocator;
     }
 
     public int getHeaderTableSize() {
@@ -91,6 +99,23 @@ public boolean isSettingAckNeeded() {
         return settingAckNeeded;
     }
 
+    /**
+     * Determines whether frame buffers are released once all pending frames
+     * have been read or written.
+     */
+    public IdleBufferPolicy getIdleBufferPolicy() {
+        return idleBufferPolicy;
+    }
+
+    /**
+     * Allocator of frame and header encoding buffers. Frames are read and
+     * written through these buffers, so direct buffers save a copy per
+     * socket operation; frame payloads are handed out as views of them.
+     */
+    public ByteBufferAllocator getByteBufferAllocator() {
+        return byteBufferAllocator;
+    }
+
     @Override
     public String toString() {
         final StringBuilder builder = new StringBuilder();
@@ -101,6 +126,8 @@ public String toString() {
                 .append(", maxFrameSize=").append(this.maxFrameSize)
                 .append(", maxHeaderListSize=").append(this.maxHeaderListSize)
                 .append(", settingAckNeeded=").append(this.settingAckNeeded)
+                .append(", idleBufferPolicy=").append(this.idleBufferPolicy)
+                .append(", byteBufferAllocator=").append(this.byteBufferAllocator)
                 .append("]");
         return builder.toString();
     }
@@ -118,7 +145,9 @@ public static H2Config.Builder copy(final H2Config config) {
                 .setInitialWindowSize(config.getInitialWindowSize())
                 .setMaxFrameSize(config.getMaxFrameSize())
                 .setMaxHeaderListSize(config.getMaxHeaderListSize())
-                .setSettingAckNeeded(config.isSettingAckNeeded());
+                .setSettingAckNeeded(config.isSettingAckNeeded())
+                .setIdleBufferPolicy(config.getIdleBufferPolicy())
+                .setByteBufferAllocator(config.getByteBufferAllocator());
     }
 
     public static class Builder {
@@ -130,6 +159,8 @@ public static class Builder {
         private int maxFrameSize;
         private int maxHeaderListSize;
         private boolean settingAckNeeded;
+        private IdleBufferPolicy idleBufferPolicy;
+        private ByteBufferAllocator byteBufferAllocator;
 
         Builder() {
             this.headerTableSize = 8192;
@@ -139,6 +170,8 @@ public static class Builder {
             this.maxFrameSize  = FrameConsts.MIN_FRAME_SIZE * 4;
             this.maxHeaderListSize = FrameConsts.MAX_FRAME_SIZE;
             this.settingAckNeeded = true;
+            this.idleBufferPolicy = IdleBufferPolicy.RETAIN;
+            this.byteBufferAllocator = SimpleByteBufferAllocator.HEAP;
         }
 
         public Builder setHeaderTableSize(final int headerTableSize) {
@@ -181,10 +214,20 @@ public Builder setSettingAckNeeded(final boolean settingAckNeeded) {
             return this;
         }
 
+        public Builder setIdleBufferPolicy(final IdleBufferPolicy idleBufferPolicy) {
+            this.idleBufferPolicy = Args.notNull(idleBufferPolicy, "Idle buffer policy");
+            return this;
+        }
+
+        public Builder setByteBufferAllocator(final ByteBufferAllocator byteBufferAllocator) {
+            this.byteBufferAllocator = Args.notNull(byteBufferAllocator, "Byte buffer allocator");
+            return this;
+        }
+
         public H2Config build() {
             return new H2Config(
                     headerTableSize, pushEnabled, maxConcurrentStreams, initialWindowSize, maxFrameSize, maxHeaderListSize,
-                    settingAckNeeded);
+                    settingAckNeeded, idleBufferPolicy, byteBufferAllocator);
         }
 
     }
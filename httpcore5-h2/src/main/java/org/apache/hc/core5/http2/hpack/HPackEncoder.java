@@ -39,20 +39,31 @@
 import org.apache.hc.core5.http.Header;
 import org.apache.hc.core5.util.Args;
 import org.apache.hc.core5.util.ByteArrayBuffer;
+import org.apache.hc.core5.util.ByteBufferAllocator;
 import org.apache.hc.core5.util.LangUtils;
+import org.apache.hc.core5.util.SimpleByteBufferAllocator;
 
 public final class HPackEncoder {
 
     private final OutboundDynamicTable dynamicTable;
     private final ByteArrayBuffer huffmanBuf;
     private final CharsetEncoder charsetEncoder;
+    private final ByteBufferAllocator allocator;
     private ByteBuffer tmpBuf;
     private int maxTableSize;
 
-    HPackEncoder(final OutboundDynamicTable dynamicTable, final CharsetEncoder charsetEncoder) {
+    HPackEncoder(
+            final OutboundDynamicTable dynamicTable,
+            final CharsetEncoder charsetEncoder,
+            final ByteBufferAllocator allocator) {
         this.dynamicTable = dynamicTable != null ? dynamicTable : new OutboundDynamicTable();
         this.huffmanBuf = new ByteArrayBuffer(128);
         this.charsetEncoder = charsetEncoder;
+        this.allocator = allocator != null ? allocator : SimpleByteBufferAllocator.HEAP;
+    }
+
+    HPackEncoder(final OutboundDynamicTable dynamicTable, final CharsetEncoder charsetEncoder) {
+        this(dynamicTable, charsetEncoder, null);
     }
 
     HPackEncoder(final OutboundDynamicTable dynamicTable, final Charset charset) {
@@ -67,6 +78,10 @@ public HPackEncoder(final CharsetEncoder charsetEncoder) {
         this(new OutboundDynamicTable(), charsetEncoder);
     }
 
+    public HPackEncoder(final CharsetEncoder charsetEncoder, final ByteBufferAllocator allocator) {
+        this(new OutboundDynamicTable(), charsetEncoder, allocator);
+    }
+
     static void encodeInt(final ByteArrayBuffer dst, final int n, final int i, final int mask) {
 
         final int nbits = 0xFF >>> (8 - n);
@@ -129,15 +144,26 @@ private void clearState() {
     private void expandCapacity(final int capacity) {
 
         final ByteBuffer previous = this.tmpBuf;
-        this.tmpBuf = ByteBuffer.allocate(capacity);
+        this.tmpBuf = this.allocator.allocate(capacity);
         previous.flip();
         this.tmpBuf.put(previous);
+        this.allocator.release(previous);
+    }
+
+    /**
+     * Returns the temporary encoding buffer to its allocator.
+     */
+    public void release() {
+        if (this.tmpBuf != null) {
+            this.allocator.release(this.tmpBuf);
+            this.tmpBuf = null;
+        }
     }
 
     private void ensureCapacity(final int extra) {
 
         if (this.tmpBuf == null) {
-            this.tmpBuf = ByteBuffer.allocate(Math.max(256, extra));
+            this.tmpBuf = this.allocator.allocate(Math.max(256, extra));
         }
         final int requiredCapacity = this.tmpBuf.remaining() + extra;
         if (requiredCapacity > this.tmpBuf.capacity()) {
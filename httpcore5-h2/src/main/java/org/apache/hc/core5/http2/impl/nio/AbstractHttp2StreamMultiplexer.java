@@ -81,6 +81,7 @@
 import org.apache.hc.core5.http2.nio.command.PingCommand;
 import org.apache.hc.core5.io.ShutdownType;
 import org.apache.hc.core5.reactor.Command;
+import org.apache.hc.core5.reactor.IdleBufferPolicy;
 import org.apache.hc.core5.reactor.TlsCapableIOSession;
 import org.apache.hc.core5.reactor.ssl.TlsDetails;
 import org.apache.hc.core5.util.Args;
@@ -147,14 +148,17 @@ enum SettingsHandshake { READY, TRANSMITTED, ACKED }
         this.inputMetrics = new BasicH2TransportMetrics();
         this.outputMetrics = new BasicH2TransportMetrics();
         this.connMetrics = new BasicHttpConnectionMetrics(inputMetrics, outputMetrics);
-        this.inputBuffer = new FrameInputBuffer(this.inputMetrics, this.localConfig.getMaxFrameSize());
-        this.outputBuffer = new FrameOutputBuffer(this.outputMetrics, this.localConfig.getMaxFrameSize());
+        this.inputBuffer = new FrameInputBuffer(this.inputMetrics, this.localConfig.getMaxFrameSize(),
+                this.localConfig.getByteBufferAllocator());
+        this.outputBuffer = new FrameOutputBuffer(this.outputMetrics, this.localConfig.getMaxFrameSize(),
+                this.localConfig.getByteBufferAllocator());
         this.outputQueue = new ConcurrentLinkedDeque<>();
         this.pingHandlers = new ConcurrentLinkedQueue<>();
         this.outputLock = new ReentrantLock();
         this.outputRequests = new AtomicInteger(0);
         this.lastStreamId = new AtomicInteger(0);
-        this.hPackEncoder = new HPackEncoder(CharCodingSupport.createEncoder(charCodingConfig));
+        this.hPackEncoder = new HPackEncoder(CharCodingSupport.createEncoder(charCodingConfig),
+                this.localConfig.getByteBufferAllocator());
         this.hPackDecoder = new HPackDecoder(CharCodingSupport.createDecoder(charCodingConfig));
         this.streamMap = new ConcurrentHashMap<>();
         this.connInputWindow = new AtomicInteger(localConfig.getInitialWindowSize());
@@ -415,6 +419,9 @@ public final void onInput() throws HttpException, IOException {
                 }
                 consumeFrame(frame);
             }
+            if (localConfig.getIdleBufferPolicy() == IdleBufferPolicy.RELEASE) {
+                inputBuffer.release();
+            }
         }
     }
 
@@ -435,6 +442,9 @@ public final void onOutput() throws HttpException, IOException {
                     break;
                 }
             }
+            if (localConfig.getIdleBufferPolicy() == IdleBufferPolicy.RELEASE) {
+                outputBuffer.release();
+            }
         } finally {
             outputLock.unlock();
         }
@@ -560,6 +570,14 @@ public final void onDisconnect() {
                 break;
             }
         }
+        inputBuffer.dispose();
+        outputLock.lock();
+        try {
+            outputBuffer.dispose();
+            hPackEncoder.release();
+        } finally {
+            outputLock.unlock();
+        }
     }
 
     private void processPendingCommands() throws IOException, HttpException {
@@ -40,6 +40,8 @@
 import org.apache.hc.core5.http2.frame.RawFrame;
 import org.apache.hc.core5.http2.impl.BasicH2TransportMetrics;
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.ByteBufferAllocator;
+import org.apache.hc.core5.util.SimpleByteBufferAllocator;
 
 /**
  * Frame input buffer for HTTP/2 non-blocking connections.
@@ -52,8 +54,10 @@ enum State { HEAD_EXPECTED, PAYLOAD_EXPECTED }
 
     private final BasicH2TransportMetrics metrics;
     private final int maxFramePayloadSize;
-    private final byte[] bytes;
-    private final ByteBuffer buffer;
+    private final int bufferLen;
+    private final ByteBufferAllocator allocator;
+
+    private ByteBuffer buffer;
 
     private State state;
     private int payloadLen;
@@ -61,26 +65,54 @@ enum State { HEAD_EXPECTED, PAYLOAD_EXPECTED }
     private int flags;
     private int streamId;
 
-    FrameInputBuffer(final BasicH2TransportMetrics metrics, final int bufferLen, final int maxFramePayloadSize) {
+    FrameInputBuffer(
+            final BasicH2TransportMetrics metrics,
+            final int bufferLen,
+            final int maxFramePayloadSize,
+            final ByteBufferAllocator allocator) {
         Args.notNull(metrics, "HTTP2 transport metrcis");
         Args.positive(maxFramePayloadSize, "Maximum payload size");
         this.metrics = metrics;
         this.maxFramePayloadSize = maxFramePayloadSize;
-        this.bytes = new byte[bufferLen];
-        this.buffer = ByteBuffer.wrap(bytes);
-        this.buffer.flip();
+        this.bufferLen = bufferLen;
+        this.allocator = allocator != null ? allocator : SimpleByteBufferAllocator.HEAP;
+        acquireBuffer();
         this.state = State.HEAD_EXPECTED;
     }
 
+    FrameInputBuffer(final BasicH2TransportMetrics metrics, final int bufferLen, final int maxFramePayloadSize) {
+        this(metrics, bufferLen, maxFramePayloadSize, null);
+    }
+
+    /**
+     * @param allocator allocator of the frame buffer. Frames are read from the channel
+     *   directly into buffers of this allocator, which may be direct buffers. Frame
+     *   payloads are views of the buffer rather than copies.
+     */
+    public FrameInputBuffer(
+            final BasicH2TransportMetrics metrics,
+            final int maxFramePayloadSize,
+            final ByteBufferAllocator allocator) {
+        this(metrics, FrameConsts.HEAD_LEN + maxFramePayloadSize, maxFramePayloadSize, allocator);
+    }
+
     public FrameInputBuffer(final BasicH2TransportMetrics metrics, final int maxFramePayloadSize) {
-        this(metrics, FrameConsts.HEAD_LEN + maxFramePayloadSize, maxFramePayloadSize);
+        this(metrics, FrameConsts.HEAD_LEN + maxFramePayloadSize, maxFramePayloadSize, null);
     }
 
     public FrameInputBuffer(final int maxFramePayloadSize) {
         this(new BasicH2TransportMetrics(), maxFramePayloadSize);
     }
 
+    private void acquireBuffer() {
+        if (buffer == null) {
+            buffer = allocator.allocate(bufferLen);
+            buffer.flip();
+        }
+    }
+
     public void put(final ByteBuffer src) {
+        acquireBuffer();
         if (buffer.hasRemaining()) {
             buffer.compact();
         } else {
@@ -91,6 +123,7 @@ public void put(final ByteBuffer src) {
     }
 
     public RawFrame read(final ReadableByteChannel channel) throws IOException {
+        acquireBuffer();
         for (;;) {
             switch (state) {
                 case HEAD_EXPECTED:
@@ -120,7 +153,13 @@ public RawFrame read(final ReadableByteChannel channel) throws IOException {
                             }
                             buffer.reset();
                         }
-                        final ByteBuffer payload = payloadLen > 0 ? ByteBuffer.wrap(bytes, buffer.position(), payloadLen) : null;
+                        final ByteBuffer payload;
+                        if (payloadLen > 0) {
+                            payload = buffer.duplicate();
+                            payload.limit(buffer.position() + payloadLen);
+                        } else {
+                            payload = null;
+                        }
                         buffer.position(buffer.position() + payloadLen);
                         state = State.HEAD_EXPECTED;
                         metrics.incrementFramesTransferred();
@@ -151,7 +190,39 @@ public RawFrame read(final ReadableByteChannel channel) throws IOException {
     }
 
     public void reset() {
-        buffer.compact();
+        if (buffer != null) {
+            buffer.compact();
+        }
+        state = State.HEAD_EXPECTED;
+    }
+
+    /**
+     * Releases the underlying byte buffer provided no partial frame has been
+     * read into it. A new buffer is allocated on the next read attempt.
+     *
+     * @return {@code true} if the buffer has been released, {@code false}
+     *   if it still holds frame data.
+     */
+    public boolean release() {
+        if (buffer == null) {
+            return true;
+        }
+        if (state != State.HEAD_EXPECTED || buffer.hasRemaining()) {
+            return false;
+        }
+        dispose();
+        return true;
+    }
+
+    /**
+     * Discards any partially read frame and returns the underlying byte buffer
+     * to its allocator.
+     */
+    public void dispose() {
+        if (buffer != null) {
+            allocator.release(buffer);
+            buffer = null;
+        }
         state = State.HEAD_EXPECTED;
     }
 
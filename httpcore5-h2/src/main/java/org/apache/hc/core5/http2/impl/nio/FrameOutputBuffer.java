@@ -38,6 +38,8 @@
 import org.apache.hc.core5.http2.frame.RawFrame;
 import org.apache.hc.core5.http2.impl.BasicH2TransportMetrics;
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.ByteBufferAllocator;
+import org.apache.hc.core5.util.SimpleByteBufferAllocator;
 
 /**
  * Frame output buffer for HTTP/2 non-blocking connections.
@@ -48,20 +50,36 @@ public final class FrameOutputBuffer {
 
     private final BasicH2TransportMetrics metrics;
     private final int maxFramePayloadSize;
-    private final ByteBuffer buffer;
+    private final ByteBufferAllocator allocator;
 
-    public FrameOutputBuffer(final BasicH2TransportMetrics metrics, final int maxFramePayloadSize) {
+    private ByteBuffer buffer;
+
+    public FrameOutputBuffer(
+            final BasicH2TransportMetrics metrics,
+            final int maxFramePayloadSize,
+            final ByteBufferAllocator allocator) {
         Args.notNull(metrics, "HTTP2 transport metrcis");
         Args.positive(maxFramePayloadSize, "Maximum payload size");
         this.metrics = metrics;
         this.maxFramePayloadSize = maxFramePayloadSize;
-        this.buffer = ByteBuffer.allocate(FrameConsts.HEAD_LEN + maxFramePayloadSize);
+        this.allocator = allocator != null ? allocator : SimpleByteBufferAllocator.HEAP;
+        acquireBuffer();
+    }
+
+    public FrameOutputBuffer(final BasicH2TransportMetrics metrics, final int maxFramePayloadSize) {
+        this(metrics, maxFramePayloadSize, null);
     }
 
     public FrameOutputBuffer(final int maxFramePayloadSize) {
         this(new BasicH2TransportMetrics(), maxFramePayloadSize);
     }
 
+    private void acquireBuffer() {
+        if (buffer == null) {
+            buffer = allocator.allocate(FrameConsts.HEAD_LEN + maxFramePayloadSize);
+        }
+    }
+
     private void writeToChannel(final WritableByteChannel channel, final ByteBuffer src) throws IOException {
         final int bytesWritten = channel.write(src);
         if (bytesWritten > 0) {
@@ -77,6 +95,7 @@ public void write(final RawFrame frame, final WritableByteChannel channel) throw
             throw new H2ConnectionException(H2Error.FRAME_SIZE_ERROR, "Frame size exceeds maximum");
         }
 
+        acquireBuffer();
         buffer.putInt((payload != null ? payload.remaining() << 8 : 0) | (frame.getType() & 0xff));
         buffer.put((byte) (frame.getFlags() & 0xff));
         buffer.putInt(frame.getStreamId());
@@ -84,7 +103,10 @@ public void write(final RawFrame frame, final WritableByteChannel channel) throw
         if (payload != null) {
             if (channel instanceof GatheringByteChannel) {
                 buffer.flip();
-                ((GatheringByteChannel) channel).write(new ByteBuffer[]{buffer, payload});
+                final long bytesWritten = ((GatheringByteChannel) channel).write(new ByteBuffer[]{buffer, payload});
+                if (bytesWritten > 0) {
+                    metrics.incrementBytesTransferred(bytesWritten);
+                }
                 buffer.compact();
                 if (payload.hasRemaining()) {
                     buffer.put(payload);
@@ -104,7 +126,7 @@ public void write(final RawFrame frame, final WritableByteChannel channel) throw
     }
 
     public void flush(final WritableByteChannel channel) throws IOException {
-        if (buffer.position() > 0) {
+        if (buffer != null && buffer.position() > 0) {
             buffer.flip();
             writeToChannel(channel, buffer);
             buffer.compact();
@@ -112,7 +134,33 @@ public void flush(final WritableByteChannel channel) throws IOException {
     }
 
     public boolean isEmpty() {
-        return buffer.position() == 0;
+        return buffer == null || buffer.position() == 0;
+    }
+
+    /**
+     * Releases the underlying byte buffer provided it holds no pending
+     * frame data. A new buffer is allocated on the next frame write.
+     *
+     * @return {@code true} if the buffer has been released, {@code false}
+     *   if it still holds frame data.
+     */
+    public boolean release() {
+        if (isEmpty()) {
+            dispose();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Discards pending frame data and returns the underlying byte buffer
+     * to its allocator.
+     */
+    public void dispose() {
+        if (buffer != null) {
+            allocator.release(buffer);
+            buffer = null;
+        }
     }
 
     public H2TransportMetrics getMetrics() {
@@ -26,10 +26,12 @@
  */
 package org.apache.hc.core5.http2.impl.nio.bootstrap;
 
+import java.net.SocketAddress;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.hc.core5.function.Decorator;
+import org.apache.hc.core5.function.Resolver;
 import org.apache.hc.core5.function.Supplier;
 import org.apache.hc.core5.http.HttpHost;
 import org.apache.hc.core5.http.config.CharCodingConfig;
@@ -77,6 +79,7 @@ public class H2RequesterBootstrap {
     private TlsStrategy tlsStrategy;
     private Decorator<IOSession> ioSessionDecorator;
     private IOSessionListener sessionListener;
+    private Resolver<HttpHost, SocketAddress> addressResolver;
     private Http2StreamListener streamListener;
     private Http1StreamListener http1StreamListener;
     private ConnPoolListener<HttpHost> connPoolListener;
@@ -184,6 +187,17 @@ public final H2RequesterBootstrap setIOSessionListener(final IOSessionListener s
         return this;
     }
 
+    /**
+     * Assigns {@link Resolver} of socket addresses of hosts, for instance
+     * of Unix domain socket addresses.
+     *
+     * @since 5.0
+     */
+    public final H2RequesterBootstrap setAddressResolver(final Resolver<HttpHost, SocketAddress> addressResolver) {
+        this.addressResolver = addressResolver;
+        return this;
+    }
+
     /**
      * Assigns {@link Http2StreamListener} instance.
      */
@@ -256,7 +270,8 @@ public Http2AsyncRequester create() {
                 ioSessionDecorator,
                 sessionListener,
                 connPool,
-                tlsStrategy != null ? tlsStrategy : new H2ClientTlsStrategy());
+                tlsStrategy != null ? tlsStrategy : new H2ClientTlsStrategy(),
+                addressResolver);
     }
 
     private static class PushConsumerEntry {
@@ -27,10 +27,12 @@
 
 package org.apache.hc.core5.http2.impl.nio.bootstrap;
 
+import java.net.SocketAddress;
 import java.util.concurrent.Future;
 
 import org.apache.hc.core5.concurrent.FutureCallback;
 import org.apache.hc.core5.function.Decorator;
+import org.apache.hc.core5.function.Resolver;
 import org.apache.hc.core5.http.HttpHost;
 import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncRequester;
 import org.apache.hc.core5.http.nio.AsyncClientEndpoint;
@@ -50,6 +52,9 @@ public class Http2AsyncRequester extends HttpAsyncRequester {
 
     private final HttpVersionPolicy versionPolicy;
 
+    /**
+     * @since 5.0
+     */
     public Http2AsyncRequester(
             final HttpVersionPolicy versionPolicy,
             final IOReactorConfig ioReactorConfig,
@@ -57,11 +62,25 @@ public Http2AsyncRequester(
             final Decorator<IOSession> ioSessionDecorator,
             final IOSessionListener sessionListener,
             final ControlledConnPool<HttpHost, IOSession> connPool,
-            final TlsStrategy tlsStrategy) {
-        super(ioReactorConfig, eventHandlerFactory, ioSessionDecorator, sessionListener, connPool, tlsStrategy);
+            final TlsStrategy tlsStrategy,
+            final Resolver<HttpHost, SocketAddress> addressResolver) {
+        super(ioReactorConfig, eventHandlerFactory, ioSessionDecorator, sessionListener, connPool, tlsStrategy,
+                addressResolver);
         this.versionPolicy = versionPolicy != null ? versionPolicy : HttpVersionPolicy.NEGOTIATE;
     }
 
+    public Http2AsyncRequester(
+            final HttpVersionPolicy versionPolicy,
+            final IOReactorConfig ioReactorConfig,
+            final IOEventHandlerFactory eventHandlerFactory,
+            final Decorator<IOSession> ioSessionDecorator,
+            final IOSessionListener sessionListener,
+            final ControlledConnPool<HttpHost, IOSession> connPool,
+            final TlsStrategy tlsStrategy) {
+        this(versionPolicy, ioReactorConfig, eventHandlerFactory, ioSessionDecorator, sessionListener, connPool,
+                tlsStrategy, null);
+    }
+
     @Override
     protected Future<AsyncClientEndpoint> doConnect(
             final HttpHost host,
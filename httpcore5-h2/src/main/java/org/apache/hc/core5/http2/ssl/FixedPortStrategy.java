@@ -44,6 +44,9 @@ public FixedPortStrategy(final int[] securePorts) {
     }
 
     public boolean isSecure(final SocketAddress localAddress) {
+        if (!(localAddress instanceof InetSocketAddress)) {
+            return false;
+        }
         final int port = ((InetSocketAddress) localAddress).getPort();
         for (final int securePort: securePorts) {
             if (port == securePort) {
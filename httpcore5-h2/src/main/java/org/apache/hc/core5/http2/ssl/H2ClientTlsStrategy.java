@@ -28,6 +28,7 @@
 package org.apache.hc.core5.http2.ssl;
 
 import java.net.SocketAddress;
+import java.util.concurrent.Executor;
 
 import javax.net.ssl.SSLContext;
 
@@ -53,16 +54,33 @@ public class H2ClientTlsStrategy implements TlsStrategy {
     private final SSLBufferManagement sslBufferManagement;
     private final SSLSessionInitializer initializer;
     private final SSLSessionVerifier verifier;
+    private final Executor delegatedTaskExecutor;
 
+    /**
+     * @param delegatedTaskExecutor executor of delegated tasks of TLS handshakes.
+     *   If {@code null} delegated tasks are executed by the I/O reactor thread.
+     *
+     * @since 5.0
+     */
     public H2ClientTlsStrategy(
             final SSLContext sslContext,
             final SSLBufferManagement sslBufferManagement,
             final SSLSessionInitializer initializer,
-            final SSLSessionVerifier verifier) {
+            final SSLSessionVerifier verifier,
+            final Executor delegatedTaskExecutor) {
         this.sslContext = Args.notNull(sslContext, "SSL context");
         this.sslBufferManagement = sslBufferManagement;
         this.initializer = initializer;
         this.verifier = verifier;
+        this.delegatedTaskExecutor = delegatedTaskExecutor;
+    }
+
+    public H2ClientTlsStrategy(
+            final SSLContext sslContext,
+            final SSLBufferManagement sslBufferManagement,
+            final SSLSessionInitializer initializer,
+            final SSLSessionVerifier verifier) {
+        this(sslContext, sslBufferManagement, initializer, verifier, null);
     }
 
     public H2ClientTlsStrategy(
@@ -97,7 +115,7 @@ public boolean upgrade(
         if (URIScheme.HTTPS.same(scheme)) {
             tlsSession.startTls(sslContext, sslBufferManagement,
                     H2TlsSupport.enforceRequirements(attachment, initializer),
-                    verifier);
+                    verifier, delegatedTaskExecutor);
             return true;
         }
         return false;
@@ -39,6 +39,8 @@
 import org.apache.hc.core5.http2.frame.FrameType;
 import org.apache.hc.core5.http2.frame.RawFrame;
 import org.apache.hc.core5.http2.impl.BasicH2TransportMetrics;
+import org.apache.hc.core5.util.PooledByteBufferAllocator;
+import org.apache.hc.core5.util.SimpleByteBufferAllocator;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -271,5 +273,100 @@ public void testReadFrameExceedingLimit() throws Exception {
         inbuffer.read(readableChannel);
     }
 
-}
+    @Test
+    public void testReleaseInputBuffer() throws Exception {
+        final FrameInputBuffer inbuffer = new FrameInputBuffer(16 * 1024);
+        final ReadableByteChannelMock readableChannel = new ReadableByteChannelMock(
+                new byte[] {0,0,5,0,0,0,0,0,1,1,2},
+                new byte[] {},
+                new byte[] {3,4,5},
+                new byte[] {});
+
+        Assert.assertNull(inbuffer.read(readableChannel));
+        Assert.assertFalse(inbuffer.release());
+
+        final RawFrame frame = inbuffer.read(readableChannel);
+        Assert.assertNotNull(frame);
+        Assert.assertEquals(5, frame.getPayloadContent().remaining());
+        Assert.assertTrue(inbuffer.release());
+
+        Assert.assertNull(inbuffer.read(readableChannel));
+        Assert.assertTrue(inbuffer.release());
+        Assert.assertEquals(1, inbuffer.getMetrics().getFramesTransferred());
+    }
+
+    @Test
+    public void testReleaseOutputBuffer() throws Exception {
+        final WritableByteChannelMock writableChannel = new WritableByteChannelMock(1024, FrameConsts.HEAD_LEN + 10);
+        final FrameOutputBuffer outbuffer = new FrameOutputBuffer(16 * 1024);
+        Assert.assertTrue(outbuffer.release());
+        Assert.assertTrue(outbuffer.isEmpty());
 
+        final RawFrame frame = new RawFrame(FrameType.DATA.getValue(), FrameFlag.END_STREAM.getValue(), 5,
+                ByteBuffer.wrap(new byte[]{'0','1','2','3','4','5','6','7','8','9','a','b','c','d','e','f'}));
+        outbuffer.write(frame, writableChannel);
+        Assert.assertFalse(outbuffer.release());
+
+        writableChannel.flush();
+        outbuffer.flush(writableChannel);
+        Assert.assertTrue(outbuffer.isEmpty());
+        Assert.assertTrue(outbuffer.release());
+        Assert.assertArrayEquals(new byte[] {0,0,16,0,1,0,0,0,5,48,49,50,51,52,53,54,55,56,57,97,98,99,100,101,102},
+                writableChannel.toByteArray());
+
+        writableChannel.flush();
+        outbuffer.write(new RawFrame(FrameType.PING.getValue(), 0, 0, null), writableChannel);
+        Assert.assertTrue(outbuffer.isEmpty());
+        Assert.assertEquals(2, outbuffer.getMetrics().getFramesTransferred());
+    }
+
+    @Test
+    public void testPooledOutputBuffer() throws Exception {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator(false);
+        final WritableByteChannelMock writableChannel = new WritableByteChannelMock(1024, FrameConsts.HEAD_LEN + 10);
+        final FrameOutputBuffer outbuffer = new FrameOutputBuffer(new BasicH2TransportMetrics(), 16 * 1024, allocator);
+        Assert.assertEquals(1, allocator.getLeasedCount());
+
+        final RawFrame frame = new RawFrame(FrameType.DATA.getValue(), FrameFlag.END_STREAM.getValue(), 5,
+                ByteBuffer.wrap(new byte[]{'0','1','2','3','4','5','6','7','8','9','a','b','c','d','e','f'}));
+        outbuffer.write(frame, writableChannel);
+        Assert.assertFalse(outbuffer.release());
+        Assert.assertEquals(1, allocator.getLeasedCount());
+
+        outbuffer.dispose();
+        Assert.assertTrue(outbuffer.isEmpty());
+        Assert.assertEquals(0, allocator.getLeasedCount());
+    }
+
+    @Test
+    public void testReadWriteFrameDirectBuffers() throws Exception {
+        final WritableByteChannelMock writableChannel = new WritableByteChannelMock(1024);
+        final FrameOutputBuffer outbuffer = new FrameOutputBuffer(new BasicH2TransportMetrics(), 16 * 1024,
+                SimpleByteBufferAllocator.DIRECT);
+        outbuffer.write(new RawFrame(FrameType.DATA.getValue(), 0, 1,
+                ByteBuffer.wrap(new byte[]{1,2,3,4,5})), writableChannel);
+        outbuffer.write(new RawFrame(FrameType.DATA.getValue(), 0, 3,
+                ByteBuffer.wrap(new byte[]{6,7})), writableChannel);
+        final byte[] bytes = writableChannel.toByteArray();
+        Assert.assertEquals(2 * FrameConsts.HEAD_LEN + 7, bytes.length);
+
+        final FrameInputBuffer inbuffer = new FrameInputBuffer(new BasicH2TransportMetrics(), 16 * 1024,
+                SimpleByteBufferAllocator.DIRECT);
+        final ReadableByteChannelMock readableChannel = new ReadableByteChannelMock(bytes);
+        final RawFrame frame1 = inbuffer.read(readableChannel);
+        Assert.assertEquals(1, frame1.getStreamId());
+        final ByteBuffer payload1 = frame1.getPayloadContent();
+        Assert.assertTrue(payload1.isDirect());
+        Assert.assertEquals(5, payload1.remaining());
+        Assert.assertEquals(1, payload1.get());
+        Assert.assertEquals(2, payload1.get());
+
+        final RawFrame frame2 = inbuffer.read(readableChannel);
+        Assert.assertEquals(3, frame2.getStreamId());
+        final ByteBuffer payload2 = frame2.getPayloadContent();
+        Assert.assertEquals(2, payload2.remaining());
+        Assert.assertEquals(6, payload2.get());
+        Assert.assertEquals(7, payload2.get());
+    }
+
+}
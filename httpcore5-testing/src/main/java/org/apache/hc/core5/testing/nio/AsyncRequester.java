@@ -73,7 +73,8 @@ private InetSocketAddress toSocketAddress(final HttpHost host) {
             }
         }
         final String hostName = host.getHostName();
-        return new InetSocketAddress(hostName, port);
+        // Left unresolved to be resolved by the I/O reactor without blocking the caller
+        return InetSocketAddress.createUnresolved(hostName, port);
     }
 
     public Future<IOSession> requestSession(final HttpHost host, final TimeValue timeout, final FutureCallback<IOSession> callback) {
@@ -39,6 +39,7 @@
 import org.apache.hc.core5.reactor.ExceptionEvent;
 import org.apache.hc.core5.reactor.IOEventHandlerFactory;
 import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.reactor.IOReactorMetrics;
 import org.apache.hc.core5.reactor.IOReactorService;
 import org.apache.hc.core5.reactor.IOReactorStatus;
 import org.apache.hc.core5.reactor.IOSession;
@@ -111,6 +112,11 @@ public List<ExceptionEvent> getExceptionLog() {
         return ioReactor != null ? ioReactor.getExceptionLog() : Collections.<ExceptionEvent>emptyList();
     }
 
+    public List<IOReactorMetrics> getMetrics() {
+        final T ioReactor = ioReactorRef.get();
+        return ioReactor != null ? ioReactor.getMetrics() : Collections.<IOReactorMetrics>emptyList();
+    }
+
     public void awaitShutdown(final TimeValue waitTime) throws InterruptedException {
         Args.notNull(waitTime, "Wait time");
         final T ioReactor = ioReactorRef.get();
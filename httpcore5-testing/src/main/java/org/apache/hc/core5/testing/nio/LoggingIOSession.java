@@ -36,6 +36,7 @@
 import org.apache.hc.core5.io.ShutdownType;
 import org.apache.hc.core5.reactor.Command;
 import org.apache.hc.core5.reactor.IOEventHandler;
+import org.apache.hc.core5.reactor.IOEventLoop;
 import org.apache.hc.core5.reactor.IOSession;
 import org.apache.hc.core5.testing.classic.Wire;
 import org.apache.logging.log4j.Logger;
@@ -187,6 +188,11 @@ public void setSocketTimeout(final int timeout) {
         this.session.setSocketTimeout(timeout);
     }
 
+    @Override
+    public IOEventLoop getEventLoop() {
+        return this.session.getEventLoop();
+    }
+
     @Override
     public IOEventHandler getHandler() {
         return this.session.getHandler();
@@ -0,0 +1,110 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.testing.nio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed size byte ring buffer carrying data from one {@link LoopbackIOSession}
+ * to its peer. Data is copied in and out without allocating any objects.
+ * <p>
+ * Instances of this class are not thread safe. They are expected to be accessed
+ * by the thread running {@link LoopbackTransport#runEvents()} only.
+ */
+final class LoopbackBuffer {
+
+    private final byte[] data;
+
+    private int readPos;
+    private int count;
+    private boolean endOfStream;
+    private boolean reset;
+
+    LoopbackBuffer(final int capacity) {
+        this.data = new byte[capacity];
+    }
+
+    boolean isReadable() {
+        return this.count > 0 || this.endOfStream;
+    }
+
+    boolean isWritable() {
+        return this.count < this.data.length || this.reset;
+    }
+
+    int read(final ByteBuffer dst) {
+        if (this.count == 0) {
+            return this.endOfStream ? -1 : 0;
+        }
+        int total = 0;
+        while (this.count > 0 && dst.hasRemaining()) {
+            final int chunk = Math.min(Math.min(this.count, this.data.length - this.readPos), dst.remaining());
+            dst.put(this.data, this.readPos, chunk);
+            this.readPos = (this.readPos + chunk) % this.data.length;
+            this.count -= chunk;
+            total += chunk;
+        }
+        if (this.count == 0) {
+            this.readPos = 0;
+        }
+        return total;
+    }
+
+    int write(final ByteBuffer src) throws IOException {
+        if (this.reset) {
+            throw new IOException("Connection reset by peer");
+        }
+        int total = 0;
+        while (this.count < this.data.length && src.hasRemaining()) {
+            final int writePos = (this.readPos + this.count) % this.data.length;
+            final int chunk = Math.min(
+                    Math.min(this.data.length - this.count, this.data.length - writePos), src.remaining());
+            src.get(this.data, writePos, chunk);
+            this.count += chunk;
+            total += chunk;
+        }
+        return total;
+    }
+
+    /**
+     * Signals end of stream to the reading side once all data has been read.
+     */
+    void shutdownOutput() {
+        this.endOfStream = true;
+    }
+
+    /**
+     * Discards pending data and fails subsequent writes.
+     */
+    void shutdownInput() {
+        this.reset = true;
+        this.readPos = 0;
+        this.count = 0;
+    }
+
+}
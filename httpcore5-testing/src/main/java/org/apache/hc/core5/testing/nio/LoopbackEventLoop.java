@@ -0,0 +1,141 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.testing.nio;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.reactor.IOEventLoop;
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * {@link IOEventLoop} of a {@link LoopbackTransport}. Tasks are executed
+ * by the thread running {@link LoopbackTransport#runEvents()}.
+ */
+final class LoopbackEventLoop implements IOEventLoop {
+
+    private final Queue<Runnable> taskQueue;
+    private final List<ScheduledTask> scheduledTasks;
+
+    private volatile Thread thread;
+
+    LoopbackEventLoop() {
+        this.taskQueue = new ConcurrentLinkedQueue<>();
+        this.scheduledTasks = new ArrayList<>();
+    }
+
+    void enter() {
+        this.thread = Thread.currentThread();
+    }
+
+    void exit() {
+        this.thread = null;
+    }
+
+    @Override
+    public boolean inEventLoop() {
+        return this.thread == Thread.currentThread();
+    }
+
+    @Override
+    public void execute(final Runnable task) {
+        Args.notNull(task, "Task");
+        this.taskQueue.add(task);
+    }
+
+    @Override
+    public Cancellable schedule(final Runnable task, final TimeValue delay) {
+        Args.notNull(task, "Task");
+        Args.notNull(delay, "Delay");
+        final ScheduledTask scheduledTask = new ScheduledTask(task, System.currentTimeMillis() + delay.toMillis());
+        synchronized (this.scheduledTasks) {
+            this.scheduledTasks.add(scheduledTask);
+        }
+        return scheduledTask;
+    }
+
+    /**
+     * Runs pending tasks and scheduled tasks that are due.
+     *
+     * @return the number of tasks executed.
+     */
+    int runTasks() {
+        int count = 0;
+        Runnable task;
+        while ((task = this.taskQueue.poll()) != null) {
+            task.run();
+            count++;
+        }
+        synchronized (this.scheduledTasks) {
+            if (this.scheduledTasks.isEmpty()) {
+                return count;
+            }
+        }
+        final long now = System.currentTimeMillis();
+        final List<ScheduledTask> dueTasks = new ArrayList<>();
+        synchronized (this.scheduledTasks) {
+            for (int i = 0; i < this.scheduledTasks.size(); ) {
+                final ScheduledTask scheduledTask = this.scheduledTasks.get(i);
+                if (scheduledTask.deadline <= now) {
+                    this.scheduledTasks.remove(i);
+                    dueTasks.add(scheduledTask);
+                } else {
+                    i++;
+                }
+            }
+        }
+        for (final ScheduledTask scheduledTask: dueTasks) {
+            scheduledTask.task.run();
+            count++;
+        }
+        return count;
+    }
+
+    private class ScheduledTask implements Cancellable {
+
+        final Runnable task;
+        final long deadline;
+
+        ScheduledTask(final Runnable task, final long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean cancel() {
+            synchronized (scheduledTasks) {
+                return scheduledTasks.remove(this);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,365 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.testing.nio;
+
+import java.net.SocketAddress;
+import java.nio.channels.ByteChannel;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.net.ssl.SSLContext;
+
+import org.apache.hc.core5.function.Callback;
+import org.apache.hc.core5.io.ShutdownType;
+import org.apache.hc.core5.net.NamedEndpoint;
+import org.apache.hc.core5.reactor.Command;
+import org.apache.hc.core5.reactor.IOEventHandler;
+import org.apache.hc.core5.reactor.IOEventLoop;
+import org.apache.hc.core5.reactor.IOSession;
+import org.apache.hc.core5.reactor.TlsCapableIOSession;
+import org.apache.hc.core5.reactor.ssl.SSLBufferManagement;
+import org.apache.hc.core5.reactor.ssl.SSLBufferPool;
+import org.apache.hc.core5.reactor.ssl.SSLIOSession;
+import org.apache.hc.core5.reactor.ssl.SSLMode;
+import org.apache.hc.core5.reactor.ssl.SSLSessionInitializer;
+import org.apache.hc.core5.reactor.ssl.SSLSessionVerifier;
+import org.apache.hc.core5.reactor.ssl.TlsDetails;
+import org.apache.hc.core5.util.Asserts;
+import org.apache.hc.core5.util.SimpleByteBufferAllocator;
+
+/**
+ * In-memory I/O session of a {@link LoopbackTransport}. Data written to
+ * the session channel becomes readable from the channel of the peer session.
+ * <p>
+ * Socket timeouts are recorded but never enforced. TLS can be started by
+ * the protocol handler factory while creating the handler, in which case
+ * the handler gets signalled once the handshake has completed. The client
+ * session uses the address of the server session as its TLS target endpoint.
+ */
+public final class LoopbackIOSession implements TlsCapableIOSession {
+
+    private final LoopbackPlainSession ioSession;
+    private final NamedEndpoint namedEndpoint;
+    private final SSLBufferPool sslBufferPool;
+    private final AtomicReference<SSLIOSession> tlsSessionRef;
+    private final AtomicBoolean connected;
+
+    private boolean disconnected;
+
+    LoopbackIOSession(
+            final LoopbackPlainSession ioSession,
+            final NamedEndpoint namedEndpoint,
+            final SSLBufferPool sslBufferPool) {
+        this.ioSession = ioSession;
+        this.namedEndpoint = namedEndpoint;
+        this.sslBufferPool = sslBufferPool;
+        this.tlsSessionRef = new AtomicReference<>(null);
+        this.connected = new AtomicBoolean(false);
+    }
+
+    private IOSession getSessionImpl() {
+        final SSLIOSession tlsSession = tlsSessionRef.get();
+        if (tlsSession != null) {
+            return tlsSession;
+        } else {
+            return ioSession;
+        }
+    }
+
+    private IOEventHandler getEventHandler() {
+        final IOEventHandler handler = ioSession.getHandler();
+        Asserts.notNull(handler, "IO event handler");
+        return handler;
+    }
+
+    /**
+     * Signals the handler that the connection has been established
+     * or begins the TLS handshake if TLS has been started.
+     */
+    void connected() {
+        final SSLIOSession tlsSession = tlsSessionRef.get();
+        try {
+            if (tlsSession != null) {
+                tlsSession.initialize();
+            } else {
+                signalConnected();
+            }
+        } catch (final Exception ex) {
+            onException(ex);
+        }
+    }
+
+    private void signalConnected() {
+        if (connected.compareAndSet(false, true)) {
+            final IOEventHandler handler = getEventHandler();
+            try {
+                handler.connected(this);
+            } catch (final Exception ex) {
+                onException(ex);
+            }
+        }
+    }
+
+    /**
+     * Dispatches at most one input and one output event to the handler.
+     *
+     * @return the number of events dispatched.
+     */
+    int dispatch() {
+        if (ioSession.isClosed()) {
+            if (!disconnected) {
+                disconnected = true;
+                getEventHandler().disconnected(this);
+                return 1;
+            }
+            return 0;
+        }
+        int count = 0;
+        try {
+            if (ioSession.isReadReady()) {
+                count++;
+                onInputReady();
+            }
+            if (!ioSession.isClosed() && ioSession.isWriteReady()) {
+                count++;
+                onOutputReady();
+            }
+        } catch (final Exception ex) {
+            onException(ex);
+        }
+        return count;
+    }
+
+    /**
+     * Returns {@code true} while delegated TLS tasks are being executed
+     * by another thread.
+     */
+    boolean isDelegatedTaskPending() {
+        final SSLIOSession tlsSession = tlsSessionRef.get();
+        return tlsSession != null && tlsSession.isDelegatedTaskPending();
+    }
+
+    private void onInputReady() throws Exception {
+        final SSLIOSession tlsSession = tlsSessionRef.get();
+        final IOEventHandler handler = getEventHandler();
+        if (tlsSession != null) {
+            if (tlsSession.isAppInputReady()) {
+                do {
+                    handler.inputReady(this);
+                } while (tlsSession.hasInputDate());
+            }
+            tlsSession.inboundTransport();
+        } else {
+            handler.inputReady(this);
+        }
+    }
+
+    private void onOutputReady() throws Exception {
+        final SSLIOSession tlsSession = tlsSessionRef.get();
+        final IOEventHandler handler = getEventHandler();
+        if (tlsSession != null) {
+            if (tlsSession.isAppOutputReady()) {
+                handler.outputReady(this);
+            }
+            tlsSession.outboundTransport();
+        } else {
+            handler.outputReady(this);
+        }
+    }
+
+    private void onException(final Exception cause) {
+        getEventHandler().exception(this, cause);
+        shutdown(ShutdownType.IMMEDIATE);
+    }
+
+    @Override
+    public String getId() {
+        return ioSession.getId();
+    }
+
+    @Override
+    public IOEventHandler getHandler() {
+        return ioSession.getHandler();
+    }
+
+    @Override
+    public void setHandler(final IOEventHandler handler) {
+        ioSession.setHandler(handler);
+    }
+
+    @Override
+    public void addLast(final Command command) {
+        getSessionImpl().addLast(command);
+    }
+
+    @Override
+    public void addFirst(final Command command) {
+        getSessionImpl().addFirst(command);
+    }
+
+    @Override
+    public Command getCommand() {
+        return getSessionImpl().getCommand();
+    }
+
+    @Override
+    public ByteChannel channel() {
+        return getSessionImpl().channel();
+    }
+
+    @Override
+    public SocketAddress getRemoteAddress() {
+        return ioSession.getRemoteAddress();
+    }
+
+    @Override
+    public SocketAddress getLocalAddress() {
+        return ioSession.getLocalAddress();
+    }
+
+    @Override
+    public int getEventMask() {
+        return getSessionImpl().getEventMask();
+    }
+
+    @Override
+    public void setEventMask(final int ops) {
+        getSessionImpl().setEventMask(ops);
+    }
+
+    @Override
+    public void setEvent(final int op) {
+        getSessionImpl().setEvent(op);
+    }
+
+    @Override
+    public void clearEvent(final int op) {
+        getSessionImpl().clearEvent(op);
+    }
+
+    @Override
+    public void close() {
+        getSessionImpl().close();
+    }
+
+    @Override
+    public int getStatus() {
+        return getSessionImpl().getStatus();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return getSessionImpl().isClosed();
+    }
+
+    @Override
+    public void shutdown(final ShutdownType shutdownType) {
+        getSessionImpl().shutdown(shutdownType);
+    }
+
+    @Override
+    public int getSocketTimeout() {
+        return ioSession.getSocketTimeout();
+    }
+
+    @Override
+    public void setSocketTimeout(final int timeout) {
+        ioSession.setSocketTimeout(timeout);
+    }
+
+    @Override
+    public IOEventLoop getEventLoop() {
+        return ioSession.getEventLoop();
+    }
+
+    @Override
+    public void startTls(
+            final SSLContext sslContext,
+            final SSLBufferManagement sslBufferManagement,
+            final SSLSessionInitializer initializer,
+            final SSLSessionVerifier verifier) {
+        startTls(sslContext, sslBufferManagement, initializer, verifier, null);
+    }
+
+    @Override
+    public void startTls(
+            final SSLContext sslContext,
+            final SSLBufferManagement sslBufferManagement,
+            final SSLSessionInitializer initializer,
+            final SSLSessionVerifier verifier,
+            final Executor delegatedTaskExecutor) {
+        if (!tlsSessionRef.compareAndSet(null, new SSLIOSession(
+                namedEndpoint,
+                ioSession,
+                namedEndpoint != null ? SSLMode.CLIENT : SSLMode.SERVER,
+                sslContext,
+                sslBufferManagement,
+                sslBufferManagement == SSLBufferManagement.POOLED ? sslBufferPool : SimpleByteBufferAllocator.HEAP,
+                initializer,
+                verifier,
+                new Callback<SSLIOSession>() {
+
+                    @Override
+                    public void execute(final SSLIOSession sslSession) {
+                        signalConnected();
+                    }
+
+                },
+                delegatedTaskExecutor,
+                new Callback<SSLIOSession>() {
+
+                    @Override
+                    public void execute(final SSLIOSession sslSession) {
+                        // Resume the handshake as if new input had arrived
+                        if (!ioSession.isClosed()) {
+                            try {
+                                onInputReady();
+                            } catch (final Exception ex) {
+                                onException(ex);
+                            }
+                        }
+                    }
+
+                }))) {
+            throw new IllegalStateException("TLS already activated");
+        }
+    }
+
+    @Override
+    public TlsDetails getTlsDetails() {
+        final SSLIOSession tlsSession = tlsSessionRef.get();
+        return tlsSession != null ? tlsSession.getTlsDetails() : null;
+    }
+
+    @Override
+    public String toString() {
+        return getSessionImpl().toString();
+    }
+
+}
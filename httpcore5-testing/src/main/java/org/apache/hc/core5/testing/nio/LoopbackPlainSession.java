@@ -0,0 +1,281 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.testing.nio;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hc.core5.io.ShutdownType;
+import org.apache.hc.core5.reactor.Command;
+import org.apache.hc.core5.reactor.IOEventHandler;
+import org.apache.hc.core5.reactor.IOEventLoop;
+import org.apache.hc.core5.reactor.IOSession;
+
+/**
+ * Plain in-memory I/O session underlying a {@link LoopbackIOSession}. Data written
+ * to the session channel becomes readable from the channel of the peer session.
+ */
+final class LoopbackPlainSession implements IOSession {
+
+    private final static AtomicLong COUNT = new AtomicLong(0);
+
+    private final String id;
+    private final LoopbackBuffer inbound;
+    private final LoopbackBuffer outbound;
+    private final SocketAddress localAddress;
+    private final SocketAddress remoteAddress;
+    private final LoopbackEventLoop eventLoop;
+    private final ByteChannel channel;
+    private final Deque<Command> commandQueue;
+    private final AtomicInteger eventMask;
+    private final AtomicInteger status;
+
+    private volatile IOEventHandler eventHandler;
+    private volatile int socketTimeout;
+
+    LoopbackPlainSession(
+            final LoopbackBuffer inbound,
+            final LoopbackBuffer outbound,
+            final SocketAddress localAddress,
+            final SocketAddress remoteAddress,
+            final LoopbackEventLoop eventLoop) {
+        this.id = String.format("loopback-%08X", COUNT.getAndIncrement());
+        this.inbound = inbound;
+        this.outbound = outbound;
+        this.localAddress = localAddress;
+        this.remoteAddress = remoteAddress;
+        this.eventLoop = eventLoop;
+        this.channel = new LoopbackByteChannel();
+        this.commandQueue = new ConcurrentLinkedDeque<>();
+        this.eventMask = new AtomicInteger(SelectionKey.OP_READ);
+        this.status = new AtomicInteger(ACTIVE);
+    }
+
+    @Override
+    public String getId() {
+        return this.id;
+    }
+
+    @Override
+    public IOEventHandler getHandler() {
+        return this.eventHandler;
+    }
+
+    @Override
+    public void setHandler(final IOEventHandler handler) {
+        this.eventHandler = handler;
+    }
+
+    @Override
+    public void addLast(final Command command) {
+        this.commandQueue.addLast(command);
+        setEvent(SelectionKey.OP_WRITE);
+    }
+
+    @Override
+    public void addFirst(final Command command) {
+        this.commandQueue.addFirst(command);
+        setEvent(SelectionKey.OP_WRITE);
+    }
+
+    @Override
+    public Command getCommand() {
+        return this.commandQueue.poll();
+    }
+
+    @Override
+    public ByteChannel channel() {
+        return this.channel;
+    }
+
+    @Override
+    public SocketAddress getRemoteAddress() {
+        return this.remoteAddress;
+    }
+
+    @Override
+    public SocketAddress getLocalAddress() {
+        return this.localAddress;
+    }
+
+    @Override
+    public int getEventMask() {
+        return this.eventMask.get();
+    }
+
+    @Override
+    public void setEventMask(final int ops) {
+        if (this.status.get() == CLOSED) {
+            return;
+        }
+        this.eventMask.set(ops);
+    }
+
+    @Override
+    public void setEvent(final int op) {
+        if (this.status.get() == CLOSED) {
+            return;
+        }
+        for (;;) {
+            final int current = this.eventMask.get();
+            if (this.eventMask.compareAndSet(current, current | op)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void clearEvent(final int op) {
+        if (this.status.get() == CLOSED) {
+            return;
+        }
+        for (;;) {
+            final int current = this.eventMask.get();
+            if (this.eventMask.compareAndSet(current, current & ~op)) {
+                return;
+            }
+        }
+    }
+
+    boolean isReadReady() {
+        return (this.eventMask.get() & SelectionKey.OP_READ) != 0 && this.inbound.isReadable();
+    }
+
+    boolean isWriteReady() {
+        return (this.eventMask.get() & SelectionKey.OP_WRITE) != 0 && this.outbound.isWritable();
+    }
+
+    @Override
+    public void close() {
+        if (this.status.compareAndSet(ACTIVE, CLOSED)) {
+            if (this.eventLoop.inEventLoop()) {
+                shutdownBuffers();
+            } else {
+                this.eventLoop.execute(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        shutdownBuffers();
+                    }
+
+                });
+            }
+        }
+    }
+
+    private void shutdownBuffers() {
+        this.outbound.shutdownOutput();
+        this.inbound.shutdownInput();
+    }
+
+    @Override
+    public int getStatus() {
+        return this.status.get();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return this.status.get() == CLOSED;
+    }
+
+    @Override
+    public void shutdown(final ShutdownType shutdownType) {
+        close();
+    }
+
+    @Override
+    public int getSocketTimeout() {
+        return this.socketTimeout;
+    }
+
+    @Override
+    public void setSocketTimeout(final int timeout) {
+        this.socketTimeout = timeout;
+    }
+
+    @Override
+    public IOEventLoop getEventLoop() {
+        return this.eventLoop;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder buffer = new StringBuilder();
+        buffer.append(this.id).append("[");
+        buffer.append(this.status.get() == CLOSED ? "CLOSED" : "ACTIVE");
+        buffer.append("][");
+        final int ops = this.eventMask.get();
+        if ((ops & SelectionKey.OP_READ) > 0) {
+            buffer.append('r');
+        }
+        if ((ops & SelectionKey.OP_WRITE) > 0) {
+            buffer.append('w');
+        }
+        buffer.append("]");
+        return buffer.toString();
+    }
+
+    class LoopbackByteChannel implements ByteChannel {
+
+        @Override
+        public int read(final ByteBuffer dst) throws IOException {
+            if (status.get() == CLOSED) {
+                throw new ClosedChannelException();
+            }
+            return inbound.read(dst);
+        }
+
+        @Override
+        public int write(final ByteBuffer src) throws IOException {
+            if (status.get() == CLOSED) {
+                throw new ClosedChannelException();
+            }
+            return outbound.write(src);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return status.get() != CLOSED;
+        }
+
+        @Override
+        public void close() throws IOException {
+            LoopbackPlainSession.this.close();
+        }
+
+    }
+
+}
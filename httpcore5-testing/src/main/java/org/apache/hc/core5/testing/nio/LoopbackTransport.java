@@ -0,0 +1,198 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.testing.nio;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+import org.apache.hc.core5.io.ShutdownType;
+import org.apache.hc.core5.net.URIAuthority;
+import org.apache.hc.core5.reactor.IOEventHandlerFactory;
+import org.apache.hc.core5.reactor.ssl.SSLBufferPool;
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.Asserts;
+
+/**
+ * In-process transport that connects a client and a server protocol handler
+ * through a pair of {@link LoopbackIOSession}s backed by in-memory ring buffers.
+ * <p>
+ * There are no sockets, selectors or I/O reactor threads involved. I/O events
+ * are dispatched by the thread calling {@link #runEvents()}, in the same order
+ * on every run. This makes it possible to measure the cost of the protocol layer
+ * in isolation and to run reproducible stress tests of protocol handlers such as
+ * HTTP/1.1 stream duplexers and HTTP/2 stream multiplexers.
+ * <p>
+ * Commands may be submitted to the sessions from any thread. They get processed
+ * by the next {@link #runEvents()} call.
+ */
+public final class LoopbackTransport {
+
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+    public static final int DEFAULT_MAX_ROUNDS = 10000;
+
+    private static final int SERVER_PORT = 80;
+    private static final int CLIENT_PORT = 49152;
+
+    private final IOEventHandlerFactory clientHandlerFactory;
+    private final IOEventHandlerFactory serverHandlerFactory;
+    private final LoopbackEventLoop eventLoop;
+    private final SSLBufferPool sslBufferPool;
+    private final LoopbackIOSession clientSession;
+    private final LoopbackIOSession serverSession;
+
+    private boolean connected;
+
+    /**
+     * @param clientHandlerFactory factory of the client side protocol handler.
+     * @param serverHandlerFactory factory of the server side protocol handler.
+     * @param bufferSize capacity of the ring buffer of either direction. It should
+     *   be large enough to hold a message head, as protocol handlers may suspend
+     *   output while waiting for the peer, for instance for a 100-continue response.
+     */
+    public LoopbackTransport(
+            final IOEventHandlerFactory clientHandlerFactory,
+            final IOEventHandlerFactory serverHandlerFactory,
+            final int bufferSize) {
+        this.clientHandlerFactory = Args.notNull(clientHandlerFactory, "Client handler factory");
+        this.serverHandlerFactory = Args.notNull(serverHandlerFactory, "Server handler factory");
+        Args.positive(bufferSize, "Buffer size");
+        this.eventLoop = new LoopbackEventLoop();
+        this.sslBufferPool = new SSLBufferPool();
+        final LoopbackBuffer clientToServer = new LoopbackBuffer(bufferSize);
+        final LoopbackBuffer serverToClient = new LoopbackBuffer(bufferSize);
+        final InetAddress loopback = InetAddress.getLoopbackAddress();
+        final InetSocketAddress clientAddress = new InetSocketAddress(loopback, CLIENT_PORT);
+        final InetSocketAddress serverAddress = new InetSocketAddress(loopback, SERVER_PORT);
+        this.clientSession = new LoopbackIOSession(new LoopbackPlainSession(
+                serverToClient, clientToServer, clientAddress, serverAddress, this.eventLoop),
+                new URIAuthority(serverAddress.getHostName(), SERVER_PORT), this.sslBufferPool);
+        this.serverSession = new LoopbackIOSession(new LoopbackPlainSession(
+                clientToServer, serverToClient, serverAddress, clientAddress, this.eventLoop),
+                null, this.sslBufferPool);
+    }
+
+    public LoopbackTransport(
+            final IOEventHandlerFactory clientHandlerFactory,
+            final IOEventHandlerFactory serverHandlerFactory) {
+        this(clientHandlerFactory, serverHandlerFactory, DEFAULT_BUFFER_SIZE);
+    }
+
+    public LoopbackIOSession getClientSession() {
+        return this.clientSession;
+    }
+
+    public LoopbackIOSession getServerSession() {
+        return this.serverSession;
+    }
+
+    /**
+     * Returns the pool shared by both sessions when TLS is started with
+     * {@link org.apache.hc.core5.reactor.ssl.SSLBufferManagement#POOLED}.
+     */
+    public SSLBufferPool getSslBufferPool() {
+        return this.sslBufferPool;
+    }
+
+    /**
+     * Creates the protocol handlers of both sessions and signals them
+     * that the connection has been established.
+     *
+     * @param attachment the attachment passed to the client handler factory.
+     */
+    public void connect(final Object attachment) {
+        Asserts.check(!this.connected, "Transport already connected");
+        this.connected = true;
+        this.eventLoop.enter();
+        try {
+            this.serverSession.setHandler(this.serverHandlerFactory.createHandler(this.serverSession, null));
+            this.clientSession.setHandler(this.clientHandlerFactory.createHandler(this.clientSession, attachment));
+            this.serverSession.connected();
+            this.clientSession.connected();
+        } finally {
+            this.eventLoop.exit();
+        }
+    }
+
+    /**
+     * Dispatches I/O events and event loop tasks until neither session
+     * has anything left to do or {@link #DEFAULT_MAX_ROUNDS} rounds have passed.
+     *
+     * @return the number of events and tasks dispatched.
+     */
+    public int runEvents() {
+        return runEvents(DEFAULT_MAX_ROUNDS);
+    }
+
+    /**
+     * Dispatches I/O events and event loop tasks until neither session
+     * has anything left to do or the given number of rounds have passed.
+     * Each round runs pending event loop tasks and dispatches at most
+     * one input and one output event to either session. Idle rounds spent
+     * waiting for delegated TLS tasks executed by another thread do not count.
+     *
+     * @param maxRounds the maximum number of rounds.
+     * @return the number of events and tasks dispatched.
+     */
+    public int runEvents(final int maxRounds) {
+        Asserts.check(this.connected, "Transport not connected");
+        this.eventLoop.enter();
+        try {
+            int total = 0;
+            int round = 0;
+            while (round < maxRounds) {
+                int count = this.eventLoop.runTasks();
+                count += this.clientSession.dispatch();
+                count += this.serverSession.dispatch();
+                if (count == 0) {
+                    if (this.clientSession.isDelegatedTaskPending() || this.serverSession.isDelegatedTaskPending()) {
+                        // Wait for delegated TLS tasks executed by another thread
+                        Thread.yield();
+                        continue;
+                    }
+                    break;
+                }
+                total += count;
+                round++;
+            }
+            return total;
+        } finally {
+            this.eventLoop.exit();
+        }
+    }
+
+    /**
+     * Closes both sessions and notifies their handlers.
+     */
+    public void close() {
+        this.clientSession.shutdown(ShutdownType.IMMEDIATE);
+        this.serverSession.shutdown(ShutdownType.IMMEDIATE);
+        if (this.connected) {
+            runEvents();
+        }
+    }
+
+}
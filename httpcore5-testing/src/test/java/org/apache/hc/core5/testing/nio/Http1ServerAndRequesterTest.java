@@ -27,13 +27,16 @@
 
 package org.apache.hc.core5.testing.nio;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.net.SocketAddress;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.Future;
 
+import org.apache.hc.core5.function.Resolver;
 import org.apache.hc.core5.function.Supplier;
 import org.apache.hc.core5.http.ContentType;
 import org.apache.hc.core5.http.EntityDetails;
@@ -58,6 +61,7 @@
 import org.apache.hc.core5.http.nio.entity.StringAsyncEntityConsumer;
 import org.apache.hc.core5.http.nio.entity.StringAsyncEntityProducer;
 import org.apache.hc.core5.io.ShutdownType;
+import org.apache.hc.core5.net.UnixDomainSocketSupport;
 import org.apache.hc.core5.reactor.ExceptionEvent;
 import org.apache.hc.core5.reactor.IOReactorConfig;
 import org.apache.hc.core5.reactor.ListenerEndpoint;
@@ -69,6 +73,7 @@
 import org.apache.logging.log4j.Logger;
 import org.hamcrest.CoreMatchers;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExternalResource;
@@ -386,4 +391,64 @@ public void testPipelinedRequests() throws Exception {
         }
     }
 
+    @Test
+    public void testSequentialRequestsUnixDomainSocket() throws Exception {
+        Assume.assumeTrue("Unix domain sockets not supported", UnixDomainSocketSupport.isSupported());
+        final File socketFile = File.createTempFile("httpcore", ".sock");
+        Assert.assertTrue(socketFile.delete());
+        final SocketAddress socketAddress = UnixDomainSocketSupport.createAddress(socketFile.getAbsolutePath());
+
+        server.start();
+        final Future<ListenerEndpoint> future = server.listen(socketAddress);
+        final ListenerEndpoint listener = future.get();
+        Assert.assertTrue(UnixDomainSocketSupport.isUnixDomainAddress(listener.getAddress()));
+
+        final HttpAsyncRequester unixRequester = AsyncRequesterBootstrap.bootstrap()
+                .setIOReactorConfig(IOReactorConfig.custom()
+                        .setSoTimeout(TIMEOUT)
+                        .build())
+                .setAddressResolver(new Resolver<HttpHost, SocketAddress>() {
+
+                    @Override
+                    public SocketAddress resolve(final HttpHost host) {
+                        return socketAddress;
+                    }
+
+                })
+                .setIOSessionListener(LoggingIOSessionListener.INSTANCE)
+                .setStreamListener(LoggingHttp1StreamListener.INSTANCE_CLIENT)
+                .setIOSessionDecorator(LoggingIOSessionDecorator.INSTANCE)
+                .create();
+        unixRequester.start();
+        try {
+            final HttpHost target = new HttpHost("localhost");
+            final Future<Message<HttpResponse, String>> resultFuture1 = unixRequester.execute(
+                    new BasicRequestProducer("POST", target, "/stuff",
+                            new StringAsyncEntityProducer("some stuff", ContentType.TEXT_PLAIN)),
+                    new BasicResponseConsumer<>(new StringAsyncEntityConsumer()), TIMEOUT, null);
+            final Message<HttpResponse, String> message1 = resultFuture1.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit());
+            Assert.assertThat(message1, CoreMatchers.notNullValue());
+            final HttpResponse response1 = message1.getHead();
+            Assert.assertThat(response1.getCode(), CoreMatchers.equalTo(HttpStatus.SC_OK));
+            final String body1 = message1.getBody();
+            Assert.assertThat(body1, CoreMatchers.equalTo("some stuff"));
+
+            final Future<Message<HttpResponse, String>> resultFuture2 = unixRequester.execute(
+                    new BasicRequestProducer("POST", target, "/no-keep-alive/other-stuff",
+                            new StringAsyncEntityProducer("some other stuff", ContentType.TEXT_PLAIN)),
+                    new BasicResponseConsumer<>(new StringAsyncEntityConsumer()), TIMEOUT, null);
+            final Message<HttpResponse, String> message2 = resultFuture2.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit());
+            Assert.assertThat(message2, CoreMatchers.notNullValue());
+            final HttpResponse response2 = message2.getHead();
+            Assert.assertThat(response2.getCode(), CoreMatchers.equalTo(HttpStatus.SC_OK));
+            final String body2 = message2.getBody();
+            Assert.assertThat(body2, CoreMatchers.equalTo("some other stuff"));
+        } finally {
+            unixRequester.shutdown(ShutdownType.GRACEFUL);
+        }
+
+        listener.close();
+        Assert.assertFalse(socketFile.exists());
+    }
+
 }
@@ -27,10 +27,18 @@
 
 package org.apache.hc.core5.testing.nio;
 
+import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.hc.core5.io.ShutdownType;
 import org.apache.hc.core5.reactor.DefaultListeningIOReactor;
@@ -156,4 +164,159 @@ public void testEndpointAlreadyBound() throws Exception {
         Assert.assertEquals(IOReactorStatus.SHUT_DOWN, ioreactor.getStatus());
     }
 
+    @Test
+    public void testReusePortEndpoint() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(10);
+        final IOReactorConfig reactorConfig = IOReactorConfig.custom()
+                .setIoThreadCount(2)
+                .setSoReusePort(true)
+                .build();
+        final DefaultListeningIOReactor reusePortReactor = new DefaultListeningIOReactor(new IOEventHandlerFactory() {
+
+            @Override
+            public IOEventHandler createHandler(final TlsCapableIOSession ioSession, final Object attachment) {
+                latch.countDown();
+                return new NoopIOEventHandlerFactory().createHandler(ioSession, attachment);
+            }
+
+        }, reactorConfig, null);
+        try {
+            reusePortReactor.start();
+
+            final ListenerEndpoint endpoint = reusePortReactor.listen(new InetSocketAddress(0)).get();
+            final int port = ((InetSocketAddress) endpoint.getAddress()).getPort();
+            Assert.assertEquals(1, reusePortReactor.getEndpoints().size());
+
+            final List<Socket> sockets = new ArrayList<>();
+            try {
+                for (int i = 0; i < 10; i++) {
+                    sockets.add(new Socket("localhost", port));
+                }
+                Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+            } finally {
+                for (final Socket socket : sockets) {
+                    socket.close();
+                }
+            }
+
+            endpoint.close();
+            Assert.assertEquals(0, reusePortReactor.getEndpoints().size());
+        } finally {
+            reusePortReactor.shutdown(ShutdownType.IMMEDIATE);
+        }
+    }
+
+    private static class ClosingIOEventHandlerFactory implements IOEventHandlerFactory {
+
+        final AtomicInteger handlerCount = new AtomicInteger(0);
+
+        @Override
+        public IOEventHandler createHandler(final TlsCapableIOSession ioSession, final Object attachment) {
+            handlerCount.incrementAndGet();
+            return new IOEventHandler() {
+
+                @Override
+                public void connected(final IOSession session) {
+                }
+
+                @Override
+                public void inputReady(final IOSession session) {
+                    try {
+                        if (session.channel().read(ByteBuffer.allocate(16)) == -1) {
+                            session.close();
+                        }
+                    } catch (final IOException ex) {
+                        session.close();
+                    }
+                }
+
+                @Override
+                public void outputReady(final IOSession session) {
+                }
+
+                @Override
+                public void timeout(final IOSession session) {
+                }
+
+                @Override
+                public void exception(final IOSession session, final Exception cause) {
+                }
+
+                @Override
+                public void disconnected(final IOSession session) {
+                }
+            };
+        }
+    }
+
+    private static void awaitHandlerCount(final ClosingIOEventHandlerFactory factory, final int count) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (factory.handlerCount.get() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(count, factory.handlerCount.get());
+    }
+
+    private static void assertConnectionLimit(final IOReactorConfig reactorConfig) throws Exception {
+        final ClosingIOEventHandlerFactory handlerFactory = new ClosingIOEventHandlerFactory();
+        final DefaultListeningIOReactor limitedReactor = new DefaultListeningIOReactor(handlerFactory, reactorConfig, null);
+        try {
+            limitedReactor.start();
+
+            final ListenerEndpoint endpoint = limitedReactor.listen(new InetSocketAddress(0)).get();
+            final int port = ((InetSocketAddress) endpoint.getAddress()).getPort();
+
+            final List<Socket> sockets = new ArrayList<>();
+            try {
+                for (int i = 0; i < 3; i++) {
+                    sockets.add(new Socket("localhost", port));
+                }
+                awaitHandlerCount(handlerFactory, 2);
+                Assert.assertEquals(2, endpoint.getConnectionCount());
+
+                // The third connection remains in the backlog while at capacity
+                Thread.sleep(200);
+                Assert.assertEquals(2, handlerFactory.handlerCount.get());
+
+                sockets.remove(0).close();
+                awaitHandlerCount(handlerFactory, 3);
+                Assert.assertEquals(2, endpoint.getConnectionCount());
+            } finally {
+                for (final Socket socket : sockets) {
+                    socket.close();
+                }
+            }
+        } finally {
+            limitedReactor.shutdown(ShutdownType.IMMEDIATE);
+        }
+    }
+
+    @Test
+    public void testMaxConnections() throws Exception {
+        final IOReactorConfig reactorConfig = IOReactorConfig.custom()
+                .setIoThreadCount(2)
+                .setMaxConnections(2)
+                .build();
+        assertConnectionLimit(reactorConfig);
+    }
+
+    @Test
+    public void testMaxConnectionsPerDispatcher() throws Exception {
+        final IOReactorConfig reactorConfig = IOReactorConfig.custom()
+                .setIoThreadCount(2)
+                .setMaxConnectionsPerDispatcher(1)
+                .build();
+        assertConnectionLimit(reactorConfig);
+    }
+
+    @Test
+    public void testMaxConnectionsReusePort() throws Exception {
+        final IOReactorConfig reactorConfig = IOReactorConfig.custom()
+                .setIoThreadCount(1)
+                .setSoReusePort(true)
+                .setMaxConnections(2)
+                .build();
+        assertConnectionLimit(reactorConfig);
+    }
+
 }
@@ -0,0 +1,425 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.testing.nio;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.config.CharCodingConfig;
+import org.apache.hc.core5.http.config.H1Config;
+import org.apache.hc.core5.http.impl.HttpProcessors;
+import org.apache.hc.core5.http.impl.nio.ClientHttp1IOEventHandlerFactory;
+import org.apache.hc.core5.http.impl.nio.ClientHttp1StreamDuplexerFactory;
+import org.apache.hc.core5.http.impl.nio.ServerHttp1IOEventHandlerFactory;
+import org.apache.hc.core5.http.impl.nio.ServerHttp1StreamDuplexerFactory;
+import org.apache.hc.core5.http.nio.AsyncServerExchangeHandler;
+import org.apache.hc.core5.http.nio.BasicRequestProducer;
+import org.apache.hc.core5.http.nio.BasicResponseConsumer;
+import org.apache.hc.core5.http.nio.HandlerFactory;
+import org.apache.hc.core5.http.nio.entity.StringAsyncEntityConsumer;
+import org.apache.hc.core5.http.nio.entity.StringAsyncEntityProducer;
+import org.apache.hc.core5.http.nio.ssl.BasicClientTlsStrategy;
+import org.apache.hc.core5.http.nio.ssl.BasicServerTlsStrategy;
+import org.apache.hc.core5.http.nio.ssl.TlsStrategy;
+import org.apache.hc.core5.http2.impl.Http2Processors;
+import org.apache.hc.core5.http2.impl.nio.ClientHttp2IOEventHandler;
+import org.apache.hc.core5.http2.impl.nio.ClientHttp2StreamMultiplexerFactory;
+import org.apache.hc.core5.http2.impl.nio.ServerHttp2IOEventHandler;
+import org.apache.hc.core5.http2.impl.nio.ServerHttp2StreamMultiplexerFactory;
+import org.apache.hc.core5.reactor.IOEventHandler;
+import org.apache.hc.core5.reactor.IOEventHandlerFactory;
+import org.apache.hc.core5.net.NamedEndpoint;
+import org.apache.hc.core5.net.URIAuthority;
+import org.apache.hc.core5.reactor.TlsCapableIOSession;
+import org.apache.hc.core5.reactor.ssl.SSLBufferManagement;
+import org.apache.hc.core5.reactor.ssl.SSLBufferPool;
+import org.apache.hc.core5.reactor.ssl.SSLClientSessionCache;
+import org.apache.hc.core5.reactor.ssl.SSLSessionInitializer;
+import org.apache.hc.core5.reactor.ssl.TlsDetails;
+import org.apache.hc.core5.testing.SSLTestContexts;
+import org.apache.hc.core5.util.TimeValue;
+import org.hamcrest.CoreMatchers;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestLoopbackTransport {
+
+    private static final HttpHost TARGET = new HttpHost("localhost");
+
+    private LoopbackTransport transport;
+
+    @After
+    public void cleanup() throws Exception {
+        if (transport != null) {
+            transport.close();
+        }
+    }
+
+    private static HandlerFactory<AsyncServerExchangeHandler> echoHandlerFactory() {
+        return new HandlerFactory<AsyncServerExchangeHandler>() {
+
+            @Override
+            public AsyncServerExchangeHandler create(final HttpRequest request) {
+                return new EchoHandler(2048);
+            }
+
+        };
+    }
+
+    private static LoopbackTransport createHttp1Transport(final int bufferSize) {
+        final IOEventHandlerFactory clientHandlerFactory = new ClientHttp1IOEventHandlerFactory(
+                new ClientHttp1StreamDuplexerFactory(
+                        HttpProcessors.client(), H1Config.DEFAULT, CharCodingConfig.DEFAULT));
+        final IOEventHandlerFactory serverHandlerFactory = new ServerHttp1IOEventHandlerFactory(
+                new ServerHttp1StreamDuplexerFactory(
+                        HttpProcessors.server(), echoHandlerFactory(), H1Config.DEFAULT, CharCodingConfig.DEFAULT, null),
+                null);
+        return new LoopbackTransport(clientHandlerFactory, serverHandlerFactory, bufferSize);
+    }
+
+    // The test key material is only usable with TLSv1.2 cipher suites
+    private static final SSLSessionInitializer TLS_V1_2 = new SSLSessionInitializer() {
+
+        @Override
+        public void initialize(final NamedEndpoint endpoint, final SSLEngine sslEngine) {
+            sslEngine.setEnabledProtocols(new String[] { "TLSv1.2" });
+        }
+
+    };
+
+    private static LoopbackTransport createHttp1TlsTransport(final Executor delegatedTaskExecutor) throws Exception {
+        return createHttp1TlsTransport(new BasicClientTlsStrategy(
+                SSLTestContexts.createClientSSLContext(), null, TLS_V1_2, null, delegatedTaskExecutor),
+                SSLTestContexts.createServerSSLContext(),
+                delegatedTaskExecutor);
+    }
+
+    private static LoopbackTransport createHttp1TlsTransport(
+            final TlsStrategy clientTlsStrategy,
+            final SSLContext serverSslContext,
+            final Executor delegatedTaskExecutor) throws Exception {
+        final TlsStrategy serverTlsStrategy = new BasicServerTlsStrategy(
+                new int[] { 80 }, serverSslContext, null, TLS_V1_2, null, delegatedTaskExecutor);
+        final IOEventHandlerFactory clientHandlerFactory = new ClientHttp1IOEventHandlerFactory(
+                new ClientHttp1StreamDuplexerFactory(
+                        HttpProcessors.client(), H1Config.DEFAULT, CharCodingConfig.DEFAULT));
+        final IOEventHandlerFactory serverHandlerFactory = new ServerHttp1IOEventHandlerFactory(
+                new ServerHttp1StreamDuplexerFactory(
+                        HttpProcessors.server(), echoHandlerFactory(), H1Config.DEFAULT, CharCodingConfig.DEFAULT, null),
+                serverTlsStrategy);
+        return new LoopbackTransport(
+                new IOEventHandlerFactory() {
+
+                    @Override
+                    public IOEventHandler createHandler(final TlsCapableIOSession ioSession, final Object attachment) {
+                        clientTlsStrategy.upgrade(
+                                ioSession,
+                                new HttpHost("localhost", 443, "https"),
+                                ioSession.getLocalAddress(),
+                                ioSession.getRemoteAddress(),
+                                attachment);
+                        return clientHandlerFactory.createHandler(ioSession, attachment);
+                    }
+
+                },
+                serverHandlerFactory);
+    }
+
+    private static LoopbackTransport createHttp2Transport(final int bufferSize) {
+        final ClientHttp2StreamMultiplexerFactory clientMultiplexerFactory = new ClientHttp2StreamMultiplexerFactory(
+                Http2Processors.client(), null);
+        final ServerHttp2StreamMultiplexerFactory serverMultiplexerFactory = new ServerHttp2StreamMultiplexerFactory(
+                Http2Processors.server(), echoHandlerFactory(), null, null, null);
+        return new LoopbackTransport(
+                new IOEventHandlerFactory() {
+
+                    @Override
+                    public IOEventHandler createHandler(final TlsCapableIOSession ioSession, final Object attachment) {
+                        return new ClientHttp2IOEventHandler(clientMultiplexerFactory.create(ioSession));
+                    }
+
+                },
+                new IOEventHandlerFactory() {
+
+                    @Override
+                    public IOEventHandler createHandler(final TlsCapableIOSession ioSession, final Object attachment) {
+                        return new ServerHttp2IOEventHandler(serverMultiplexerFactory.create(ioSession));
+                    }
+
+                },
+                bufferSize);
+    }
+
+    private static Future<Message<HttpResponse, String>> execute(
+            final ClientSessionEndpoint endpoint, final String path, final String content) {
+        return endpoint.execute(
+                new BasicRequestProducer("POST", TARGET, path,
+                        new StringAsyncEntityProducer(content, ContentType.TEXT_PLAIN)),
+                new BasicResponseConsumer<>(new StringAsyncEntityConsumer()), null);
+    }
+
+    private static void assertEcho(
+            final Future<Message<HttpResponse, String>> future, final String content) throws Exception {
+        Assert.assertTrue(future.isDone());
+        final Message<HttpResponse, String> message = future.get();
+        Assert.assertThat(message, CoreMatchers.notNullValue());
+        Assert.assertThat(message.getHead().getCode(), CoreMatchers.equalTo(HttpStatus.SC_OK));
+        Assert.assertThat(message.getBody(), CoreMatchers.equalTo(content));
+    }
+
+    private static String createContent(final int len) {
+        final StringBuilder buffer = new StringBuilder(len);
+        for (int i = 0; i < len; i++) {
+            buffer.append((char) ('a' + i % 26));
+        }
+        return buffer.toString();
+    }
+
+    @Test
+    public void testHttp1SequentialRequests() throws Exception {
+        transport = createHttp1Transport(LoopbackTransport.DEFAULT_BUFFER_SIZE);
+        transport.connect(null);
+        final ClientSessionEndpoint endpoint = new ClientSessionEndpoint(transport.getClientSession());
+        for (int i = 0; i < 100; i++) {
+            final String content = "some stuff " + i;
+            final Future<Message<HttpResponse, String>> future = execute(endpoint, "/stuff", content);
+            Assert.assertThat(transport.runEvents(), CoreMatchers.not(0));
+            assertEcho(future, content);
+        }
+    }
+
+    @Test
+    public void testHttp1PipelinedRequests() throws Exception {
+        transport = createHttp1Transport(1024);
+        transport.connect(null);
+        final ClientSessionEndpoint endpoint = new ClientSessionEndpoint(transport.getClientSession());
+        final String content = createContent(5000);
+        final List<Future<Message<HttpResponse, String>>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(execute(endpoint, "/stuff", content));
+        }
+        transport.runEvents(Integer.MAX_VALUE);
+        for (final Future<Message<HttpResponse, String>> future: futures) {
+            assertEcho(future, content);
+        }
+    }
+
+    @Test
+    public void testHttp2ConcurrentRequests() throws Exception {
+        transport = createHttp2Transport(LoopbackTransport.DEFAULT_BUFFER_SIZE);
+        transport.connect(null);
+        final ClientSessionEndpoint endpoint = new ClientSessionEndpoint(transport.getClientSession());
+        final String content = createContent(20000);
+        final List<Future<Message<HttpResponse, String>>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(execute(endpoint, "/stuff", content));
+        }
+        transport.runEvents(Integer.MAX_VALUE);
+        for (final Future<Message<HttpResponse, String>> future: futures) {
+            assertEcho(future, content);
+        }
+    }
+
+    @Test
+    public void testServerDisconnect() throws Exception {
+        transport = createHttp1Transport(LoopbackTransport.DEFAULT_BUFFER_SIZE);
+        transport.connect(null);
+        final ClientSessionEndpoint endpoint = new ClientSessionEndpoint(transport.getClientSession());
+        final Future<Message<HttpResponse, String>> future1 = execute(endpoint, "/stuff", "some stuff");
+        transport.runEvents();
+        assertEcho(future1, "some stuff");
+
+        transport.getServerSession().close();
+        final Future<Message<HttpResponse, String>> future2 = execute(endpoint, "/stuff", "some other stuff");
+        transport.runEvents();
+        Assert.assertTrue(transport.getClientSession().isClosed());
+        Assert.assertTrue(future2.isDone());
+        try {
+            future2.get();
+            Assert.fail("ExecutionException expected");
+        } catch (final ExecutionException | CancellationException expected) {
+        }
+    }
+
+    @Test
+    public void testHttp1TlsRequests() throws Exception {
+        transport = createHttp1TlsTransport(null);
+        transport.connect(null);
+        final ClientSessionEndpoint endpoint = new ClientSessionEndpoint(transport.getClientSession());
+        for (int i = 0; i < 10; i++) {
+            final String content = "some stuff " + i;
+            final Future<Message<HttpResponse, String>> future = execute(endpoint, "/stuff", content);
+            transport.runEvents();
+            assertEcho(future, content);
+        }
+        final TlsDetails tlsDetails = transport.getClientSession().getTlsDetails();
+        Assert.assertThat(tlsDetails, CoreMatchers.notNullValue());
+        Assert.assertThat(tlsDetails.getSSLSession().getProtocol(), CoreMatchers.equalTo("TLSv1.2"));
+    }
+
+    @Test
+    public void testHttp1TlsLargeRequests() throws Exception {
+        transport = createHttp1TlsTransport(null);
+        transport.connect(null);
+        final ClientSessionEndpoint endpoint = new ClientSessionEndpoint(transport.getClientSession());
+        final StringBuilder buffer = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            buffer.append((char) ('a' + i % 26));
+        }
+        for (int i = 0; i < 3; i++) {
+            // Bodies span several TLS records
+            final String content = buffer.toString() + buffer + buffer + buffer + i;
+            final Future<Message<HttpResponse, String>> future = execute(endpoint, "/stuff", content);
+            transport.runEvents();
+            assertEcho(future, content);
+        }
+    }
+
+    @Test
+    public void testHttp1TlsPooledBuffers() throws Exception {
+        transport = createHttp1TlsTransport(new BasicClientTlsStrategy(
+                SSLTestContexts.createClientSSLContext(), SSLBufferManagement.POOLED, TLS_V1_2, null),
+                SSLTestContexts.createServerSSLContext(),
+                null);
+        transport.connect(null);
+        final ClientSessionEndpoint endpoint = new ClientSessionEndpoint(transport.getClientSession());
+        for (int i = 0; i < 10; i++) {
+            final String content = "some stuff " + i;
+            final Future<Message<HttpResponse, String>> future = execute(endpoint, "/stuff", content);
+            transport.runEvents();
+            assertEcho(future, content);
+        }
+        final SSLBufferPool sslBufferPool = transport.getSslBufferPool();
+        Assert.assertTrue(sslBufferPool.getLeasedCount() + sslBufferPool.getAvailableCount() > 0);
+        transport.close();
+        transport = null;
+        Assert.assertEquals(0, sslBufferPool.getLeasedCount());
+        Assert.assertTrue(sslBufferPool.getAvailableCount() > 0);
+    }
+
+    @Test
+    public void testHttp1TlsDelegatedTasks() throws Exception {
+        final ExecutorService executorService = Executors.newSingleThreadExecutor();
+        final AtomicInteger taskCount = new AtomicInteger(0);
+        try {
+            transport = createHttp1TlsTransport(new Executor() {
+
+                @Override
+                public void execute(final Runnable command) {
+                    taskCount.incrementAndGet();
+                    executorService.execute(command);
+                }
+
+            });
+            transport.connect(null);
+            final ClientSessionEndpoint endpoint = new ClientSessionEndpoint(transport.getClientSession());
+            final String content = createContent(5000);
+            final Future<Message<HttpResponse, String>> future = execute(endpoint, "/stuff", content);
+            transport.runEvents();
+            assertEcho(future, content);
+            Assert.assertThat(taskCount.get(), CoreMatchers.not(0));
+            Assert.assertFalse(transport.getClientSession().isClosed());
+            Assert.assertFalse(transport.getServerSession().isClosed());
+        } finally {
+            transport.close();
+            transport = null;
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testHttp1TlsSessionResumption() throws Exception {
+        final SSLContext clientSslContext = SSLTestContexts.createClientSSLContext();
+        final SSLContext serverSslContext = SSLTestContexts.createServerSSLContext();
+        final SSLClientSessionCache sessionCache = new SSLClientSessionCache(clientSslContext);
+        final TlsStrategy clientTlsStrategy = new BasicClientTlsStrategy(
+                clientSslContext, sessionCache.initializer(TLS_V1_2), sessionCache.verifier(null));
+        final byte[][] sessionIds = new byte[3][];
+        for (int i = 0; i < 3; i++) {
+            if (i == 2) {
+                sessionCache.invalidate(new URIAuthority("localhost", 80));
+            }
+            transport = createHttp1TlsTransport(clientTlsStrategy, serverSslContext, null);
+            transport.connect(null);
+            final ClientSessionEndpoint endpoint = new ClientSessionEndpoint(transport.getClientSession());
+            final Future<Message<HttpResponse, String>> future = execute(endpoint, "/stuff", "some stuff");
+            transport.runEvents();
+            assertEcho(future, "some stuff");
+            sessionIds[i] = transport.getClientSession().getTlsDetails().getSSLSession().getId();
+            transport.getClientSession().close();
+            transport.runEvents();
+        }
+        // The second connection resumes the session, the third one follows its invalidation
+        Assert.assertArrayEquals(sessionIds[0], sessionIds[1]);
+        Assert.assertFalse(Arrays.equals(sessionIds[1], sessionIds[2]));
+        Assert.assertEquals(1, sessionCache.getHitCount());
+        Assert.assertEquals(2, sessionCache.getMissCount());
+        Assert.assertEquals(1, sessionCache.size());
+    }
+
+    @Test
+    public void testHttp1TlsSessionExpiry() throws Exception {
+        final SSLContext clientSslContext = SSLTestContexts.createClientSSLContext();
+        final SSLContext serverSslContext = SSLTestContexts.createServerSSLContext();
+        final SSLClientSessionCache sessionCache = new SSLClientSessionCache(
+                clientSslContext, 10, TimeValue.ofMillis(1));
+        final TlsStrategy clientTlsStrategy = new BasicClientTlsStrategy(
+                clientSslContext, sessionCache.initializer(TLS_V1_2), sessionCache.verifier(null));
+        for (int i = 0; i < 2; i++) {
+            transport = createHttp1TlsTransport(clientTlsStrategy, serverSslContext, null);
+            transport.connect(null);
+            final ClientSessionEndpoint endpoint = new ClientSessionEndpoint(transport.getClientSession());
+            final Future<Message<HttpResponse, String>> future = execute(endpoint, "/stuff", "some stuff");
+            transport.runEvents();
+            assertEcho(future, "some stuff");
+            transport.getClientSession().close();
+            transport.runEvents();
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(0, sessionCache.getHitCount());
+        Assert.assertEquals(2, sessionCache.getMissCount());
+    }
+
+}
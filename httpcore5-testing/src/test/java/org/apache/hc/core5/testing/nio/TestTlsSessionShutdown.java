@@ -0,0 +1,295 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.testing.nio;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSocket;
+
+import org.apache.hc.core5.io.ShutdownType;
+import org.apache.hc.core5.net.NamedEndpoint;
+import org.apache.hc.core5.reactor.DefaultListeningIOReactor;
+import org.apache.hc.core5.reactor.IOEventHandler;
+import org.apache.hc.core5.reactor.IOEventHandlerFactory;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.reactor.IOReactorStatus;
+import org.apache.hc.core5.reactor.IOSession;
+import org.apache.hc.core5.reactor.ListenerEndpoint;
+import org.apache.hc.core5.reactor.TlsCapableIOSession;
+import org.apache.hc.core5.reactor.ssl.SSLBufferManagement;
+import org.apache.hc.core5.reactor.ssl.SSLBufferPool;
+import org.apache.hc.core5.reactor.ssl.SSLSessionInitializer;
+import org.apache.hc.core5.testing.SSLTestContexts;
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Closes and shuts down TLS sessions over real sockets from threads other
+ * than the I/O reactor thread while application threads keep writing to them.
+ */
+public class TestTlsSessionShutdown {
+
+    private static final int SESSION_COUNT = 4;
+    private static final int WRITERS_PER_SESSION = 2;
+
+    private static final SSLSessionInitializer TLS_V1_2 = new SSLSessionInitializer() {
+
+        @Override
+        public void initialize(final NamedEndpoint endpoint, final SSLEngine sslEngine) {
+            sslEngine.setEnabledProtocols(new String[] { "TLSv1.2" });
+        }
+
+    };
+
+    private SSLBufferPool sslBufferPool;
+    private Queue<IOSession> sessions;
+    private CountDownLatch connectLatch;
+    private DefaultListeningIOReactor ioReactor;
+    private List<SSLSocket> sockets;
+    private List<Thread> threads;
+    private Queue<Throwable> failures;
+    private AtomicLong bytesWritten;
+
+    @Before
+    public void setup() throws Exception {
+        sslBufferPool = new SSLBufferPool();
+        sessions = new ConcurrentLinkedQueue<>();
+        connectLatch = new CountDownLatch(SESSION_COUNT);
+        sockets = new ArrayList<>();
+        threads = new ArrayList<>();
+        failures = new ConcurrentLinkedQueue<>();
+        bytesWritten = new AtomicLong(0);
+        final SSLContext serverSSLContext = SSLTestContexts.createServerSSLContext();
+        ioReactor = new DefaultListeningIOReactor(new IOEventHandlerFactory() {
+
+            @Override
+            public IOEventHandler createHandler(final TlsCapableIOSession ioSession, final Object attachment) {
+                ioSession.startTls(serverSSLContext, SSLBufferManagement.POOLED, TLS_V1_2, null);
+                return new DiscardingHandler();
+            }
+
+        }, IOReactorConfig.custom()
+                .setIoThreadCount(1)
+                .setSslBufferPool(sslBufferPool)
+                .build(), null);
+        ioReactor.start();
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        ioReactor.shutdown(ShutdownType.IMMEDIATE);
+        for (final SSLSocket socket : sockets) {
+            socket.close();
+        }
+        for (final Thread thread : threads) {
+            thread.join(5000);
+        }
+    }
+
+    private class DiscardingHandler implements IOEventHandler {
+
+        @Override
+        public void connected(final IOSession session) {
+            sessions.add(session);
+            connectLatch.countDown();
+        }
+
+        @Override
+        public void inputReady(final IOSession session) {
+            final ByteBuffer buffer = ByteBuffer.allocate(1024);
+            try {
+                while (session.channel().read(buffer) > 0) {
+                    buffer.clear();
+                }
+            } catch (final IOException ex) {
+                session.shutdown(ShutdownType.IMMEDIATE);
+            }
+        }
+
+        @Override
+        public void outputReady(final IOSession session) {
+            session.clearEvent(SelectionKey.OP_WRITE);
+        }
+
+        @Override
+        public void timeout(final IOSession session) {
+        }
+
+        @Override
+        public void exception(final IOSession session, final Exception cause) {
+            session.shutdown(ShutdownType.IMMEDIATE);
+        }
+
+        @Override
+        public void disconnected(final IOSession session) {
+        }
+
+    }
+
+    private Thread startThread(final Runnable runnable) {
+        final Thread thread = new Thread(runnable);
+        threads.add(thread);
+        thread.start();
+        return thread;
+    }
+
+    private void connect() throws Exception {
+        final ListenerEndpoint endpoint = ioReactor.listen(new InetSocketAddress(0)).get();
+        final int port = ((InetSocketAddress) endpoint.getAddress()).getPort();
+        final SSLContext clientSSLContext = SSLTestContexts.createClientSSLContext();
+        for (int i = 0; i < SESSION_COUNT; i++) {
+            final SSLSocket socket = (SSLSocket) clientSSLContext.getSocketFactory().createSocket("localhost", port);
+            socket.setEnabledProtocols(new String[] { "TLSv1.2" });
+            socket.startHandshake();
+            sockets.add(socket);
+            startThread(new Runnable() {
+
+                @Override
+                public void run() {
+                    final byte[] tmp = new byte[4096];
+                    try {
+                        final InputStream inStream = socket.getInputStream();
+                        while (inStream.read(tmp) != -1) {
+                        }
+                        socket.close();
+                    } catch (final IOException ignore) {
+                    }
+                }
+
+            });
+        }
+        Assert.assertTrue(connectLatch.await(5, TimeUnit.SECONDS));
+    }
+
+    private List<Thread> startWriters() throws Exception {
+        final List<Thread> writers = new ArrayList<>();
+        for (final IOSession session : sessions) {
+            for (int i = 0; i < WRITERS_PER_SESSION; i++) {
+                writers.add(startThread(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        final byte[] chunk = new byte[4096];
+                        try {
+                            for (;;) {
+                                final ByteBuffer buffer = ByteBuffer.wrap(chunk);
+                                final int bytes = session.channel().write(buffer);
+                                if (bytes > 0) {
+                                    bytesWritten.addAndGet(bytes);
+                                } else {
+                                    Thread.sleep(1);
+                                }
+                            }
+                        } catch (final IOException expected) {
+                            // the session has been closed
+                        } catch (final InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                        } catch (final RuntimeException ex) {
+                            failures.add(ex);
+                        }
+                    }
+
+                }));
+            }
+        }
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (bytesWritten.get() < 256 * 1024 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertTrue(bytesWritten.get() > 0);
+        return writers;
+    }
+
+    private void awaitWriters(final List<Thread> writers) throws Exception {
+        for (final Thread writer : writers) {
+            writer.join(5000);
+            Assert.assertFalse(writer.isAlive());
+        }
+        Assert.assertTrue(failures.toString(), failures.isEmpty());
+    }
+
+    private void awaitBuffersReleased() throws Exception {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (sslBufferPool.getLeasedCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(sslBufferPool.toString(), 0, sslBufferPool.getLeasedCount());
+    }
+
+    @Test
+    public void testCloseAndShutdownWhileWriting() throws Exception {
+        connect();
+        final List<Thread> writers = startWriters();
+        Assert.assertTrue(sslBufferPool.getLeasedCount() > 0);
+        int n = 0;
+        for (final IOSession session : sessions) {
+            if (n++ % 2 == 0) {
+                session.close();
+            } else {
+                session.shutdown(ShutdownType.IMMEDIATE);
+            }
+        }
+        awaitWriters(writers);
+        for (final IOSession session : sessions) {
+            Assert.assertTrue(session.isClosed());
+        }
+        awaitBuffersReleased();
+    }
+
+    @Test
+    public void testReactorShutdownWhileWriting() throws Exception {
+        connect();
+        final List<Thread> writers = startWriters();
+        Assert.assertTrue(sslBufferPool.getLeasedCount() > 0);
+        ioReactor.shutdown(ShutdownType.IMMEDIATE);
+        ioReactor.awaitShutdown(TimeValue.ofSeconds(5));
+        Assert.assertEquals(IOReactorStatus.SHUT_DOWN, ioReactor.getStatus());
+        for (final IOSession session : sessions) {
+            session.shutdown(ShutdownType.IMMEDIATE);
+        }
+        awaitWriters(writers);
+        awaitBuffersReleased();
+    }
+
+}
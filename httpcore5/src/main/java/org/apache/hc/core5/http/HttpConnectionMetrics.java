@@ -58,4 +58,12 @@ public interface HttpConnectionMetrics {
      */
     long getReceivedBytesCount();
 
+    /**
+     * Returns the size of the buffer data is currently received into,
+     * 0 if not available.
+     *
+     * @since 5.0
+     */
+    int getReceiveBufferSize();
+
 }
@@ -0,0 +1,53 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.http.config;
+
+/**
+ * Determines how the size of session input buffers is chosen.
+ *
+ * @since 5.0
+ */
+public enum BufferSizePolicy {
+
+    /**
+     * Reads are sized after the configured buffer size. The buffer
+     * grows as needed to accommodate large message elements and
+     * retains its size for the lifetime of the connection.
+     */
+    FIXED,
+
+    /**
+     * Reads are sized after recent read results. The read size doubles
+     * whenever a read fills the available space and halves after
+     * consecutive reads that use less than half of it, within
+     * the configured minimum and maximum buffer size. An empty buffer
+     * larger than the current read size is replaced with a smaller one.
+     */
+    ADAPTIVE
+
+}
@@ -27,7 +27,10 @@
 
 package org.apache.hc.core5.http.config;
 
+import org.apache.hc.core5.reactor.IdleBufferPolicy;
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.ByteBufferAllocator;
+import org.apache.hc.core5.util.SimpleByteBufferAllocator;
 
 /**
  * HTTP/1.1 protocol parameters.
@@ -49,9 +52,16 @@ public class H1Config {
     private final int maxLineLength;
     private final int maxHeaderCount;
     private final int maxEmptyLineCount;
+    private final IdleBufferPolicy idleBufferPolicy;
+    private final ByteBufferAllocator byteBufferAllocator;
+    private final BufferSizePolicy bufferSizePolicy;
+    private final int minBufferSize;
+    private final int maxBufferSize;
 
     H1Config(final int bufferSize, final int chunkSizeHint, final int waitForContinueTimeout,
-             final int maxLineLength, final int maxHeaderCount, final int maxEmptyLineCount) {
+             final int maxLineLength, final int maxHeaderCount, final int maxEmptyLineCount,
+             final IdleBufferPolicy idleBufferPolicy, final ByteBufferAllocator byteBufferAllocator,
+             final BufferSizePolicy bufferSizePolicy, final int minBufferSize, final int maxBufferSize) {
         super();
         this.bufferSize = bufferSize;
         this.chunkSizeHint = chunkSizeHint;
@@ -59,6 +69,11 @@ public class H1Config {
         this.maxLineLength = maxLineLength;
         this.maxHeaderCount = maxHeaderCount;
         this.maxEmptyLineCount = maxEmptyLineCount;
+        this.idleBufferPolicy = idleBufferPolicy;
+        this.byteBufferAllocator = byteBufferAllocator;
+        this.bufferSizePolicy = bufferSizePolicy;
+        this.minBufferSize = minBufferSize;
+        this.maxBufferSize = maxBufferSize;
     }
 
     public int getBufferSize() {
@@ -85,6 +100,55 @@ public int getMaxEmptyLineCount() {
         return this.maxEmptyLineCount;
     }
 
+    /**
+     * Determines whether session buffers are released while the connection
+     * has no message in progress.
+     *
+     * @since 5.0
+     */
+    public IdleBufferPolicy getIdleBufferPolicy() {
+        return idleBufferPolicy;
+    }
+
+    /**
+     * Allocator of session and content buffers. With an allocator of direct
+     * buffers socket reads and writes avoid the intermediate copy the JDK
+     * makes for heap buffers.
+     *
+     * @since 5.0
+     */
+    public ByteBufferAllocator getByteBufferAllocator() {
+        return byteBufferAllocator;
+    }
+
+    /**
+     * Determines whether the size of session input reads is fixed
+     * or adapts to recent read results.
+     *
+     * @since 5.0
+     */
+    public BufferSizePolicy getBufferSizePolicy() {
+        return bufferSizePolicy;
+    }
+
+    /**
+     * Lower bound of the read size with {@link BufferSizePolicy#ADAPTIVE}.
+     *
+     * @since 5.0
+     */
+    public int getMinBufferSize() {
+        return minBufferSize;
+    }
+
+    /**
+     * Upper bound of the read size with {@link BufferSizePolicy#ADAPTIVE}.
+     *
+     * @since 5.0
+     */
+    public int getMaxBufferSize() {
+        return maxBufferSize;
+    }
+
     @Override
     public String toString() {
         final StringBuilder builder = new StringBuilder();
@@ -94,6 +158,11 @@ public String toString() {
                 .append(", maxLineLength=").append(maxLineLength)
                 .append(", maxHeaderCount=").append(maxHeaderCount)
                 .append(", maxEmptyLineCount=").append(maxEmptyLineCount)
+                .append(", idleBufferPolicy=").append(idleBufferPolicy)
+                .append(", byteBufferAllocator=").append(byteBufferAllocator)
+                .append(", bufferSizePolicy=").append(bufferSizePolicy)
+                .append(", minBufferSize=").append(minBufferSize)
+                .append(", maxBufferSize=").append(maxBufferSize)
                 .append("]");
         return builder.toString();
     }
@@ -110,7 +179,12 @@ public static H1Config.Builder copy(final H1Config config) {
                 .setWaitForContinueTimeout(config.getWaitForContinueTimeout())
                 .setMaxHeaderCount(config.getMaxHeaderCount())
                 .setMaxLineLength(config.getMaxLineLength())
-                .setMaxEmptyLineCount(config.maxEmptyLineCount);
+                .setMaxEmptyLineCount(config.maxEmptyLineCount)
+                .setIdleBufferPolicy(config.getIdleBufferPolicy())
+                .setByteBufferAllocator(config.getByteBufferAllocator())
+                .setBufferSizePolicy(config.getBufferSizePolicy())
+                .setMinBufferSize(config.getMinBufferSize())
+                .setMaxBufferSize(config.getMaxBufferSize());
     }
 
     public static class Builder {
@@ -121,6 +195,11 @@ public static class Builder {
         private int maxLineLength;
         private int maxHeaderCount;
         private int maxEmptyLineCount;
+        private IdleBufferPolicy idleBufferPolicy;
+        private ByteBufferAllocator byteBufferAllocator;
+        private BufferSizePolicy bufferSizePolicy;
+        private int minBufferSize;
+        private int maxBufferSize;
 
         Builder() {
             this.bufferSize = -1;
@@ -129,6 +208,11 @@ public static class Builder {
             this.maxLineLength = -1;
             this.maxHeaderCount = -1;
             this.maxEmptyLineCount = 10;
+            this.idleBufferPolicy = IdleBufferPolicy.RETAIN;
+            this.byteBufferAllocator = SimpleByteBufferAllocator.HEAP;
+            this.bufferSizePolicy = BufferSizePolicy.FIXED;
+            this.minBufferSize = -1;
+            this.maxBufferSize = -1;
         }
 
         public Builder setBufferSize(final int bufferSize) {
@@ -161,8 +245,56 @@ public Builder setMaxEmptyLineCount(final int maxEmptyLineCount) {
             return this;
         }
 
+        /**
+         * @since 5.0
+         */
+        public Builder setIdleBufferPolicy(final IdleBufferPolicy idleBufferPolicy) {
+            this.idleBufferPolicy = idleBufferPolicy;
+            return this;
+        }
+
+        /**
+         * @since 5.0
+         */
+        public Builder setByteBufferAllocator(final ByteBufferAllocator byteBufferAllocator) {
+            this.byteBufferAllocator = byteBufferAllocator;
+            return this;
+        }
+
+        /**
+         * @since 5.0
+         */
+        public Builder setBufferSizePolicy(final BufferSizePolicy bufferSizePolicy) {
+            this.bufferSizePolicy = bufferSizePolicy;
+            return this;
+        }
+
+        /**
+         * @since 5.0
+         */
+        public Builder setMinBufferSize(final int minBufferSize) {
+            this.minBufferSize = minBufferSize;
+            return this;
+        }
+
+        /**
+         * @since 5.0
+         */
+        public Builder setMaxBufferSize(final int maxBufferSize) {
+            this.maxBufferSize = maxBufferSize;
+            return this;
+        }
+
         public H1Config build() {
-            return new H1Config(bufferSize > 0 ? bufferSize : 8192, chunkSizeHint, waitForContinueTimeout, maxLineLength, maxHeaderCount, maxEmptyLineCount);
+            final int size = bufferSize > 0 ? bufferSize : 8192;
+            final int minSize = Math.min(minBufferSize > 0 ? minBufferSize : 512, size);
+            final int maxSize = Math.max(maxBufferSize > 0 ? maxBufferSize : 65536, size);
+            return new H1Config(size, chunkSizeHint, waitForContinueTimeout,
+                    maxLineLength, maxHeaderCount, maxEmptyLineCount,
+                    idleBufferPolicy != null ? idleBufferPolicy : IdleBufferPolicy.RETAIN,
+                    byteBufferAllocator != null ? byteBufferAllocator : SimpleByteBufferAllocator.HEAP,
+                    bufferSizePolicy != null ? bufferSizePolicy : BufferSizePolicy.FIXED,
+                    minSize, maxSize);
         }
 
     }
@@ -43,6 +43,7 @@ public class BasicHttpConnectionMetrics implements HttpConnectionMetrics {
     private final HttpTransportMetrics outTransportMetric;
     private final AtomicLong requestCount;
     private final AtomicLong responseCount;
+    private volatile int receiveBufferSize;
 
     public BasicHttpConnectionMetrics(
             final HttpTransportMetrics inTransportMetric,
@@ -88,4 +89,16 @@ public void incrementResponseCount() {
         this.responseCount.incrementAndGet();
     }
 
+    @Override
+    public int getReceiveBufferSize() {
+        return this.receiveBufferSize;
+    }
+
+    /**
+     * @since 5.0
+     */
+    public void setReceiveBufferSize(final int receiveBufferSize) {
+        this.receiveBufferSize = receiveBufferSize;
+    }
+
 }
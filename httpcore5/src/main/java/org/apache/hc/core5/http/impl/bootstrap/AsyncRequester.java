@@ -33,10 +33,12 @@
 import java.util.List;
 import java.util.concurrent.Future;
 
+import org.apache.hc.core5.concurrent.Cancellable;
 import org.apache.hc.core5.concurrent.DefaultThreadFactory;
 import org.apache.hc.core5.concurrent.FutureCallback;
 import org.apache.hc.core5.function.Callback;
 import org.apache.hc.core5.function.Decorator;
+import org.apache.hc.core5.function.Resolver;
 import org.apache.hc.core5.http.HttpHost;
 import org.apache.hc.core5.http.URIScheme;
 import org.apache.hc.core5.io.ShutdownType;
@@ -46,6 +48,7 @@
 import org.apache.hc.core5.reactor.ExceptionEvent;
 import org.apache.hc.core5.reactor.IOEventHandlerFactory;
 import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.reactor.IOReactorMetrics;
 import org.apache.hc.core5.reactor.IOReactorService;
 import org.apache.hc.core5.reactor.IOReactorStatus;
 import org.apache.hc.core5.reactor.IOSession;
@@ -56,13 +59,22 @@
 public class AsyncRequester implements IOReactorService, ConnectionInitiator {
 
     private final DefaultConnectingIOReactor ioReactor;
-
+    private final Resolver<HttpHost, SocketAddress> addressResolver;
+
+    /**
+     * @param addressResolver resolver of socket addresses of hosts, for instance
+     *   of Unix domain socket addresses. Hosts it resolves to {@code null} are
+     *   connected to by host name and port. Can be {@code null}.
+     *
+     * @since 5.0
+     */
     public AsyncRequester(
             final IOEventHandlerFactory eventHandlerFactory,
             final IOReactorConfig ioReactorConfig,
             final Decorator<IOSession> ioSessionDecorator,
             final IOSessionListener sessionListener,
-            final Callback<IOSession> sessionShutdownCallback) {
+            final Callback<IOSession> sessionShutdownCallback,
+            final Resolver<HttpHost, SocketAddress> addressResolver) {
         this.ioReactor = new DefaultConnectingIOReactor(
                 eventHandlerFactory,
                 ioReactorConfig,
@@ -70,9 +82,25 @@ public AsyncRequester(
                 ioSessionDecorator,
                 sessionListener,
                 sessionShutdownCallback);
+        this.addressResolver = addressResolver;
+    }
+
+    public AsyncRequester(
+            final IOEventHandlerFactory eventHandlerFactory,
+            final IOReactorConfig ioReactorConfig,
+            final Decorator<IOSession> ioSessionDecorator,
+            final IOSessionListener sessionListener,
+            final Callback<IOSession> sessionShutdownCallback) {
+        this(eventHandlerFactory, ioReactorConfig, ioSessionDecorator, sessionListener, sessionShutdownCallback, null);
     }
 
-    private InetSocketAddress toSocketAddress(final HttpHost host) {
+    private SocketAddress toSocketAddress(final HttpHost host) {
+        if (addressResolver != null) {
+            final SocketAddress address = addressResolver.resolve(host);
+            if (address != null) {
+                return address;
+            }
+        }
         int port = host.getPort();
         if (port < 0) {
             final String scheme = host.getSchemeName();
@@ -83,7 +111,8 @@ private InetSocketAddress toSocketAddress(final HttpHost host) {
             }
         }
         final String hostName = host.getHostName();
-        return new InetSocketAddress(hostName, port);
+        // Left unresolved to be resolved by the I/O reactor without blocking the caller
+        return InetSocketAddress.createUnresolved(hostName, port);
     }
 
     @Override
@@ -122,6 +151,16 @@ public List<ExceptionEvent> getExceptionLog() {
         return ioReactor.getExceptionLog();
     }
 
+    @Override
+    public List<IOReactorMetrics> getMetrics() {
+        return ioReactor.getMetrics();
+    }
+
+    @Override
+    public Cancellable subscribeMetrics(final TimeValue interval, final Callback<IOReactorMetrics> callback) {
+        return ioReactor.subscribeMetrics(interval, callback);
+    }
+
     @Override
     public void initiateShutdown() {
         ioReactor.initiateShutdown();
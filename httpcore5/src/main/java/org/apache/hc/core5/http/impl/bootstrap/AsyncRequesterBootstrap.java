@@ -26,7 +26,10 @@
  */
 package org.apache.hc.core5.http.impl.bootstrap;
 
+import java.net.SocketAddress;
+
 import org.apache.hc.core5.function.Decorator;
+import org.apache.hc.core5.function.Resolver;
 import org.apache.hc.core5.http.ConnectionReuseStrategy;
 import org.apache.hc.core5.http.HttpHost;
 import org.apache.hc.core5.http.config.CharCodingConfig;
@@ -64,6 +67,7 @@ public class AsyncRequesterBootstrap {
     private TlsStrategy tlsStrategy;
     private Decorator<IOSession> ioSessionDecorator;
     private IOSessionListener sessionListener;
+    private Resolver<HttpHost, SocketAddress> addressResolver;
     private Http1StreamListener streamListener;
     private ConnPoolListener<HttpHost> connPoolListener;
 
@@ -161,6 +165,17 @@ public final AsyncRequesterBootstrap setIOSessionListener(final IOSessionListene
         return this;
     }
 
+    /**
+     * Assigns {@link Resolver} of socket addresses of hosts, for instance
+     * of Unix domain socket addresses.
+     *
+     * @since 5.0
+     */
+    public final AsyncRequesterBootstrap setAddressResolver(final Resolver<HttpHost, SocketAddress> addressResolver) {
+        this.addressResolver = addressResolver;
+        return this;
+    }
+
     /**
      * Assigns {@link Http1StreamListener} instance.
      */
@@ -199,7 +214,8 @@ public HttpAsyncRequester create() {
                 ioSessionDecorator,
                 sessionListener,
                 connPool,
-                tlsStrategy != null ? tlsStrategy : new BasicClientTlsStrategy());
+                tlsStrategy != null ? tlsStrategy : new BasicClientTlsStrategy(),
+                addressResolver);
     }
 
 }
@@ -33,6 +33,7 @@
 import java.util.Set;
 import java.util.concurrent.Future;
 
+import org.apache.hc.core5.concurrent.Cancellable;
 import org.apache.hc.core5.concurrent.DefaultThreadFactory;
 import org.apache.hc.core5.concurrent.FutureCallback;
 import org.apache.hc.core5.function.Callback;
@@ -45,6 +46,7 @@
 import org.apache.hc.core5.reactor.ExceptionEvent;
 import org.apache.hc.core5.reactor.IOEventHandlerFactory;
 import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.reactor.IOReactorMetrics;
 import org.apache.hc.core5.reactor.IOReactorService;
 import org.apache.hc.core5.reactor.IOReactorStatus;
 import org.apache.hc.core5.reactor.IOSession;
@@ -122,6 +124,16 @@ public List<ExceptionEvent> getExceptionLog() {
         return ioReactor.getExceptionLog();
     }
 
+    @Override
+    public List<IOReactorMetrics> getMetrics() {
+        return ioReactor.getMetrics();
+    }
+
+    @Override
+    public Cancellable subscribeMetrics(final TimeValue interval, final Callback<IOReactorMetrics> callback) {
+        return ioReactor.subscribeMetrics(interval, callback);
+    }
+
     @Override
     public void initiateShutdown() {
         ioReactor.initiateShutdown();
@@ -122,6 +122,48 @@ protected int flushToChannel() throws IOException {
         return bytesWritten;
     }
 
+    /**
+     * Flushes content of the session buffer followed by the content of the given
+     * buffers to the channel and updates transport metrics. Channels capable of
+     * gathering writes receive all of them with a single write operation.
+     *
+     * @param srcs sources.
+     * @return number of bytes written to the channel.
+     *
+     * @since 5.0
+     */
+    protected long flushToChannel(final ByteBuffer... srcs) throws IOException {
+        final long bytesWritten = this.buffer.flush(this.channel, srcs);
+        if (bytesWritten > 0) {
+            this.metrics.incrementBytesTransferred(bytesWritten);
+        }
+        return bytesWritten;
+    }
+
+    /**
+     * Flushes content of the session buffer followed by the content of the given
+     * buffer to the channel and updates transport metrics.
+     *
+     * @param src source.
+     * @param limit max number of bytes to transfer from the source.
+     * @return number of bytes transferred from the source.
+     *
+     * @since 5.0
+     */
+    protected int flushToChannel(final ByteBuffer src, final int limit) throws IOException {
+        final int oldLimit = src.limit();
+        if (src.remaining() > limit) {
+            src.limit(src.position() + limit);
+        }
+        final int oldPosition = src.position();
+        try {
+            flushToChannel(src);
+        } finally {
+            src.limit(oldLimit);
+        }
+        return src.position() - oldPosition;
+    }
+
     /**
      * Flushes content of the given buffer to the channel and updates transport metrics.
      *
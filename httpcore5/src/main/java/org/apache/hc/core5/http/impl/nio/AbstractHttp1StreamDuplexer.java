@@ -36,6 +36,7 @@
 import java.nio.channels.SelectionKey;
 import java.nio.channels.WritableByteChannel;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -50,6 +51,7 @@
 import org.apache.hc.core5.http.HttpMessage;
 import org.apache.hc.core5.http.Message;
 import org.apache.hc.core5.http.ProtocolVersion;
+import org.apache.hc.core5.http.config.BufferSizePolicy;
 import org.apache.hc.core5.http.config.CharCodingConfig;
 import org.apache.hc.core5.http.config.H1Config;
 import org.apache.hc.core5.http.impl.BasicEndpointDetails;
@@ -71,6 +73,9 @@
 import org.apache.hc.core5.reactor.Command;
 import org.apache.hc.core5.reactor.EventMask;
 import org.apache.hc.core5.reactor.IOEventHandler;
+import org.apache.hc.core5.reactor.IOEventLoop;
+import org.apache.hc.core5.reactor.IdleBufferPolicy;
+import org.apache.hc.core5.reactor.SharedReadBuffers;
 import org.apache.hc.core5.reactor.TlsCapableIOSession;
 import org.apache.hc.core5.reactor.ssl.SSLBufferManagement;
 import org.apache.hc.core5.reactor.ssl.SSLSessionInitializer;
@@ -93,10 +98,11 @@ private enum ConnectionState { READY, ACTIVE, GRACEFUL_SHUTDOWN, SHUTDOWN}
     private final BasicHttpConnectionMetrics connMetrics;
     private final NHttpMessageParser<IncomingMessage> incomingMessageParser;
     private final NHttpMessageWriter<OutgoingMessage> outgoingMessageWriter;
-    private final ByteBuffer contentBuffer;
     private final Lock outputLock;
     private final AtomicInteger outputRequests;
 
+    private ByteBuffer contentBuffer;
+
     private volatile Message<IncomingMessage, ContentDecoder> incomingMessage;
     private volatile Message<OutgoingMessage, ContentEncoder> outgoingMessage;
     private volatile ConnectionState connState = ConnectionState.READY;
@@ -113,17 +119,28 @@ private enum ConnectionState { READY, ACTIVE, GRACEFUL_SHUTDOWN, SHUTDOWN}
         this.ioSession = Args.notNull(ioSession, "I/O session");
         this.h1Config = h1Config != null ? h1Config : H1Config.DEFAULT;
         final int bufferSize = this.h1Config.getBufferSize();
-        this.inbuf = new SessionInputBufferImpl(bufferSize, bufferSize < 512 ? bufferSize : 512,
-                this.h1Config.getMaxLineLength(),
-                CharCodingSupport.createDecoder(charCodingConfig));
+        if (this.h1Config.getBufferSizePolicy() == BufferSizePolicy.ADAPTIVE) {
+            this.inbuf = new SessionInputBufferImpl(bufferSize, bufferSize < 512 ? bufferSize : 512,
+                    this.h1Config.getMaxLineLength(),
+                    CharCodingSupport.createDecoder(charCodingConfig),
+                    this.h1Config.getByteBufferAllocator(),
+                    this.h1Config.getMinBufferSize(),
+                    this.h1Config.getMaxBufferSize());
+        } else {
+            this.inbuf = new SessionInputBufferImpl(bufferSize, bufferSize < 512 ? bufferSize : 512,
+                    this.h1Config.getMaxLineLength(),
+                    CharCodingSupport.createDecoder(charCodingConfig),
+                    this.h1Config.getByteBufferAllocator());
+        }
         this.outbuf = new SessionOutputBufferImpl(bufferSize, bufferSize < 512 ? bufferSize : 512,
-                CharCodingSupport.createEncoder(charCodingConfig));
+                CharCodingSupport.createEncoder(charCodingConfig),
+                this.h1Config.getByteBufferAllocator());
         this.inTransportMetrics = new BasicHttpTransportMetrics();
         this.outTransportMetrics = new BasicHttpTransportMetrics();
         this.connMetrics = new BasicHttpConnectionMetrics(inTransportMetrics, outTransportMetrics);
+        this.connMetrics.setReceiveBufferSize(this.inbuf.getReceiveBufferSize());
         this.incomingMessageParser = incomingMessageParser;
         this.outgoingMessageWriter = outgoingMessageWriter;
-        this.contentBuffer = ByteBuffer.allocate(this.h1Config.getBufferSize());
         this.outputLock = new ReentrantLock();
         this.outputRequests = new AtomicInteger(0);
         this.connState = ConnectionState.READY;
@@ -228,6 +245,58 @@ public final void onConnect(final ByteBuffer prefeed) throws HttpException, IOEx
     }
 
     public final void onInput() throws HttpException, IOException {
+        final IOEventLoop eventLoop = ioSession.getEventLoop();
+        final SharedReadBuffers readBuffers = eventLoop instanceof SharedReadBuffers
+                ? (SharedReadBuffers) eventLoop : null;
+        final ByteBuffer readBuffer = readBuffers != null ? readBuffers.acquireReadBuffer() : null;
+        if (readBuffer == null) {
+            if (contentBuffer == null) {
+                contentBuffer = h1Config.getByteBufferAllocator().allocate(h1Config.getBufferSize());
+            }
+            processInput(contentBuffer);
+            releaseIdleInputBuffers();
+            return;
+        }
+        // Read into buffers of the I/O reactor thread and retain only leftovers
+        final ByteBuffer sharedContentBuffer = readBuffers.acquireReadBuffer();
+        inbuf.bind(readBuffer);
+        try {
+            processInput(sharedContentBuffer);
+        } finally {
+            inbuf.unbind();
+            readBuffers.releaseReadBuffer(sharedContentBuffer);
+            readBuffers.releaseReadBuffer(readBuffer);
+        }
+        releaseIdleInputBuffers();
+    }
+
+    private void releaseIdleInputBuffers() {
+        if (h1Config.getIdleBufferPolicy() == IdleBufferPolicy.RELEASE && incomingMessage == null) {
+            if (inbuf.release()) {
+                releaseContentBuffer();
+            }
+        }
+    }
+
+    private void releaseContentBuffer() {
+        if (contentBuffer != null) {
+            h1Config.getByteBufferAllocator().release(contentBuffer);
+            contentBuffer = null;
+        }
+    }
+
+    private void disposeBuffers() {
+        inbuf.dispose();
+        releaseContentBuffer();
+        outputLock.lock();
+        try {
+            outbuf.dispose();
+        } finally {
+            outputLock.unlock();
+        }
+    }
+
+    private void processInput(final ByteBuffer buffer) throws HttpException, IOException {
         while (connState.compareTo(ConnectionState.SHUTDOWN) < 0) {
             int totalBytesRead = 0;
             int messagesReceived = 0;
@@ -244,6 +313,7 @@ public final void onInput() throws HttpException, IOException {
                     if (bytesRead > 0) {
                         totalBytesRead += bytesRead;
                         inTransportMetrics.incrementBytesTransferred(bytesRead);
+                        connMetrics.setReceiveBufferSize(inbuf.getReceiveBufferSize());
                     }
                     final IncomingMessage messageHead = incomingMessageParser.parse(inbuf, bytesRead == -1);
                     if (messageHead != null) {
@@ -283,13 +353,13 @@ public final void onInput() throws HttpException, IOException {
                 final ContentDecoder contentDecoder = incomingMessage.getBody();
 
                 int bytesRead;
-                while ((bytesRead = contentDecoder.read(contentBuffer)) > 0) {
+                while ((bytesRead = contentDecoder.read(buffer)) > 0) {
                     if (bytesRead > 0) {
                         totalBytesRead += bytesRead;
                     }
-                    contentBuffer.flip();
-                    final int capacity = consumeData(contentBuffer);
-                    contentBuffer.clear();
+                    buffer.flip();
+                    final int capacity = consumeData(buffer);
+                    buffer.clear();
                     if (capacity <= 0) {
                         if (!contentDecoder.isCompleted()) {
                             ioSession.clearEvent(SelectionKey.OP_READ);
@@ -329,6 +399,9 @@ public final void onOutput() throws IOException, HttpException {
                     outTransportMetrics.incrementBytesTransferred(bytesWritten);
                 }
             }
+            if (h1Config.getIdleBufferPolicy() == IdleBufferPolicy.RELEASE && outgoingMessage == null) {
+                outbuf.release();
+            }
         } finally {
             outputLock.unlock();
         }
@@ -399,6 +472,7 @@ public final void onException(final Exception ex) {
 
     public final void onDisconnect() {
         disconnected();
+        disposeBuffers();
         for (;;) {
             final Command command = ioSession.getCommand();
             if (command != null) {
@@ -593,6 +667,16 @@ public void startTls(
         ioSession.startTls(sslContext, sslBufferManagement, initializer, verifier);
     }
 
+    @Override
+    public void startTls(
+            final SSLContext sslContext,
+            final SSLBufferManagement sslBufferManagement,
+            final SSLSessionInitializer initializer,
+            final SSLSessionVerifier verifier,
+            final Executor delegatedTaskExecutor) throws UnsupportedOperationException {
+        ioSession.startTls(sslContext, sslBufferManagement, initializer, verifier, delegatedTaskExecutor);
+    }
+
     @Override
     public void upgrade(final IOEventHandler eventHandler) {
         ioSession.setHandler(eventHandler);
@@ -32,6 +32,7 @@
 import java.nio.channels.WritableByteChannel;
 import java.util.List;
 
+import org.apache.hc.core5.http.Chars;
 import org.apache.hc.core5.http.FormattedHeader;
 import org.apache.hc.core5.http.Header;
 import org.apache.hc.core5.http.impl.BasicHttpTransportMetrics;
@@ -49,6 +50,7 @@ public class ChunkEncoder extends AbstractContentEncoder {
 
     private final int chunkSizeHint;
     private final CharArrayBuffer lineBuffer;
+    private final ByteBuffer crlf;
 
     /**
      * @param channel underlying channel.
@@ -65,6 +67,7 @@ public ChunkEncoder(
         super(channel, buffer, metrics);
         this.chunkSizeHint = chunkSizeHint > 0 ? chunkSizeHint : 0;
         this.lineBuffer = new CharArrayBuffer(16);
+        this.crlf = ByteBuffer.wrap(new byte[] {Chars.CR, Chars.LF});
     }
 
     public ChunkEncoder(
@@ -91,6 +94,37 @@ public int write(final ByteBuffer src) throws IOException {
             // 12345678\r\n
             // <chunk-data>\r\n
             avail -= 12;
+            if (avail > 0 && chunk > this.chunkSizeHint) {
+                // write the chunk header, the chunk data and the closing CRLF
+                // in one go bypassing the session buffer
+                if (avail < chunk) {
+                    chunk = avail;
+                }
+                this.lineBuffer.clear();
+                this.lineBuffer.append(Integer.toHexString(chunk));
+                this.buffer.writeLine(this.lineBuffer);
+                final int oldlimit = src.limit();
+                src.limit(src.position() + chunk);
+                this.crlf.clear();
+                final long bytesWritten;
+                try {
+                    bytesWritten = flushToChannel(src, this.crlf);
+                    // whatever could not be written must follow the chunk header
+                    if (src.hasRemaining()) {
+                        this.buffer.write(src);
+                    }
+                } finally {
+                    src.limit(oldlimit);
+                }
+                if (this.crlf.hasRemaining()) {
+                    this.buffer.write(this.crlf);
+                }
+                total += chunk;
+                if (bytesWritten == 0) {
+                    break;
+                }
+                continue;
+            }
             if (avail > 0) {
                 if (avail < chunk) {
                     // write no more than 'avail' bytes
@@ -29,6 +29,10 @@
 
 import java.nio.ByteBuffer;
 
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.ByteBufferAllocator;
+import org.apache.hc.core5.util.SimpleByteBufferAllocator;
+
 /**
  * A buffer that expand its capacity on demand. Internally, this class is backed
  * by an instance of {@link ByteBuffer}.
@@ -42,20 +46,39 @@ public class ExpandableBuffer {
     public final static int INPUT_MODE = 0;
     public final static int OUTPUT_MODE = 1;
 
+    private final int buffersize;
+    private final ByteBufferAllocator allocator;
+
     private int mode;
     private ByteBuffer buffer;
+    private boolean allocated;
 
     /**
      * Allocates buffer of the given size using the given allocator.
      *
      * @param buffersize the buffer size.
+     * @param allocator allocator of the underlying byte buffers.
+     *
+     * @since 5.0
      */
-    protected ExpandableBuffer(final int buffersize) {
+    protected ExpandableBuffer(final int buffersize, final ByteBufferAllocator allocator) {
         super();
-        this.buffer = ByteBuffer.allocate(buffersize);
+        this.buffersize = buffersize;
+        this.allocator = Args.notNull(allocator, "Byte buffer allocator");
+        this.buffer = allocator.allocate(buffersize);
+        this.allocated = true;
         this.mode = INPUT_MODE;
     }
 
+    /**
+     * Allocates buffer of the given size.
+     *
+     * @param buffersize the buffer size.
+     */
+    protected ExpandableBuffer(final int buffersize) {
+        this(buffersize, SimpleByteBufferAllocator.HEAP);
+    }
+
     /**
      * Returns the current mode:
      * <p>
@@ -87,6 +110,12 @@ protected void setOutputMode() {
      * Sets input mode. The buffer can now be written into.
      */
     protected void setInputMode() {
+        if (this.buffer.capacity() == 0 && this.buffersize > 0) {
+            // re-acquire a buffer released previously
+            replaceBuffer(this.allocator.allocate(this.buffersize), true);
+            this.mode = INPUT_MODE;
+            return;
+        }
         if (this.mode != INPUT_MODE) {
             if (this.buffer.hasRemaining()) {
                 this.buffer.compact();
@@ -97,11 +126,103 @@ protected void setInputMode() {
         }
     }
 
+    /**
+     * Releases the underlying byte buffer provided it holds no data, so that
+     * idle connections do not retain memory. A new buffer of the initial size
+     * is allocated as soon as data is written into this buffer again.
+     *
+     * @return {@code true} if the byte buffer has been released,
+     *   {@code false} if it still holds data.
+     *
+     * @since 5.0
+     */
+    public boolean release() {
+        setOutputMode();
+        if (this.buffer.hasRemaining()) {
+            return false;
+        }
+        if (this.buffer.capacity() > 0) {
+            replaceBuffer(ByteBuffer.allocate(0), false);
+        }
+        this.mode = INPUT_MODE;
+        return true;
+    }
+
+    /**
+     * Discards the content of this buffer and returns the underlying byte buffer
+     * to its allocator. A new buffer of the initial size is allocated as soon as
+     * data is written into this buffer again.
+     *
+     * @since 5.0
+     */
+    public void dispose() {
+        replaceBuffer(ByteBuffer.allocate(0), false);
+        this.mode = INPUT_MODE;
+    }
+
+    /**
+     * Replaces the underlying byte buffer with a newly allocated one of
+     * the given capacity provided this buffer holds no data.
+     *
+     * @param capacity the capacity of the new byte buffer.
+     * @return {@code true} if the byte buffer has been replaced,
+     *   {@code false} if it still holds data.
+     *
+     * @since 5.0
+     */
+    protected boolean reallocate(final int capacity) {
+        setOutputMode();
+        if (this.buffer.hasRemaining()) {
+            return false;
+        }
+        replaceBuffer(this.allocator.allocate(capacity), true);
+        this.mode = INPUT_MODE;
+        return true;
+    }
+
+    /**
+     * Replaces the underlying byte buffer with a newly allocated one just large
+     * enough to hold the content of this buffer and moves the content to it.
+     *
+     * @since 5.0
+     */
+    protected void reallocateToFit() {
+        setOutputMode();
+        final ByteBuffer newbuffer = this.allocator.allocate(this.buffer.remaining());
+        newbuffer.put(this.buffer);
+        replaceBuffer(newbuffer, true);
+        this.mode = INPUT_MODE;
+    }
+
+    private void replaceBuffer(final ByteBuffer newbuffer, final boolean newAllocated) {
+        final ByteBuffer oldbuffer = this.buffer;
+        final boolean oldAllocated = this.allocated;
+        this.buffer = newbuffer;
+        this.allocated = newAllocated;
+        if (oldAllocated && oldbuffer != newbuffer) {
+            this.allocator.release(oldbuffer);
+        }
+    }
+
+    /**
+     * Replaces the underlying byte buffer. The new buffer is expected to be
+     * in the input mode, that is, ready to be written into.
+     *
+     * @param buffer the new byte buffer.
+     *
+     * @since 5.0
+     */
+    protected void setBuffer(final ByteBuffer buffer) {
+        replaceBuffer(buffer, false);
+        this.mode = INPUT_MODE;
+    }
+
     private void expandCapacity(final int capacity) {
         final ByteBuffer oldbuffer = this.buffer;
-        this.buffer = ByteBuffer.allocate(capacity);
+        final ByteBuffer newbuffer = this.allocator.allocate(capacity);
         oldbuffer.flip();
-        this.buffer.put(oldbuffer);
+        newbuffer.put(oldbuffer);
+        replaceBuffer(newbuffer, true);
     }
 
     /**
@@ -116,7 +116,14 @@ public int write(final ByteBuffer src) throws IOException {
             }
             if (this.buffer.hasData()) {
                 final int chunk = nextChunk(src);
-                if (this.buffer.length() >= this.fragHint || chunk > 0) {
+                if (chunk > this.fragHint) {
+                    final int bytesWritten = flushToChannel(src, chunk);
+                    this.remaining -= bytesWritten;
+                    total += bytesWritten;
+                    if (bytesWritten < chunk) {
+                        break;
+                    }
+                } else if (this.buffer.length() >= this.fragHint || chunk > 0) {
                     final int bytesWritten = flushToChannel();
                     if (bytesWritten == 0) {
                         break;
@@ -40,6 +40,7 @@
 import org.apache.hc.core5.http.MessageConstraintException;
 import org.apache.hc.core5.http.nio.SessionInputBuffer;
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.ByteBufferAllocator;
 import org.apache.hc.core5.util.CharArrayBuffer;
 
 /**
@@ -53,8 +54,78 @@ public class SessionInputBufferImpl extends ExpandableBuffer implements SessionI
     private final CharsetDecoder chardecoder;
     private final int lineBuffersize;
     private final int maxLineLen;
+    private final int minBuffersize;
+    private final int maxBuffersize;
 
     private CharBuffer charbuffer;
+    private byte[] linebytes;
+    private ByteBuffer sharedBuffer;
+    private int readSize;
+    private int smallReads;
+
+    /**
+     *  Creates SessionInputBufferImpl instance that adapts the size of reads
+     *  to recent read results. The read size doubles whenever a read fills
+     *  the available space and halves after consecutive reads that use less
+     *  than half of it.
+     *
+     * @param buffersize initial input buffer size
+     * @param lineBuffersize buffer size for line operations. Has effect only if
+     *   {@code chardecoder} is not {@code null}.
+     * @param chardecoder chardecoder to be used for decoding HTTP protocol elements.
+     *   If {@code null} simple type cast will be used for byte to char conversion.
+     * @param maxLineLen maximum line length.
+     * @param allocator allocator of the underlying byte buffers.
+     * @param minBuffersize minimum read size.
+     * @param maxBuffersize maximum read size.
+     *
+     * @since 5.0
+     */
+    public SessionInputBufferImpl(
+            final int buffersize,
+            final int lineBuffersize,
+            final int maxLineLen,
+            final CharsetDecoder chardecoder,
+            final ByteBufferAllocator allocator,
+            final int minBuffersize,
+            final int maxBuffersize) {
+        super(buffersize, allocator);
+        this.lineBuffersize = Args.positive(lineBuffersize, "Line buffer size");
+        this.maxLineLen = maxLineLen > 0 ? maxLineLen : 0;
+        this.chardecoder = chardecoder;
+        this.minBuffersize = Args.positive(minBuffersize, "Min buffer size");
+        Args.check(maxBuffersize >= minBuffersize, "Max buffer size may not be less than min buffer size");
+        this.maxBuffersize = maxBuffersize;
+        this.readSize = Math.min(Math.max(buffersize, minBuffersize), maxBuffersize);
+    }
+
+    /**
+     *  Creates SessionInputBufferImpl instance.
+     *
+     * @param buffersize input buffer size
+     * @param lineBuffersize buffer size for line operations. Has effect only if
+     *   {@code chardecoder} is not {@code null}.
+     * @param chardecoder chardecoder to be used for decoding HTTP protocol elements.
+     *   If {@code null} simple type cast will be used for byte to char conversion.
+     * @param maxLineLen maximum line length.
+     *
+     * @param allocator allocator of the underlying byte buffers.
+     *
+     * @since 5.0
+     */
+    public SessionInputBufferImpl(
+            final int buffersize,
+            final int lineBuffersize,
+            final int maxLineLen,
+            final CharsetDecoder chardecoder,
+            final ByteBufferAllocator allocator) {
+        super(buffersize, allocator);
+        this.lineBuffersize = Args.positive(lineBuffersize, "Line buffer size");
+        this.maxLineLen = maxLineLen > 0 ? maxLineLen : 0;
+        this.chardecoder = chardecoder;
+        this.minBuffersize = 0;
+        this.maxBuffersize = 0;
+    }
 
     /**
      *  Creates SessionInputBufferImpl instance.
@@ -77,6 +148,8 @@ public SessionInputBufferImpl(
         this.lineBuffersize = Args.positive(lineBuffersize, "Line buffer size");
         this.maxLineLen = maxLineLen > 0 ? maxLineLen : 0;
         this.chardecoder = chardecoder;
+        this.minBuffersize = 0;
+        this.maxBuffersize = 0;
     }
 
     /**
@@ -124,14 +197,108 @@ public void put(final ByteBuffer src) {
         }
     }
 
+    /**
+     * Makes this buffer use the given shared buffer, for instance one
+     * owned by the I/O reactor thread, until {@link #unbind()} is called.
+     * Content retained by this buffer is moved to the shared buffer.
+     * Has no effect if the shared buffer is too small to accommodate
+     * the retained content.
+     *
+     * @param shared the shared buffer.
+     *
+     * @since 5.0
+     */
+    public void bind(final ByteBuffer shared) {
+        Args.notNull(shared, "Shared buffer");
+        if (this.sharedBuffer != null) {
+            return;
+        }
+        setOutputMode();
+        final ByteBuffer buffer = buffer();
+        if (buffer.remaining() > shared.capacity()) {
+            return;
+        }
+        shared.clear();
+        shared.put(buffer);
+        setBuffer(shared);
+        this.sharedBuffer = shared;
+    }
+
+    /**
+     * Stops using the shared buffer passed to {@link #bind(ByteBuffer)}.
+     * Leftover content is copied to a private buffer obtained from the allocator
+     * just large enough to hold it. Without leftovers no private buffer is
+     * retained at all.
+     *
+     * @since 5.0
+     */
+    public void unbind() {
+        final ByteBuffer shared = this.sharedBuffer;
+        if (shared == null) {
+            return;
+        }
+        this.sharedBuffer = null;
+        if (buffer() != shared) {
+            // the shared buffer has been outgrown and replaced already
+            return;
+        }
+        setOutputMode();
+        if (shared.hasRemaining()) {
+            reallocateToFit();
+        } else {
+            release();
+        }
+    }
+
     @Override
     public int fill(final ReadableByteChannel channel) throws IOException {
         Args.notNull(channel, "Channel");
+        final boolean adaptive = this.maxBuffersize > 0 && this.sharedBuffer == null;
+        if (adaptive) {
+            final int capacity = buffer().capacity();
+            // resize the buffer to the current read size while it is empty. Allocators
+            // may round capacities up, so only shrink buffers well above the read size
+            if (capacity < this.readSize || capacity >> 1 > this.readSize) {
+                reallocate(this.readSize);
+            }
+        }
         setInputMode();
         if (!buffer().hasRemaining()) {
             expand();
+        } else if (adaptive && buffer().remaining() < this.readSize) {
+            ensureCapacity(buffer().position() + this.readSize);
+        }
+        final int space = buffer().remaining();
+        final int bytesRead = channel.read(buffer());
+        if (adaptive && bytesRead > 0) {
+            adaptReadSize(bytesRead, Math.min(space, this.readSize));
+        }
+        return bytesRead;
+    }
+
+    private void adaptReadSize(final int bytesRead, final int space) {
+        if (bytesRead >= space) {
+            this.readSize = this.readSize <= this.maxBuffersize >> 1 ? this.readSize << 1 : this.maxBuffersize;
+            this.smallReads = 0;
+        } else if (bytesRead < this.readSize >> 1) {
+            this.smallReads++;
+            if (this.smallReads >= 2) {
+                this.readSize = Math.max(this.readSize >> 1, this.minBuffersize);
+                this.smallReads = 0;
+            }
+        } else {
+            this.smallReads = 0;
         }
-        return channel.read(buffer());
+    }
+
+    /**
+     * Returns the size of the buffer data is read into: the current read size
+     * if this buffer adapts the size of reads, the buffer capacity otherwise.
+     *
+     * @since 5.0
+     */
+    public int getReceiveBufferSize() {
+        return this.maxBuffersize > 0 ? this.readSize : buffer().capacity();
     }
 
     @Override
@@ -244,8 +411,14 @@ public boolean readLine(
                 linebuffer.append(b, off, len);
                 buffer().position(off + len);
             } else {
+                // Copy content of direct buffers in bulk
+                if (this.linebytes == null) {
+                    this.linebytes = new byte[this.lineBuffersize];
+                }
                 while (buffer().hasRemaining()) {
-                    linebuffer.append((char) (buffer().get() & 0xff));
+                    final int len = Math.min(buffer().remaining(), this.linebytes.length);
+                    buffer().get(this.linebytes, 0, len);
+                    linebuffer.append(this.linebytes, 0, len);
                 }
             }
         } else {
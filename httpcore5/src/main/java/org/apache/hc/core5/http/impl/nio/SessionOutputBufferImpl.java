@@ -30,6 +30,7 @@
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
+import java.nio.channels.GatheringByteChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.nio.charset.CharacterCodingException;
@@ -40,6 +41,7 @@
 import org.apache.hc.core5.http.Chars;
 import org.apache.hc.core5.http.nio.SessionOutputBuffer;
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.ByteBufferAllocator;
 import org.apache.hc.core5.util.CharArrayBuffer;
 
 /**
@@ -56,6 +58,30 @@ public class SessionOutputBufferImpl extends ExpandableBuffer implements Session
     private final int lineBuffersize;
 
     private CharBuffer charbuffer;
+    private byte[] linebytes;
+
+    /**
+     *  Creates SessionOutputBufferImpl instance.
+     *
+     * @param buffersize input buffer size
+     * @param lineBuffersize buffer size for line operations. Has effect only if
+     *   {@code charencoder} is not {@code null}.
+     * @param charencoder charencoder to be used for encoding HTTP protocol elements.
+     *   If {@code null} simple type cast will be used for char to byte conversion.
+     *
+     * @param allocator allocator of the underlying byte buffers.
+     *
+     * @since 5.0
+     */
+    public SessionOutputBufferImpl(
+            final int buffersize,
+            final int lineBuffersize,
+            final CharsetEncoder charencoder,
+            final ByteBufferAllocator allocator) {
+        super(buffersize, allocator);
+        this.lineBuffersize = Args.positive(lineBuffersize, "Line buffer size");
+        this.charencoder = charencoder;
+    }
 
     /**
      *  Creates SessionOutputBufferImpl instance.
@@ -110,6 +136,27 @@ public int flush(final WritableByteChannel channel) throws IOException {
         return channel.write(buffer());
     }
 
+    @Override
+    public long flush(final WritableByteChannel channel, final ByteBuffer... srcs) throws IOException {
+        Args.notNull(channel, "Channel");
+        Args.notNull(srcs, "Sources");
+        setOutputMode();
+        final ByteBuffer[] buffers = new ByteBuffer[srcs.length + 1];
+        buffers[0] = buffer();
+        System.arraycopy(srcs, 0, buffers, 1, srcs.length);
+        if (channel instanceof GatheringByteChannel) {
+            return ((GatheringByteChannel) channel).write(buffers);
+        }
+        long bytesWritten = 0;
+        for (final ByteBuffer buffer : buffers) {
+            bytesWritten += channel.write(buffer);
+            if (buffer.hasRemaining()) {
+                break;
+            }
+        }
+        return bytesWritten;
+    }
+
     @Override
     public void write(final ByteBuffer src) {
         if (src == null) {
@@ -166,8 +213,19 @@ public void writeLine(final CharArrayBuffer linebuffer) throws CharacterCodingEx
                     }
                     buffer().position(off + len);
                 } else {
-                    for (int i = 0; i < linebuffer.length(); i++) {
-                        buffer().put((byte) linebuffer.charAt(i));
+                    // Copy to direct buffers in bulk
+                    if (this.linebytes == null) {
+                        this.linebytes = new byte[this.lineBuffersize];
+                    }
+                    final int len = linebuffer.length();
+                    int off = 0;
+                    while (off < len) {
+                        final int chunk = Math.min(len - off, this.linebytes.length);
+                        for (int i = 0; i < chunk; i++) {
+                            this.linebytes[i] = (byte) linebuffer.charAt(off + i);
+                        }
+                        buffer().put(this.linebytes, 0, chunk);
+                        off += chunk;
                     }
                 }
             } else {
@@ -78,6 +78,24 @@ public interface SessionOutputBuffer {
     int flush(WritableByteChannel channel)
         throws IOException;
 
+    /**
+     * Makes an attempt to flush the content of this buffer followed by
+     * the content of the source buffers to the given destination
+     * {@link WritableByteChannel}. If the channel is
+     * a {@link java.nio.channels.GatheringByteChannel} they all are written
+     * with a single operation without copying the sources. A source
+     * is left untouched unless everything preceding it has been flushed.
+     *
+     * @param channel the destination channel.
+     * @param srcs the source buffers.
+     * @return The total number of bytes written, possibly zero.
+     * @throws IOException in case of an I/O error.
+     *
+     * @since 5.0
+     */
+    long flush(WritableByteChannel channel, ByteBuffer... srcs)
+        throws IOException;
+
     /**
      * Copies content of the source buffer into this buffer. The capacity of
      * the destination will be expanded in order to accommodate the entire
@@ -35,26 +35,43 @@
 import org.apache.hc.core5.http.nio.DataStreamChannel;
 import org.apache.hc.core5.http.nio.StreamChannel;
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.ByteBufferAllocator;
+import org.apache.hc.core5.util.SimpleByteBufferAllocator;
 
 /**
  * @since 5.0
  */
 public abstract class AbstractBinAsyncEntityProducer implements AsyncEntityProducer {
 
-    private final ByteBuffer bytebuf;
+    private final int bufferSize;
     private final int fragmentSizeHint;
     private final ContentType contentType;
+    private final ByteBufferAllocator allocator;
 
+    private ByteBuffer bytebuf;
     private volatile boolean endStream;
 
+    /**
+     * @param allocator allocator of the content buffer. The buffer is allocated
+     *   when content is first produced and released once the stream has ended
+     *   or the resources of the producer are released.
+     */
     public AbstractBinAsyncEntityProducer(
             final int bufferSize,
             final int fragmentSizeHint,
-            final ContentType contentType) {
-        Args.positive(bufferSize, "Buffer size");
-        this.bytebuf = ByteBuffer.allocate(bufferSize);
+            final ContentType contentType,
+            final ByteBufferAllocator allocator) {
+        this.bufferSize = Args.positive(bufferSize, "Buffer size");
         this.fragmentSizeHint = fragmentSizeHint >= 0 ? fragmentSizeHint : bufferSize / 2;
         this.contentType = contentType;
+        this.allocator = Args.notNull(allocator, "Byte buffer allocator");
+    }
+
+    public AbstractBinAsyncEntityProducer(
+            final int bufferSize,
+            final int fragmentSizeHint,
+            final ContentType contentType) {
+        this(bufferSize, fragmentSizeHint, contentType, SimpleByteBufferAllocator.HEAP);
     }
 
     protected abstract void produceData(StreamChannel<ByteBuffer> channel) throws IOException;
@@ -81,6 +98,9 @@ public Set<String> getTrailerNames() {
 
     @Override
     public final void produce(final DataStreamChannel channel) throws IOException {
+        if (bytebuf == null) {
+            bytebuf = allocator.allocate(bufferSize);
+        }
         produceData(new StreamChannel<ByteBuffer>() {
 
             @Override
@@ -122,7 +142,24 @@ public void endStream() throws IOException {
         }
         if (bytebuf.position() == 0 && endStream) {
             channel.endStream();
+            releaseBuffer();
+        }
+    }
+
+    private void releaseBuffer() {
+        if (bytebuf != null) {
+            allocator.release(bytebuf);
+            bytebuf = null;
         }
     }
 
+    /**
+     * Releases the content buffer. Subclasses overriding this method must
+     * call the super method.
+     */
+    @Override
+    public void releaseResources() {
+        releaseBuffer();
+    }
+
 }
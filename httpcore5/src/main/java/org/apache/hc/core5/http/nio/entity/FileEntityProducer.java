@@ -37,6 +37,8 @@
 import org.apache.hc.core5.http.nio.AsyncEntityProducer;
 import org.apache.hc.core5.http.nio.DataStreamChannel;
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.ByteBufferAllocator;
+import org.apache.hc.core5.util.SimpleByteBufferAllocator;
 
 /**
  * @since 5.0
@@ -44,20 +46,36 @@
 public class FileEntityProducer implements AsyncEntityProducer {
 
     private final File file;
-    private final ByteBuffer bytebuf;
+    private final int bufferSize;
     private final long length;
     private final ContentType contentType;
+    private final ByteBufferAllocator allocator;
     private final AtomicReference<Exception> exception;
 
+    private ByteBuffer bytebuf;
     private RandomAccessFile accessFile;
     private boolean eof;
 
-    public FileEntityProducer(final File file, final int bufferSize, final ContentType contentType) {
+    /**
+     * @param allocator allocator of the content buffer. The buffer is allocated
+     *   when content is first produced and released once the file has been sent
+     *   or the resources of the producer are released.
+     */
+    public FileEntityProducer(
+            final File file,
+            final int bufferSize,
+            final ContentType contentType,
+            final ByteBufferAllocator allocator) {
         this.file = Args.notNull(file, "File");
         this.length = file.length();
         this.contentType = contentType;
+        this.allocator = Args.notNull(allocator, "Byte buffer allocator");
         this.exception = new AtomicReference<>(null);
-        this.bytebuf = ByteBuffer.allocate((int)(bufferSize > this.length ? bufferSize : this.length));
+        this.bufferSize = (int)(bufferSize > this.length ? bufferSize : this.length);
+    }
+
+    public FileEntityProducer(final File file, final int bufferSize, final ContentType contentType) {
+        this(file, bufferSize, contentType, SimpleByteBufferAllocator.HEAP);
     }
 
     public FileEntityProducer(final File file, final ContentType contentType) {
@@ -103,6 +121,9 @@ public final void produce(final DataStreamChannel channel) throws IOException {
         if (accessFile == null) {
             accessFile = new RandomAccessFile(file, "r");
         }
+        if (bytebuf == null) {
+            bytebuf = allocator.allocate(bufferSize);
+        }
         if (!eof) {
             final int bytesRead = accessFile.getChannel().read(bytebuf);
             if (bytesRead < 0) {
@@ -133,6 +154,10 @@ public final Exception getException() {
 
     @Override
     public void releaseResources() {
+        if (bytebuf != null) {
+            allocator.release(bytebuf);
+            bytebuf = null;
+        }
         if (accessFile != null) {
             try {
                 accessFile.close();
@@ -28,6 +28,7 @@
 package org.apache.hc.core5.http.nio.ssl;
 
 import java.net.SocketAddress;
+import java.util.concurrent.Executor;
 
 import javax.net.ssl.SSLContext;
 
@@ -52,16 +53,33 @@ public class BasicClientTlsStrategy implements TlsStrategy {
     private final SSLBufferManagement sslBufferManagement;
     private final SSLSessionInitializer initializer;
     private final SSLSessionVerifier verifier;
+    private final Executor delegatedTaskExecutor;
 
+    /**
+     * @param delegatedTaskExecutor executor of delegated tasks of TLS handshakes.
+     *   If {@code null} delegated tasks are executed by the I/O reactor thread.
+     *
+     * @since 5.0
+     */
     public BasicClientTlsStrategy(
             final SSLContext sslContext,
             final SSLBufferManagement sslBufferManagement,
             final SSLSessionInitializer initializer,
-            final SSLSessionVerifier verifier) {
+            final SSLSessionVerifier verifier,
+            final Executor delegatedTaskExecutor) {
         this.sslContext = Args.notNull(sslContext, "SSL context");
         this.sslBufferManagement = sslBufferManagement;
         this.initializer = initializer;
         this.verifier = verifier;
+        this.delegatedTaskExecutor = delegatedTaskExecutor;
+    }
+
+    public BasicClientTlsStrategy(
+            final SSLContext sslContext,
+            final SSLBufferManagement sslBufferManagement,
+            final SSLSessionInitializer initializer,
+            final SSLSessionVerifier verifier) {
+        this(sslContext, sslBufferManagement, initializer, verifier, null);
     }
 
     public BasicClientTlsStrategy(
@@ -94,7 +112,7 @@ public boolean upgrade(
             final Object attachment) {
         final String scheme = host != null ? host.getSchemeName() : null;
         if (URIScheme.HTTPS.same(scheme)) {
-            tlsSession.startTls(sslContext, sslBufferManagement, initializer, verifier);
+            tlsSession.startTls(sslContext, sslBufferManagement, initializer, verifier, delegatedTaskExecutor);
             return true;
         }
         return false;
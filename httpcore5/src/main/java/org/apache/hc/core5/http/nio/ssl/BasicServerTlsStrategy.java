@@ -29,6 +29,7 @@
 
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
+import java.util.concurrent.Executor;
 
 import javax.net.ssl.SSLContext;
 
@@ -53,18 +54,36 @@ public class BasicServerTlsStrategy implements TlsStrategy {
     private final SSLBufferManagement sslBufferManagement;
     private final SSLSessionInitializer initializer;
     private final SSLSessionVerifier verifier;
+    private final Executor delegatedTaskExecutor;
 
+    /**
+     * @param delegatedTaskExecutor executor of delegated tasks of TLS handshakes.
+     *   If {@code null} delegated tasks are executed by the I/O reactor thread.
+     *
+     * @since 5.0
+     */
     public BasicServerTlsStrategy(
             final int[] securePorts,
             final SSLContext sslContext,
             final SSLBufferManagement sslBufferManagement,
             final SSLSessionInitializer initializer,
-            final SSLSessionVerifier verifier) {
+            final SSLSessionVerifier verifier,
+            final Executor delegatedTaskExecutor) {
         this.securePorts = Args.notNull(securePorts, "Array of ports");
         this.sslContext = Args.notNull(sslContext, "SSL context");
         this.sslBufferManagement = sslBufferManagement;
         this.initializer = initializer;
         this.verifier = verifier;
+        this.delegatedTaskExecutor = delegatedTaskExecutor;
+    }
+
+    public BasicServerTlsStrategy(
+            final int[] securePorts,
+            final SSLContext sslContext,
+            final SSLBufferManagement sslBufferManagement,
+            final SSLSessionInitializer initializer,
+            final SSLSessionVerifier verifier) {
+        this(securePorts, sslContext, sslBufferManagement, initializer, verifier, null);
     }
 
     public BasicServerTlsStrategy(
@@ -97,10 +116,13 @@ public boolean upgrade(
             final SocketAddress localAddress,
             final SocketAddress remoteAddress,
             final Object attachment) {
+        if (!(localAddress instanceof InetSocketAddress)) {
+            return false;
+        }
         final int port = ((InetSocketAddress) localAddress).getPort();
         for (final int securePort: securePorts) {
             if (port == securePort) {
-                tlsSession.startTls(sslContext, sslBufferManagement, initializer, verifier);
+                tlsSession.startTls(sslContext, sslBufferManagement, initializer, verifier, delegatedTaskExecutor);
                 return true;
             }
         }
@@ -0,0 +1,122 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.net;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.SocketAddress;
+import java.nio.file.Path;
+
+import org.apache.hc.core5.util.Args;
+
+/**
+ * Access to Unix domain socket addresses of Java platforms that support
+ * {@code java.net.UnixDomainSocketAddress} (Java 16 and newer). I/O reactors
+ * connect to and listen on such addresses just like on IP socket addresses.
+ *
+ * @since 5.0
+ */
+public final class UnixDomainSocketSupport {
+
+    private static final Class<?> ADDRESS_CLASS;
+    private static final Method OF;
+    private static final Method GET_PATH;
+
+    static {
+        Class<?> addressClass = null;
+        Method of = null;
+        Method getPath = null;
+        try {
+            addressClass = Class.forName("java.net.UnixDomainSocketAddress");
+            of = addressClass.getMethod("of", String.class);
+            getPath = addressClass.getMethod("getPath");
+        } catch (final ReflectiveOperationException | SecurityException ex) {
+            addressClass = null;
+        }
+        ADDRESS_CLASS = addressClass;
+        OF = of;
+        GET_PATH = getPath;
+    }
+
+    private UnixDomainSocketSupport() {
+    }
+
+    /**
+     * Determines whether the Java platform supports Unix domain sockets.
+     */
+    public static boolean isSupported() {
+        return ADDRESS_CLASS != null;
+    }
+
+    /**
+     * Creates a Unix domain socket address for the given path.
+     *
+     * @param path the path of the socket file.
+     * @return the socket address.
+     * @throws UnsupportedOperationException if Unix domain sockets are not supported.
+     */
+    public static SocketAddress createAddress(final String path) {
+        Args.notBlank(path, "Path");
+        if (!isSupported()) {
+            throw new UnsupportedOperationException("Unix domain sockets are not supported");
+        }
+        return (SocketAddress) invoke(OF, null, path);
+    }
+
+    /**
+     * Determines whether the given address is a Unix domain socket address.
+     */
+    public static boolean isUnixDomainAddress(final SocketAddress address) {
+        return ADDRESS_CLASS != null && ADDRESS_CLASS.isInstance(address);
+    }
+
+    /**
+     * Returns the path of the socket file of a Unix domain socket address
+     * or {@code null} if the address is not a Unix domain socket address.
+     */
+    public static Path getPath(final SocketAddress address) {
+        if (!isUnixDomainAddress(address)) {
+            return null;
+        }
+        return (Path) invoke(GET_PATH, address);
+    }
+
+    private static Object invoke(final Method method, final Object target, final Object... args) {
+        try {
+            return method.invoke(target, args);
+        } catch (final InvocationTargetException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (final IllegalAccessException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+}
@@ -0,0 +1,277 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.security.Security;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.concurrent.BasicFuture;
+import org.apache.hc.core5.concurrent.DefaultThreadFactory;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.net.InetAddressUtils;
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * {@link AddressResolver} that performs blocking system lookups on a separate
+ * executor and caches both successful and failed lookups for a limited time.
+ * Concurrent requests to resolve the same host name share a single lookup.
+ * <p>
+ * By default, successful lookups are cached for the time given by the
+ * {@code networkaddress.cache.ttl} security property (30 seconds if not set)
+ * and failed lookups for the time given by {@code networkaddress.cache.negative.ttl}
+ * (10 seconds if not set). Unless an executor is given, lookups are performed
+ * by at most {@link #DEFAULT_MAX_LOOKUP_THREADS} daemon threads. Lookups of
+ * distinct host names beyond {@link #DEFAULT_MAX_QUEUED_LOOKUPS} waiting for
+ * a thread fail with a {@link RejectedExecutionException}.
+ *
+ * @since 5.0
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public class CachingAddressResolver implements AddressResolver {
+
+    public static final CachingAddressResolver INSTANCE = new CachingAddressResolver();
+
+    public static final int DEFAULT_MAX_LOOKUP_THREADS = 8;
+    public static final int DEFAULT_MAX_QUEUED_LOOKUPS = 1024;
+
+    private static final int PURGE_THRESHOLD = 1024;
+
+    private final Executor executor;
+    private final long ttl;
+    private final long negativeTtl;
+    private final ConcurrentMap<String, Entry> cache;
+
+    /**
+     * @param executor the executor to perform lookups. Can be {@code null}.
+     * @param ttl time to cache successful lookups for. Can be {@code null}.
+     * @param negativeTtl time to cache failed lookups for. Can be {@code null}.
+     */
+    public CachingAddressResolver(final Executor executor, final TimeValue ttl, final TimeValue negativeTtl) {
+        super();
+        this.executor = executor != null ? executor : createDefaultExecutor();
+        this.ttl = ttl != null ? ttl.toMillis() : getCacheTtl("networkaddress.cache.ttl", 30);
+        this.negativeTtl = negativeTtl != null ? negativeTtl.toMillis() : getCacheTtl("networkaddress.cache.negative.ttl", 10);
+        this.cache = new ConcurrentHashMap<>();
+    }
+
+    public CachingAddressResolver() {
+        this(null, null, null);
+    }
+
+    private static Executor createDefaultExecutor() {
+        // Bounded so that a slow name service cannot pile up blocked threads
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                DEFAULT_MAX_LOOKUP_THREADS,
+                DEFAULT_MAX_LOOKUP_THREADS,
+                60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(DEFAULT_MAX_QUEUED_LOOKUPS),
+                new DefaultThreadFactory("I/O address resolver", true));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static long getCacheTtl(final String name, final long defaultSeconds) {
+        try {
+            final String value = Security.getProperty(name);
+            if (value != null) {
+                final long seconds = Long.parseLong(value.trim());
+                // Negative values mean cache forever
+                return seconds >= 0 ? seconds * 1000 : Long.MAX_VALUE;
+            }
+        } catch (final SecurityException | NumberFormatException ignore) {
+        }
+        return defaultSeconds * 1000;
+    }
+
+    /**
+     * Performs the actual lookup. Called by the lookup executor.
+     */
+    protected InetAddress[] lookup(final String host) throws UnknownHostException {
+        return InetAddress.getAllByName(host);
+    }
+
+    @Override
+    public Future<InetAddress[]> resolve(final String host, final FutureCallback<InetAddress[]> callback) {
+        Args.notNull(host, "Host");
+        final BasicFuture<InetAddress[]> future = new BasicFuture<>(callback);
+        if (InetAddressUtils.isIPv4Address(host) || InetAddressUtils.isIPv6Address(host)) {
+            // Literal addresses are parsed without a name service lookup
+            try {
+                future.completed(InetAddress.getAllByName(host));
+            } catch (final UnknownHostException ex) {
+                future.failed(ex);
+            }
+            return future;
+        }
+        final String key = host.toLowerCase(Locale.ROOT);
+        for (;;) {
+            final long now = System.currentTimeMillis();
+            final Entry existing = this.cache.get(key);
+            if (existing != null && !existing.isExpired(now)) {
+                existing.addWaiter(future);
+                return future;
+            }
+            final Entry entry = new Entry();
+            if (existing == null ? this.cache.putIfAbsent(key, entry) == null : this.cache.replace(key, existing, entry)) {
+                entry.addWaiter(future);
+                if (this.cache.size() > PURGE_THRESHOLD) {
+                    purgeExpired(now);
+                }
+                try {
+                    this.executor.execute(new Runnable() {
+
+                        @Override
+                        public void run() {
+                            try {
+                                final InetAddress[] addresses = lookup(host);
+                                if (addresses == null || addresses.length == 0) {
+                                    throw new UnknownHostException(host);
+                                }
+                                entry.completed(addresses, expiry(ttl));
+                            } catch (final UnknownHostException ex) {
+                                entry.failed(ex, expiry(negativeTtl));
+                            } catch (final RuntimeException ex) {
+                                cache.remove(key, entry);
+                                entry.failed(ex, 0);
+                            }
+                        }
+
+                    });
+                } catch (final RejectedExecutionException ex) {
+                    this.cache.remove(key, entry);
+                    entry.failed(ex, 0);
+                }
+                return future;
+            }
+        }
+    }
+
+    private static long expiry(final long timeToLive) {
+        final long now = System.currentTimeMillis();
+        return timeToLive < Long.MAX_VALUE - now ? now + timeToLive : Long.MAX_VALUE;
+    }
+
+    private void purgeExpired(final long now) {
+        for (final Iterator<Map.Entry<String, Entry>> it = this.cache.entrySet().iterator(); it.hasNext(); ) {
+            if (it.next().getValue().isExpired(now)) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Discards all cached lookup results.
+     */
+    public void clear() {
+        this.cache.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "[ttl=" + this.ttl + ", negativeTtl=" + this.negativeTtl + ", entries=" + this.cache.size() + "]";
+    }
+
+    private static final class Entry {
+
+        private final List<BasicFuture<InetAddress[]>> waiters = new ArrayList<>();
+
+        private boolean done;
+        private InetAddress[] addresses;
+        private Exception exception;
+        private long expiry = Long.MAX_VALUE;
+
+        synchronized boolean isExpired(final long now) {
+            return this.done && now >= this.expiry;
+        }
+
+        void addWaiter(final BasicFuture<InetAddress[]> future) {
+            synchronized (this) {
+                if (!this.done) {
+                    this.waiters.add(future);
+                    return;
+                }
+            }
+            complete(future);
+        }
+
+        void completed(final InetAddress[] addresses, final long expiry) {
+            synchronized (this) {
+                this.addresses = addresses;
+                this.expiry = expiry;
+                this.done = true;
+            }
+            notifyWaiters();
+        }
+
+        void failed(final Exception exception, final long expiry) {
+            synchronized (this) {
+                this.exception = exception;
+                this.expiry = expiry;
+                this.done = true;
+            }
+            notifyWaiters();
+        }
+
+        private void notifyWaiters() {
+            final List<BasicFuture<InetAddress[]>> futures;
+            synchronized (this) {
+                futures = new ArrayList<>(this.waiters);
+                this.waiters.clear();
+            }
+            for (final BasicFuture<InetAddress[]> future : futures) {
+                complete(future);
+            }
+        }
+
+        private void complete(final BasicFuture<InetAddress[]> future) {
+            if (this.exception != null) {
+                future.failed(this.exception);
+            } else {
+                future.completed(this.addresses.clone());
+            }
+        }
+
+    }
+
+}
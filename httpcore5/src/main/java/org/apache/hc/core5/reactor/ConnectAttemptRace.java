@@ -0,0 +1,220 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+import java.io.IOException;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.io.GracefullyCloseable;
+import org.apache.hc.core5.io.ShutdownType;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * Races staggered connection attempts to multiple addresses of the same host
+ * as described by RFC 8305. A new attempt is started each time the attempt
+ * delay elapses or an attempt fails. The first attempt to connect completes
+ * the session request and all other attempts are closed. The session request
+ * fails once all attempts have failed.
+ */
+final class ConnectAttemptRace implements GracefullyCloseable {
+
+    interface Connector {
+
+        /**
+         * Starts a connection attempt to the given address, which will report
+         * its outcome to the race.
+         */
+        InternalConnectChannel connect(InetSocketAddress address, ConnectAttemptRace race) throws IOException;
+
+    }
+
+    private final IOSessionRequest sessionRequest;
+    private final InetSocketAddress[] addresses;
+    private final TimeValue attemptDelay;
+    private final IOEventLoop eventLoop;
+    private final Connector connector;
+    private final Set<InternalConnectChannel> attempts;
+
+    private int next;
+    private boolean done;
+    private Exception lastException;
+    private Cancellable timer;
+
+    ConnectAttemptRace(
+            final IOSessionRequest sessionRequest,
+            final InetSocketAddress[] addresses,
+            final TimeValue attemptDelay,
+            final IOEventLoop eventLoop,
+            final Connector connector) {
+        super();
+        this.sessionRequest = sessionRequest;
+        this.addresses = addresses;
+        this.attemptDelay = attemptDelay;
+        this.eventLoop = eventLoop;
+        this.connector = connector;
+        this.attempts = new HashSet<>();
+    }
+
+    /**
+     * Orders addresses by alternating address families, starting with
+     * the family of the first address.
+     */
+    static InetSocketAddress[] interleave(final InetAddress[] addresses, final int port) {
+        final boolean firstIPv6 = addresses[0] instanceof Inet6Address;
+        final List<InetAddress> preferred = new ArrayList<>(addresses.length);
+        final List<InetAddress> other = new ArrayList<>(addresses.length);
+        for (final InetAddress address : addresses) {
+            if ((address instanceof Inet6Address) == firstIPv6) {
+                preferred.add(address);
+            } else {
+                other.add(address);
+            }
+        }
+        final InetSocketAddress[] result = new InetSocketAddress[addresses.length];
+        int n = 0;
+        for (int i = 0; i < Math.max(preferred.size(), other.size()); i++) {
+            if (i < preferred.size()) {
+                result[n++] = new InetSocketAddress(preferred.get(i), port);
+            }
+            if (i < other.size()) {
+                result[n++] = new InetSocketAddress(other.get(i), port);
+            }
+        }
+        return result;
+    }
+
+    synchronized void start() {
+        startNextAttempt();
+    }
+
+    private void startNextAttempt() {
+        while (!this.done && this.next < this.addresses.length) {
+            final InetSocketAddress address = this.addresses[this.next++];
+            try {
+                final InternalConnectChannel attempt = this.connector.connect(address, this);
+                // The attempt may have already connected or failed
+                if (!this.done && attempt.isOpen()) {
+                    this.attempts.add(attempt);
+                    scheduleNextAttempt();
+                }
+                return;
+            } catch (final IOException ex) {
+                this.lastException = ex;
+            }
+        }
+        if (!this.done && this.attempts.isEmpty()) {
+            this.done = true;
+            this.sessionRequest.failed(this.lastException);
+        }
+    }
+
+    private void scheduleNextAttempt() {
+        if (this.next < this.addresses.length) {
+            this.timer = this.eventLoop.schedule(new Runnable() {
+
+                @Override
+                public void run() {
+                    synchronized (ConnectAttemptRace.this) {
+                        timer = null;
+                        startNextAttempt();
+                    }
+                }
+
+            }, this.attemptDelay);
+        }
+    }
+
+    private void cancelTimer() {
+        if (this.timer != null) {
+            this.timer.cancel();
+            this.timer = null;
+        }
+    }
+
+    /**
+     * Called by an attempt that has connected.
+     *
+     * @return {@code true} if the attempt has won the race,
+     *   {@code false} if it must be abandoned.
+     */
+    synchronized boolean connected(final InternalConnectChannel attempt) {
+        if (this.done) {
+            return false;
+        }
+        this.done = true;
+        cancelTimer();
+        for (final InternalConnectChannel other : this.attempts) {
+            if (other != attempt) {
+                other.shutdown(ShutdownType.IMMEDIATE);
+            }
+        }
+        this.attempts.clear();
+        return true;
+    }
+
+    /**
+     * Called by an attempt that has failed or timed out.
+     */
+    synchronized void failed(final InternalConnectChannel attempt, final Exception cause) {
+        this.attempts.remove(attempt);
+        attempt.shutdown(ShutdownType.IMMEDIATE);
+        if (this.done) {
+            return;
+        }
+        this.lastException = cause;
+        if (this.next < this.addresses.length) {
+            cancelTimer();
+            startNextAttempt();
+        } else if (this.attempts.isEmpty()) {
+            this.done = true;
+            this.sessionRequest.failed(cause);
+        }
+    }
+
+    @Override
+    public synchronized void shutdown(final ShutdownType shutdownType) {
+        this.done = true;
+        cancelTimer();
+        for (final InternalConnectChannel attempt : this.attempts) {
+            attempt.shutdown(ShutdownType.IMMEDIATE);
+        }
+        this.attempts.clear();
+    }
+
+    @Override
+    public void close() {
+        shutdown(ShutdownType.GRACEFUL);
+    }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps count of open connections accepted by a listening I/O reactor
+ * against an optional limit. Once saturated the limit is relieved only
+ * after the count has dropped to a low-water mark a tenth of the limit
+ * below it, so that accepting does not flip on and off with every
+ * closed connection.
+ */
+final class ConnectionLimit implements AcceptThrottle {
+
+    private final int max;
+    private final int lowWaterMark;
+    private final AtomicInteger count;
+
+    private volatile boolean saturated;
+
+    ConnectionLimit(final int max) {
+        this.max = max > 0 ? max : 0;
+        this.lowWaterMark = this.max - Math.max(this.max / 10, 1);
+        this.count = new AtomicInteger(0);
+    }
+
+    /**
+     * Returns the limit or {@code 0} if unlimited.
+     */
+    int getMax() {
+        return this.max;
+    }
+
+    int getCount() {
+        return this.count.get();
+    }
+
+    void increment() {
+        this.count.incrementAndGet();
+    }
+
+    /**
+     * Decrements the count.
+     *
+     * @return {@code true} if the count has dropped to the low-water mark.
+     */
+    boolean decrement() {
+        return this.count.decrementAndGet() == this.lowWaterMark && this.max > 0;
+    }
+
+    @Override
+    public boolean isSaturated() {
+        if (this.max > 0 && this.count.get() >= this.max) {
+            this.saturated = true;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isRelieved() {
+        if (this.saturated) {
+            if (this.count.get() > this.lowWaterMark) {
+                return false;
+            }
+            this.saturated = false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return this.count.get() + "/" + (this.max > 0 ? Integer.toString(this.max) : "unlimited");
+    }
+
+}
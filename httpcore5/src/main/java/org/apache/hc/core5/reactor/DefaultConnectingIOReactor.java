@@ -36,8 +36,8 @@
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.hc.core5.concurrent.Cancellable;
 import org.apache.hc.core5.concurrent.DefaultThreadFactory;
 import org.apache.hc.core5.concurrent.FutureCallback;
 import org.apache.hc.core5.function.Callback;
@@ -62,9 +62,10 @@ public class DefaultConnectingIOReactor implements IOReactorService, ConnectionI
     private final int workerCount;
     private final SingleCoreIOReactor[] dispatchers;
     private final MultiCoreIOReactor ioReactor;
-    private final AtomicInteger currentWorker;
+    private final IODispatchStrategy dispatchStrategy;
 
     private final static ThreadFactory THREAD_FACTORY = new DefaultThreadFactory("I/O client dispatch", true);
+    private final static ThreadFactory WATCHDOG_THREAD_FACTORY = new DefaultThreadFactory("I/O client watchdog", true);
 
     public DefaultConnectingIOReactor(
             final IOEventHandlerFactory eventHandlerFactory,
@@ -77,7 +78,9 @@ public DefaultConnectingIOReactor(
         this.auditLog = new ConcurrentLinkedDeque<>();
         this.workerCount = ioReactorConfig != null ? ioReactorConfig.getIoThreadCount() : IOReactorConfig.DEFAULT.getIoThreadCount();
         this.dispatchers = new SingleCoreIOReactor[workerCount];
-        final Thread[] threads = new Thread[workerCount];
+        final TimeValue stallThreshold = ioReactorConfig != null ? ioReactorConfig.getStallThreshold() : IOReactorConfig.DEFAULT.getStallThreshold();
+        final boolean watchdog = TimeValue.isPositive(stallThreshold);
+        final Thread[] threads = new Thread[watchdog ? workerCount + 1 : workerCount];
         for (int i = 0; i < this.dispatchers.length; i++) {
             final SingleCoreIOReactor dispatcher = new SingleCoreIOReactor(
                     auditLog,
@@ -89,8 +92,11 @@ public DefaultConnectingIOReactor(
             this.dispatchers[i] = dispatcher;
             threads[i] = (threadFactory != null ? threadFactory : THREAD_FACTORY).newThread(new IOReactorWorker(dispatcher));
         }
+        if (watchdog) {
+            threads[workerCount] = WATCHDOG_THREAD_FACTORY.newThread(new IOReactorWatchdog(this.dispatchers, stallThreshold.toMillis()));
+        }
         this.ioReactor = new MultiCoreIOReactor(this.dispatchers, threads);
-        this.currentWorker = new AtomicInteger(0);
+        this.dispatchStrategy = ioReactorConfig != null ? ioReactorConfig.getDispatchStrategy() : IODispatchStrategies.roundRobin();
     }
 
     public DefaultConnectingIOReactor(
@@ -124,6 +130,16 @@ public List<ExceptionEvent> getExceptionLog() {
         return auditLog.isEmpty() ? Collections.<ExceptionEvent>emptyList() : new ArrayList<>(auditLog);
     }
 
+    @Override
+    public List<IOReactorMetrics> getMetrics() {
+        return SingleCoreIOReactor.getMetrics(dispatchers);
+    }
+
+    @Override
+    public Cancellable subscribeMetrics(final TimeValue interval, final Callback<IOReactorMetrics> callback) {
+        return SingleCoreIOReactor.subscribeMetrics(dispatchers, interval, callback);
+    }
+
     @Override
     public Future<IOSession> connect(
             final NamedEndpoint remoteEndpoint,
@@ -136,7 +152,7 @@ public Future<IOSession> connect(
         if (getStatus().compareTo(IOReactorStatus.ACTIVE) > 0) {
             throw new IOReactorShutdownException("I/O reactor has been shut down");
         }
-        final int i = Math.abs(currentWorker.incrementAndGet() % workerCount);
+        final int i = dispatchStrategy.select(dispatchers);
         try {
             return dispatchers[i].connect(remoteEndpoint, remoteAddress, localAddress, timeout, attachment, callback);
         } catch (final IOReactorShutdownException ex) {
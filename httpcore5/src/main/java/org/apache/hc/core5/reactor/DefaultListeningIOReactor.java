@@ -28,31 +28,42 @@
 package org.apache.hc.core5.reactor;
 
 import java.io.IOException;
+import java.net.ServerSocket;
 import java.net.SocketAddress;
+import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.apache.hc.core5.concurrent.BasicFuture;
+import org.apache.hc.core5.concurrent.Cancellable;
 import org.apache.hc.core5.concurrent.DefaultThreadFactory;
 import org.apache.hc.core5.concurrent.FutureCallback;
 import org.apache.hc.core5.function.Callback;
 import org.apache.hc.core5.function.Decorator;
 import org.apache.hc.core5.io.ShutdownType;
 import org.apache.hc.core5.net.NamedEndpoint;
+import org.apache.hc.core5.net.UnixDomainSocketSupport;
 import org.apache.hc.core5.util.Args;
 import org.apache.hc.core5.util.TimeValue;
 
 /**
  * Multi-core I/O reactor that can ask as both {@link ConnectionInitiator}
  * and {@link ConnectionAcceptor}. Internally this I/O reactor distributes newly created
- * I/O session equally across multiple I/O worker threads for a more optimal resource
+ * I/O session across multiple I/O worker threads as decided by
+ * {@link IOReactorConfig#getDispatchStrategy()} for a more optimal resource
  * utilization and a better I/O performance. Usually it is recommended to have
  * one worker I/O reactor per physical CPU core.
  *
@@ -62,13 +73,20 @@ public class DefaultListeningIOReactor implements IOReactorService, ConnectionIn
 
     private final static ThreadFactory DISPATCH_THREAD_FACTORY = new DefaultThreadFactory("I/O server dispatch", true);
     private final static ThreadFactory LISTENER_THREAD_FACTORY = new DefaultThreadFactory("I/O listener", true);
+    private final static ThreadFactory WATCHDOG_THREAD_FACTORY = new DefaultThreadFactory("I/O server watchdog", true);
 
     private final Deque<ExceptionEvent> auditLog;
     private final int workerCount;
     private final SingleCoreIOReactor[] dispatchers;
     private final SingleCoreListeningIOReactor listener;
     private final MultiCoreIOReactor ioReactor;
-    private final AtomicInteger currentWorker;
+    private final IODispatchStrategy dispatchStrategy;
+    private final IOReactorConfig reactorConfig;
+    private final boolean reusePort;
+    private final ConcurrentMap<ListenerEndpoint, Boolean> endpoints;
+    private final Queue<SocketAddress> pausedAddresses;
+    private final AtomicBoolean paused;
+    private final ConnectionLimit connectionLimit;
 
     /**
      * Creates an instance of DefaultListeningIOReactor with the given configuration.
@@ -93,8 +111,23 @@ public DefaultListeningIOReactor(
         Args.notNull(eventHandlerFactory, "Event handler factory");
         this.auditLog = new ConcurrentLinkedDeque<>();
         this.workerCount = ioReactorConfig != null ? ioReactorConfig.getIoThreadCount() : IOReactorConfig.DEFAULT.getIoThreadCount();
+        this.connectionLimit = new ConnectionLimit(
+                ioReactorConfig != null ? ioReactorConfig.getMaxConnections() : IOReactorConfig.DEFAULT.getMaxConnections());
+        final Runnable acceptCapacityCallback = new Runnable() {
+
+            @Override
+            public void run() {
+                listener.wakeup();
+                for (final SingleCoreIOReactor dispatcher : dispatchers) {
+                    dispatcher.wakeup();
+                }
+            }
+
+        };
         this.dispatchers = new SingleCoreIOReactor[workerCount];
-        final Thread[] threads = new Thread[workerCount + 1];
+        final TimeValue stallThreshold = ioReactorConfig != null ? ioReactorConfig.getStallThreshold() : IOReactorConfig.DEFAULT.getStallThreshold();
+        final boolean watchdog = TimeValue.isPositive(stallThreshold);
+        final Thread[] threads = new Thread[watchdog ? workerCount + 2 : workerCount + 1];
         for (int i = 0; i < this.dispatchers.length; i++) {
             final SingleCoreIOReactor dispatcher = new SingleCoreIOReactor(
                     auditLog,
@@ -102,7 +135,9 @@ public DefaultListeningIOReactor(
                     ioReactorConfig,
                     ioSessionDecorator,
                     sessionListener,
-                    sessionShutdownCallback);
+                    sessionShutdownCallback,
+                    connectionLimit,
+                    acceptCapacityCallback);
             this.dispatchers[i] = dispatcher;
             threads[i + 1] = (dispatchThreadFactory != null ? dispatchThreadFactory : DISPATCH_THREAD_FACTORY).newThread(new IOReactorWorker(dispatcher));
         }
@@ -115,12 +150,48 @@ public void execute(final SocketChannel channel) {
                 enqueueChannel(channel);
             }
 
+        }, connectionLimit, new AcceptThrottle() {
+
+            @Override
+            public boolean isSaturated() {
+                if (connectionLimit.isSaturated()) {
+                    return true;
+                }
+                for (final SingleCoreIOReactor dispatcher : dispatchers) {
+                    if (!dispatcher.getConnectionLimit().isSaturated()) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public boolean isRelieved() {
+                if (!connectionLimit.isRelieved()) {
+                    return false;
+                }
+                for (final SingleCoreIOReactor dispatcher : dispatchers) {
+                    if (dispatcher.getConnectionLimit().isRelieved()) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+
         });
         ioReactors[0] = this.listener;
         threads[0] = (listenerThreadFactory != null ? listenerThreadFactory : LISTENER_THREAD_FACTORY).newThread(new IOReactorWorker(listener));
 
+        if (watchdog) {
+            threads[workerCount + 1] = WATCHDOG_THREAD_FACTORY.newThread(new IOReactorWatchdog(this.dispatchers, stallThreshold.toMillis()));
+        }
         this.ioReactor = new MultiCoreIOReactor(ioReactors, threads);
-        this.currentWorker = new AtomicInteger(0);
+        this.dispatchStrategy = ioReactorConfig != null ? ioReactorConfig.getDispatchStrategy() : IODispatchStrategies.roundRobin();
+        this.reactorConfig = ioReactorConfig != null ? ioReactorConfig : IOReactorConfig.DEFAULT;
+        this.reusePort = this.reactorConfig.isSoReusePort() && SocketSupport.getReusePortOption() != null;
+        this.endpoints = new ConcurrentHashMap<>();
+        this.pausedAddresses = new ConcurrentLinkedQueue<>();
+        this.paused = new AtomicBoolean(false);
     }
 
     /**
@@ -157,26 +228,95 @@ public void start() {
 
     @Override
     public Future<ListenerEndpoint> listen(final SocketAddress address, final FutureCallback<ListenerEndpoint> callback) {
+        if (reusePort && !UnixDomainSocketSupport.isUnixDomainAddress(address)) {
+            return listenReusePort(address, callback);
+        }
         return listener.listen(address, callback);
     }
 
+    private Future<ListenerEndpoint> listenReusePort(final SocketAddress address, final FutureCallback<ListenerEndpoint> callback) {
+        if (getStatus().compareTo(IOReactorStatus.SHUTTING_DOWN) >= 0) {
+            throw new IOReactorShutdownException("I/O reactor has been shut down");
+        }
+        final BasicFuture<ListenerEndpoint> future = new BasicFuture<>(callback);
+        final List<ServerSocketChannel> serverChannels = new ArrayList<>(workerCount);
+        try {
+            SocketAddress localAddress = address;
+            for (int i = 0; i < workerCount; i++) {
+                final ServerSocketChannel serverChannel = ServerSocketChannel.open();
+                serverChannels.add(serverChannel);
+                serverChannel.setOption(SocketSupport.getReusePortOption(), Boolean.TRUE);
+                final ServerSocket socket = serverChannel.socket();
+                socket.setReuseAddress(reactorConfig.isSoReuseAddress());
+                if (reactorConfig.getRcvBufSize() > 0) {
+                    socket.setReceiveBufferSize(reactorConfig.getRcvBufSize());
+                }
+                socket.bind(localAddress, reactorConfig.getBacklogSize());
+                // Make sure all channels share the same port if an ephemeral one was requested
+                localAddress = socket.getLocalSocketAddress();
+            }
+            for (int i = 0; i < workerCount; i++) {
+                dispatchers[i].enqueueListener(serverChannels.get(i));
+            }
+            final ListenerEndpoint endpoint = new ListenerEndpointGroup(serverChannels, localAddress, connectionLimit);
+            endpoints.put(endpoint, Boolean.TRUE);
+            future.completed(endpoint);
+        } catch (final IOException | IOReactorShutdownException ex) {
+            for (final ServerSocketChannel serverChannel : serverChannels) {
+                try {
+                    serverChannel.close();
+                } catch (final IOException ignore) {
+                }
+            }
+            future.failed(ex);
+        }
+        return future;
+    }
+
     public Future<ListenerEndpoint> listen(final SocketAddress address) {
         return listen(address, null);
     }
 
     @Override
     public Set<ListenerEndpoint> getEndpoints() {
-        return listener.getEndpoints();
+        final Set<ListenerEndpoint> set = listener.getEndpoints();
+        final Iterator<ListenerEndpoint> it = this.endpoints.keySet().iterator();
+        while (it.hasNext()) {
+            final ListenerEndpoint endpoint = it.next();
+            if (!endpoint.isClosed()) {
+                set.add(endpoint);
+            } else {
+                it.remove();
+            }
+        }
+        return set;
     }
 
     @Override
     public void pause() throws IOException {
         listener.pause();
+        if (paused.compareAndSet(false, true)) {
+            final Iterator<ListenerEndpoint> it = this.endpoints.keySet().iterator();
+            while (it.hasNext()) {
+                final ListenerEndpoint endpoint = it.next();
+                if (!endpoint.isClosed()) {
+                    endpoint.close();
+                    this.pausedAddresses.add(endpoint.getAddress());
+                }
+                it.remove();
+            }
+        }
     }
 
     @Override
     public void resume() throws IOException {
         listener.resume();
+        if (paused.compareAndSet(true, false)) {
+            SocketAddress address;
+            while ((address = this.pausedAddresses.poll()) != null) {
+                listenReusePort(address, null);
+            }
+        }
     }
 
     @Override
@@ -189,8 +329,28 @@ public List<ExceptionEvent> getExceptionLog() {
         return auditLog.isEmpty() ? Collections.<ExceptionEvent>emptyList() : new ArrayList<>(auditLog);
     }
 
+    @Override
+    public List<IOReactorMetrics> getMetrics() {
+        return SingleCoreIOReactor.getMetrics(dispatchers);
+    }
+
+    @Override
+    public Cancellable subscribeMetrics(final TimeValue interval, final Callback<IOReactorMetrics> callback) {
+        return SingleCoreIOReactor.subscribeMetrics(dispatchers, interval, callback);
+    }
+
     private void enqueueChannel(final SocketChannel socketChannel) {
-        final int i = Math.abs(currentWorker.incrementAndGet() % workerCount);
+        int i = dispatchStrategy.select(dispatchers);
+        if (dispatchers[i].getConnectionLimit().isSaturated()) {
+            // Prefer the next dispatcher that is not at capacity
+            for (int n = 1; n < dispatchers.length; n++) {
+                final int j = (i + n) % dispatchers.length;
+                if (!dispatchers[j].getConnectionLimit().isSaturated()) {
+                    i = j;
+                    break;
+                }
+            }
+        }
         try {
             dispatchers[i].enqueueChannel(socketChannel);
         } catch (final IOReactorShutdownException ex) {
@@ -210,7 +370,7 @@ public Future<IOSession> connect(
         if (getStatus().compareTo(IOReactorStatus.ACTIVE) > 0) {
             throw new IOReactorShutdownException("I/O reactor has been shut down");
         }
-        final int i = Math.abs(currentWorker.incrementAndGet() % workerCount);
+        final int i = dispatchStrategy.select(dispatchers);
         try {
             return dispatchers[i].connect(remoteEndpoint, remoteAddress, localAddress, timeout, attachment, callback);
         } catch (final IOReactorShutdownException ex) {
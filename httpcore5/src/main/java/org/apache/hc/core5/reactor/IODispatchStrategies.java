@@ -0,0 +1,167 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * Standard {@link IODispatchStrategy} implementations.
+ *
+ * @since 5.0
+ */
+public final class IODispatchStrategies {
+
+    private IODispatchStrategies() {
+    }
+
+    /**
+     * Assigns connections to dispatchers in turn regardless of their load.
+     */
+    public static IODispatchStrategy roundRobin() {
+        return new RoundRobin();
+    }
+
+    /**
+     * Assigns connections to the dispatcher with the fewest active
+     * and pending sessions.
+     */
+    public static IODispatchStrategy leastSessions() {
+        return new LeastSessions();
+    }
+
+    /**
+     * Default resolution of event loop latencies compared by {@link #leastLatency()}.
+     */
+    public static final TimeValue DEFAULT_LATENCY_RESOLUTION = TimeValue.ofMillis(1);
+
+    /**
+     * Assigns connections to the dispatcher with the lowest recent event loop latency.
+     * Latencies are compared with the given resolution. Dispatchers within the same
+     * latency bucket are chosen by their number of active and pending sessions.
+     *
+     * @param resolution the resolution of event loop latencies.
+     */
+    public static IODispatchStrategy leastLatency(final TimeValue resolution) {
+        Args.notNull(resolution, "Resolution");
+        return new LeastLatency(Math.max(resolution.toNanos(), 1));
+    }
+
+    /**
+     * Assigns connections to the dispatcher with the lowest recent event loop latency
+     * using {@link #DEFAULT_LATENCY_RESOLUTION}.
+     */
+    public static IODispatchStrategy leastLatency() {
+        return leastLatency(DEFAULT_LATENCY_RESOLUTION);
+    }
+
+    static class RoundRobin implements IODispatchStrategy {
+
+        private final AtomicInteger count = new AtomicInteger(0);
+
+        @Override
+        public int select(final IODispatcherLoad[] dispatchers) {
+            return Math.abs(count.incrementAndGet() % dispatchers.length);
+        }
+
+        @Override
+        public String toString() {
+            return "round-robin";
+        }
+
+    }
+
+    static abstract class LeastLoaded implements IODispatchStrategy {
+
+        private final AtomicInteger offset = new AtomicInteger(0);
+
+        abstract int compare(IODispatcherLoad load1, IODispatcherLoad load2);
+
+        @Override
+        public int select(final IODispatcherLoad[] dispatchers) {
+            // Start from a rotating offset so that ties are spread across dispatchers
+            final int n = dispatchers.length;
+            final int start = Math.abs(offset.incrementAndGet() % n);
+            int selected = start;
+            for (int i = 1; i < n; i++) {
+                final int idx = (start + i) % n;
+                if (compare(dispatchers[idx], dispatchers[selected]) < 0) {
+                    selected = idx;
+                }
+            }
+            return selected;
+        }
+
+    }
+
+    static class LeastSessions extends LeastLoaded {
+
+        @Override
+        int compare(final IODispatcherLoad load1, final IODispatcherLoad load2) {
+            final int count1 = load1.getSessionCount() + load1.getPendingCount();
+            final int count2 = load2.getSessionCount() + load2.getPendingCount();
+            return count1 < count2 ? -1 : (count1 == count2 ? 0 : 1);
+        }
+
+        @Override
+        public String toString() {
+            return "least-sessions";
+        }
+
+    }
+
+    static class LeastLatency extends LeastSessions {
+
+        private final long resolutionNanos;
+
+        LeastLatency(final long resolutionNanos) {
+            this.resolutionNanos = resolutionNanos;
+        }
+
+        @Override
+        int compare(final IODispatcherLoad load1, final IODispatcherLoad load2) {
+            // The smoothed latency changes once per iteration at most. Compare coarse
+            // buckets so that the session count decides between similar dispatchers
+            // and a burst of new connections does not pile onto a single one.
+            final long latency1 = load1.getEventLoopLatency() / resolutionNanos;
+            final long latency2 = load2.getEventLoopLatency() / resolutionNanos;
+            if (latency1 != latency2) {
+                return latency1 < latency2 ? -1 : 1;
+            }
+            return super.compare(load1, load2);
+        }
+
+        @Override
+        public String toString() {
+            return "least-latency";
+        }
+
+    }
+
+}
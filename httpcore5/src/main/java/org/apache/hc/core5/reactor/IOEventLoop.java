@@ -0,0 +1,72 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+import java.util.concurrent.Executor;
+
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * Executor backed by the event loop of a single I/O reactor thread.
+ * <p>
+ * Tasks are executed by the I/O reactor thread between I/O event dispatches
+ * in the order of their submission. Tasks submitted to the event loop of an
+ * {@link IOSession} therefore never run concurrently with event notifications
+ * of that session and may access its state without additional synchronization.
+ * Tasks are expected to be short and must never block.
+ * <p>
+ * Once the I/O reactor thread terminates the event loop rejects new tasks
+ * with a {@link java.util.concurrent.RejectedExecutionException}, so that
+ * callers can release resources themselves instead of handing them over
+ * to a task that would never run.
+ *
+ * @since 5.0
+ */
+public interface IOEventLoop extends Executor {
+
+    /**
+     * Determines whether the current thread is the I/O reactor thread
+     * running this event loop.
+     *
+     * @return {@code true} if called by the I/O reactor thread,
+     *   {@code false} otherwise.
+     */
+    boolean inEventLoop();
+
+    /**
+     * Schedules the task for execution by the I/O reactor thread
+     * after the given delay. Tasks that are still pending when
+     * the I/O reactor shuts down are discarded.
+     *
+     * @param task the task.
+     * @param delay the delay.
+     * @return handle that can be used to cancel the task.
+     */
+    Cancellable schedule(Runnable task, TimeValue delay);
+
+}
@@ -31,7 +31,10 @@
 
 import org.apache.hc.core5.annotation.Contract;
 import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.reactor.ssl.SSLBufferPool;
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.ByteBufferAllocator;
+import org.apache.hc.core5.util.SimpleByteBufferAllocator;
 import org.apache.hc.core5.util.TimeValue;
 import org.apache.hc.core5.util.Timeout;
 
@@ -51,35 +54,83 @@ public final class IOReactorConfig {
     private final int ioThreadCount;
     private final Timeout  soTimeout;
     private final boolean soReuseAddress;
+    private final boolean soReusePort;
     private final TimeValue soLinger;
     private final boolean soKeepAlive;
     private final boolean tcpNoDelay;
     private final int sndBufSize;
     private final int rcvBufSize;
     private final int backlogSize;
+    private final IODispatchStrategy dispatchStrategy;
+    private final boolean metricsEnabled;
+    private final TimeValue stallThreshold;
+    private final int maxChannelsPerIteration;
+    private final int maxConnectionRequestsPerIteration;
+    private final int maxSessionBytesPerIteration;
+    private final AddressResolver addressResolver;
+    private final TimeValue connectAttemptDelay;
+    private final int sharedReadBufferSize;
+    private final IdleBufferPolicy idleBufferPolicy;
+    private final ByteBufferAllocator byteBufferAllocator;
+    private final SSLBufferPool sslBufferPool;
+    private final int selectSpinCount;
+    private final int maxConnections;
+    private final int maxConnectionsPerDispatcher;
 
     IOReactorConfig(
             final long selectInterval,
             final int ioThreadCount,
             final Timeout soTimeout,
             final boolean soReuseAddress,
+            final boolean soReusePort,
             final TimeValue soLinger,
             final boolean soKeepAlive,
             final boolean tcpNoDelay,
             final int sndBufSize,
             final int rcvBufSize,
-            final int backlogSize) {
+            final int backlogSize,
+            final IODispatchStrategy dispatchStrategy,
+            final boolean metricsEnabled,
+            final TimeValue stallThreshold,
+            final int maxChannelsPerIteration,
+            final int maxConnectionRequestsPerIteration,
+            final int maxSessionBytesPerIteration,
+            final AddressResolver addressResolver,
+            final TimeValue connectAttemptDelay,
+            final int sharedReadBufferSize,
+            final IdleBufferPolicy idleBufferPolicy,
+            final ByteBufferAllocator byteBufferAllocator,
+            final SSLBufferPool sslBufferPool,
+            final int selectSpinCount,
+            final int maxConnections,
+            final int maxConnectionsPerDispatcher) {
         super();
         this.selectInterval = selectInterval;
         this.ioThreadCount = ioThreadCount;
         this.soTimeout = soTimeout;
         this.soReuseAddress = soReuseAddress;
+        this.soReusePort = soReusePort;
         this.soLinger = soLinger;
         this.soKeepAlive = soKeepAlive;
         this.tcpNoDelay = tcpNoDelay;
         this.sndBufSize = sndBufSize;
         this.rcvBufSize = rcvBufSize;
         this.backlogSize = backlogSize;
+        this.dispatchStrategy = dispatchStrategy;
+        this.metricsEnabled = metricsEnabled;
+        this.stallThreshold = stallThreshold;
+        this.maxChannelsPerIteration = maxChannelsPerIteration;
+        this.maxConnectionRequestsPerIteration = maxConnectionRequestsPerIteration;
+        this.maxSessionBytesPerIteration = maxSessionBytesPerIteration;
+        this.addressResolver = addressResolver;
+        this.connectAttemptDelay = connectAttemptDelay;
+        this.sharedReadBufferSize = sharedReadBufferSize;
+        this.idleBufferPolicy = idleBufferPolicy;
+        this.byteBufferAllocator = byteBufferAllocator;
+        this.sslBufferPool = sslBufferPool;
+        this.selectSpinCount = selectSpinCount;
+        this.maxConnections = maxConnections;
+        this.maxConnectionsPerDispatcher = maxConnectionsPerDispatcher;
     }
 
     /**
@@ -124,6 +175,23 @@ public boolean isSoReuseAddress() {
         return soReuseAddress;
     }
 
+    /**
+     * Determines whether listener endpoints should be bound with {@code SO_REUSEPORT}
+     * once per I/O dispatch thread. In this mode every I/O dispatch thread accepts
+     * connections on its own server socket and the kernel distributes incoming
+     * connections among them, instead of a single listener thread accepting all
+     * connections and handing them over to I/O dispatch threads.
+     * <p>
+     * This parameter has no effect on platforms that do not support {@code SO_REUSEPORT}.
+     * <p>
+     * Default: {@code false}
+     *
+     * @since 5.0
+     */
+    public boolean isSoReusePort() {
+        return soReusePort;
+    }
+
     /**
      * Determines the default value of the {@link java.net.SocketOptions#SO_LINGER} parameter
      * for newly created sockets.
@@ -195,6 +263,230 @@ public int getBacklogSize() {
         return backlogSize;
     }
 
+    /**
+     * Determines the strategy used to assign new connections to I/O dispatch threads.
+     * <p>
+     * Default: {@link IODispatchStrategies#roundRobin()}
+     *
+     * @since 5.0
+     */
+    public IODispatchStrategy getDispatchStrategy() {
+        return dispatchStrategy;
+    }
+
+    /**
+     * Determines whether I/O dispatch threads should collect event loop metrics
+     * such as select wait time, event processing time and the slowest I/O event
+     * handler invocation. Metrics collection adds a few clock reads per event
+     * loop iteration and per I/O event.
+     * <p>
+     * Default: {@code false}
+     *
+     * @see IOReactorService#getMetrics()
+     * @since 5.0
+     */
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    /**
+     * Determines the maximum time a single I/O reactor event loop iteration may take
+     * before it is considered stalled, for instance by an I/O event handler blocking
+     * the I/O dispatch thread. When set to a positive value, a watchdog thread
+     * reports stalled I/O dispatch threads to the exception log of the I/O reactor
+     * as {@link IOReactorStallException}s. A non-positive value disables the watchdog.
+     * <p>
+     * Default: {@code 0} (disabled)
+     *
+     * @since 5.0
+     */
+    public TimeValue getStallThreshold() {
+        return stallThreshold;
+    }
+
+    /**
+     * Determines the maximum number of new channels an I/O dispatch thread registers
+     * per event loop iteration. Remaining channels are registered in the following
+     * iterations, interleaved with I/O events of established sessions. A non-positive
+     * value means no limit.
+     * <p>
+     * Default: {@code 0} (no limit)
+     *
+     * @since 5.0
+     */
+    public int getMaxChannelsPerIteration() {
+        return maxChannelsPerIteration;
+    }
+
+    /**
+     * Determines the maximum number of connection requests an I/O dispatch thread
+     * processes per event loop iteration. Remaining requests are processed in the
+     * following iterations, interleaved with I/O events of established sessions.
+     * A non-positive value means no limit.
+     * <p>
+     * Default: {@code 0} (no limit)
+     *
+     * @since 5.0
+     */
+    public int getMaxConnectionRequestsPerIteration() {
+        return maxConnectionRequestsPerIteration;
+    }
+
+    /**
+     * Determines the maximum number of bytes a single I/O session may read from
+     * its channel per I/O event. Once the limit has been reached, reads return
+     * {@code 0} until the next event, so that sessions with a large input backlog
+     * cannot monopolize the I/O dispatch thread. A non-positive value means no limit.
+     * <p>
+     * Default: {@code 0} (no limit)
+     *
+     * @since 5.0
+     */
+    public int getMaxSessionBytesPerIteration() {
+        return maxSessionBytesPerIteration;
+    }
+
+    /**
+     * Determines the resolver used to look up network addresses of remote endpoints
+     * given by host name. Host names are resolved without blocking the caller
+     * of {@link ConnectionInitiator#connect}; the connection attempt is handed over
+     * to the I/O dispatch thread once resolution completes.
+     * <p>
+     * Default: {@link CachingAddressResolver#INSTANCE}
+     *
+     * @since 5.0
+     */
+    public AddressResolver getAddressResolver() {
+        return addressResolver;
+    }
+
+    /**
+     * Determines the delay between staggered connection attempts to a host name
+     * that resolves to multiple addresses. When set to a positive value, addresses
+     * are tried in parallel in the manner of RFC 8305 (Happy Eyeballs): address
+     * families are interleaved, a new attempt is started whenever the delay elapses
+     * or the previous attempt fails, and the first established connection wins while
+     * all other attempts are abandoned. RFC 8305 recommends a delay of 250 milliseconds.
+     * A non-positive value disables parallel attempts and only the first resolved
+     * address is connected to.
+     * <p>
+     * Default: {@code 0} (disabled)
+     *
+     * @since 5.0
+     */
+    public TimeValue getConnectAttemptDelay() {
+        return connectAttemptDelay;
+    }
+
+    /**
+     * Determines the size of read buffers owned by I/O dispatch threads and
+     * shared by all their I/O sessions. Protocol handlers that support shared
+     * read buffers read incoming data into such a buffer while processing an I/O
+     * event and retain only unprocessed leftovers in a small per-session buffer,
+     * so that idle connections do not hold a read buffer of their own.
+     * A non-positive value disables shared read buffers.
+     * <p>
+     * Default: {@code 0} (disabled)
+     *
+     * @since 5.0
+     */
+    public int getSharedReadBufferSize() {
+        return sharedReadBufferSize;
+    }
+
+    /**
+     * Determines the idle buffer policy of buffers owned by the I/O reactor
+     * layer. With {@link IdleBufferPolicy#RELEASE} TLS sessions release their
+     * buffers as soon as they are empty, as with
+     * {@link org.apache.hc.core5.reactor.ssl.SSLBufferManagement#DYNAMIC}
+     * unless they are set up with
+     * {@link org.apache.hc.core5.reactor.ssl.SSLBufferManagement#POOLED},
+     * and shared read buffers are discarded whenever the I/O dispatch thread
+     * has no I/O events to process.
+     * <p>
+     * Default: {@link IdleBufferPolicy#RETAIN}
+     *
+     * @since 5.0
+     */
+    public IdleBufferPolicy getIdleBufferPolicy() {
+        return idleBufferPolicy;
+    }
+
+    /**
+     * Allocator of the buffers owned by the I/O reactor layer, that is,
+     * shared read buffers of the I/O dispatch threads and TLS session buffers.
+     * <p>
+     * Default: {@link SimpleByteBufferAllocator#HEAP}
+     *
+     * @since 5.0
+     */
+    public ByteBufferAllocator getByteBufferAllocator() {
+        return byteBufferAllocator;
+    }
+
+    /**
+     * Pool of buffers borrowed by TLS sessions using
+     * {@link org.apache.hc.core5.reactor.ssl.SSLBufferManagement#POOLED}.
+     * If {@code null} each I/O dispatch thread keeps a pool of its own
+     * backed by {@link #getByteBufferAllocator()}, which is discarded
+     * when the I/O reactor shuts down.
+     * <p>
+     * Default: {@code null}
+     *
+     * @since 5.0
+     */
+    public SSLBufferPool getSslBufferPool() {
+        return sslBufferPool;
+    }
+
+    /**
+     * Determines the number of event loop iterations for which the I/O reactor
+     * polls for I/O events with a non-blocking select after an iteration that
+     * had I/O events to process, before it falls back to a blocking select.
+     * Spinning avoids the cost of parking and waking up the I/O dispatch thread
+     * when I/O events arrive in quick succession, at the expense of CPU cycles.
+     * A non-positive value disables spinning.
+     * <p>
+     * Default: {@code 0} (disabled)
+     *
+     * @since 5.0
+     */
+    public int getSelectSpinCount() {
+        return selectSpinCount;
+    }
+
+    /**
+     * Determines the maximum number of open connections a listening I/O reactor
+     * accepts. While at capacity the I/O reactor stops accepting connections,
+     * leaving excess connections in the backlog of the listening sockets, and
+     * resumes once the number of open connections has dropped by a tenth of
+     * the limit. With {@link #isSoReusePort()} I/O dispatch threads accept
+     * connections concurrently and may briefly exceed the limit by up to
+     * the number of threads less one. A non-positive value disables the limit.
+     * <p>
+     * Default: {@code 0} (unlimited)
+     *
+     * @since 5.0
+     */
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * Determines the maximum number of open connections accepted by a listening
+     * I/O reactor an individual I/O dispatch thread manages. New connections are
+     * dispatched to threads that are not at capacity only. Accepting connections
+     * is suspended and resumed as with {@link #getMaxConnections()}.
+     * A non-positive value disables the limit.
+     * <p>
+     * Default: {@code 0} (unlimited)
+     *
+     * @since 5.0
+     */
+    public int getMaxConnectionsPerDispatcher() {
+        return maxConnectionsPerDispatcher;
+    }
+
     public static Builder custom() {
         return new Builder();
     }
@@ -206,12 +498,28 @@ public static Builder copy(final IOReactorConfig config) {
             .setIoThreadCount(config.getIoThreadCount())
             .setSoTimeout(config.getSoTimeout())
             .setSoReuseAddress(config.isSoReuseAddress())
+            .setSoReusePort(config.isSoReusePort())
             .setSoLinger(config.getSoLinger())
             .setSoKeepAlive(config.isSoKeepalive())
             .setTcpNoDelay(config.isTcpNoDelay())
             .setSndBufSize(config.getSndBufSize())
             .setRcvBufSize(config.getRcvBufSize())
-            .setBacklogSize(config.getBacklogSize());
+            .setBacklogSize(config.getBacklogSize())
+            .setDispatchStrategy(config.getDispatchStrategy())
+            .setMetricsEnabled(config.isMetricsEnabled())
+            .setStallThreshold(config.getStallThreshold())
+            .setMaxChannelsPerIteration(config.getMaxChannelsPerIteration())
+            .setMaxConnectionRequestsPerIteration(config.getMaxConnectionRequestsPerIteration())
+            .setMaxSessionBytesPerIteration(config.getMaxSessionBytesPerIteration())
+            .setAddressResolver(config.getAddressResolver())
+            .setConnectAttemptDelay(config.getConnectAttemptDelay())
+            .setSharedReadBufferSize(config.getSharedReadBufferSize())
+            .setIdleBufferPolicy(config.getIdleBufferPolicy())
+            .setByteBufferAllocator(config.getByteBufferAllocator())
+            .setSslBufferPool(config.getSslBufferPool())
+            .setSelectSpinCount(config.getSelectSpinCount())
+            .setMaxConnections(config.getMaxConnections())
+            .setMaxConnectionsPerDispatcher(config.getMaxConnectionsPerDispatcher());
     }
 
     public static class Builder {
@@ -220,24 +528,56 @@ public static class Builder {
         private int ioThreadCount;
         private Timeout  soTimeout;
         private boolean soReuseAddress;
+        private boolean soReusePort;
         private TimeValue soLinger;
         private boolean soKeepAlive;
         private boolean tcpNoDelay;
         private int sndBufSize;
         private int rcvBufSize;
         private int backlogSize;
+        private IODispatchStrategy dispatchStrategy;
+        private boolean metricsEnabled;
+        private TimeValue stallThreshold;
+        private int maxChannelsPerIteration;
+        private int maxConnectionRequestsPerIteration;
+        private int maxSessionBytesPerIteration;
+        private AddressResolver addressResolver;
+        private TimeValue connectAttemptDelay;
+        private int sharedReadBufferSize;
+        private IdleBufferPolicy idleBufferPolicy;
+        private ByteBufferAllocator byteBufferAllocator;
+        private SSLBufferPool sslBufferPool;
+        private int selectSpinCount;
+        private int maxConnections;
+        private int maxConnectionsPerDispatcher;
 
         Builder() {
             this.selectInterval = 1000;
             this.ioThreadCount = AVAIL_PROCS;
             this.soTimeout = Timeout.ZERO_MILLISECONDS;
             this.soReuseAddress = false;
+            this.soReusePort = false;
             this.soLinger = TimeValue.NEG_ONE_SECONDS;
             this.soKeepAlive = false;
             this.tcpNoDelay = true;
             this.sndBufSize = 0;
             this.rcvBufSize = 0;
             this.backlogSize = 0;
+            this.dispatchStrategy = null;
+            this.metricsEnabled = false;
+            this.stallThreshold = TimeValue.ZERO_MILLISECONDS;
+            this.maxChannelsPerIteration = 0;
+            this.maxConnectionRequestsPerIteration = 0;
+            this.maxSessionBytesPerIteration = 0;
+            this.addressResolver = null;
+            this.connectAttemptDelay = TimeValue.ZERO_MILLISECONDS;
+            this.sharedReadBufferSize = 0;
+            this.idleBufferPolicy = IdleBufferPolicy.RETAIN;
+            this.byteBufferAllocator = SimpleByteBufferAllocator.HEAP;
+            this.sslBufferPool = null;
+            this.selectSpinCount = 0;
+            this.maxConnections = 0;
+            this.maxConnectionsPerDispatcher = 0;
         }
 
         public Builder setSelectInterval(final long selectInterval) {
@@ -265,6 +605,14 @@ public Builder setSoReuseAddress(final boolean soReuseAddress) {
             return this;
         }
 
+        /**
+         * @since 5.0
+         */
+        public Builder setSoReusePort(final boolean soReusePort) {
+            this.soReusePort = soReusePort;
+            return this;
+        }
+
         public Builder setSoLinger(final int soLinger, final TimeUnit timeUnit) {
             this.soLinger = TimeValue.of(soLinger, timeUnit);;
             return this;
@@ -300,15 +648,151 @@ public Builder setBacklogSize(final int backlogSize) {
             return this;
         }
 
+        /**
+         * @since 5.0
+         */
+        public Builder setDispatchStrategy(final IODispatchStrategy dispatchStrategy) {
+            this.dispatchStrategy = dispatchStrategy;
+            return this;
+        }
+
+        /**
+         * @since 5.0
+         */
+        public Builder setMetricsEnabled(final boolean metricsEnabled) {
+            this.metricsEnabled = metricsEnabled;
+            return this;
+        }
+
+        /**
+         * @since 5.0
+         */
+        public Builder setStallThreshold(final TimeValue stallThreshold) {
+            this.stallThreshold = stallThreshold;
+            return this;
+        }
+
+        /**
+         * @since 5.0
+         */
+        public Builder setMaxChannelsPerIteration(final int maxChannelsPerIteration) {
+            this.maxChannelsPerIteration = maxChannelsPerIteration;
+            return this;
+        }
+
+        /**
+         * @since 5.0
+         */
+        public Builder setMaxConnectionRequestsPerIteration(final int maxConnectionRequestsPerIteration) {
+            this.maxConnectionRequestsPerIteration = maxConnectionRequestsPerIteration;
+            return this;
+        }
+
+        /**
+         * @since 5.0
+         */
+        public Builder setMaxSessionBytesPerIteration(final int maxSessionBytesPerIteration) {
+            this.maxSessionBytesPerIteration = maxSessionBytesPerIteration;
+            return this;
+        }
+
+        /**
+         * @since 5.0
+         */
+        public Builder setAddressResolver(final AddressResolver addressResolver) {
+            this.addressResolver = addressResolver;
+            return this;
+        }
+
+        /**
+         * @since 5.0
+         */
+        public Builder setConnectAttemptDelay(final TimeValue connectAttemptDelay) {
+            this.connectAttemptDelay = connectAttemptDelay;
+            return this;
+        }
+
+        /**
+         * @since 5.0
+         */
+        public Builder setSharedReadBufferSize(final int sharedReadBufferSize) {
+            this.sharedReadBufferSize = sharedReadBufferSize;
+            return this;
+        }
+
+        /**
+         * @since 5.0
+         */
+        public Builder setIdleBufferPolicy(final IdleBufferPolicy idleBufferPolicy) {
+            this.idleBufferPolicy = idleBufferPolicy;
+            return this;
+        }
+
+        /**
+         * @since 5.0
+         */
+        public Builder setByteBufferAllocator(final ByteBufferAllocator byteBufferAllocator) {
+            this.byteBufferAllocator = byteBufferAllocator;
+            return this;
+        }
+
+        /**
+         * @since 5.0
+         */
+        public Builder setSslBufferPool(final SSLBufferPool sslBufferPool) {
+            this.sslBufferPool = sslBufferPool;
+            return this;
+        }
+
+        /**
+         * @since 5.0
+         */
+        public Builder setSelectSpinCount(final int selectSpinCount) {
+            this.selectSpinCount = selectSpinCount;
+            return this;
+        }
+
+        /**
+         * @since 5.0
+         */
+        public Builder setMaxConnections(final int maxConnections) {
+            this.maxConnections = maxConnections;
+            return this;
+        }
+
+        /**
+         * @since 5.0
+         */
+        public Builder setMaxConnectionsPerDispatcher(final int maxConnectionsPerDispatcher) {
+            this.maxConnectionsPerDispatcher = maxConnectionsPerDispatcher;
+            return this;
+        }
+
         public IOReactorConfig build() {
             return new IOReactorConfig(
                     selectInterval, ioThreadCount,
                     Timeout.defaultsToDisabled(soTimeout),
                     soReuseAddress,
+                    soReusePort,
                     TimeValue.defaultsToNegativeOneMillisecond(soLinger),
                     soKeepAlive,
                     tcpNoDelay,
-                    sndBufSize, rcvBufSize, backlogSize);
+                    sndBufSize, rcvBufSize, backlogSize,
+                    dispatchStrategy != null ? dispatchStrategy : IODispatchStrategies.roundRobin(),
+                    metricsEnabled,
+                    TimeValue.defaultsToZeroMillis(stallThreshold),
+                    maxChannelsPerIteration,
+                    maxConnectionRequestsPerIteration,
+                    maxSessionBytesPerIteration,
+                    addressResolver != null ? addressResolver : CachingAddressResolver.INSTANCE,
+                    TimeValue.defaultsToZeroMillis(connectAttemptDelay),
+                    sharedReadBufferSize,
+                    idleBufferPolicy != null ? idleBufferPolicy : IdleBufferPolicy.RETAIN,
+                    byteBufferAllocator != null ? byteBufferAllocator : SimpleByteBufferAllocator.HEAP,
+                    sslBufferPool,
+                    selectSpinCount,
+                    maxConnections,
+                    maxConnectionsPerDispatcher);
         }
 
     }
@@ -320,12 +804,28 @@ public String toString() {
                 .append(", ioThreadCount=").append(this.ioThreadCount)
                 .append(", soTimeout=").append(this.soTimeout)
                 .append(", soReuseAddress=").append(this.soReuseAddress)
+                .append(", soReusePort=").append(this.soReusePort)
                 .append(", soLinger=").append(this.soLinger)
                 .append(", soKeepAlive=").append(this.soKeepAlive)
                 .append(", tcpNoDelay=").append(this.tcpNoDelay)
                 .append(", sndBufSize=").append(this.sndBufSize)
                 .append(", rcvBufSize=").append(this.rcvBufSize)
                 .append(", backlogSize=").append(this.backlogSize)
+                .append(", dispatchStrategy=").append(this.dispatchStrategy)
+                .append(", metricsEnabled=").append(this.metricsEnabled)
+                .append(", stallThreshold=").append(this.stallThreshold)
+                .append(", maxChannelsPerIteration=").append(this.maxChannelsPerIteration)
+                .append(", maxConnectionRequestsPerIteration=").append(this.maxConnectionRequestsPerIteration)
+                .append(", maxSessionBytesPerIteration=").append(this.maxSessionBytesPerIteration)
+                .append(", addressResolver=").append(this.addressResolver)
+                .append(", connectAttemptDelay=").append(this.connectAttemptDelay)
+                .append(", sharedReadBufferSize=").append(this.sharedReadBufferSize)
+                .append(", idleBufferPolicy=").append(this.idleBufferPolicy)
+                .append(", byteBufferAllocator=").append(this.byteBufferAllocator)
+                .append(", sslBufferPool=").append(this.sslBufferPool)
+                .append(", selectSpinCount=").append(this.selectSpinCount)
+                .append(", maxConnections=").append(this.maxConnections)
+                .append(", maxConnectionsPerDispatcher=").append(this.maxConnectionsPerDispatcher)
                 .append("]");
         return builder.toString();
     }
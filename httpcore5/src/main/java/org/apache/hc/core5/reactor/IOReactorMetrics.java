@@ -0,0 +1,172 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+
+/**
+ * Snapshot of event loop metrics of a single I/O dispatch thread.
+ * <p>
+ * Counters and times are cumulative since the start of the I/O reactor,
+ * so rates and per iteration averages can be derived from two consecutive
+ * snapshots. Times are measured in nanoseconds and are only collected if
+ * {@link IOReactorConfig#isMetricsEnabled()} is set; otherwise they are
+ * reported as {@code 0}.
+ *
+ * @since 5.0
+ */
+@Contract(threading = ThreadingBehavior.IMMUTABLE)
+public final class IOReactorMetrics {
+
+    private final String name;
+    private final long iterationCount;
+    private final long eventCount;
+    private final long selectWaitTime;
+    private final long processingTime;
+    private final long maxHandlerTime;
+    private final int sessionCount;
+    private final int pendingChannelCount;
+    private final int pendingRequestCount;
+    private final int closedSessionCount;
+
+    public IOReactorMetrics(
+            final String name,
+            final long iterationCount,
+            final long eventCount,
+            final long selectWaitTime,
+            final long processingTime,
+            final long maxHandlerTime,
+            final int sessionCount,
+            final int pendingChannelCount,
+            final int pendingRequestCount,
+            final int closedSessionCount) {
+        super();
+        this.name = name;
+        this.iterationCount = iterationCount;
+        this.eventCount = eventCount;
+        this.selectWaitTime = selectWaitTime;
+        this.processingTime = processingTime;
+        this.maxHandlerTime = maxHandlerTime;
+        this.sessionCount = sessionCount;
+        this.pendingChannelCount = pendingChannelCount;
+        this.pendingRequestCount = pendingRequestCount;
+        this.closedSessionCount = closedSessionCount;
+    }
+
+    /**
+     * Returns the name of the I/O dispatch thread or {@code null}
+     * if the thread has not been started yet.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of completed event loop iterations.
+     */
+    public long getIterationCount() {
+        return iterationCount;
+    }
+
+    /**
+     * Returns the number of dispatched I/O events.
+     */
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Returns the total time in nanoseconds the I/O dispatch thread
+     * spent blocked in select.
+     */
+    public long getSelectWaitTime() {
+        return selectWaitTime;
+    }
+
+    /**
+     * Returns the total time in nanoseconds spent by I/O event handlers
+     * processing I/O events.
+     */
+    public long getProcessingTime() {
+        return processingTime;
+    }
+
+    /**
+     * Returns the duration in nanoseconds of the slowest I/O event handler
+     * invocation since the previous snapshot of the same I/O dispatch thread.
+     */
+    public long getMaxHandlerTime() {
+        return maxHandlerTime;
+    }
+
+    /**
+     * Returns the number of I/O sessions managed by the I/O dispatch thread.
+     */
+    public int getSessionCount() {
+        return sessionCount;
+    }
+
+    /**
+     * Returns the number of accepted channels awaiting registration.
+     */
+    public int getPendingChannelCount() {
+        return pendingChannelCount;
+    }
+
+    /**
+     * Returns the number of connection requests awaiting processing.
+     */
+    public int getPendingRequestCount() {
+        return pendingRequestCount;
+    }
+
+    /**
+     * Returns the number of closed sessions awaiting clean-up.
+     */
+    public int getClosedSessionCount() {
+        return closedSessionCount;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder buffer = new StringBuilder();
+        buffer.append("[name=").append(this.name)
+                .append(", iterationCount=").append(this.iterationCount)
+                .append(", eventCount=").append(this.eventCount)
+                .append(", selectWaitTime=").append(this.selectWaitTime)
+                .append(", processingTime=").append(this.processingTime)
+                .append(", maxHandlerTime=").append(this.maxHandlerTime)
+                .append(", sessionCount=").append(this.sessionCount)
+                .append(", pendingChannelCount=").append(this.pendingChannelCount)
+                .append(", pendingRequestCount=").append(this.pendingRequestCount)
+                .append(", closedSessionCount=").append(this.closedSessionCount)
+                .append("]");
+        return buffer.toString();
+    }
+
+}
@@ -29,6 +29,10 @@
 
 import java.util.List;
 
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.function.Callback;
+import org.apache.hc.core5.util.TimeValue;
+
 /**
  * {@link IOReactor} running as a service.
  *
@@ -40,4 +44,24 @@ public interface IOReactorService extends IOReactor {
 
     List<ExceptionEvent> getExceptionLog();
 
+    /**
+     * Returns snapshots of event loop metrics, one per I/O dispatch thread.
+     *
+     * @see IOReactorConfig#isMetricsEnabled()
+     * @since 5.0
+     */
+    List<IOReactorMetrics> getMetrics();
+
+    /**
+     * Reports event loop metrics of each I/O dispatch thread to the callback
+     * at the given interval. The callback is executed by the respective
+     * I/O dispatch thread and must not block.
+     *
+     * @return handle that can be used to cancel the subscription.
+     *
+     * @see IOReactorConfig#isMetricsEnabled()
+     * @since 5.0
+     */
+    Cancellable subscribeMetrics(TimeValue interval, Callback<IOReactorMetrics> callback);
+
 }
@@ -0,0 +1,82 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+/**
+ * Signals an I/O dispatch thread has been executing a single event loop
+ * iteration for longer than {@link IOReactorConfig#getStallThreshold()}.
+ * The stack trace of this exception is that of the I/O dispatch thread
+ * at the time the stall was detected.
+ *
+ * @since 5.0
+ */
+public class IOReactorStallException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String sessionId;
+    private final String handlerClass;
+    private final long duration;
+
+    public IOReactorStallException(
+            final String threadName,
+            final String sessionId,
+            final String handlerClass,
+            final long duration) {
+        super("I/O dispatch thread " + threadName + " stalled for " + duration + " ms"
+                + (sessionId != null ? " processing session " + sessionId : "")
+                + (handlerClass != null ? " (" + handlerClass + ")" : ""));
+        this.sessionId = sessionId;
+        this.handlerClass = handlerClass;
+        this.duration = duration;
+    }
+
+    /**
+     * Returns the id of the I/O session being processed when the stall was
+     * detected or {@code null} if no I/O session was being processed.
+     */
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * Returns the class name of the I/O event handler being executed when
+     * the stall was detected or {@code null} if unknown.
+     */
+    public String getHandlerClass() {
+        return handlerClass;
+    }
+
+    /**
+     * Returns the time in milliseconds the event loop iteration had been
+     * running for when the stall was detected.
+     */
+    public long getDuration() {
+        return duration;
+    }
+
+}
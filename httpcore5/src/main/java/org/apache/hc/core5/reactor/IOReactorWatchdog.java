@@ -0,0 +1,71 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically checks I/O dispatch threads for event loop iterations
+ * exceeding the stall threshold. Terminates once all I/O dispatch threads
+ * have been shut down.
+ */
+final class IOReactorWatchdog implements Runnable {
+
+    private final SingleCoreIOReactor[] dispatchers;
+    private final long threshold;
+    private final long checkInterval;
+
+    IOReactorWatchdog(final SingleCoreIOReactor[] dispatchers, final long thresholdMillis) {
+        super();
+        this.dispatchers = dispatchers;
+        this.threshold = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.checkInterval = Math.max(thresholdMillis / 2, 1);
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                boolean active = false;
+                final long now = System.nanoTime();
+                for (final SingleCoreIOReactor dispatcher : this.dispatchers) {
+                    if (dispatcher.getStatus().compareTo(IOReactorStatus.SHUT_DOWN) < 0) {
+                        active = true;
+                        dispatcher.checkStall(now, this.threshold);
+                    }
+                }
+                if (!active) {
+                    break;
+                }
+                Thread.sleep(this.checkInterval);
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -92,6 +92,9 @@ public interface IOSession extends GracefullyCloseable, Identifiable {
 
     /**
      * Returns the underlying I/O channel associated with this session.
+     * <p>
+     * The channel may also implement {@link java.nio.channels.GatheringByteChannel},
+     * in which case several buffers can be written out with a single operation.
      *
      * @return the I/O channel.
      */
@@ -187,4 +190,15 @@ public interface IOSession extends GracefullyCloseable, Identifiable {
      */
     void setSocketTimeout(int timeout);
 
+    /**
+     * Returns the event loop of the I/O reactor thread this session is bound to.
+     * Tasks submitted to the event loop are run by the same thread that
+     * dispatches I/O events of this session.
+     *
+     * @return the event loop.
+     *
+     * @since 5.0
+     */
+    IOEventLoop getEventLoop();
+
 }
@@ -30,10 +30,13 @@
 import java.io.IOException;
 import java.net.SocketAddress;
 import java.nio.channels.ByteChannel;
+import java.nio.channels.CancelledKeyException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.SocketChannel;
 import java.util.Deque;
 import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -46,9 +49,15 @@ class IOSessionImpl implements IOSession {
 
     private final SelectionKey key;
     private final SocketChannel channel;
+    private final boolean unixDomain;
+    private final ByteChannel byteChannel;
     private final String id;
     private final AtomicInteger status;
     private final Deque<Command> commandQueue;
+    private final IOEventLoop eventLoop;
+    private final AtomicInteger eventMask;
+    private final AtomicBoolean eventMaskUpdatePending;
+    private final Runnable eventMaskUpdate;
 
     private volatile IOEventHandler eventHandler;
     private volatile int socketTimeout;
@@ -58,14 +67,40 @@ class IOSessionImpl implements IOSession {
      *
      * @param key the selection key.
      * @param socketChannel the socket channel
+     * @param eventLoop the event loop of the I/O reactor the key is registered with
+     * @param readBudget limit on bytes read per I/O event. Can be {@code null}.
      *
      * @since 4.1
      */
-    public IOSessionImpl(final SelectionKey key, final SocketChannel socketChannel) {
+    public IOSessionImpl(
+            final SelectionKey key,
+            final SocketChannel socketChannel,
+            final IOEventLoop eventLoop,
+            final ReadBudget readBudget) {
         super();
         this.key = Args.notNull(key, "Selection key");
         this.channel = Args.notNull(socketChannel, "Socket channel");
+        this.unixDomain = SocketSupport.isUnixDomain(socketChannel);
+        this.byteChannel = readBudget != null ? readBudget.wrap(socketChannel) : socketChannel;
+        this.eventLoop = Args.notNull(eventLoop, "Event loop");
         this.commandQueue = new ConcurrentLinkedDeque<>();
+        this.eventMask = new AtomicInteger(key.interestOps());
+        this.eventMaskUpdatePending = new AtomicBoolean(false);
+        this.eventMaskUpdate = new Runnable() {
+
+            @Override
+            public void run() {
+                eventMaskUpdatePending.set(false);
+                if (status.get() == CLOSED) {
+                    return;
+                }
+                try {
+                    applyEventMask();
+                } catch (final CancelledKeyException ignore) {
+                }
+            }
+
+        };
         this.socketTimeout = 0;
         this.id = String.format("i/o-%08X", COUNT.getAndIncrement());
         this.status = new AtomicInteger(ACTIVE);
@@ -105,22 +140,36 @@ public Command getCommand() {
 
     @Override
     public ByteChannel channel() {
-        return this.channel;
+        return this.byteChannel;
     }
 
     @Override
     public SocketAddress getLocalAddress() {
+        if (this.unixDomain) {
+            try {
+                return this.channel.getLocalAddress();
+            } catch (final IOException ex) {
+                return null;
+            }
+        }
         return this.channel.socket().getLocalSocketAddress();
     }
 
     @Override
     public SocketAddress getRemoteAddress() {
+        if (this.unixDomain) {
+            try {
+                return this.channel.getRemoteAddress();
+            } catch (final IOException ex) {
+                return null;
+            }
+        }
         return this.channel.socket().getRemoteSocketAddress();
     }
 
     @Override
     public int getEventMask() {
-        return this.key.interestOps();
+        return this.eventMask.get();
     }
 
     @Override
@@ -128,9 +177,8 @@ public void setEventMask(final int newValue) {
         if (this.status.get() == CLOSED) {
             return;
         }
-        synchronized (this.key) {
-            this.key.interestOps(newValue);
-            this.key.selector().wakeup();
+        if (this.eventMask.getAndSet(newValue) != newValue) {
+            updateEventMask();
         }
     }
 
@@ -139,10 +187,17 @@ public void setEvent(final int op) {
         if (this.status.get() == CLOSED) {
             return;
         }
-        synchronized (this.key) {
-            this.key.interestOps(this.key.interestOps() | op);
-            this.key.selector().wakeup();
+        for (;;) {
+            final int current = this.eventMask.get();
+            final int newValue = current | op;
+            if (current == newValue) {
+                return;
+            }
+            if (this.eventMask.compareAndSet(current, newValue)) {
+                break;
+            }
         }
+        updateEventMask();
     }
 
     @Override
@@ -150,20 +205,58 @@ public void clearEvent(final int op) {
         if (this.status.get() == CLOSED) {
             return;
         }
-        synchronized (this.key) {
-            this.key.interestOps(this.key.interestOps() & ~op);
-            this.key.selector().wakeup();
+        for (;;) {
+            final int current = this.eventMask.get();
+            final int newValue = current & ~op;
+            if (current == newValue) {
+                return;
+            }
+            if (this.eventMask.compareAndSet(current, newValue)) {
+                break;
+            }
+        }
+        updateEventMask();
+    }
+
+    /**
+     * Applies the event mask to the selection key right away when called by
+     * the I/O reactor thread. Otherwise the update is handed over to the
+     * event loop, at most once until it has been applied.
+     */
+    private void updateEventMask() {
+        if (this.eventLoop.inEventLoop()) {
+            applyEventMask();
+        } else if (this.eventMaskUpdatePending.compareAndSet(false, true)) {
+            try {
+                this.eventLoop.execute(this.eventMaskUpdate);
+            } catch (final RejectedExecutionException ex) {
+                // The selection key has been cancelled along with the I/O reactor
+                this.eventMaskUpdatePending.set(false);
+            }
         }
     }
 
+    private void applyEventMask() {
+        this.key.interestOps(this.eventMask.get());
+    }
+
     @Override
     public int getSocketTimeout() {
         return this.socketTimeout;
     }
 
+    @Override
+    public IOEventLoop getEventLoop() {
+        return this.eventLoop;
+    }
+
     @Override
     public void setSocketTimeout(final int timeout) {
         this.socketTimeout = timeout;
+        final Object attachment = this.key.attachment();
+        if (attachment instanceof InternalChannel) {
+            ((InternalChannel) attachment).updateTimeout();
+        }
     }
 
     @Override
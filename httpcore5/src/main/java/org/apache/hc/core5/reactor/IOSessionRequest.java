@@ -27,6 +27,7 @@
 
 package org.apache.hc.core5.reactor;
 
+import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -44,7 +45,10 @@
 final class IOSessionRequest implements Future<IOSession> {
 
     final NamedEndpoint remoteEndpoint;
-    final SocketAddress remoteAddress;
+    // Assigned once the remote host name has been resolved
+    volatile SocketAddress remoteAddress;
+    // Assigned if connection attempts are to be raced across several addresses
+    volatile InetSocketAddress[] remoteAddresses;
     final SocketAddress localAddress;
     final TimeValue timeout;
     final Object attachment;
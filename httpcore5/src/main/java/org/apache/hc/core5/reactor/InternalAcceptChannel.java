@@ -0,0 +1,141 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+import org.apache.hc.core5.function.Callback;
+import org.apache.hc.core5.io.ShutdownType;
+
+final class InternalAcceptChannel extends InternalChannel {
+
+    private final SelectionKey key;
+    private final ServerSocketChannel serverChannel;
+    private final Callback<SocketChannel> acceptCallback;
+    private final Callback<Exception> exceptionCallback;
+    private final AcceptThrottle acceptThrottle;
+
+    private boolean suspended;
+
+    InternalAcceptChannel(
+            final SelectionKey key,
+            final ServerSocketChannel serverChannel,
+            final Callback<SocketChannel> acceptCallback,
+            final Callback<Exception> exceptionCallback,
+            final AcceptThrottle acceptThrottle) {
+        super(null);
+        this.key = key;
+        this.serverChannel = serverChannel;
+        this.acceptCallback = acceptCallback;
+        this.exceptionCallback = exceptionCallback;
+        this.acceptThrottle = acceptThrottle;
+    }
+
+    @Override
+    void onIOEvent(final int readyOps) throws IOException {
+        if ((readyOps & SelectionKey.OP_ACCEPT) != 0) {
+            for (;;) {
+                if (acceptThrottle != null && acceptThrottle.isSaturated()) {
+                    // Leave excess connections in the backlog until relieved
+                    suspend();
+                    break;
+                }
+                final SocketChannel socketChannel;
+                try {
+                    socketChannel = serverChannel.accept();
+                } catch (final IOException ex) {
+                    // Failure to accept a connection (too many open files, for instance)
+                    // should not bring down the endpoint
+                    exceptionCallback.execute(ex);
+                    break;
+                }
+                if (socketChannel == null) {
+                    break;
+                }
+                acceptCallback.execute(socketChannel);
+            }
+        }
+    }
+
+    private void suspend() {
+        if (!suspended && key.isValid()) {
+            key.interestOps(0);
+            suspended = true;
+        }
+    }
+
+    boolean isSuspended() {
+        return suspended;
+    }
+
+    /**
+     * Resumes accepting connections if suspended and no longer saturated.
+     */
+    void resume() {
+        if (suspended && key.isValid() && acceptThrottle.isRelieved()) {
+            key.interestOps(SelectionKey.OP_ACCEPT);
+            suspended = false;
+        }
+    }
+
+    @Override
+    int getTimeout() {
+        return 0;
+    }
+
+    @Override
+    boolean isOpen() {
+        return serverChannel.isOpen();
+    }
+
+    @Override
+    void onTimeout() throws IOException {
+    }
+
+    @Override
+    void onException(final Exception cause) {
+        exceptionCallback.execute(cause);
+    }
+
+    @Override
+    public void close() throws IOException {
+        key.cancel();
+        serverChannel.close();
+    }
+
+    @Override
+    public void shutdown(final ShutdownType shutdownType) {
+        try {
+            close();
+        } catch (final IOException ignore) {
+        }
+    }
+
+}
@@ -29,15 +29,26 @@
 
 import java.io.IOException;
 import java.nio.channels.CancelledKeyException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.hc.core5.io.GracefullyCloseable;
 import org.apache.hc.core5.io.ShutdownType;
 
 abstract class InternalChannel implements GracefullyCloseable {
 
+    private final TimeoutWheel timeoutWheel;
     private volatile long lastEventTime;
 
-    InternalChannel() {
+    // Timeout wheel bookkeeping; confined to the I/O reactor thread
+    InternalChannel timeoutPrev;
+    InternalChannel timeoutNext;
+    long timeoutTick;
+    boolean timeoutScheduled;
+    final AtomicBoolean timeoutUpdatePending;
+
+    InternalChannel(final TimeoutWheel timeoutWheel) {
+        this.timeoutWheel = timeoutWheel;
+        this.timeoutUpdatePending = new AtomicBoolean(false);
         this.lastEventTime = System.currentTimeMillis();
     }
 
@@ -49,6 +60,25 @@ abstract class InternalChannel implements GracefullyCloseable {
 
     abstract int getTimeout();
 
+    abstract boolean isOpen();
+
+    final long getTimeoutDeadline() {
+        final int timeout = getTimeout();
+        return timeout > 0 ? lastEventTime + timeout : 0;
+    }
+
+    final void updateTimeout() {
+        if (timeoutWheel != null) {
+            timeoutWheel.update(this);
+        }
+    }
+
+    final void cancelTimeout() {
+        if (timeoutWheel != null) {
+            timeoutWheel.cancel(this);
+        }
+    }
+
     final void handleIOEvent(final int ops) {
         lastEventTime = System.currentTimeMillis();
         try {
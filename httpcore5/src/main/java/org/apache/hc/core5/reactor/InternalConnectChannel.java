@@ -39,17 +39,21 @@ final class InternalConnectChannel extends InternalChannel {
     private final SelectionKey key;
     private final SocketChannel socketChannel;
     private final IOSessionRequest sessionRequest;
+    private final ConnectAttemptRace race;
     private final InternalDataChannelFactory dataChannelFactory;
 
     InternalConnectChannel(
             final SelectionKey key,
             final SocketChannel socketChannel,
             final IOSessionRequest sessionRequest,
-            final InternalDataChannelFactory dataChannelFactory) {
-        super();
+            final ConnectAttemptRace race,
+            final InternalDataChannelFactory dataChannelFactory,
+            final TimeoutWheel timeoutWheel) {
+        super(timeoutWheel);
         this.key = key;
         this.socketChannel = socketChannel;
         this.sessionRequest = sessionRequest;
+        this.race = race;
         this.dataChannelFactory = dataChannelFactory;
     }
 
@@ -59,12 +63,18 @@ void onIOEvent(final int readyOps) throws IOException {
             if (socketChannel.isConnectionPending()) {
                 socketChannel.finishConnect();
             }
+            if (race != null && !race.connected(this)) {
+                close();
+                return;
+            }
             final InternalDataChannel dataChannel = dataChannelFactory.create(
                     key,
                     socketChannel,
                     sessionRequest.remoteEndpoint,
                     sessionRequest.attachment);
+            cancelTimeout();
             key.attach(dataChannel);
+            dataChannel.updateTimeout();
             sessionRequest.completed(dataChannel);
             dataChannel.handleIOEvent(SelectionKey.OP_CONNECT);
         }
@@ -75,14 +85,28 @@ int getTimeout() {
         return sessionRequest.timeout.toMillisIntBound();
     }
 
+    @Override
+    boolean isOpen() {
+        // Once connected the channel is superseded by its data channel
+        return key.attachment() == this && socketChannel.isOpen();
+    }
+
     @Override
     void onTimeout() throws IOException {
-        sessionRequest.failed(new SocketTimeoutException());
+        if (race != null) {
+            race.failed(this, new SocketTimeoutException());
+        } else {
+            sessionRequest.failed(new SocketTimeoutException());
+        }
     }
 
     @Override
     void onException(final Exception cause) {
-        sessionRequest.failed(cause);
+        if (race != null) {
+            race.failed(this, cause);
+        } else {
+            sessionRequest.failed(cause);
+        }
     }
 
     @Override
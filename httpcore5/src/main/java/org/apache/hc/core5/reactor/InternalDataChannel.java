@@ -32,6 +32,7 @@
 import java.nio.channels.ByteChannel;
 import java.nio.channels.SelectionKey;
 import java.util.Queue;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -41,18 +42,23 @@
 import org.apache.hc.core5.io.ShutdownType;
 import org.apache.hc.core5.net.NamedEndpoint;
 import org.apache.hc.core5.reactor.ssl.SSLBufferManagement;
+import org.apache.hc.core5.reactor.ssl.SSLBufferPool;
 import org.apache.hc.core5.reactor.ssl.SSLIOSession;
 import org.apache.hc.core5.reactor.ssl.SSLMode;
 import org.apache.hc.core5.reactor.ssl.SSLSessionInitializer;
 import org.apache.hc.core5.reactor.ssl.SSLSessionVerifier;
 import org.apache.hc.core5.reactor.ssl.TlsDetails;
 import org.apache.hc.core5.util.Asserts;
+import org.apache.hc.core5.util.ByteBufferAllocator;
 
 final class InternalDataChannel extends InternalChannel implements TlsCapableIOSession {
 
     private final IOSession ioSession;
     private final NamedEndpoint namedEndpoint;
     private final IOSessionListener sessionListener;
+    private final IdleBufferPolicy idleBufferPolicy;
+    private final ByteBufferAllocator byteBufferAllocator;
+    private final SSLBufferPool sslBufferPool;
     private final AtomicReference<SSLIOSession> tlsSessionRef;
     private final Queue<InternalDataChannel> closedSessions;
     private final AtomicBoolean connected;
@@ -62,16 +68,32 @@ final class InternalDataChannel extends InternalChannel implements TlsCapableIOS
             final IOSession ioSession,
             final NamedEndpoint namedEndpoint,
             final IOSessionListener sessionListener,
-            final Queue<InternalDataChannel> closedSessions) {
+            final IdleBufferPolicy idleBufferPolicy,
+            final ByteBufferAllocator byteBufferAllocator,
+            final SSLBufferPool sslBufferPool,
+            final Queue<InternalDataChannel> closedSessions,
+            final TimeoutWheel timeoutWheel) {
+        super(timeoutWheel);
         this.ioSession = ioSession;
         this.namedEndpoint = namedEndpoint;
         this.closedSessions = closedSessions;
         this.sessionListener = sessionListener;
+        this.idleBufferPolicy = idleBufferPolicy;
+        this.byteBufferAllocator = byteBufferAllocator;
+        this.sslBufferPool = sslBufferPool;
         this.tlsSessionRef = new AtomicReference<>(null);
         this.connected = new AtomicBoolean(false);
         this.closed = new AtomicBoolean(false);
     }
 
+    /**
+     * Determines whether the channel has been accepted from a remote peer
+     * as opposed to having been connected to a remote endpoint.
+     */
+    boolean isAccepted() {
+        return namedEndpoint == null;
+    }
+
     @Override
     public String getId() {
         return ioSession.getId();
@@ -166,6 +188,11 @@ int getTimeout() {
         return ioSession.getSocketTimeout();
     }
 
+    @Override
+    boolean isOpen() {
+        return !getSessionImpl().isClosed();
+    }
+
     @Override
     void onTimeout() throws IOException {
         final IOEventHandler handler = getEventHandler();
@@ -202,12 +229,24 @@ public void startTls(
             final SSLBufferManagement sslBufferManagement,
             final SSLSessionInitializer initializer,
             final SSLSessionVerifier verifier) {
+        startTls(sslContext, sslBufferManagement, initializer, verifier, null);
+    }
+
+    @Override
+    public void startTls(
+            final SSLContext sslContext,
+            final SSLBufferManagement sslBufferManagement,
+            final SSLSessionInitializer initializer,
+            final SSLSessionVerifier verifier,
+            final Executor delegatedTaskExecutor) {
         if (!tlsSessionRef.compareAndSet(null, new SSLIOSession(
                 namedEndpoint,
                 ioSession,
                 namedEndpoint != null ? SSLMode.CLIENT : SSLMode.SERVER,
                 sslContext,
-                sslBufferManagement,
+                idleBufferPolicy == IdleBufferPolicy.RELEASE && sslBufferManagement != SSLBufferManagement.POOLED
+                        ? SSLBufferManagement.DYNAMIC : sslBufferManagement,
+                sslBufferManagement == SSLBufferManagement.POOLED ? sslBufferPool : byteBufferAllocator,
                 initializer,
                 verifier,
                 new Callback<SSLIOSession>() {
@@ -230,6 +269,18 @@ public void execute(final SSLIOSession sslSession) {
                         }
                     }
 
+                },
+                delegatedTaskExecutor,
+                new Callback<SSLIOSession>() {
+
+                    @Override
+                    public void execute(final SSLIOSession sslSession) {
+                        // Resume the handshake as if new input had arrived
+                        if (isOpen()) {
+                            handleIOEvent(SelectionKey.OP_READ);
+                        }
+                    }
+
                 }))) {
             throw new IllegalStateException("TLS already activated");
         }
@@ -343,6 +394,11 @@ public void setSocketTimeout(final int timeout) {
         ioSession.setSocketTimeout(timeout);
     }
 
+    @Override
+    public IOEventLoop getEventLoop() {
+        return ioSession.getEventLoop();
+    }
+
     @Override
     public String toString() {
         return getSessionImpl().toString();
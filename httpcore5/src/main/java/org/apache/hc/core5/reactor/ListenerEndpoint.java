@@ -55,4 +55,25 @@ public interface ListenerEndpoint extends GracefullyCloseable  {
      */
     boolean isClosed();
 
+    /**
+     * Returns the number of open connections accepted by the I/O reactor
+     * this endpoint belongs to, across all of its endpoints.
+     *
+     * @return number of open accepted connections.
+     *
+     * @since 5.0
+     */
+    int getConnectionCount();
+
+    /**
+     * Returns the maximum number of open connections the I/O reactor this
+     * endpoint belongs to accepts before it stops accepting new ones.
+     *
+     * @return connection limit or {@code 0} if unlimited.
+     *
+     * @see IOReactorConfig#getMaxConnections()
+     * @since 5.0
+     */
+    int getMaxConnections();
+
 }
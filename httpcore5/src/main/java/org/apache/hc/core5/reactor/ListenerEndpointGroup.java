@@ -0,0 +1,112 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.hc.core5.io.ShutdownType;
+
+/**
+ * Listener endpoint backed by several server channels bound to the same
+ * socket address with {@code SO_REUSEPORT}, each of them accepting
+ * connections on a different I/O dispatch thread.
+ */
+class ListenerEndpointGroup implements ListenerEndpoint {
+
+    private final List<ServerSocketChannel> serverChannels;
+    private final SocketAddress address;
+    private final ConnectionLimit connectionLimit;
+    private final AtomicBoolean closed;
+
+    ListenerEndpointGroup(
+            final List<ServerSocketChannel> serverChannels,
+            final SocketAddress address,
+            final ConnectionLimit connectionLimit) {
+        super();
+        this.serverChannels = serverChannels;
+        this.address = address;
+        this.connectionLimit = connectionLimit;
+        this.closed = new AtomicBoolean(false);
+    }
+
+    @Override
+    public SocketAddress getAddress() {
+        return this.address;
+    }
+
+    @Override
+    public int getConnectionCount() {
+        return this.connectionLimit.getCount();
+    }
+
+    @Override
+    public int getMaxConnections() {
+        return this.connectionLimit.getMax();
+    }
+
+    @Override
+    public String toString() {
+        return "endpoint: " + address + " (x" + serverChannels.size() + ")";
+    }
+
+    @Override
+    public boolean isClosed() {
+        return this.closed.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed.compareAndSet(false, true)) {
+            IOException exception = null;
+            for (final ServerSocketChannel serverChannel : serverChannels) {
+                try {
+                    serverChannel.close();
+                } catch (final IOException ex) {
+                    if (exception == null) {
+                        exception = ex;
+                    }
+                }
+            }
+            if (exception != null) {
+                throw exception;
+            }
+        }
+    }
+
+    @Override
+    public void shutdown(final ShutdownType shutdownType) {
+        try {
+            close();
+        } catch (final IOException ignore) {
+        }
+    }
+
+}
@@ -30,20 +30,26 @@
 import java.io.IOException;
 import java.net.SocketAddress;
 import java.nio.channels.SelectionKey;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.hc.core5.io.ShutdownType;
+import org.apache.hc.core5.net.UnixDomainSocketSupport;
 
 class ListenerEndpointImpl implements ListenerEndpoint {
 
     private final SelectionKey key;
     private final SocketAddress address;
+    private final ConnectionLimit connectionLimit;
     private final AtomicBoolean closed;
 
-    public ListenerEndpointImpl(final SelectionKey key, final SocketAddress address) {
+    public ListenerEndpointImpl(
+            final SelectionKey key, final SocketAddress address, final ConnectionLimit connectionLimit) {
         super();
         this.key = key;
         this.address = address;
+        this.connectionLimit = connectionLimit;
         this.closed = new AtomicBoolean(false);
     }
 
@@ -52,6 +58,16 @@ public SocketAddress getAddress() {
         return this.address;
     }
 
+    @Override
+    public int getConnectionCount() {
+        return this.connectionLimit.getCount();
+    }
+
+    @Override
+    public int getMaxConnections() {
+        return this.connectionLimit.getMax();
+    }
+
     @Override
     public String toString() {
         return "endpoint: " + address;
@@ -67,6 +83,11 @@ public void close() throws IOException {
         if (closed.compareAndSet(false, true)) {
             key.cancel();
             key.channel().close();
+            final Path path = UnixDomainSocketSupport.getPath(address);
+            if (path != null) {
+                // Unix domain socket files outlive their channels
+                Files.deleteIfExists(path);
+            }
         }
     }
 
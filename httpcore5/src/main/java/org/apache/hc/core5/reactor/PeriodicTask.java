@@ -0,0 +1,85 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * Task re-scheduled with the same {@link IOEventLoop} at a fixed delay
+ * until cancelled.
+ */
+final class PeriodicTask implements Runnable, Cancellable {
+
+    private final IOEventLoop eventLoop;
+    private final Runnable task;
+    private final TimeValue interval;
+    private final AtomicBoolean cancelled;
+
+    private volatile Cancellable scheduled;
+
+    PeriodicTask(final IOEventLoop eventLoop, final Runnable task, final TimeValue interval) {
+        this.eventLoop = eventLoop;
+        this.task = task;
+        this.interval = interval;
+        this.cancelled = new AtomicBoolean(false);
+    }
+
+    PeriodicTask start() {
+        this.scheduled = this.eventLoop.schedule(this, this.interval);
+        return this;
+    }
+
+    @Override
+    public void run() {
+        if (this.cancelled.get()) {
+            return;
+        }
+        try {
+            this.task.run();
+        } finally {
+            if (!this.cancelled.get()) {
+                this.scheduled = this.eventLoop.schedule(this, this.interval);
+            }
+        }
+    }
+
+    @Override
+    public boolean cancel() {
+        if (this.cancelled.compareAndSet(false, true)) {
+            final Cancellable cancellable = this.scheduled;
+            if (cancellable != null) {
+                cancellable.cancel();
+            }
+            return true;
+        }
+        return false;
+    }
+
+}
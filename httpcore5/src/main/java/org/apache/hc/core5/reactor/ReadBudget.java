@@ -0,0 +1,138 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.GatheringByteChannel;
+
+/**
+ * Limit on the number of bytes I/O sessions may read per I/O event.
+ * The budget is shared by all sessions of an I/O dispatch thread and
+ * reset before each I/O event dispatch, therefore it must only be
+ * used by the I/O dispatch thread.
+ */
+final class ReadBudget {
+
+    private final int limit;
+
+    private int remaining;
+
+    ReadBudget(final int limit) {
+        super();
+        this.limit = limit;
+        this.remaining = limit;
+    }
+
+    void reset() {
+        this.remaining = this.limit;
+    }
+
+    int getRemaining() {
+        return this.remaining;
+    }
+
+    /**
+     * Returns a channel that reads at most as many bytes as the budget permits.
+     * Gathering writes are passed through to the channel if it supports them.
+     */
+    ByteChannel wrap(final ByteChannel channel) {
+        return new BudgetChannel(channel);
+    }
+
+    private class BudgetChannel implements ByteChannel, GatheringByteChannel {
+
+        private final ByteChannel channel;
+
+        BudgetChannel(final ByteChannel channel) {
+            super();
+            this.channel = channel;
+        }
+
+        @Override
+        public int read(final ByteBuffer dst) throws IOException {
+            if (remaining <= 0) {
+                return 0;
+            }
+            final int limit = dst.limit();
+            if (dst.remaining() > remaining) {
+                dst.limit(dst.position() + remaining);
+            }
+            final int bytesRead;
+            try {
+                bytesRead = channel.read(dst);
+            } finally {
+                dst.limit(limit);
+            }
+            if (bytesRead > 0) {
+                remaining -= bytesRead;
+            }
+            return bytesRead;
+        }
+
+        @Override
+        public int write(final ByteBuffer src) throws IOException {
+            return channel.write(src);
+        }
+
+        @Override
+        public long write(final ByteBuffer[] srcs, final int offset, final int length) throws IOException {
+            if (channel instanceof GatheringByteChannel) {
+                return ((GatheringByteChannel) channel).write(srcs, offset, length);
+            }
+            long total = 0;
+            for (int i = offset; i < offset + length; i++) {
+                final ByteBuffer src = srcs[i];
+                if (src.hasRemaining()) {
+                    total += channel.write(src);
+                    if (src.hasRemaining()) {
+                        break;
+                    }
+                }
+            }
+            return total;
+        }
+
+        @Override
+        public long write(final ByteBuffer[] srcs) throws IOException {
+            return write(srcs, 0, srcs.length);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.function.Callback;
+
+/**
+ * Task scheduled for delayed execution by an {@link IOEventLoop}.
+ */
+final class ScheduledTask implements Cancellable, Comparable<ScheduledTask> {
+
+    private static final int PENDING = 0;
+    private static final int EXECUTED = 1;
+    private static final int CANCELLED = 2;
+
+    private final Runnable task;
+    private final long deadline;
+    private final long seqNo;
+    private final Callback<ScheduledTask> cancellationCallback;
+    private final AtomicInteger state;
+
+    ScheduledTask(
+            final Runnable task,
+            final long deadline,
+            final long seqNo,
+            final Callback<ScheduledTask> cancellationCallback) {
+        this.task = task;
+        this.deadline = deadline;
+        this.seqNo = seqNo;
+        this.cancellationCallback = cancellationCallback;
+        this.state = new AtomicInteger(PENDING);
+    }
+
+    /**
+     * Returns the deadline as {@link System#nanoTime()} value.
+     */
+    long getDeadline() {
+        return this.deadline;
+    }
+
+    boolean isCancelled() {
+        return this.state.get() == CANCELLED;
+    }
+
+    void run() {
+        if (this.state.compareAndSet(PENDING, EXECUTED)) {
+            this.task.run();
+        }
+    }
+
+    @Override
+    public boolean cancel() {
+        if (this.state.compareAndSet(PENDING, CANCELLED)) {
+            if (this.cancellationCallback != null) {
+                this.cancellationCallback.execute(this);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public int compareTo(final ScheduledTask other) {
+        if (this.deadline != other.deadline) {
+            // Deadlines are nanoTime values which must be compared by difference
+            return this.deadline - other.deadline < 0 ? -1 : 1;
+        }
+        return this.seqNo < other.seqNo ? -1 : (this.seqNo == other.seqNo ? 0 : 1);
+    }
+
+    @Override
+    public String toString() {
+        return this.task.toString();
+    }
+
+}
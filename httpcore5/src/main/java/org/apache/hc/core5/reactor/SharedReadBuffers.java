@@ -0,0 +1,66 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.reactor;
+
+import java.nio.ByteBuffer;
+
+import org.apache.hc.core5.annotation.Internal;
+
+/**
+ * Read buffers owned by the I/O reactor thread that can be shared by all
+ * sessions of an {@link IOEventLoop} while processing a single I/O event.
+ * <p>
+ * This interface is not a part of the public API. Protocol handlers should
+ * check whether the event loop of their session implements it.
+ * </p>
+ *
+ * @see IOReactorConfig#getSharedReadBufferSize()
+ * @since 5.0
+ */
+@Internal
+public interface SharedReadBuffers {
+
+    /**
+     * Acquires a read buffer owned by the event loop. The buffer is cleared
+     * and may be used by the I/O reactor thread while processing the current
+     * I/O event. It must be given back with {@link #releaseReadBuffer(ByteBuffer)}
+     * before the event processing completes and must not be referenced afterwards.
+     *
+     * @return a read buffer or {@code null} if shared read buffers are disabled
+     *   or if called by a thread other than the I/O reactor thread.
+     */
+    ByteBuffer acquireReadBuffer();
+
+    /**
+     * Gives back a read buffer previously obtained with {@link #acquireReadBuffer()}.
+     *
+     * @param buffer the read buffer.
+     */
+    void releaseReadBuffer(ByteBuffer buffer);
+
+}
@@ -28,29 +28,51 @@
 package org.apache.hc.core5.reactor;
 
 import java.io.IOException;
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
 import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
 import java.nio.channels.CancelledKeyException;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.apache.hc.core5.concurrent.Cancellable;
 import org.apache.hc.core5.concurrent.FutureCallback;
 import org.apache.hc.core5.function.Callback;
 import org.apache.hc.core5.function.Decorator;
 import org.apache.hc.core5.io.ShutdownType;
 import org.apache.hc.core5.net.NamedEndpoint;
+import org.apache.hc.core5.net.UnixDomainSocketSupport;
+import org.apache.hc.core5.reactor.ssl.SSLBufferPool;
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.ByteBufferAllocator;
 import org.apache.hc.core5.util.TimeValue;
 
-class SingleCoreIOReactor extends AbstractSingleCoreIOReactor implements ConnectionInitiator {
+class SingleCoreIOReactor extends AbstractSingleCoreIOReactor
+        implements ConnectionInitiator, IODispatcherLoad, IOEventLoop, SharedReadBuffers {
+
+    private static final int TIMEOUT_WHEEL_SIZE = 512;
+    private static final int MIN_CANCELLED_TASK_PURGE = 64;
 
     private final IOEventHandlerFactory eventHandlerFactory;
     private final IOReactorConfig reactorConfig;
@@ -60,17 +82,66 @@ class SingleCoreIOReactor extends AbstractSingleCoreIOReactor implements Connect
     private final Queue<InternalDataChannel> closedSessions;
     private final Queue<SocketChannel> channelQueue;
     private final Queue<IOSessionRequest> requestQueue;
+    private final Queue<ServerSocketChannel> listenerQueue;
+    private final Queue<Runnable> taskQueue;
+    private final PriorityQueue<ScheduledTask> scheduledTasks;
+    private final AtomicLong scheduledTaskCount;
+    private final Callback<ScheduledTask> scheduledTaskCancellation;
+    private final AtomicInteger cancelledTaskCount;
     private final AtomicBoolean shutdownInitiated;
+    private final AtomicBoolean terminated;
+    private final AtomicBoolean wakeupPending;
+    private final TimeoutWheel timeoutWheel;
+    private final AtomicInteger pendingCount;
+    private final boolean metricsEnabled;
+    private final AtomicLong maxHandlerTime;
+    private final boolean watchdogEnabled;
+    private final int maxChannelsPerIteration;
+    private final int maxConnectionRequestsPerIteration;
+    private final ReadBudget readBudget;
+    private final AddressResolver addressResolver;
+    private final TimeValue connectAttemptDelay;
+    private final int readBufferSize;
+    private final Deque<ByteBuffer> readBuffers;
+    private final IdleBufferPolicy idleBufferPolicy;
+    private final ByteBufferAllocator byteBufferAllocator;
+    private final SSLBufferPool sslBufferPool;
+    private final boolean sslBufferPoolOwned;
+    private final ConnectionLimit connectionLimit;
+    private final ConnectionLimit globalConnectionLimit;
+    private final Runnable acceptCapacityCallback;
+    private final AcceptThrottle acceptThrottle;
+    // Accessed by the I/O reactor thread only
+    private final List<InternalAcceptChannel> acceptChannels;
 
-    private volatile long lastTimeoutCheck;
+    private volatile Thread thread;
+    private volatile int sessionCount;
+    private volatile long eventLoopLatency;
+    private volatile long iterationCount;
+    private volatile long eventCount;
+    private volatile long selectWaitTime;
+    private volatile long processingTime;
+    // Start of the current event loop iteration or 0 while waiting in select
+    private volatile long iterationStart;
+    private volatile InternalChannel currentChannel;
+    // Accessed by the watchdog thread only
+    private long stallReported;
 
+    /**
+     * @param globalConnectionLimit limit of connections accepted by all I/O reactors
+     *   of a listening I/O reactor. Can be {@code null}.
+     * @param acceptCapacityCallback callback invoked when closing an accepted connection
+     *   relieves a saturated connection limit. Can be {@code null}.
+     */
     SingleCoreIOReactor(
             final Queue<ExceptionEvent> auditLog,
             final IOEventHandlerFactory eventHandlerFactory,
             final IOReactorConfig reactorConfig,
             final Decorator<IOSession> ioSessionDecorator,
             final IOSessionListener sessionListener,
-            final Callback<IOSession> sessionShutdownCallback) {
+            final Callback<IOSession> sessionShutdownCallback,
+            final ConnectionLimit globalConnectionLimit,
+            final Runnable acceptCapacityCallback) {
         super(auditLog);
         this.eventHandlerFactory = Args.notNull(eventHandlerFactory, "Event handler factory");
         this.reactorConfig = Args.notNull(reactorConfig, "I/O reactor config");
@@ -78,9 +149,84 @@ class SingleCoreIOReactor extends AbstractSingleCoreIOReactor implements Connect
         this.sessionListener = sessionListener;
         this.sessionShutdownCallback = sessionShutdownCallback;
         this.shutdownInitiated = new AtomicBoolean(false);
+        this.terminated = new AtomicBoolean(false);
         this.closedSessions = new ConcurrentLinkedQueue<>();
         this.channelQueue = new ConcurrentLinkedQueue<>();
         this.requestQueue = new ConcurrentLinkedQueue<>();
+        this.listenerQueue = new ConcurrentLinkedQueue<>();
+        this.taskQueue = new ConcurrentLinkedQueue<>();
+        this.scheduledTasks = new PriorityQueue<>();
+        this.scheduledTaskCount = new AtomicLong(0);
+        this.cancelledTaskCount = new AtomicInteger(0);
+        this.scheduledTaskCancellation = new Callback<ScheduledTask>() {
+
+            @Override
+            public void execute(final ScheduledTask scheduledTask) {
+                // Cancelled tasks are dropped once they reach the head of the queue
+                // or by a periodic purge, as removing them from the heap takes linear time
+                cancelledTaskCount.incrementAndGet();
+            }
+
+        };
+        this.wakeupPending = new AtomicBoolean(false);
+        this.pendingCount = new AtomicInteger(0);
+        this.metricsEnabled = this.reactorConfig.isMetricsEnabled();
+        this.maxHandlerTime = new AtomicLong(0);
+        this.watchdogEnabled = TimeValue.isPositive(this.reactorConfig.getStallThreshold());
+        this.maxChannelsPerIteration = this.reactorConfig.getMaxChannelsPerIteration() > 0
+                ? this.reactorConfig.getMaxChannelsPerIteration() : Integer.MAX_VALUE;
+        this.maxConnectionRequestsPerIteration = this.reactorConfig.getMaxConnectionRequestsPerIteration() > 0
+                ? this.reactorConfig.getMaxConnectionRequestsPerIteration() : Integer.MAX_VALUE;
+        this.readBudget = this.reactorConfig.getMaxSessionBytesPerIteration() > 0
+                ? new ReadBudget(this.reactorConfig.getMaxSessionBytesPerIteration()) : null;
+        this.addressResolver = this.reactorConfig.getAddressResolver();
+        this.connectAttemptDelay = this.reactorConfig.getConnectAttemptDelay();
+        this.readBufferSize = this.reactorConfig.getSharedReadBufferSize();
+        this.readBuffers = new ArrayDeque<>();
+        this.idleBufferPolicy = this.reactorConfig.getIdleBufferPolicy();
+        this.byteBufferAllocator = this.reactorConfig.getByteBufferAllocator();
+        this.sslBufferPoolOwned = this.reactorConfig.getSslBufferPool() == null;
+        this.sslBufferPool = this.sslBufferPoolOwned
+                ? new SSLBufferPool(this.byteBufferAllocator) : this.reactorConfig.getSslBufferPool();
+        this.connectionLimit = new ConnectionLimit(this.reactorConfig.getMaxConnectionsPerDispatcher());
+        this.globalConnectionLimit = globalConnectionLimit != null ? globalConnectionLimit : new ConnectionLimit(0);
+        this.acceptCapacityCallback = acceptCapacityCallback;
+        this.acceptThrottle = new AcceptThrottle() {
+
+            @Override
+            public boolean isSaturated() {
+                return connectionLimit.isSaturated() || SingleCoreIOReactor.this.globalConnectionLimit.isSaturated();
+            }
+
+            @Override
+            public boolean isRelieved() {
+                return connectionLimit.isRelieved() && SingleCoreIOReactor.this.globalConnectionLimit.isRelieved();
+            }
+
+        };
+        this.acceptChannels = new ArrayList<>();
+        this.timeoutWheel = new TimeoutWheel(
+                Math.max(this.reactorConfig.getSelectInterval(), 1),
+                TIMEOUT_WHEEL_SIZE,
+                System.currentTimeMillis());
+    }
+
+    SingleCoreIOReactor(
+            final Queue<ExceptionEvent> auditLog,
+            final IOEventHandlerFactory eventHandlerFactory,
+            final IOReactorConfig reactorConfig,
+            final Decorator<IOSession> ioSessionDecorator,
+            final IOSessionListener sessionListener,
+            final Callback<IOSession> sessionShutdownCallback) {
+        this(auditLog, eventHandlerFactory, reactorConfig, ioSessionDecorator, sessionListener,
+                sessionShutdownCallback, null, null);
+    }
+
+    /**
+     * Returns the limit of connections accepted by this I/O reactor.
+     */
+    ConnectionLimit getConnectionLimit() {
+        return this.connectionLimit;
     }
 
     void enqueueChannel(final SocketChannel socketChannel) throws IOReactorShutdownException {
@@ -88,28 +234,309 @@ void enqueueChannel(final SocketChannel socketChannel) throws IOReactorShutdownE
         if (getStatus().compareTo(IOReactorStatus.ACTIVE) > 0) {
             throw new IOReactorShutdownException("I/O reactor has been shut down");
         }
+        acquireConnection();
+        this.pendingCount.incrementAndGet();
         this.channelQueue.add(socketChannel);
         this.selector.wakeup();
     }
 
+    /**
+     * Hands over a bound server channel to this reactor, which will then accept
+     * connections on it directly.
+     */
+    void enqueueListener(final ServerSocketChannel serverChannel) throws IOReactorShutdownException {
+        Args.notNull(serverChannel, "ServerSocketChannel");
+        if (getStatus().compareTo(IOReactorStatus.ACTIVE) > 0) {
+            throw new IOReactorShutdownException("I/O reactor has been shut down");
+        }
+        this.listenerQueue.add(serverChannel);
+        this.selector.wakeup();
+    }
+
+    @Override
+    public boolean inEventLoop() {
+        return Thread.currentThread() == this.thread;
+    }
+
+    /**
+     * Schedules the task for execution by the I/O reactor thread. Wake-ups
+     * requested by other threads are coalesced: the selector is woken up
+     * at most once per select cycle. Tasks submitted after the I/O reactor
+     * thread has terminated are rejected.
+     */
+    @Override
+    public void execute(final Runnable task) {
+        Args.notNull(task, "Task");
+        this.taskQueue.add(task);
+        // A task still queued after termination will never be run
+        if (this.terminated.get() && this.taskQueue.remove(task)) {
+            throw new RejectedExecutionException("I/O reactor has been shut down");
+        }
+        wakeup();
+    }
+
+    /**
+     * Wakes up the I/O reactor thread unless a wake-up is pending already.
+     */
+    void wakeup() {
+        if (!inEventLoop() && this.wakeupPending.compareAndSet(false, true)) {
+            this.selector.wakeup();
+        }
+    }
+
+    private void acquireConnection() {
+        this.connectionLimit.increment();
+        this.globalConnectionLimit.increment();
+    }
+
+    private void releaseConnection() {
+        final boolean relieved = this.connectionLimit.decrement();
+        if (this.globalConnectionLimit.decrement() || relieved) {
+            if (this.acceptCapacityCallback != null) {
+                this.acceptCapacityCallback.run();
+            }
+        }
+    }
+
+    private void resumeAcceptChannels() {
+        if (this.acceptChannels.isEmpty() || !this.acceptThrottle.isRelieved()) {
+            return;
+        }
+        final Iterator<InternalAcceptChannel> it = this.acceptChannels.iterator();
+        while (it.hasNext()) {
+            final InternalAcceptChannel acceptChannel = it.next();
+            if (!acceptChannel.isOpen()) {
+                it.remove();
+            } else if (acceptChannel.isSuspended()) {
+                acceptChannel.resume();
+            }
+        }
+    }
+
+    @Override
+    public Cancellable schedule(final Runnable task, final TimeValue delay) {
+        Args.notNull(task, "Task");
+        Args.notNull(delay, "Delay");
+        final ScheduledTask scheduledTask = new ScheduledTask(
+                task,
+                System.nanoTime() + Math.max(delay.toNanos(), 0),
+                this.scheduledTaskCount.getAndIncrement(),
+                this.scheduledTaskCancellation);
+        if (inEventLoop()) {
+            this.scheduledTasks.add(scheduledTask);
+        } else {
+            execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    scheduledTasks.add(scheduledTask);
+                }
+
+            });
+        }
+        return scheduledTask;
+    }
+
+    @Override
+    public ByteBuffer acquireReadBuffer() {
+        if (this.readBufferSize <= 0 || !inEventLoop()) {
+            return null;
+        }
+        final ByteBuffer buffer = this.readBuffers.pollFirst();
+        if (buffer != null) {
+            buffer.clear();
+            return buffer;
+        }
+        return this.byteBufferAllocator.allocate(this.readBufferSize);
+    }
+
+    @Override
+    public void releaseReadBuffer(final ByteBuffer buffer) {
+        if (buffer != null && buffer.capacity() >= this.readBufferSize && inEventLoop()) {
+            this.readBuffers.addFirst(buffer);
+        }
+    }
+
+    private void discardReadBuffers() {
+        for (;;) {
+            final ByteBuffer buffer = this.readBuffers.pollFirst();
+            if (buffer == null) {
+                break;
+            }
+            this.byteBufferAllocator.release(buffer);
+        }
+    }
+
+    @Override
+    public int getSessionCount() {
+        return this.sessionCount;
+    }
+
+    @Override
+    public int getPendingCount() {
+        return this.pendingCount.get();
+    }
+
+    @Override
+    public long getEventLoopLatency() {
+        return this.eventLoopLatency;
+    }
+
+    /**
+     * Returns a snapshot of event loop metrics. Resets the slowest
+     * I/O event handler invocation time.
+     */
+    IOReactorMetrics getMetrics() {
+        final Thread currentThread = this.thread;
+        return new IOReactorMetrics(
+                currentThread != null ? currentThread.getName() : null,
+                this.iterationCount,
+                this.eventCount,
+                this.selectWaitTime,
+                this.processingTime,
+                this.maxHandlerTime.getAndSet(0),
+                this.sessionCount,
+                this.channelQueue.size(),
+                this.requestQueue.size(),
+                this.closedSessions.size());
+    }
+
+    /**
+     * Reports event loop metrics to the callback at the given interval.
+     * The callback is executed by the I/O reactor thread.
+     */
+    Cancellable subscribeMetrics(final TimeValue interval, final Callback<IOReactorMetrics> callback) {
+        Args.notNull(interval, "Interval");
+        Args.notNull(callback, "Callback");
+        return new PeriodicTask(this, new Runnable() {
+
+            @Override
+            public void run() {
+                callback.execute(getMetrics());
+            }
+
+        }, interval).start();
+    }
+
+    /**
+     * Reports the current event loop iteration to the exception log if it has
+     * been running for longer than the threshold. Each stalled iteration gets
+     * reported once. Called by the watchdog thread.
+     */
+    void checkStall(final long now, final long threshold) {
+        final long start = this.iterationStart;
+        if (start == 0 || start == this.stallReported || now - start <= threshold) {
+            return;
+        }
+        this.stallReported = start;
+        final Thread currentThread = this.thread;
+        final InternalChannel channel = this.currentChannel;
+        String sessionId = null;
+        String handlerClass = null;
+        if (channel instanceof InternalDataChannel) {
+            final InternalDataChannel dataChannel = (InternalDataChannel) channel;
+            sessionId = dataChannel.getId();
+            final IOEventHandler handler = dataChannel.getHandler();
+            handlerClass = handler != null ? handler.getClass().getName() : null;
+        } else if (channel != null) {
+            handlerClass = channel.getClass().getName();
+        }
+        final IOReactorStallException ex = new IOReactorStallException(
+                currentThread != null ? currentThread.getName() : null,
+                sessionId,
+                handlerClass,
+                TimeUnit.NANOSECONDS.toMillis(now - start));
+        if (currentThread != null) {
+            ex.setStackTrace(currentThread.getStackTrace());
+        }
+        addExceptionEvent(ex);
+    }
+
+    static List<IOReactorMetrics> getMetrics(final SingleCoreIOReactor[] dispatchers) {
+        final List<IOReactorMetrics> metrics = new ArrayList<>(dispatchers.length);
+        for (final SingleCoreIOReactor dispatcher : dispatchers) {
+            metrics.add(dispatcher.getMetrics());
+        }
+        return metrics;
+    }
+
+    static Cancellable subscribeMetrics(
+            final SingleCoreIOReactor[] dispatchers,
+            final TimeValue interval,
+            final Callback<IOReactorMetrics> callback) {
+        final List<Cancellable> subscriptions = new ArrayList<>(dispatchers.length);
+        for (final SingleCoreIOReactor dispatcher : dispatchers) {
+            subscriptions.add(dispatcher.subscribeMetrics(interval, callback));
+        }
+        return new Cancellable() {
+
+            @Override
+            public boolean cancel() {
+                boolean cancelled = false;
+                for (final Cancellable subscription : subscriptions) {
+                    cancelled |= subscription.cancel();
+                }
+                return cancelled;
+            }
+
+        };
+    }
+
     @Override
     void doTerminate() {
+        closePendingListeners();
         closePendingChannels();
         closePendingConnectionRequests();
         processClosedSessions();
+        this.terminated.set(true);
+        runPendingTasks();
+        shutdownActiveSessions();
+        this.scheduledTasks.clear();
+        this.cancelledTaskCount.set(0);
+        discardReadBuffers();
+        if (this.sslBufferPoolOwned) {
+            this.sslBufferPool.clear();
+        }
     }
 
     @Override
     void doExecute() throws IOException {
         final long selectTimeout = this.reactorConfig.getSelectInterval();
+        final int selectSpinCount = this.reactorConfig.getSelectSpinCount();
+        int spinsLeft = 0;
+        this.thread = Thread.currentThread();
         while (!Thread.currentThread().isInterrupted()) {
 
-            final int readyCount = this.selector.select(selectTimeout);
+            // Tasks submitted after the last wake-up flag reset must not wait for the select timeout
+            this.wakeupPending.set(false);
+            final long timeout = computeSelectTimeout(selectTimeout);
+            final long selectTime = this.metricsEnabled ? System.nanoTime() : 0;
+            if (this.watchdogEnabled) {
+                this.iterationStart = 0;
+            }
+            final int readyCount;
+            if (timeout <= 0) {
+                readyCount = this.selector.selectNow();
+            } else if (spinsLeft > 0) {
+                // Poll without parking the thread while I/O events are expected shortly
+                readyCount = this.selector.selectNow();
+                spinsLeft--;
+            } else {
+                readyCount = this.selector.select(timeout);
+            }
+            final long startTime = System.nanoTime();
+            if (this.watchdogEnabled) {
+                this.iterationStart = startTime;
+            }
+            if (this.metricsEnabled) {
+                this.selectWaitTime += startTime - selectTime;
+            }
 
             if (getStatus().compareTo(IOReactorStatus.SHUTTING_DOWN) >= 0) {
                 if (this.shutdownInitiated.compareAndSet(false, true)) {
                     initiateSessionShutdown();
                 }
+                closePendingListeners();
                 closePendingChannels();
             }
             if (getStatus().compareTo(IOReactorStatus.SHUT_DOWN) == 0) {
@@ -119,19 +546,32 @@ void doExecute() throws IOException {
             // Process selected I/O events
             if (readyCount > 0) {
                 processEvents(this.selector.selectedKeys());
+                spinsLeft = selectSpinCount;
+            } else if (this.idleBufferPolicy == IdleBufferPolicy.RELEASE) {
+                discardReadBuffers();
             }
 
+            runPendingTasks();
+            runScheduledTasks();
+
             validateActiveChannels();
 
             // Process closed sessions
             processClosedSessions();
+            resumeAcceptChannels();
 
             // If active process new channels
             if (getStatus().compareTo(IOReactorStatus.ACTIVE) == 0) {
+                processPendingListeners();
                 processPendingChannels();
                 processPendingConnectionRequests();
             }
 
+            // Smooth out the iteration time (alpha = 1/8); the reactor thread is the only writer
+            final long latency = this.eventLoopLatency;
+            this.eventLoopLatency = latency + ((System.nanoTime() - startTime - latency) >> 3);
+            this.iterationCount++;
+
             // Exit select loop if graceful shutdown has been completed
             if (getStatus().compareTo(IOReactorStatus.SHUTTING_DOWN) == 0 && this.selector.keys().isEmpty()) {
                 break;
@@ -143,46 +583,166 @@ void doExecute() throws IOException {
     }
 
     private void initiateSessionShutdown() {
-        if (this.sessionShutdownCallback != null) {
-            final Set<SelectionKey> keys = this.selector.keys();
-            for (final SelectionKey key : keys) {
-                final InternalChannel channel = (InternalChannel) key.attachment();
-                if (channel instanceof InternalDataChannel) {
+        final Set<SelectionKey> keys = this.selector.keys();
+        for (final SelectionKey key : keys) {
+            final InternalChannel channel = (InternalChannel) key.attachment();
+            if (channel instanceof InternalAcceptChannel) {
+                channel.shutdown(ShutdownType.IMMEDIATE);
+            } else if (channel instanceof InternalDataChannel) {
+                if (this.sessionShutdownCallback != null) {
                     this.sessionShutdownCallback.execute((InternalDataChannel) channel);
                 }
             }
         }
     }
 
-    private void validateActiveChannels() {
-        final long currentTime = System.currentTimeMillis();
-        if( (currentTime - this.lastTimeoutCheck) >= this.reactorConfig.getSelectInterval()) {
-            this.lastTimeoutCheck = currentTime;
-            for (final SelectionKey key : this.selector.keys()) {
-                timeoutCheck(key, currentTime);
+    /**
+     * Shuts down sessions left open by the I/O reactor thread, so that they
+     * release their buffers before the selector is closed.
+     */
+    private void shutdownActiveSessions() {
+        final Set<SelectionKey> keys = this.selector.keys();
+        for (final SelectionKey key : keys) {
+            final Object attachment = key.attachment();
+            if (attachment instanceof InternalDataChannel) {
+                ((InternalDataChannel) attachment).shutdown(ShutdownType.GRACEFUL);
             }
         }
     }
 
+    private void runPendingTasks() {
+        Runnable task;
+        while ((task = this.taskQueue.poll()) != null) {
+            try {
+                task.run();
+            } catch (final RuntimeException ex) {
+                addExceptionEvent(ex);
+            }
+        }
+    }
+
+    private void runScheduledTasks() {
+        purgeCancelledTasks();
+        final long now = System.nanoTime();
+        ScheduledTask scheduledTask;
+        while ((scheduledTask = this.scheduledTasks.peek()) != null
+                && (scheduledTask.isCancelled() || scheduledTask.getDeadline() - now <= 0)) {
+            this.scheduledTasks.poll();
+            try {
+                scheduledTask.run();
+            } catch (final RuntimeException ex) {
+                addExceptionEvent(ex);
+            }
+            // The task may have been cancelled after it was polled, in which case it did not run
+            if (scheduledTask.isCancelled()) {
+                this.cancelledTaskCount.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Removes cancelled tasks from the scheduled task queue once they make up
+     * the majority of it, so that tasks cancelled long before their deadline
+     * do not accumulate.
+     */
+    private void purgeCancelledTasks() {
+        final int cancelled = this.cancelledTaskCount.get();
+        if (cancelled < MIN_CANCELLED_TASK_PURGE || cancelled <= this.scheduledTasks.size() / 2) {
+            return;
+        }
+        int removed = 0;
+        for (final Iterator<ScheduledTask> it = this.scheduledTasks.iterator(); it.hasNext(); ) {
+            if (it.next().isCancelled()) {
+                it.remove();
+                removed++;
+            }
+        }
+        this.cancelledTaskCount.addAndGet(-removed);
+    }
+
+    /**
+     * Returns the time in milliseconds to block in select for or {@code 0}
+     * if there are tasks ready to be run or channels and connection requests
+     * left over from the previous iteration due to per iteration limits.
+     */
+    private long computeSelectTimeout(final long selectTimeout) {
+        if (!this.taskQueue.isEmpty()) {
+            return 0;
+        }
+        if (getStatus().compareTo(IOReactorStatus.ACTIVE) == 0
+                && (!this.channelQueue.isEmpty() || !this.requestQueue.isEmpty())) {
+            return 0;
+        }
+        ScheduledTask scheduledTask;
+        while ((scheduledTask = this.scheduledTasks.peek()) != null && scheduledTask.isCancelled()) {
+            this.scheduledTasks.poll();
+            this.cancelledTaskCount.decrementAndGet();
+        }
+        if (scheduledTask == null) {
+            return selectTimeout;
+        }
+        final long remaining = scheduledTask.getDeadline() - System.nanoTime();
+        if (remaining <= 0) {
+            return 0;
+        }
+        return Math.min(selectTimeout, (remaining + 999999) / 1000000);
+    }
+
+    /**
+     * Returns the number of cancelled tasks still held by the scheduled task queue.
+     */
+    int getCancelledTaskCount() {
+        return this.cancelledTaskCount.get();
+    }
+
+    private void validateActiveChannels() {
+        this.timeoutWheel.expire(System.currentTimeMillis());
+    }
+
     private void processEvents(final Set<SelectionKey> selectedKeys) {
+        long totalTime = 0;
         for (final SelectionKey key : selectedKeys) {
             final InternalChannel channel = (InternalChannel) key.attachment();
+            final long handlerStart = this.metricsEnabled ? System.nanoTime() : 0;
+            if (this.watchdogEnabled) {
+                this.currentChannel = channel;
+            }
+            if (this.readBudget != null) {
+                this.readBudget.reset();
+            }
             try {
                 channel.handleIOEvent(key.readyOps());
             } catch (final CancelledKeyException ex) {
                 channel.shutdown(ShutdownType.GRACEFUL);
             }
+            if (this.metricsEnabled) {
+                final long handlerTime = System.nanoTime() - handlerStart;
+                if (handlerTime > this.maxHandlerTime.get()) {
+                    this.maxHandlerTime.set(handlerTime);
+                }
+                totalTime += handlerTime;
+            }
+        }
+        if (this.watchdogEnabled) {
+            this.currentChannel = null;
+        }
+        this.eventCount += selectedKeys.size();
+        if (this.metricsEnabled) {
+            this.processingTime += totalTime;
         }
         selectedKeys.clear();
     }
 
     private void processPendingChannels() throws IOException {
         SocketChannel socketChannel;
-        while ((socketChannel = this.channelQueue.poll()) != null) {
+        int budget = this.maxChannelsPerIteration;
+        while (budget-- > 0 && (socketChannel = this.channelQueue.poll()) != null) {
+            this.pendingCount.decrementAndGet();
             try {
-                prepareSocket(socketChannel.socket());
+                prepareSocket(socketChannel);
                 socketChannel.configureBlocking(false);
             } catch (final IOException ex) {
+                releaseConnection();
                 addExceptionEvent(ex);
                 try {
                     socketChannel.close();
@@ -191,21 +751,79 @@ private void processPendingChannels() throws IOException {
                 }
                 throw ex;
             }
-            final SelectionKey key;
             try {
-                key = socketChannel.register(this.selector, SelectionKey.OP_READ);
+                registerChannel(socketChannel);
             } catch (final ClosedChannelException ex) {
+                releaseConnection();
                 return;
             }
-            IOSession ioSession = new IOSessionImpl(key, socketChannel);
-            if (ioSessionDecorator != null) {
-                ioSession = ioSessionDecorator.decorate(ioSession);
+        }
+    }
+
+    private void registerChannel(final SocketChannel socketChannel) throws ClosedChannelException {
+        final SelectionKey key = socketChannel.register(this.selector, SelectionKey.OP_READ);
+        IOSession ioSession = new IOSessionImpl(key, socketChannel, this, readBudget);
+        if (ioSessionDecorator != null) {
+            ioSession = ioSessionDecorator.decorate(ioSession);
+        }
+        final InternalDataChannel dataChannel = new InternalDataChannel(
+                ioSession, null, sessionListener, idleBufferPolicy, byteBufferAllocator, sslBufferPool,
+                closedSessions, timeoutWheel);
+        dataChannel.setHandler(this.eventHandlerFactory.createHandler(dataChannel, null));
+        key.attach(dataChannel);
+        this.sessionCount++;
+        dataChannel.setSocketTimeout(this.reactorConfig.getSoTimeout().toMillisIntBound());
+        dataChannel.handleIOEvent(SelectionKey.OP_CONNECT);
+    }
+
+    private void processPendingListeners() {
+        ServerSocketChannel serverChannel;
+        while ((serverChannel = this.listenerQueue.poll()) != null) {
+            try {
+                serverChannel.configureBlocking(false);
+                final SelectionKey key = serverChannel.register(this.selector, SelectionKey.OP_ACCEPT);
+                final InternalAcceptChannel acceptChannel = new InternalAcceptChannel(key, serverChannel, new Callback<SocketChannel>() {
+
+                    @Override
+                    public void execute(final SocketChannel socketChannel) {
+                        acceptChannel(socketChannel);
+                    }
+
+                }, new Callback<Exception>() {
+
+                    @Override
+                    public void execute(final Exception ex) {
+                        addExceptionEvent(ex);
+                    }
+
+                }, this.acceptThrottle);
+                key.attach(acceptChannel);
+                this.acceptChannels.add(acceptChannel);
+            } catch (final IOException ex) {
+                addExceptionEvent(ex);
+                try {
+                    serverChannel.close();
+                } catch (final IOException ex2) {
+                    addExceptionEvent(ex2);
+                }
+            }
+        }
+    }
+
+    private void acceptChannel(final SocketChannel socketChannel) {
+        acquireConnection();
+        try {
+            prepareSocket(socketChannel);
+            socketChannel.configureBlocking(false);
+            registerChannel(socketChannel);
+        } catch (final IOException ex) {
+            releaseConnection();
+            addExceptionEvent(ex);
+            try {
+                socketChannel.close();
+            } catch (final IOException ex2) {
+                addExceptionEvent(ex2);
             }
-            final InternalDataChannel dataChannel = new InternalDataChannel(ioSession, null, sessionListener, closedSessions);
-            dataChannel.setHandler(this.eventHandlerFactory.createHandler(dataChannel, null));
-            dataChannel.setSocketTimeout(this.reactorConfig.getSoTimeout().toMillisIntBound());
-            key.attach(dataChannel);
-            dataChannel.handleIOEvent(SelectionKey.OP_CONNECT);
         }
     }
 
@@ -215,18 +833,18 @@ private void processClosedSessions() {
             if (dataChannel == null) {
                 break;
             }
+            this.sessionCount--;
+            if (dataChannel.isAccepted()) {
+                releaseConnection();
+            }
             try {
                 dataChannel.disconnected();
             } catch (final CancelledKeyException ex) {
                 // ignore and move on
             }
-        }
-    }
-
-    private void timeoutCheck(final SelectionKey key, final long now) {
-        final InternalChannel channel = (InternalChannel) key.attachment();
-        if (channel != null) {
-            channel.checkTimeout(now);
+            if (!dataChannel.isOpen()) {
+                this.timeoutWheel.cancel(dataChannel);
+            }
         }
     }
 
@@ -239,21 +857,76 @@ public Future<IOSession> connect(
             final Object attachment,
             final FutureCallback<IOSession> callback) throws IOReactorShutdownException {
         Args.notNull(remoteEndpoint, "Remote endpoint");
+        final SocketAddress targetAddress = remoteAddress != null ? remoteAddress :
+                InetSocketAddress.createUnresolved(remoteEndpoint.getHostName(), remoteEndpoint.getPort());
         final IOSessionRequest sessionRequest = new IOSessionRequest(
                 remoteEndpoint,
-                remoteAddress != null ? remoteAddress : new InetSocketAddress(remoteEndpoint.getHostName(), remoteEndpoint.getPort()),
+                targetAddress,
                 localAddress,
                 timeout,
                 attachment,
                 callback);
 
+        this.pendingCount.incrementAndGet();
+        if (targetAddress instanceof InetSocketAddress && ((InetSocketAddress) targetAddress).isUnresolved()) {
+            resolveAddress(sessionRequest, (InetSocketAddress) targetAddress);
+        } else {
+            enqueueRequest(sessionRequest);
+        }
+        return sessionRequest;
+    }
+
+    private void enqueueRequest(final IOSessionRequest sessionRequest) {
         this.requestQueue.add(sessionRequest);
         this.selector.wakeup();
+        if (getStatus().compareTo(IOReactorStatus.SHUT_DOWN) == 0) {
+            // The reactor may have terminated while the address was being resolved
+            closePendingConnectionRequests();
+        }
+    }
 
-        return sessionRequest;
+    /**
+     * Resolves the remote address without blocking the caller and hands
+     * the request over to the I/O reactor thread once resolved.
+     */
+    private void resolveAddress(final IOSessionRequest sessionRequest, final InetSocketAddress unresolvedAddress) {
+        final int port = unresolvedAddress.getPort();
+        this.addressResolver.resolve(unresolvedAddress.getHostString(), new FutureCallback<InetAddress[]>() {
+
+            @Override
+            public void completed(final InetAddress[] addresses) {
+                if (addresses == null || addresses.length == 0) {
+                    failed(new UnknownHostException(unresolvedAddress.getHostString()));
+                    return;
+                }
+                if (addresses.length > 1 && TimeValue.isPositive(connectAttemptDelay)) {
+                    sessionRequest.remoteAddresses = ConnectAttemptRace.interleave(addresses, port);
+                }
+                sessionRequest.remoteAddress = new InetSocketAddress(addresses[0], port);
+                enqueueRequest(sessionRequest);
+            }
+
+            @Override
+            public void failed(final Exception ex) {
+                pendingCount.decrementAndGet();
+                sessionRequest.failed(ex);
+            }
+
+            @Override
+            public void cancelled() {
+                pendingCount.decrementAndGet();
+                sessionRequest.cancel();
+            }
+
+        });
     }
 
-    private void prepareSocket(final Socket socket) throws IOException {
+    private void prepareSocket(final SocketChannel socketChannel) throws IOException {
+        if (SocketSupport.isUnixDomain(socketChannel)) {
+            prepareUnixDomainSocket(socketChannel);
+            return;
+        }
+        final Socket socket = socketChannel.socket();
         socket.setTcpNoDelay(this.reactorConfig.isTcpNoDelay());
         socket.setKeepAlive(this.reactorConfig.isSoKeepalive());
         if (this.reactorConfig.getSndBufSize() > 0) {
@@ -268,6 +941,16 @@ private void prepareSocket(final Socket socket) throws IOException {
         }
     }
 
+    private void prepareUnixDomainSocket(final SocketChannel socketChannel) throws IOException {
+        // TCP specific options do not apply to Unix domain sockets
+        if (this.reactorConfig.getSndBufSize() > 0) {
+            socketChannel.setOption(StandardSocketOptions.SO_SNDBUF, this.reactorConfig.getSndBufSize());
+        }
+        if (this.reactorConfig.getRcvBufSize() > 0) {
+            socketChannel.setOption(StandardSocketOptions.SO_RCVBUF, this.reactorConfig.getRcvBufSize());
+        }
+    }
+
     private void validateAddress(final SocketAddress address) throws UnknownHostException {
         if (address instanceof InetSocketAddress) {
             final InetSocketAddress endpoint = (InetSocketAddress) address;
@@ -279,12 +962,18 @@ private void validateAddress(final SocketAddress address) throws UnknownHostExce
 
     private void processPendingConnectionRequests() {
         IOSessionRequest sessionRequest;
-        while ((sessionRequest = this.requestQueue.poll()) != null) {
+        int budget = this.maxConnectionRequestsPerIteration;
+        while (budget-- > 0 && (sessionRequest = this.requestQueue.poll()) != null) {
+            this.pendingCount.decrementAndGet();
             if (!sessionRequest.isCancelled()) {
+                if (sessionRequest.remoteAddresses != null) {
+                    startConnectAttemptRace(sessionRequest);
+                    continue;
+                }
                 final SocketChannel socketChannel;
                 try {
-                    socketChannel = SocketChannel.open();
-                } catch (final IOException ex) {
+                    socketChannel = SocketSupport.openSocketChannel(sessionRequest.remoteAddress);
+                } catch (final IOException | UnsupportedOperationException ex) {
                     sessionRequest.failed(ex);
                     return;
                 }
@@ -302,20 +991,66 @@ private void processPendingConnectionRequests() {
     }
 
     private void processConnectionRequest(final SocketChannel socketChannel, final IOSessionRequest sessionRequest) throws IOException {
+        final InternalConnectChannel channel = openConnectChannel(socketChannel, sessionRequest, sessionRequest.remoteAddress, null);
+        if (!sessionRequest.isDone()) {
+            sessionRequest.assign(channel);
+        }
+    }
+
+    private void startConnectAttemptRace(final IOSessionRequest sessionRequest) {
+        final ConnectAttemptRace race = new ConnectAttemptRace(
+                sessionRequest,
+                sessionRequest.remoteAddresses,
+                this.connectAttemptDelay,
+                this,
+                new ConnectAttemptRace.Connector() {
+
+                    @Override
+                    public InternalConnectChannel connect(
+                            final InetSocketAddress address,
+                            final ConnectAttemptRace race) throws IOException {
+                        final SocketChannel socketChannel = SocketChannel.open();
+                        try {
+                            return openConnectChannel(socketChannel, sessionRequest, address, race);
+                        } catch (final IOException ex) {
+                            try {
+                                socketChannel.close();
+                            } catch (final IOException ignore) {
+                            }
+                            throw ex;
+                        }
+                    }
+
+                });
+        sessionRequest.assign(race);
+        race.start();
+    }
+
+    private InternalConnectChannel openConnectChannel(
+            final SocketChannel socketChannel,
+            final IOSessionRequest sessionRequest,
+            final SocketAddress remoteAddress,
+            final ConnectAttemptRace race) throws IOException {
         validateAddress(sessionRequest.localAddress);
-        validateAddress(sessionRequest.remoteAddress);
+        validateAddress(remoteAddress);
 
         socketChannel.configureBlocking(false);
-        prepareSocket(socketChannel.socket());
+        final boolean unixDomain = UnixDomainSocketSupport.isUnixDomainAddress(remoteAddress);
+        if (unixDomain) {
+            prepareUnixDomainSocket(socketChannel);
+        } else {
+            prepareSocket(socketChannel);
+        }
 
         if (sessionRequest.localAddress != null) {
-            final Socket sock = socketChannel.socket();
-            sock.setReuseAddress(this.reactorConfig.isSoReuseAddress());
-            sock.bind(sessionRequest.localAddress);
+            if (!unixDomain) {
+                socketChannel.socket().setReuseAddress(this.reactorConfig.isSoReuseAddress());
+            }
+            socketChannel.bind(sessionRequest.localAddress);
         }
-        final boolean connected = socketChannel.connect(sessionRequest.remoteAddress);
+        final boolean connected = socketChannel.connect(remoteAddress);
         final SelectionKey key = socketChannel.register(this.selector, SelectionKey.OP_CONNECT | SelectionKey.OP_READ);
-        final InternalChannel channel = new InternalConnectChannel(key, socketChannel, sessionRequest, new InternalDataChannelFactory() {
+        final InternalConnectChannel channel = new InternalConnectChannel(key, socketChannel, sessionRequest, race, new InternalDataChannelFactory() {
 
             @Override
             public InternalDataChannel create(
@@ -323,28 +1058,34 @@ public InternalDataChannel create(
                     final SocketChannel socketChannel,
                     final NamedEndpoint namedEndpoint,
                     final Object attachment) {
-                IOSession ioSession = new IOSessionImpl(key, socketChannel);
+                IOSession ioSession = new IOSessionImpl(key, socketChannel, SingleCoreIOReactor.this, readBudget);
                 if (ioSessionDecorator != null) {
                     ioSession = ioSessionDecorator.decorate(ioSession);
                 }
-                final InternalDataChannel dataChannel = new InternalDataChannel(ioSession, namedEndpoint, sessionListener, closedSessions);
+                final InternalDataChannel dataChannel = new InternalDataChannel(
+                        ioSession, namedEndpoint, sessionListener, idleBufferPolicy, byteBufferAllocator, sslBufferPool,
+                        closedSessions, timeoutWheel);
                 dataChannel.setHandler(eventHandlerFactory.createHandler(dataChannel, attachment));
                 dataChannel.setSocketTimeout(reactorConfig.getSoTimeout().toMillisIntBound());
+                sessionCount++;
                 return dataChannel;
             }
 
-        });
+        }, timeoutWheel);
         if (connected) {
             channel.handleIOEvent(SelectionKey.OP_CONNECT);
         } else {
             key.attach(channel);
-            sessionRequest.assign(channel);
+            channel.updateTimeout();
         }
+        return channel;
     }
 
     private void closePendingChannels() {
         SocketChannel socketChannel;
         while ((socketChannel = this.channelQueue.poll()) != null) {
+            this.pendingCount.decrementAndGet();
+            releaseConnection();
             try {
                 socketChannel.close();
             } catch (final IOException ex) {
@@ -353,9 +1094,21 @@ private void closePendingChannels() {
         }
     }
 
+    private void closePendingListeners() {
+        ServerSocketChannel serverChannel;
+        while ((serverChannel = this.listenerQueue.poll()) != null) {
+            try {
+                serverChannel.close();
+            } catch (final IOException ex) {
+                addExceptionEvent(ex);
+            }
+        }
+    }
+
     private void closePendingConnectionRequests() {
         IOSessionRequest sessionRequest;
         while ((sessionRequest = this.requestQueue.poll()) != null) {
+            this.pendingCount.decrementAndGet();
             sessionRequest.cancel();
         }
     }
@@ -47,6 +47,7 @@
 import org.apache.hc.core5.concurrent.BasicFuture;
 import org.apache.hc.core5.concurrent.FutureCallback;
 import org.apache.hc.core5.function.Callback;
+import org.apache.hc.core5.net.UnixDomainSocketSupport;
 
 class SingleCoreListeningIOReactor extends AbstractSingleCoreIOReactor implements ConnectionAcceptor {
 
@@ -54,21 +55,43 @@ class SingleCoreListeningIOReactor extends AbstractSingleCoreIOReactor implement
     private final Callback<SocketChannel> callback;
     private final Queue<ListenerEndpointRequest> requestQueue;
     private final ConcurrentMap<ListenerEndpoint, Boolean> endpoints;
+    private final ConnectionLimit connectionLimit;
+    private final AcceptThrottle acceptThrottle;
 
     private final AtomicBoolean paused;
 
+    // Accessed by the I/O reactor thread only
+    private boolean acceptSuspended;
+
+    /**
+     * @param connectionLimit limit of connections accepted by the listening I/O reactor
+     *   reported by its endpoints.
+     * @param acceptThrottle decides when to suspend and resume accepting connections.
+     *   Can be {@code null}.
+     */
     SingleCoreListeningIOReactor(
             final Queue<ExceptionEvent> auditLog,
             final IOReactorConfig ioReactorConfig,
-            final Callback<SocketChannel> callback) {
+            final Callback<SocketChannel> callback,
+            final ConnectionLimit connectionLimit,
+            final AcceptThrottle acceptThrottle) {
         super(auditLog);
         this.reactorConfig = ioReactorConfig != null ? ioReactorConfig : IOReactorConfig.DEFAULT;
         this.callback = callback;
         this.requestQueue = new ConcurrentLinkedQueue<>();
         this.endpoints = new ConcurrentHashMap<>();
+        this.connectionLimit = connectionLimit != null ? connectionLimit : new ConnectionLimit(0);
+        this.acceptThrottle = acceptThrottle;
         this.paused = new AtomicBoolean(false);
     }
 
+    /**
+     * Wakes up the I/O reactor thread so that accepting connections can resume.
+     */
+    void wakeup() {
+        this.selector.wakeup();
+    }
+
     @Override
     void doTerminate() {
         ListenerEndpointRequest request;
@@ -99,6 +122,10 @@ private void processEvents(final int readyCount) throws IOException {
         if (!this.paused.get()) {
             processSessionRequests();
         }
+        if (this.acceptSuspended && this.acceptThrottle.isRelieved()) {
+            setAcceptInterest(SelectionKey.OP_ACCEPT);
+            this.acceptSuspended = false;
+        }
 
         if (readyCount > 0) {
             final Set<SelectionKey> selectedKeys = this.selector.selectedKeys();
@@ -118,6 +145,12 @@ private void processEvent(final SelectionKey key) throws IOException {
 
                 final ServerSocketChannel serverChannel = (ServerSocketChannel) key.channel();
                 for (;;) {
+                    if (this.acceptThrottle != null && this.acceptThrottle.isSaturated()) {
+                        // Leave excess connections in the backlog until relieved
+                        setAcceptInterest(0);
+                        this.acceptSuspended = true;
+                        break;
+                    }
                     final SocketChannel socketChannel = serverChannel.accept();
                     if (socketChannel == null) {
                         break;
@@ -133,6 +166,14 @@ private void processEvent(final SelectionKey key) throws IOException {
         }
     }
 
+    private void setAcceptInterest(final int ops) {
+        for (final SelectionKey key : this.selector.keys()) {
+            if (key.isValid()) {
+                key.interestOps(ops);
+            }
+        }
+    }
+
     @Override
     public Future<ListenerEndpoint> listen(final SocketAddress address, final FutureCallback<ListenerEndpoint> callback) {
         if (getStatus().compareTo(IOReactorStatus.SHUTTING_DOWN) >= 0) {
@@ -151,19 +192,29 @@ private void processSessionRequests() throws IOException {
                 continue;
             }
             final SocketAddress address = request.address;
-            final ServerSocketChannel serverChannel = ServerSocketChannel.open();
+            final ServerSocketChannel serverChannel;
+            try {
+                serverChannel = SocketSupport.openServerSocketChannel(address);
+            } catch (final IOException | UnsupportedOperationException ex) {
+                request.failed(ex);
+                continue;
+            }
             try {
-                final ServerSocket socket = serverChannel.socket();
-                socket.setReuseAddress(this.reactorConfig.isSoReuseAddress());
-                if (this.reactorConfig.getRcvBufSize() > 0) {
-                    socket.setReceiveBufferSize(this.reactorConfig.getRcvBufSize());
+                if (!UnixDomainSocketSupport.isUnixDomainAddress(address)) {
+                    final ServerSocket socket = serverChannel.socket();
+                    socket.setReuseAddress(this.reactorConfig.isSoReuseAddress());
+                    if (this.reactorConfig.getRcvBufSize() > 0) {
+                        socket.setReceiveBufferSize(this.reactorConfig.getRcvBufSize());
+                    }
                 }
                 serverChannel.configureBlocking(false);
-                socket.bind(address, this.reactorConfig.getBacklogSize());
+                serverChannel.bind(address, this.reactorConfig.getBacklogSize());
 
-                final SelectionKey key = serverChannel.register(this.selector, SelectionKey.OP_ACCEPT);
+                final SelectionKey key = serverChannel.register(this.selector,
+                        this.acceptSuspended ? 0 : SelectionKey.OP_ACCEPT);
                 key.attach(request);
-                final ListenerEndpoint endpoint = new ListenerEndpointImpl(key, socket.getLocalSocketAddress());
+                final ListenerEndpoint endpoint = new ListenerEndpointImpl(key, serverChannel.getLocalAddress(),
+                        this.connectionLimit);
                 this.endpoints.put(endpoint, Boolean.TRUE);
                 request.completed(endpoint);
             } catch (final IOException ex) {
@@ -0,0 +1,155 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.SocketOption;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.NetworkChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+import org.apache.hc.core5.net.UnixDomainSocketSupport;
+
+/**
+ * Access to socket features that are not available on all supported
+ * Java platforms.
+ */
+final class SocketSupport {
+
+    private static final SocketOption<Boolean> SO_REUSEPORT = findSocketOption(
+            "SO_REUSEPORT", "java.net.StandardSocketOptions", "jdk.net.ExtendedSocketOptions");
+
+    private static final ProtocolFamily UNIX = findProtocolFamily("UNIX");
+    private static final Method OPEN_SOCKET_CHANNEL = findOpenMethod(SocketChannel.class);
+    private static final Method OPEN_SERVER_SOCKET_CHANNEL = findOpenMethod(ServerSocketChannel.class);
+
+    private SocketSupport() {
+    }
+
+    private static ProtocolFamily findProtocolFamily(final String name) {
+        try {
+            return StandardProtocolFamily.valueOf(name);
+        } catch (final IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private static Method findOpenMethod(final Class<?> channelClass) {
+        try {
+            return channelClass.getMethod("open", ProtocolFamily.class);
+        } catch (final NoSuchMethodException | SecurityException ex) {
+            return null;
+        }
+    }
+
+    private static Object open(final Method openMethod) throws IOException {
+        if (UNIX == null || openMethod == null) {
+            throw new UnsupportedOperationException("Unix domain sockets are not supported");
+        }
+        try {
+            return openMethod.invoke(null, UNIX);
+        } catch (final InvocationTargetException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (final IllegalAccessException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Opens a socket channel capable of connecting to the given address.
+     */
+    static SocketChannel openSocketChannel(final SocketAddress remoteAddress) throws IOException {
+        if (UnixDomainSocketSupport.isUnixDomainAddress(remoteAddress)) {
+            return (SocketChannel) open(OPEN_SOCKET_CHANNEL);
+        }
+        return SocketChannel.open();
+    }
+
+    /**
+     * Opens a server socket channel capable of binding to the given address.
+     */
+    static ServerSocketChannel openServerSocketChannel(final SocketAddress localAddress) throws IOException {
+        if (UnixDomainSocketSupport.isUnixDomainAddress(localAddress)) {
+            return (ServerSocketChannel) open(OPEN_SERVER_SOCKET_CHANNEL);
+        }
+        return ServerSocketChannel.open();
+    }
+
+    /**
+     * Determines whether the given channel is a Unix domain socket channel,
+     * which does not support TCP specific socket options nor the legacy
+     * socket adaptor.
+     */
+    static boolean isUnixDomain(final NetworkChannel channel) {
+        if (!UnixDomainSocketSupport.isSupported()) {
+            return false;
+        }
+        try {
+            if (UnixDomainSocketSupport.isUnixDomainAddress(channel.getLocalAddress())) {
+                return true;
+            }
+            return channel instanceof SocketChannel
+                    && UnixDomainSocketSupport.isUnixDomainAddress(((SocketChannel) channel).getRemoteAddress());
+        } catch (final IOException ex) {
+            return false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> SocketOption<T> findSocketOption(final String name, final String... classNames) {
+        for (final String className : classNames) {
+            try {
+                final Field field = Class.forName(className).getField(name);
+                return (SocketOption<T>) field.get(null);
+            } catch (final ReflectiveOperationException | SecurityException ignore) {
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the {@code SO_REUSEPORT} socket option or {@code null}
+     * if not supported by the Java platform.
+     */
+    static SocketOption<Boolean> getReusePortOption() {
+        return SO_REUSEPORT;
+    }
+
+}
@@ -0,0 +1,202 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.reactor;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.apache.hc.core5.util.Args;
+
+/**
+ * Hashed timing wheel used by a single I/O reactor to keep track of channel
+ * timeouts. Channels are linked into the slot of the tick their deadline falls
+ * into, so that scheduling, rescheduling and cancellation take constant time
+ * and only channels whose slot is due get visited on each tick.
+ * <p>
+ * Channel activity does not cause the channel to be moved within the wheel.
+ * Once the slot of a channel becomes due its actual deadline is re-evaluated
+ * and the channel is either timed out or linked into the slot of its new
+ * deadline.
+ * <p>
+ * With the exception of {@link #update(InternalChannel)} all methods of this
+ * class may only be called by the I/O reactor thread.
+ */
+final class TimeoutWheel {
+
+    private final long tickMillis;
+    private final int mask;
+    private final InternalChannel[] slots;
+    private final Queue<InternalChannel> pendingUpdates;
+
+    private long currentTick;
+    private int size;
+
+    TimeoutWheel(final long tickMillis, final int slotCount, final long currentTime) {
+        Args.positive(tickMillis, "Tick duration");
+        Args.positive(slotCount, "Slot count");
+        this.tickMillis = tickMillis;
+        int n = 1;
+        while (n < slotCount) {
+            n <<= 1;
+        }
+        this.mask = n - 1;
+        this.slots = new InternalChannel[n];
+        this.pendingUpdates = new ConcurrentLinkedQueue<>();
+        this.currentTick = currentTime / tickMillis;
+    }
+
+    /**
+     * Returns the number of channels currently linked into the wheel.
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Requests the timeout of the given channel to be re-evaluated by the I/O reactor
+     * thread. This method can be called by any thread.
+     */
+    void update(final InternalChannel channel) {
+        if (channel.timeoutUpdatePending.compareAndSet(false, true)) {
+            this.pendingUpdates.add(channel);
+        }
+    }
+
+    /**
+     * Links the channel into the slot of its current deadline or unlinks it
+     * if it has no timeout.
+     */
+    void schedule(final InternalChannel channel) {
+        final long deadline = channel.getTimeoutDeadline();
+        if (deadline <= 0) {
+            cancel(channel);
+            return;
+        }
+        long tick = (deadline + this.tickMillis - 1) / this.tickMillis;
+        if (tick <= this.currentTick) {
+            tick = this.currentTick + 1;
+        }
+        if (channel.timeoutScheduled) {
+            if (channel.timeoutTick == tick) {
+                return;
+            }
+            unlink(channel);
+        }
+        channel.timeoutTick = tick;
+        link(channel);
+    }
+
+    /**
+     * Unlinks the channel from the wheel.
+     */
+    void cancel(final InternalChannel channel) {
+        if (channel.timeoutScheduled) {
+            unlink(channel);
+        }
+    }
+
+    /**
+     * Applies pending timeout updates and times out channels whose deadline
+     * has passed. Channels that remain open get re-linked into the wheel.
+     */
+    void expire(final long currentTime) {
+        InternalChannel channel;
+        while ((channel = this.pendingUpdates.poll()) != null) {
+            channel.timeoutUpdatePending.set(false);
+            if (channel.isOpen()) {
+                schedule(channel);
+            } else {
+                cancel(channel);
+            }
+        }
+        final long nowTick = currentTime / this.tickMillis;
+        if (nowTick <= this.currentTick) {
+            return;
+        }
+        // Detach all due channels first, so that timeout handlers
+        // are free to reschedule or cancel channels
+        InternalChannel expired = null;
+        final long ticks = Math.min(nowTick - this.currentTick, this.slots.length);
+        for (long i = 1; i <= ticks; i++) {
+            final int idx = (int) ((this.currentTick + i) & this.mask);
+            channel = this.slots[idx];
+            while (channel != null) {
+                final InternalChannel next = channel.timeoutNext;
+                if (channel.timeoutTick <= nowTick) {
+                    unlink(channel);
+                    channel.timeoutNext = expired;
+                    expired = channel;
+                }
+                channel = next;
+            }
+        }
+        this.currentTick = nowTick;
+        while (expired != null) {
+            channel = expired;
+            expired = channel.timeoutNext;
+            channel.timeoutNext = null;
+            if (channel.isOpen()) {
+                channel.checkTimeout(currentTime);
+                if (channel.isOpen()) {
+                    schedule(channel);
+                }
+            }
+        }
+    }
+
+    private void link(final InternalChannel channel) {
+        final int idx = (int) (channel.timeoutTick & this.mask);
+        final InternalChannel head = this.slots[idx];
+        channel.timeoutPrev = null;
+        channel.timeoutNext = head;
+        if (head != null) {
+            head.timeoutPrev = channel;
+        }
+        this.slots[idx] = channel;
+        channel.timeoutScheduled = true;
+        this.size++;
+    }
+
+    private void unlink(final InternalChannel channel) {
+        final InternalChannel prev = channel.timeoutPrev;
+        final InternalChannel next = channel.timeoutNext;
+        if (prev != null) {
+            prev.timeoutNext = next;
+        } else {
+            this.slots[(int) (channel.timeoutTick & this.mask)] = next;
+        }
+        if (next != null) {
+            next.timeoutPrev = prev;
+        }
+        channel.timeoutPrev = null;
+        channel.timeoutNext = null;
+        channel.timeoutScheduled = false;
+        this.size--;
+    }
+
+}
@@ -43,6 +43,11 @@ interface SSLBuffer {
      * Releases the resources for this buffer. If the buffer has already been released, this method does nothing.
      */
     void release();
+    /**
+     * Releases the resources for this buffer regardless of the buffer management mode. Used when
+     * the session is closed.
+     */
+    void dispose();
     /**
      * Tests to see if this buffer has been acquired.
      * @return {@code true} if the buffer is acquired, otherwise {@code false}
@@ -30,30 +30,55 @@
 import java.nio.ByteBuffer;
 
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.ByteBufferAllocator;
 
 /**
  * @since 5.0
  */
 public enum SSLBufferManagement {
 
+    /**
+     * Buffers are allocated once per session and retained until the session is closed.
+     */
     STATIC,
-    DYNAMIC;
-
-    static SSLBuffer create(final SSLBufferManagement mode, final int size) {
-        return mode == DYNAMIC ? new DynamicBuffer(size) : new StaticBuffer(size);
+    /**
+     * Buffers are allocated on demand and released as soon as they are empty.
+     */
+    DYNAMIC,
+    /**
+     * Buffers are borrowed from the {@link SSLBufferPool} of the I/O reactor on demand
+     * and returned to the pool as soon as they are empty, so that TLS buffer memory
+     * scales with the number of active rather than open sessions. Sessions created
+     * with an allocator other than a {@link SSLBufferPool} behave as with {@link #DYNAMIC}.
+     */
+    POOLED;
+
+    static SSLBuffer create(final SSLBufferManagement mode, final int size, final ByteBufferAllocator allocator) {
+        if (mode == DYNAMIC || mode == POOLED) {
+            return new DynamicBuffer(size, allocator);
+        } else {
+            return new StaticBuffer(size, allocator);
+        }
     }
 
     private static final class StaticBuffer implements SSLBuffer {
 
-        private final ByteBuffer buffer;
+        private final int length;
+        private final ByteBufferAllocator allocator;
+        private ByteBuffer buffer;
 
-        public StaticBuffer(final int size) {
+        public StaticBuffer(final int size, final ByteBufferAllocator allocator) {
             Args.positive(size, "size");
-            buffer = ByteBuffer.allocate(size);
+            this.length = size;
+            this.allocator = allocator;
+            this.buffer = allocator.allocate(size);
         }
 
         @Override
         public ByteBuffer acquire() {
+            if (buffer == null) {
+                buffer = allocator.allocate(length);
+            }
             return buffer;
         }
 
@@ -62,14 +87,22 @@ public void release() {
             // do nothing
         }
 
+        @Override
+        public void dispose() {
+            if (buffer != null) {
+                allocator.release(buffer);
+                buffer = null;
+            }
+        }
+
         @Override
         public boolean isAcquired() {
-            return true;
+            return buffer != null;
         }
 
         @Override
         public boolean hasData() {
-            return buffer.position() > 0;
+            return buffer != null && buffer.position() > 0;
         }
 
     }
@@ -78,10 +111,12 @@ private static final class DynamicBuffer implements SSLBuffer {
 
         private ByteBuffer wrapped;
         private final int length;
+        private final ByteBufferAllocator allocator;
 
-        public DynamicBuffer(final int size) {
+        public DynamicBuffer(final int size, final ByteBufferAllocator allocator) {
             Args.positive(size, "size");
             this.length = size;
+            this.allocator = allocator;
         }
 
         @Override
@@ -89,13 +124,21 @@ public ByteBuffer acquire() {
             if (wrapped != null) {
                 return wrapped;
             }
-            wrapped = ByteBuffer.allocate(length);
+            wrapped = allocator.allocate(length);
             return wrapped;
         }
 
         @Override
         public void release() {
-            wrapped = null;
+            if (wrapped != null) {
+                allocator.release(wrapped);
+                wrapped = null;
+            }
+        }
+
+        @Override
+        public void dispose() {
+            release();
         }
 
         @Override
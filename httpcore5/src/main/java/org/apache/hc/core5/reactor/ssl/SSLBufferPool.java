@@ -0,0 +1,244 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.reactor.ssl;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.ByteBufferAllocator;
+import org.apache.hc.core5.util.SimpleByteBufferAllocator;
+
+/**
+ * Pool of TLS packet and application buffers borrowed by sessions using
+ * {@link SSLBufferManagement#POOLED}.
+ * <p>
+ * Requested capacities are rounded up to a multiple of 1 KiB, so that
+ * buffers of a size class fit any TLS session of the same provider without
+ * wasting memory on power of two rounding. New buffers are obtained from
+ * the given allocator, which determines whether they are heap or direct
+ * buffers. Size classes are keyed by the capacity of the buffers the allocator
+ * actually returns, which may exceed the requested one. Released buffers are
+ * kept for reuse up to the given number of idle buffers per size class and
+ * given back to the allocator beyond that. Released buffers whose capacity
+ * does not match any size class are given back to the allocator right away,
+ * while those of a size class without buffers on lease are ignored. Each
+ * buffer must be released at most once, which
+ * {@link SSLBufferManagement#POOLED} session buffers guarantee.
+ * </p>
+ * <p>
+ * Unless configured with {@link org.apache.hc.core5.reactor.IOReactorConfig#getSslBufferPool()},
+ * each I/O dispatch thread keeps a pool of its own and discards it on shutdown.
+ * </p>
+ *
+ * @since 5.0
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public final class SSLBufferPool implements ByteBufferAllocator {
+
+    public static final int DEFAULT_MAX_IDLE = 64;
+
+    private static final int SIZE_CLASS_GRANULARITY = 1024;
+
+    private final ByteBufferAllocator allocator;
+    private final int maxIdle;
+    private final ConcurrentMap<Integer, SizeClass> sizeClasses;
+    private final ConcurrentMap<Integer, SizeClass> requestedSizeClasses;
+    private final AtomicLong idleBytes;
+
+    /**
+     * @param allocator the allocator of new buffers.
+     * @param maxIdle the maximal number of idle buffers kept per size class.
+     */
+    public SSLBufferPool(final ByteBufferAllocator allocator, final int maxIdle) {
+        this.allocator = Args.notNull(allocator, "Byte buffer allocator");
+        this.maxIdle = Args.notNegative(maxIdle, "Max idle");
+        this.sizeClasses = new ConcurrentHashMap<>();
+        this.requestedSizeClasses = new ConcurrentHashMap<>();
+        this.idleBytes = new AtomicLong(0);
+    }
+
+    /**
+     * @param allocator the allocator of new buffers.
+     */
+    public SSLBufferPool(final ByteBufferAllocator allocator) {
+        this(allocator, DEFAULT_MAX_IDLE);
+    }
+
+    public SSLBufferPool() {
+        this(SimpleByteBufferAllocator.HEAP);
+    }
+
+    private static int roundUp(final int capacity) {
+        final int n = Math.max(capacity, 1) + SIZE_CLASS_GRANULARITY - 1;
+        return n - n % SIZE_CLASS_GRANULARITY;
+    }
+
+    private SizeClass getSizeClass(final int capacity) {
+        SizeClass sizeClass = sizeClasses.get(capacity);
+        if (sizeClass == null) {
+            final SizeClass newSizeClass = new SizeClass();
+            sizeClass = sizeClasses.putIfAbsent(capacity, newSizeClass);
+            if (sizeClass == null) {
+                sizeClass = newSizeClass;
+            }
+        }
+        return sizeClass;
+    }
+
+    @Override
+    public ByteBuffer allocate(final int capacity) {
+        Args.notNegative(capacity, "Capacity");
+        final int classCapacity = roundUp(capacity);
+        SizeClass sizeClass = requestedSizeClasses.get(classCapacity);
+        ByteBuffer buffer = sizeClass != null ? sizeClass.idle.poll() : null;
+        if (buffer != null) {
+            sizeClass.idleCount.decrementAndGet();
+            idleBytes.addAndGet(-buffer.capacity());
+            buffer.clear();
+        } else {
+            buffer = allocator.allocate(classCapacity);
+            // The allocator may round the capacity up
+            sizeClass = getSizeClass(buffer.capacity());
+            requestedSizeClasses.putIfAbsent(classCapacity, sizeClass);
+        }
+        sizeClass.leasedCount.incrementAndGet();
+        return buffer;
+    }
+
+    @Override
+    public void release(final ByteBuffer buffer) {
+        if (buffer == null) {
+            return;
+        }
+        final SizeClass sizeClass = sizeClasses.get(buffer.capacity());
+        if (sizeClass == null) {
+            // not handed out by this pool
+            allocator.release(buffer);
+            return;
+        }
+        if (buffer.isReadOnly() || !sizeClass.returnLease()) {
+            return;
+        }
+        if (sizeClass.idleCount.incrementAndGet() <= maxIdle) {
+            idleBytes.addAndGet(buffer.capacity());
+            sizeClass.idle.add(buffer);
+        } else {
+            sizeClass.idleCount.decrementAndGet();
+            allocator.release(buffer);
+        }
+    }
+
+    /**
+     * Returns the number of buffers currently borrowed from the pool.
+     *
+     * @return the number of leased buffers.
+     */
+    public long getLeasedCount() {
+        long total = 0;
+        for (final SizeClass sizeClass : sizeClasses.values()) {
+            total += sizeClass.leasedCount.get();
+        }
+        return total;
+    }
+
+    /**
+     * Returns the number of idle buffers kept by the pool for reuse.
+     *
+     * @return the number of available buffers.
+     */
+    public long getAvailableCount() {
+        long total = 0;
+        for (final SizeClass sizeClass : sizeClasses.values()) {
+            total += sizeClass.idleCount.get();
+        }
+        return total;
+    }
+
+    /**
+     * Returns the number of bytes held by idle buffers kept by the pool for reuse.
+     *
+     * @return the number of available bytes.
+     */
+    public long getAvailableBytes() {
+        return idleBytes.get();
+    }
+
+    /**
+     * Gives all idle buffers back to the allocator.
+     */
+    public void clear() {
+        for (final SizeClass sizeClass : sizeClasses.values()) {
+            ByteBuffer buffer;
+            while ((buffer = sizeClass.idle.poll()) != null) {
+                sizeClass.idleCount.decrementAndGet();
+                idleBytes.addAndGet(-buffer.capacity());
+                allocator.release(buffer);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder buffer = new StringBuilder();
+        buffer.append("[allocator=").append(allocator)
+                .append(", maxIdle=").append(maxIdle)
+                .append(", leased=").append(getLeasedCount())
+                .append(", available=").append(getAvailableCount())
+                .append("]");
+        return buffer.toString();
+    }
+
+    private static final class SizeClass {
+
+        final Queue<ByteBuffer> idle = new ConcurrentLinkedQueue<>();
+        final AtomicInteger idleCount = new AtomicInteger(0);
+        final AtomicInteger leasedCount = new AtomicInteger(0);
+
+        boolean returnLease() {
+            for (;;) {
+                final int count = leasedCount.get();
+                if (count == 0) {
+                    return false;
+                }
+                if (leasedCount.compareAndSet(count, count - 1)) {
+                    return true;
+                }
+            }
+        }
+
+    }
+
+}
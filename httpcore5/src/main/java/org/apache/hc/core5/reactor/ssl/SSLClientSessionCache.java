@@ -0,0 +1,262 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.reactor.ssl;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
+
+import org.apache.hc.core5.net.NamedEndpoint;
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * Client side TLS session cache keyed by target endpoint.
+ * <p>
+ * JSSE resumes client sessions from the client session context of
+ * the {@link SSLContext}, looking them up by the peer host and port
+ * the {@link SSLEngine} has been created with. Both TLS 1.2 session IDs
+ * and TLS 1.3 session tickets are kept there. This class bounds the size
+ * and the lifetime of the sessions in that context, expires the session
+ * of an endpoint once its time to live has elapsed and keeps count of
+ * abbreviated (resumed) and full handshakes.
+ * <p>
+ * The cache takes part in TLS sessions through the initializer and
+ * the verifier returned by {@link #initializer(SSLSessionInitializer)}
+ * and {@link #verifier(SSLSessionVerifier)}. Sessions without a target
+ * endpoint are ignored.
+ *
+ * @since 5.0
+ */
+public final class SSLClientSessionCache {
+
+    public static final int DEFAULT_MAX_SIZE = 1000;
+    public static final TimeValue DEFAULT_TIME_TO_LIVE = TimeValue.ofHours(1);
+
+    private final int maxSize;
+    private final long timeToLiveMillis;
+    private final Map<String, CachedSession> entryMap;
+    private final AtomicLong hitCount;
+    private final AtomicLong missCount;
+
+    /**
+     * @param sslContext SSL context whose client session context is to be bounded.
+     * @param maxSize maximum number of endpoints whose sessions are cached.
+     * @param timeToLive maximum time a session may get resumed for after it has
+     *   been established with a full handshake.
+     */
+    public SSLClientSessionCache(final SSLContext sslContext, final int maxSize, final TimeValue timeToLive) {
+        Args.notNull(sslContext, "SSL context");
+        this.maxSize = Args.positive(maxSize, "Max size");
+        Args.notNull(timeToLive, "Time to live");
+        Args.check(TimeValue.isPositive(timeToLive), "Time to live must be positive");
+        this.timeToLiveMillis = timeToLive.toMillis();
+        this.entryMap = new LinkedHashMap<String, CachedSession>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, CachedSession> eldest) {
+                if (size() > SSLClientSessionCache.this.maxSize) {
+                    eldest.getValue().session.invalidate();
+                    return true;
+                }
+                return false;
+            }
+
+        };
+        this.hitCount = new AtomicLong(0);
+        this.missCount = new AtomicLong(0);
+        final SSLSessionContext sessionContext = sslContext.getClientSessionContext();
+        if (sessionContext != null) {
+            sessionContext.setSessionCacheSize(maxSize);
+            sessionContext.setSessionTimeout((int) Math.max(1, timeToLive.toSeconds()));
+        }
+    }
+
+    public SSLClientSessionCache(final SSLContext sslContext) {
+        this(sslContext, DEFAULT_MAX_SIZE, DEFAULT_TIME_TO_LIVE);
+    }
+
+    private static String key(final NamedEndpoint endpoint) {
+        return endpoint.getHostName().toLowerCase(Locale.ROOT) + ":" + endpoint.getPort();
+    }
+
+    /**
+     * Returns an initializer that expires the cached session of the target
+     * endpoint once its time to live has elapsed, forcing a full handshake,
+     * and then invokes the given initializer.
+     *
+     * @param initializer optional initializer to be invoked. May be {@code null}.
+     */
+    public SSLSessionInitializer initializer(final SSLSessionInitializer initializer) {
+        return new SSLSessionInitializer() {
+
+            @Override
+            public void initialize(final NamedEndpoint endpoint, final SSLEngine sslEngine) {
+                if (endpoint != null) {
+                    expire(key(endpoint), System.currentTimeMillis());
+                }
+                if (initializer != null) {
+                    initializer.initialize(endpoint, sslEngine);
+                }
+            }
+
+        };
+    }
+
+    /**
+     * Returns a verifier that invokes the given verifier and then records
+     * the established session of the target endpoint.
+     *
+     * @param verifier optional verifier to be invoked. May be {@code null}.
+     */
+    public SSLSessionVerifier verifier(final SSLSessionVerifier verifier) {
+        return new SSLSessionVerifier() {
+
+            @Override
+            public TlsDetails verify(final NamedEndpoint endpoint, final SSLEngine sslEngine) throws SSLException {
+                final TlsDetails tlsDetails = verifier != null ? verifier.verify(endpoint, sslEngine) : null;
+                if (endpoint != null) {
+                    established(key(endpoint), sslEngine.getSession(), System.currentTimeMillis());
+                }
+                return tlsDetails;
+            }
+
+        };
+    }
+
+    private synchronized void expire(final String key, final long now) {
+        final CachedSession entry = this.entryMap.get(key);
+        if (entry != null && entry.expiry <= now) {
+            this.entryMap.remove(key);
+            entry.session.invalidate();
+        }
+    }
+
+    private void established(final String key, final SSLSession session, final long now) {
+        final boolean resumed;
+        synchronized (this) {
+            final CachedSession entry = this.entryMap.get(key);
+            resumed = entry != null && entry.matches(session);
+            if (!resumed) {
+                this.entryMap.put(key, new CachedSession(session, now + this.timeToLiveMillis));
+            }
+        }
+        if (resumed) {
+            this.hitCount.incrementAndGet();
+        } else {
+            this.missCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Invalidates the cached session of the given endpoint, if any.
+     */
+    public void invalidate(final NamedEndpoint endpoint) {
+        Args.notNull(endpoint, "Endpoint");
+        final CachedSession entry;
+        synchronized (this) {
+            entry = this.entryMap.remove(key(endpoint));
+        }
+        if (entry != null) {
+            entry.session.invalidate();
+        }
+    }
+
+    /**
+     * Invalidates all cached sessions.
+     */
+    public void clear() {
+        synchronized (this) {
+            for (final Iterator<CachedSession> it = this.entryMap.values().iterator(); it.hasNext(); ) {
+                it.next().session.invalidate();
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return this.entryMap.size();
+    }
+
+    /**
+     * Returns the number of handshakes that resumed a cached session.
+     */
+    public long getHitCount() {
+        return this.hitCount.get();
+    }
+
+    /**
+     * Returns the number of handshakes that established a new session.
+     */
+    public long getMissCount() {
+        return this.missCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return "[size=" + size() + ", hits=" + this.hitCount.get() + ", misses=" + this.missCount.get() + "]";
+    }
+
+    private static final class CachedSession {
+
+        final SSLSession session;
+        final long expiry;
+
+        CachedSession(final SSLSession session, final long expiry) {
+            this.session = session;
+            this.expiry = expiry;
+        }
+
+        boolean matches(final SSLSession other) {
+            // Resumed TLS 1.2 sessions share the session ID while sessions resumed
+            // from TLS 1.3 tickets may carry a new one and retain the creation time
+            if (other == this.session) {
+                return true;
+            }
+            final byte[] id = this.session.getId();
+            if (id != null && id.length > 0 && Arrays.equals(id, other.getId())) {
+                return true;
+            }
+            return this.session.getCreationTime() == other.getCreationTime()
+                    && this.session.getCipherSuite().equals(other.getCipherSuite());
+        }
+
+    }
+
+}
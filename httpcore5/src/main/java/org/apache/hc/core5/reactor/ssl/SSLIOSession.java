@@ -33,7 +33,13 @@
 import java.nio.channels.ByteChannel;
 import java.nio.channels.CancelledKeyException;
 import java.nio.channels.ClosedChannelException;
+import java.nio.channels.GatheringByteChannel;
 import java.nio.channels.SelectionKey;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLEngine;
@@ -51,15 +57,27 @@
 import org.apache.hc.core5.reactor.Command;
 import org.apache.hc.core5.reactor.EventMask;
 import org.apache.hc.core5.reactor.IOEventHandler;
+import org.apache.hc.core5.reactor.IOEventLoop;
 import org.apache.hc.core5.reactor.IOSession;
 import org.apache.hc.core5.ssl.ReflectionSupport;
 import org.apache.hc.core5.util.Args;
 import org.apache.hc.core5.util.Asserts;
+import org.apache.hc.core5.util.ByteBufferAllocator;
+import org.apache.hc.core5.util.SimpleByteBufferAllocator;
 
 /**
  * {@code SSLIOSession} is a decorator class intended to transparently extend
  * an {@link IOSession} with transport layer security capabilities based on
  * the SSL/TLS protocol.
+ * <p>
+ * Input operations ({@link #isAppInputReady()}, reading from {@link #channel()},
+ * {@link #inboundTransport()}) and {@link #outboundTransport()} are expected
+ * to be executed by the I/O reactor thread of the decorated session. Input
+ * operations do not acquire any locks once the handshake has completed. Writing
+ * to {@link #channel()} is guarded by an output lock as protocol handlers may
+ * write out data from other threads. Close and shutdown requests do not wait
+ * for the output lock. Event mask updates and close requests made by other
+ * threads are handed over to the {@link IOEventLoop} of the decorated session.
  *
  * @since 4.2
  */
@@ -67,6 +85,7 @@
 public class SSLIOSession implements IOSession {
 
     private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0);
+    private static final int RECORD_HEADER_LENGTH = 5;
 
     private final NamedEndpoint targetEndpoint;
     private final IOSession session;
@@ -79,14 +98,25 @@ public class SSLIOSession implements IOSession {
     private final SSLSessionInitializer initializer;
     private final SSLSessionVerifier verifier;
     private final Callback<SSLIOSession> callback;
-
-    private int appEventMask;
+    private final Executor delegatedTaskExecutor;
+    private final Callback<SSLIOSession> delegatedTaskCallback;
+    private final ReentrantLock outputLock;
+    private final AtomicBoolean outputDisposalPending;
+    private final AtomicInteger appEventMask;
+    private final AtomicBoolean eventMaskUpdatePending;
+    private final Runnable eventMaskUpdate;
+
+    // Maintained by the holder of the output lock for readers not holding it
+    private volatile boolean encryptedOutputPending;
+    private volatile boolean plainOutputPending;
+    private volatile boolean delegatedTaskPending;
+    private volatile SSLException delegatedTaskException;
 
     private boolean endOfStream;
     private volatile SSLMode sslMode;
-    private volatile int status;
+    private final AtomicInteger status;
     private volatile boolean initialized;
-    private TlsDetails tlsDetails;
+    private volatile TlsDetails tlsDetails;
 
     /**
      * Creates new instance of {@code SSLIOSession} class with static SSL buffers.
@@ -133,17 +163,105 @@ public SSLIOSession(
             final SSLSessionInitializer initializer,
             final SSLSessionVerifier verifier,
             final Callback<SSLIOSession> callback) {
+        this(targetEndpoint, session, sslMode, sslContext, sslBufferManagement, SimpleByteBufferAllocator.HEAP,
+                initializer, verifier, callback);
+    }
+
+    /**
+     * Creates new instance of {@code SSLIOSession} class.
+     *
+     * @param session I/O session to be decorated with the TLS/SSL capabilities.
+     * @param sslMode SSL mode (client or server)
+     * @param targetEndpoint target endpoint (applicable in client mode only). May be {@code null}.
+     * @param sslContext SSL context to use for this I/O session.
+     * @param sslBufferManagement buffer management mode
+     * @param byteBufferAllocator allocator of the session buffers.
+     * @param initializer optional SSL session initializer. May be {@code null}.
+     * @param verifier optional SSL session verifier. May be {@code null}.
+     *
+     * @since 5.0
+     */
+    public SSLIOSession(
+            final NamedEndpoint targetEndpoint,
+            final IOSession session,
+            final SSLMode sslMode,
+            final SSLContext sslContext,
+            final SSLBufferManagement sslBufferManagement,
+            final ByteBufferAllocator byteBufferAllocator,
+            final SSLSessionInitializer initializer,
+            final SSLSessionVerifier verifier,
+            final Callback<SSLIOSession> callback) {
+        this(targetEndpoint, session, sslMode, sslContext, sslBufferManagement, byteBufferAllocator,
+                initializer, verifier, callback, null, null);
+    }
+
+    /**
+     * Creates new instance of {@code SSLIOSession} class.
+     *
+     * @param session I/O session to be decorated with the TLS/SSL capabilities.
+     * @param sslMode SSL mode (client or server)
+     * @param targetEndpoint target endpoint (applicable in client mode only). May be {@code null}.
+     * @param sslContext SSL context to use for this I/O session.
+     * @param sslBufferManagement buffer management mode
+     * @param byteBufferAllocator allocator of the session buffers.
+     * @param initializer optional SSL session initializer. May be {@code null}.
+     * @param verifier optional SSL session verifier. May be {@code null}.
+     * @param delegatedTaskExecutor optional executor of the delegated tasks of the SSL engine.
+     *   If {@code null} or if the executor rejects a task, delegated tasks are executed
+     *   by the calling thread.
+     * @param delegatedTaskCallback callback executed by the event loop of the session once
+     *   delegated tasks run by the executor have completed. The callback is expected to
+     *   resume the handshake by processing an input event. May be {@code null} only if
+     *   {@code delegatedTaskExecutor} is {@code null}.
+     *
+     * @since 5.0
+     */
+    public SSLIOSession(
+            final NamedEndpoint targetEndpoint,
+            final IOSession session,
+            final SSLMode sslMode,
+            final SSLContext sslContext,
+            final SSLBufferManagement sslBufferManagement,
+            final ByteBufferAllocator byteBufferAllocator,
+            final SSLSessionInitializer initializer,
+            final SSLSessionVerifier verifier,
+            final Callback<SSLIOSession> callback,
+            final Executor delegatedTaskExecutor,
+            final Callback<SSLIOSession> delegatedTaskCallback) {
         super();
         Args.notNull(session, "IO session");
         Args.notNull(sslContext, "SSL context");
+        Args.notNull(byteBufferAllocator, "Byte buffer allocator");
         this.targetEndpoint = targetEndpoint;
         this.session = session;
         this.sslMode = sslMode;
         this.initializer = initializer;
         this.verifier = verifier;
         this.callback = callback;
+        if (delegatedTaskExecutor != null) {
+            Args.notNull(delegatedTaskCallback, "Delegated task callback");
+        }
+        this.delegatedTaskExecutor = delegatedTaskExecutor;
+        this.delegatedTaskCallback = delegatedTaskCallback;
+
+        this.outputLock = new ReentrantLock();
+        this.outputDisposalPending = new AtomicBoolean(false);
+        this.status = new AtomicInteger(ACTIVE);
+        this.appEventMask = new AtomicInteger(session.getEventMask());
+        this.eventMaskUpdatePending = new AtomicBoolean(false);
+        this.eventMaskUpdate = new Runnable() {
+
+            @Override
+            public void run() {
+                eventMaskUpdatePending.set(false);
+                try {
+                    updateEventMask();
+                } catch (final CancelledKeyException ex) {
+                    shutdown(ShutdownType.GRACEFUL);
+                }
+            }
 
-        this.appEventMask = session.getEventMask();
+        };
         if (this.sslMode == SSLMode.CLIENT && targetEndpoint != null) {
             this.sslEngine = sslContext.createSSLEngine(targetEndpoint.getHostName(), targetEndpoint.getPort());
         } else {
@@ -153,36 +271,50 @@ public SSLIOSession(
         final SSLSession sslSession = this.sslEngine.getSession();
         // Allocate buffers for network (encrypted) data
         final int netBufferSize = sslSession.getPacketBufferSize();
-        this.inEncrypted = SSLBufferManagement.create(sslBufferManagement, netBufferSize);
-        this.outEncrypted = SSLBufferManagement.create(sslBufferManagement, netBufferSize);
+        this.inEncrypted = SSLBufferManagement.create(sslBufferManagement, netBufferSize, byteBufferAllocator);
+        this.outEncrypted = SSLBufferManagement.create(sslBufferManagement, netBufferSize, byteBufferAllocator);
 
         // Allocate buffers for application (unencrypted) data
         final int appBufferSize = sslSession.getApplicationBufferSize();
-        this.inPlain = SSLBufferManagement.create(sslBufferManagement, appBufferSize);
-        this.outPlain = SSLBufferManagement.create(sslBufferManagement, appBufferSize);
-        this.channel = new ByteChannel() {
+        this.inPlain = SSLBufferManagement.create(sslBufferManagement, appBufferSize, byteBufferAllocator);
+        this.outPlain = SSLBufferManagement.create(sslBufferManagement, appBufferSize, byteBufferAllocator);
+        this.channel = new PlainChannel();
+    }
 
-            @Override
-            public int write(final ByteBuffer src) throws IOException {
-                return SSLIOSession.this.writePlain(src);
-            }
+    private class PlainChannel implements ByteChannel, GatheringByteChannel {
 
-            @Override
-            public int read(final ByteBuffer dst) throws IOException {
-                return SSLIOSession.this.readPlain(dst);
-            }
+        @Override
+        public int write(final ByteBuffer src) throws IOException {
+            Args.notNull(src, "Byte buffer");
+            return (int) SSLIOSession.this.writePlain(new ByteBuffer[] { src }, 0, 1);
+        }
 
-            @Override
-            public void close() throws IOException {
-                SSLIOSession.this.close();
-            }
+        @Override
+        public long write(final ByteBuffer[] srcs, final int offset, final int length) throws IOException {
+            Args.notNull(srcs, "Byte buffers");
+            return SSLIOSession.this.writePlain(srcs, offset, length);
+        }
 
-            @Override
-            public boolean isOpen() {
-                return !SSLIOSession.this.isClosed();
-            }
+        @Override
+        public long write(final ByteBuffer[] srcs) throws IOException {
+            return write(srcs, 0, srcs.length);
+        }
+
+        @Override
+        public int read(final ByteBuffer dst) throws IOException {
+            return SSLIOSession.this.readPlain(dst);
+        }
+
+        @Override
+        public void close() throws IOException {
+            SSLIOSession.this.close();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return !SSLIOSession.this.isClosed();
+        }
 
-        };
     }
 
     @Override
@@ -206,9 +338,18 @@ public boolean isInitialized() {
      * @throws SSLException in case of a SSL protocol exception.
      * @throws IllegalStateException if the session has already been initialized.
      */
-    public synchronized void initialize() throws SSLException {
+    public void initialize() throws SSLException {
+        this.outputLock.lock();
+        try {
+            doInitialize();
+        } finally {
+            unlockOutput();
+        }
+    }
+
+    private void doInitialize() throws SSLException {
         Asserts.check(!this.initialized, "SSL I/O session already initialized");
-        if (this.status >= IOSession.CLOSING) {
+        if (this.status.get() >= IOSession.CLOSING) {
             return;
         }
         switch (this.sslMode) {
@@ -233,7 +374,7 @@ public synchronized void initialize() throws SSLException {
         doHandshake();
     }
 
-    public synchronized TlsDetails getTlsDetails() {
+    public TlsDetails getTlsDetails() {
         return tlsDetails;
     }
 
@@ -258,6 +399,15 @@ private SSLEngineResult doWrap(final ByteBuffer src, final ByteBuffer dst) throw
         }
     }
 
+    private SSLEngineResult doWrap(
+            final ByteBuffer[] srcs, final int offset, final int length, final ByteBuffer dst) throws SSLException {
+        try {
+            return this.sslEngine.wrap(srcs, offset, length, dst);
+        } catch (final RuntimeException ex) {
+            throw convert(ex);
+        }
+    }
+
     private SSLEngineResult doUnwrap(final ByteBuffer src, final ByteBuffer dst) throws SSLException {
         try {
             return this.sslEngine.unwrap(src, dst);
@@ -277,7 +427,112 @@ private void doRunTask() throws SSLException {
         }
     }
 
+    /**
+     * Hands the delegated tasks of the SSL engine over to the delegated task executor.
+     * Once the tasks have completed the event loop of the session executes
+     * the delegated task callback.
+     *
+     * @return {@code true} if the tasks are being executed by the executor,
+     *   {@code false} if they need to be executed by the calling thread.
+     */
+    private boolean offloadTasks() throws SSLException {
+        if (this.delegatedTaskExecutor == null) {
+            return false;
+        }
+        if (this.delegatedTaskPending) {
+            return true;
+        }
+        final Runnable task;
+        try {
+            task = this.sslEngine.getDelegatedTask();
+        } catch (final RuntimeException ex) {
+            throw convert(ex);
+        }
+        if (task == null) {
+            return false;
+        }
+        this.delegatedTaskPending = true;
+        try {
+            this.delegatedTaskExecutor.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    try {
+                        Runnable r = task;
+                        while (r != null) {
+                            r.run();
+                            r = sslEngine.getDelegatedTask();
+                        }
+                    } catch (final RuntimeException ex) {
+                        delegatedTaskException = convert(ex);
+                    }
+                    try {
+                        session.getEventLoop().execute(new Runnable() {
+
+                            @Override
+                            public void run() {
+                                resumeHandshake();
+                            }
+
+                        });
+                    } catch (final RejectedExecutionException ex) {
+                        shutdown(ShutdownType.IMMEDIATE);
+                    }
+                }
+
+            });
+        } catch (final RejectedExecutionException ex) {
+            this.delegatedTaskPending = false;
+            try {
+                task.run();
+            } catch (final RuntimeException ex2) {
+                throw convert(ex2);
+            }
+        }
+        return this.delegatedTaskPending;
+    }
+
+    private void resumeHandshake() {
+        this.delegatedTaskPending = false;
+        if (this.status.get() == CLOSED) {
+            return;
+        }
+        this.delegatedTaskCallback.execute(this);
+    }
+
+    /**
+     * Returns {@code true} while delegated tasks of the SSL engine are being
+     * executed by the delegated task executor, {@code false} otherwise.
+     *
+     * @since 5.0
+     */
+    public boolean isDelegatedTaskPending() {
+        return this.delegatedTaskPending;
+    }
+
+    /**
+     * Advances the handshake, if any. Handshakes produce outbound data
+     * and are therefore performed while holding the output lock.
+     */
+    private void handshake() throws SSLException {
+        if (this.sslEngine.getHandshakeStatus() == HandshakeStatus.NOT_HANDSHAKING
+                && this.delegatedTaskException == null) {
+            return;
+        }
+        this.outputLock.lock();
+        try {
+            doHandshake();
+        } finally {
+            unlockOutput();
+        }
+    }
+
     private void doHandshake() throws SSLException {
+        final SSLException taskException = this.delegatedTaskException;
+        if (taskException != null) {
+            this.delegatedTaskException = null;
+            throw taskException;
+        }
         boolean handshaking = true;
 
         SSLEngineResult result = null;
@@ -327,7 +582,7 @@ private void doHandshake() throws SSLException {
                     }
                 }
 
-                if (this.status >= IOSession.CLOSING) {
+                if (this.status.get() >= IOSession.CLOSING) {
                     this.inPlain.release();
                 }
                 if (result.getStatus() != Status.OK) {
@@ -335,7 +590,11 @@ private void doHandshake() throws SSLException {
                 }
                 break;
             case NEED_TASK:
-                doRunTask();
+                if (offloadTasks()) {
+                    handshaking = false;
+                } else {
+                    doRunTask();
+                }
                 break;
             case NOT_HANDSHAKING:
                 handshaking = false;
@@ -363,23 +622,50 @@ private void doHandshake() throws SSLException {
         }
     }
 
-    private void updateEventMask() {
-        // Graceful session termination
-        if (this.status == CLOSING && !this.outEncrypted.hasData()) {
-            this.sslEngine.closeOutbound();
-        }
-        if (this.status == CLOSING && this.sslEngine.isOutboundDone()
-                && (this.endOfStream || this.sslEngine.isInboundDone())) {
-            this.status = CLOSED;
-        }
-        // Abnormal session termination
-        if (this.status == ACTIVE && this.endOfStream
-                && this.sslEngine.getHandshakeStatus() == HandshakeStatus.NEED_UNWRAP) {
-            this.status = CLOSED;
+    /**
+     * Hands the event mask update over to the event loop of the session
+     * unless called by the I/O reactor thread.
+     */
+    private void requestEventMaskUpdate() {
+        final IOEventLoop eventLoop = this.session.getEventLoop();
+        if (eventLoop == null || eventLoop.inEventLoop()) {
+            updateEventMask();
+        } else if (this.eventMaskUpdatePending.compareAndSet(false, true)) {
+            try {
+                eventLoop.execute(this.eventMaskUpdate);
+            } catch (final RejectedExecutionException ex) {
+                // The session cannot make progress without its event loop
+                this.eventMaskUpdatePending.set(false);
+                shutdown(ShutdownType.GRACEFUL);
+            }
         }
-        if (this.status == CLOSED) {
-            this.session.close();
-            return;
+    }
+
+    private void updateEventMask() {
+        if (this.status.get() != ACTIVE || this.endOfStream) {
+            this.outputLock.lock();
+            try {
+                // Graceful session termination
+                if (this.status.get() == CLOSING && !this.outEncrypted.hasData()) {
+                    this.sslEngine.closeOutbound();
+                }
+                if (this.status.get() == CLOSING && this.sslEngine.isOutboundDone()
+                        && (this.endOfStream || this.sslEngine.isInboundDone())) {
+                    this.status.set(CLOSED);
+                }
+                // Abnormal session termination
+                if (this.status.get() == ACTIVE && this.endOfStream
+                        && this.sslEngine.getHandshakeStatus() == HandshakeStatus.NEED_UNWRAP) {
+                    this.status.set(CLOSED);
+                }
+                if (this.status.get() == CLOSED) {
+                    disposeBuffers();
+                    this.session.close();
+                    return;
+                }
+            } finally {
+                unlockOutput();
+            }
         }
         // Need to toggle the event mask for this channel?
         final int oldMask = this.session.getEventMask();
@@ -392,16 +678,20 @@ private void updateEventMask() {
             newMask = EventMask.READ;
             break;
         case NOT_HANDSHAKING:
-            newMask = this.appEventMask;
+            newMask = this.appEventMask.get();
             break;
         case NEED_TASK:
+            // Do not poll the channel while delegated tasks are pending
+            if (this.delegatedTaskPending) {
+                newMask = 0;
+            }
             break;
         case FINISHED:
             break;
         }
 
         // Do we have encrypted data ready to be sent?
-        if (this.outEncrypted.hasData()) {
+        if (this.encryptedOutputPending) {
             newMask = newMask | EventMask.WRITE;
         }
 
@@ -500,20 +790,90 @@ private boolean decryptData() throws SSLException {
      *
      * @throws IOException in case of an I/O error.
      */
-    public synchronized boolean isAppInputReady() throws IOException {
+    public boolean isAppInputReady() throws IOException {
         do {
             final int bytesRead = receiveEncryptedData();
             if (bytesRead == -1) {
                 this.endOfStream = true;
             }
-            doHandshake();
+            handshake();
             final HandshakeStatus status = this.sslEngine.getHandshakeStatus();
-            if (status == HandshakeStatus.NOT_HANDSHAKING || status == HandshakeStatus.FINISHED) {
+            // Complete records get decrypted straight into the buffer of the reader
+            // unless there is no more input to come
+            if (this.endOfStream && (status == HandshakeStatus.NOT_HANDSHAKING || status == HandshakeStatus.FINISHED)) {
                 decryptData();
             }
-        } while (this.sslEngine.getHandshakeStatus() == HandshakeStatus.NEED_TASK);
+        } while (this.sslEngine.getHandshakeStatus() == HandshakeStatus.NEED_TASK && !this.delegatedTaskPending);
         // Some decrypted data is available or at the end of stream
-        return this.inPlain.hasData() || (this.endOfStream && this.status == ACTIVE);
+        return hasInputDate() || (this.endOfStream && this.status.get() == ACTIVE);
+    }
+
+    /**
+     * Determines whether the encrypted input holds a complete TLS record
+     * that can be decrypted while not handshaking.
+     */
+    private boolean isRecordPending() {
+        if (!this.inEncrypted.hasData()
+                || this.sslEngine.getHandshakeStatus() != HandshakeStatus.NOT_HANDSHAKING
+                || this.sslEngine.isInboundDone()) {
+            return false;
+        }
+        final ByteBuffer inEncryptedBuf = this.inEncrypted.acquire();
+        if (inEncryptedBuf.position() < RECORD_HEADER_LENGTH) {
+            return false;
+        }
+        final int length = (inEncryptedBuf.get(3) & 0xff) << 8 | (inEncryptedBuf.get(4) & 0xff);
+        return inEncryptedBuf.position() >= RECORD_HEADER_LENGTH + length;
+    }
+
+    /**
+     * Decrypts complete records straight into the given buffer. Falls back
+     * to the intermediate plain buffer if a record does not fit into
+     * the remaining space of the given buffer.
+     */
+    private int decryptInto(final ByteBuffer dst) throws SSLException {
+        int total = 0;
+        while (isRecordPending()) {
+            final ByteBuffer inEncryptedBuf = this.inEncrypted.acquire();
+            inEncryptedBuf.flip();
+            SSLEngineResult result = doUnwrap(inEncryptedBuf, dst);
+            if (result.getStatus() == Status.BUFFER_OVERFLOW) {
+                result = doUnwrap(inEncryptedBuf, this.inPlain.acquire());
+            }
+            inEncryptedBuf.compact();
+            if (inEncryptedBuf.position() == 0) {
+                this.inEncrypted.release();
+            }
+            if (this.inPlain.hasData()) {
+                total += copyPlain(dst);
+                break;
+            }
+            if (this.inPlain.isAcquired()) {
+                this.inPlain.release();
+            }
+            total += result.bytesProduced();
+            if (result.getStatus() != Status.OK || !dst.hasRemaining()) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private int copyPlain(final ByteBuffer dst) {
+        final ByteBuffer inPlainBuf = this.inPlain.acquire();
+        inPlainBuf.flip();
+        final int n = Math.min(inPlainBuf.remaining(), dst.remaining());
+        final int limit = inPlainBuf.limit();
+        inPlainBuf.limit(inPlainBuf.position() + n);
+        dst.put(inPlainBuf);
+        inPlainBuf.limit(limit);
+        inPlainBuf.compact();
+
+        // Release if empty
+        if (inPlainBuf.position() == 0) {
+            this.inPlain.release();
+        }
+        return n;
     }
 
     /**
@@ -522,9 +882,9 @@ public synchronized boolean isAppInputReady() throws IOException {
      *
      * @throws IOException - not thrown currently
      */
-    public synchronized boolean isAppOutputReady() throws IOException {
-        return (this.appEventMask & SelectionKey.OP_WRITE) > 0
-            && this.status == ACTIVE
+    public boolean isAppOutputReady() throws IOException {
+        return (this.appEventMask.get() & SelectionKey.OP_WRITE) > 0
+            && this.status.get() == ACTIVE
             && this.sslEngine.getHandshakeStatus() == HandshakeStatus.NOT_HANDSHAKING;
     }
 
@@ -533,7 +893,7 @@ public synchronized boolean isAppOutputReady() throws IOException {
      *
      * @throws IOException - not thrown currently
      */
-    public synchronized void inboundTransport() throws IOException {
+    public void inboundTransport() throws IOException {
         updateEventMask();
     }
 
@@ -542,32 +902,47 @@ public synchronized void inboundTransport() throws IOException {
      *
      * @throws IOException in case of an I/O error.
      */
-    public synchronized void outboundTransport() throws IOException {
+    public void outboundTransport() throws IOException {
         if (this.session.isClosed()) {
             return;
         }
-        sendEncryptedData();
-        doHandshake();
+        this.outputLock.lock();
+        try {
+            sendEncryptedData();
+            doHandshake();
+        } finally {
+            unlockOutput();
+        }
         updateEventMask();
     }
 
     /**
      * Returns whether the session will produce any more inbound data.
      */
-    public synchronized boolean isInboundDone() {
+    public boolean isInboundDone() {
         return this.sslEngine.isInboundDone();
     }
 
     /**
      * Returns whether the session will accept any more outbound data.
      */
-    public synchronized boolean isOutboundDone() {
+    public boolean isOutboundDone() {
         return this.sslEngine.isOutboundDone();
     }
 
-    private synchronized int writePlain(final ByteBuffer src) throws IOException {
-        Args.notNull(src, "Byte buffer");
-        if (this.status != ACTIVE) {
+    private long writePlain(
+            final ByteBuffer[] srcs, final int offset, final int length) throws IOException {
+        this.outputLock.lock();
+        try {
+            return doWritePlain(srcs, offset, length);
+        } finally {
+            unlockOutput();
+        }
+    }
+
+    private long doWritePlain(
+            final ByteBuffer[] srcs, final int offset, final int length) throws IOException {
+        if (this.status.get() != ACTIVE) {
             throw new ClosedChannelException();
         }
         if (this.outPlain.hasData()) {
@@ -587,34 +962,28 @@ private synchronized int writePlain(final ByteBuffer src) throws IOException {
         }
         if (!this.outPlain.hasData()) {
             final ByteBuffer outEncryptedBuf = this.outEncrypted.acquire();
-            final SSLEngineResult result = doWrap(src, outEncryptedBuf);
+            SSLEngineResult result = doWrap(srcs, offset, length, outEncryptedBuf);
+            if (result.getStatus() == Status.BUFFER_OVERFLOW && outEncryptedBuf.position() > 0) {
+                // Pending encrypted data, such as the final flight of an abbreviated
+                // handshake, leaves less room than a full record may take
+                sendEncryptedData();
+                result = doWrap(srcs, offset, length, this.outEncrypted.acquire());
+            }
             if (result.getStatus() == Status.CLOSED) {
-                this.status = CLOSED;
+                this.status.set(CLOSED);
             }
             return result.bytesConsumed();
         }
         return 0;
     }
 
-    private synchronized int readPlain(final ByteBuffer dst) {
+    private int readPlain(final ByteBuffer dst) throws SSLException {
         Args.notNull(dst, "Byte buffer");
         if (this.inPlain.hasData()) {
-            // Acquire buffer
-            final ByteBuffer inPlainBuf = this.inPlain.acquire();
-
-            // Perform opertaions
-            inPlainBuf.flip();
-            final int n = Math.min(inPlainBuf.remaining(), dst.remaining());
-            for (int i = 0; i < n; i++) {
-                dst.put(inPlainBuf.get());
-            }
-            inPlainBuf.compact();
-
-            // Release if empty
-            if (inPlainBuf.position() == 0) {
-                this.inPlain.release();
-            }
-            return n;
+            return copyPlain(dst);
+        }
+        if (isRecordPending()) {
+            return decryptInto(dst);
         }
         if (this.endOfStream) {
             return -1;
@@ -625,65 +994,111 @@ private synchronized int readPlain(final ByteBuffer dst) {
     /**
      * @since 5.0
      */
-    public synchronized boolean hasInputDate() {
-        return this.inPlain.hasData();
+    public boolean hasInputDate() {
+        return this.inPlain.hasData() || isRecordPending();
     }
 
     /**
      * @since 5.0
      */
-    public synchronized boolean hasOutputDate() {
-        return this.outPlain.hasData();
+    public boolean hasOutputDate() {
+        return this.plainOutputPending;
     }
 
     @Override
-    public synchronized void close() {
-        if (this.status >= CLOSING) {
+    public void close() {
+        // Writers see the new status the next time they acquire the output lock
+        if (!this.status.compareAndSet(ACTIVE, CLOSING)) {
             return;
         }
-        this.status = CLOSING;
         if (this.session.getSocketTimeout() == 0) {
             this.session.setSocketTimeout(1000);
         }
         try {
-            updateEventMask();
+            requestEventMaskUpdate();
         } catch (final CancelledKeyException ex) {
             shutdown(ShutdownType.GRACEFUL);
         }
     }
 
     @Override
-    public synchronized void shutdown(final ShutdownType shutdownType) {
-        if (this.status == CLOSED) {
+    public void shutdown(final ShutdownType shutdownType) {
+        if (this.status.getAndSet(CLOSED) == CLOSED) {
             return;
         }
-        this.inEncrypted.release();
-        this.outEncrypted.release();
-        this.inPlain.release();
-        this.outPlain.release();
-
-        this.status = CLOSED;
         this.session.shutdown(shutdownType);
+        // Input buffers may only be disposed of by the I/O reactor thread
+        // unless it no longer runs the event loop
+        final IOEventLoop eventLoop = this.session.getEventLoop();
+        if (eventLoop == null || eventLoop.inEventLoop()) {
+            disposeBuffers();
+        } else {
+            try {
+                eventLoop.execute(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        disposeBuffers();
+                    }
+
+                });
+            } catch (final RejectedExecutionException ex) {
+                disposeBuffers();
+            }
+        }
+    }
+
+    private void disposeBuffers() {
+        this.inEncrypted.dispose();
+        this.inPlain.dispose();
+        // Output buffers may be in use by a writer. Rather than wait for the output
+        // lock leave their disposal to the writer if it cannot be acquired right away
+        this.outputDisposalPending.set(true);
+        disposeOutputBuffers();
+    }
+
+    private void disposeOutputBuffers() {
+        if (this.outputDisposalPending.get() && this.outputLock.tryLock()) {
+            try {
+                if (this.outputDisposalPending.compareAndSet(true, false)) {
+                    this.outEncrypted.dispose();
+                    this.outPlain.dispose();
+                    this.encryptedOutputPending = false;
+                    this.plainOutputPending = false;
+                }
+            } finally {
+                this.outputLock.unlock();
+            }
+        }
+    }
+
+    private void unlockOutput() {
+        this.encryptedOutputPending = this.outEncrypted.hasData();
+        this.plainOutputPending = this.outPlain.hasData();
+        this.outputLock.unlock();
+        if (this.outputDisposalPending.get()) {
+            disposeOutputBuffers();
+        }
     }
 
     @Override
     public int getStatus() {
-        return this.status;
+        return this.status.get();
     }
 
     @Override
     public boolean isClosed() {
-        return this.status >= CLOSING || this.session.isClosed();
+        return this.status.get() >= CLOSING || this.session.isClosed();
     }
 
     @Override
-    public synchronized void addLast(final Command command) {
+    public void addLast(final Command command) {
         this.session.addLast(command);
         setEvent(SelectionKey.OP_WRITE);
     }
 
     @Override
-    public synchronized void addFirst(final Command command) {
+    public void addFirst(final Command command) {
         this.session.addFirst(command);
         setEvent(SelectionKey.OP_WRITE);
     }
@@ -709,26 +1124,36 @@ public SocketAddress getRemoteAddress() {
     }
 
     @Override
-    public synchronized int getEventMask() {
-        return this.appEventMask;
+    public int getEventMask() {
+        return this.appEventMask.get();
     }
 
     @Override
-    public synchronized void setEventMask(final int ops) {
-        this.appEventMask = ops;
-        updateEventMask();
+    public void setEventMask(final int ops) {
+        this.appEventMask.set(ops);
+        requestEventMaskUpdate();
     }
 
     @Override
-    public synchronized void setEvent(final int op) {
-        this.appEventMask = this.appEventMask | op;
-        updateEventMask();
+    public void setEvent(final int op) {
+        for (;;) {
+            final int current = this.appEventMask.get();
+            if (this.appEventMask.compareAndSet(current, current | op)) {
+                break;
+            }
+        }
+        requestEventMaskUpdate();
     }
 
     @Override
-    public synchronized void clearEvent(final int op) {
-        this.appEventMask = this.appEventMask & ~op;
-        updateEventMask();
+    public void clearEvent(final int op) {
+        for (;;) {
+            final int current = this.appEventMask.get();
+            if (this.appEventMask.compareAndSet(current, current & ~op)) {
+                break;
+            }
+        }
+        requestEventMaskUpdate();
     }
 
     @Override
@@ -741,6 +1166,11 @@ public void setSocketTimeout(final int timeout) {
         this.session.setSocketTimeout(timeout);
     }
 
+    @Override
+    public IOEventLoop getEventLoop() {
+        return this.session.getEventLoop();
+    }
+
     @Override
     public IOEventHandler getHandler() {
         return this.session.getHandler();
@@ -765,7 +1195,7 @@ public String toString() {
         final StringBuilder buffer = new StringBuilder();
         buffer.append(this.session);
         buffer.append("[");
-        switch (this.status) {
+        switch (this.status.get()) {
         case ACTIVE:
             buffer.append("ACTIVE");
             break;
@@ -777,7 +1207,7 @@ public String toString() {
             break;
         }
         buffer.append("][");
-        formatOps(buffer, this.appEventMask);
+        formatOps(buffer, this.appEventMask.get());
         buffer.append("][");
         buffer.append(this.sslEngine.getHandshakeStatus());
         if (this.sslEngine.isInboundDone()) {
@@ -793,10 +1223,15 @@ public String toString() {
         buffer.append(!this.inEncrypted.hasData() ? 0 : inEncrypted.acquire().position());
         buffer.append("][");
         buffer.append(!this.inPlain.hasData() ? 0 : inPlain.acquire().position());
-        buffer.append("][");
-        buffer.append(!this.outEncrypted.hasData() ? 0 : outEncrypted.acquire().position());
-        buffer.append("][");
-        buffer.append(!this.outPlain.hasData() ? 0 : outPlain.acquire().position());
+        this.outputLock.lock();
+        try {
+            buffer.append("][");
+            buffer.append(!this.outEncrypted.hasData() ? 0 : outEncrypted.acquire().position());
+            buffer.append("][");
+            buffer.append(!this.outPlain.hasData() ? 0 : outPlain.acquire().position());
+        } finally {
+            unlockOutput();
+        }
         buffer.append("]");
         return buffer.toString();
     }
@@ -27,6 +27,8 @@
 
 package org.apache.hc.core5.reactor.ssl;
 
+import java.util.concurrent.Executor;
+
 import javax.net.ssl.SSLContext;
 
 /**
@@ -42,6 +44,24 @@ void startTls(
             SSLSessionInitializer initializer,
             SSLSessionVerifier verifier) throws UnsupportedOperationException;
 
+    /**
+     * Starts TLS session. Delegated tasks of the TLS handshake such as
+     * key exchange computations are executed by the given executor rather
+     * than by the I/O reactor thread. The handshake resumes on the I/O reactor
+     * thread once the tasks have completed. Tasks rejected by the executor
+     * are executed by the I/O reactor thread.
+     *
+     * @param delegatedTaskExecutor executor of delegated tasks. May be {@code null}.
+     *
+     * @since 5.0
+     */
+    void startTls(
+            SSLContext sslContext,
+            SSLBufferManagement sslBufferManagement,
+            SSLSessionInitializer initializer,
+            SSLSessionVerifier verifier,
+            Executor delegatedTaskExecutor) throws UnsupportedOperationException;
+
     TlsDetails getTlsDetails();
 
 }
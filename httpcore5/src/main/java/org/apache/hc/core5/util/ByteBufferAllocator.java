@@ -0,0 +1,63 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Allocator of {@link ByteBuffer}s used by the I/O layer for session,
+ * frame and content buffers.
+ * <p>
+ * Buffers obtained from an allocator should be returned to it with
+ * {@link #release(ByteBuffer)} once no longer referenced, so that pooling
+ * implementations can reuse them. Buffers that are never released are
+ * simply garbage collected.
+ * </p>
+ *
+ * @since 5.0
+ */
+public interface ByteBufferAllocator {
+
+    /**
+     * Allocates a buffer with a capacity of at least the given number of bytes.
+     * The buffer is returned cleared, that is, with position {@code 0} and limit
+     * equal to its capacity.
+     *
+     * @param capacity the minimal capacity of the buffer.
+     * @return the buffer.
+     */
+    ByteBuffer allocate(int capacity);
+
+    /**
+     * Returns a buffer previously obtained from {@link #allocate(int)}.
+     * The caller must not access the buffer after it has been released.
+     *
+     * @param buffer the buffer to release.
+     */
+    void release(ByteBuffer buffer);
+
+}
@@ -0,0 +1,248 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.util;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+
+/**
+ * {@link ByteBufferAllocator} that recycles released buffers.
+ * <p>
+ * Requested capacities are rounded up to size classes of powers of two
+ * between the minimal and the maximal pooled capacity. Released buffers are
+ * kept in a small cache of the releasing thread first, which requires no
+ * synchronization, and overflow into an arena shared by all threads. Buffers
+ * larger than the maximal pooled capacity are allocated on demand and left
+ * to the garbage collector once released.
+ * </p>
+ * <p>
+ * Released buffers of another kind or of a capacity that does not match
+ * a size class are ignored. Each buffer must be released at most once.
+ * With buffer tracking enabled the allocator additionally remembers the
+ * buffers handed out by identity, without keeping them from being garbage
+ * collected, and ignores buffers it has not handed out, such as wrapped
+ * arrays or slices, and buffers released twice. Tracking is meant for
+ * debugging buffer ownership and costs an extra lookup per allocation
+ * and release.
+ * </p>
+ *
+ * @since 5.0
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public final class PooledByteBufferAllocator implements ByteBufferAllocator {
+
+    public static final int DEFAULT_MIN_CAPACITY = 256;
+    public static final int DEFAULT_MAX_CAPACITY = 64 * 1024;
+    public static final int DEFAULT_THREAD_CACHE_SIZE = 8;
+    public static final int DEFAULT_ARENA_SIZE = 256;
+
+    private final boolean direct;
+    private final int minCapacity;
+    private final int maxCapacity;
+    private final int threadCacheSize;
+    private final int arenaSize;
+    private final List<Queue<ByteBuffer>> arena;
+    private final AtomicInteger[] arenaCounts;
+    private final ThreadLocal<List<Deque<ByteBuffer>>> threadCaches;
+    private final WeakIdentitySet<ByteBuffer> leasedBuffers;
+    private final AtomicLong leased;
+
+    /**
+     * @param direct {@code true} to allocate direct buffers, {@code false} to allocate heap buffers.
+     * @param minCapacity the smallest size class. Rounded up to a power of two.
+     * @param maxCapacity the largest size class. Rounded up to a power of two.
+     * @param threadCacheSize the maximal number of buffers per size class cached by each thread.
+     * @param arenaSize the maximal number of buffers per size class kept in the shared arena.
+     * @param trackBuffers {@code true} to verify released buffers by identity.
+     */
+    public PooledByteBufferAllocator(
+            final boolean direct,
+            final int minCapacity,
+            final int maxCapacity,
+            final int threadCacheSize,
+            final int arenaSize,
+            final boolean trackBuffers) {
+        Args.positive(minCapacity, "Min capacity");
+        Args.check(maxCapacity >= minCapacity, "Max capacity may not be less than min capacity");
+        Args.check(maxCapacity <= 1 << 30, "Max capacity may not exceed 2^30");
+        this.direct = direct;
+        this.minCapacity = roundUp(minCapacity);
+        this.maxCapacity = roundUp(maxCapacity);
+        this.threadCacheSize = Args.notNegative(threadCacheSize, "Thread cache size");
+        this.arenaSize = Args.notNegative(arenaSize, "Arena size");
+        final int sizeClasses = sizeClassOf(this.maxCapacity) + 1;
+        this.arena = new ArrayList<>(sizeClasses);
+        this.arenaCounts = new AtomicInteger[sizeClasses];
+        for (int i = 0; i < sizeClasses; i++) {
+            this.arena.add(new ConcurrentLinkedQueue<ByteBuffer>());
+            this.arenaCounts[i] = new AtomicInteger(0);
+        }
+        this.threadCaches = new ThreadLocal<List<Deque<ByteBuffer>>>() {
+
+            @Override
+            protected List<Deque<ByteBuffer>> initialValue() {
+                final List<Deque<ByteBuffer>> caches = new ArrayList<>(sizeClasses);
+                for (int i = 0; i < sizeClasses; i++) {
+                    caches.add(new ArrayDeque<ByteBuffer>());
+                }
+                return caches;
+            }
+
+        };
+        this.leasedBuffers = trackBuffers ? new WeakIdentitySet<ByteBuffer>() : null;
+        this.leased = new AtomicLong(0);
+    }
+
+    /**
+     * @param direct {@code true} to allocate direct buffers, {@code false} to allocate heap buffers.
+     * @param minCapacity the smallest size class. Rounded up to a power of two.
+     * @param maxCapacity the largest size class. Rounded up to a power of two.
+     * @param threadCacheSize the maximal number of buffers per size class cached by each thread.
+     * @param arenaSize the maximal number of buffers per size class kept in the shared arena.
+     */
+    public PooledByteBufferAllocator(
+            final boolean direct,
+            final int minCapacity,
+            final int maxCapacity,
+            final int threadCacheSize,
+            final int arenaSize) {
+        this(direct, minCapacity, maxCapacity, threadCacheSize, arenaSize, false);
+    }
+
+    public PooledByteBufferAllocator(final boolean direct) {
+        this(direct, DEFAULT_MIN_CAPACITY, DEFAULT_MAX_CAPACITY, DEFAULT_THREAD_CACHE_SIZE, DEFAULT_ARENA_SIZE);
+    }
+
+    public PooledByteBufferAllocator() {
+        this(false);
+    }
+
+    private static int roundUp(final int capacity) {
+        final int highest = Integer.highestOneBit(capacity);
+        return highest == capacity ? capacity : highest << 1;
+    }
+
+    private int sizeClassOf(final int capacity) {
+        return Integer.numberOfTrailingZeros(capacity) - Integer.numberOfTrailingZeros(this.minCapacity);
+    }
+
+    private ByteBuffer allocateBuffer(final int capacity) {
+        return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    private ByteBuffer lease(final ByteBuffer buffer) {
+        if (leasedBuffers != null) {
+            leasedBuffers.add(buffer);
+        }
+        leased.incrementAndGet();
+        return buffer;
+    }
+
+    private boolean isPoolable(final ByteBuffer buffer) {
+        final int capacity = buffer.capacity();
+        if (buffer.isDirect() != direct || buffer.isReadOnly()
+                || capacity < minCapacity || capacity > maxCapacity || Integer.bitCount(capacity) != 1) {
+            return false;
+        }
+        return direct || buffer.arrayOffset() == 0 && buffer.array().length == capacity;
+    }
+
+    @Override
+    public ByteBuffer allocate(final int capacity) {
+        Args.notNegative(capacity, "Capacity");
+        if (capacity > maxCapacity) {
+            return allocateBuffer(capacity);
+        }
+        final int classCapacity = roundUp(Math.max(capacity, minCapacity));
+        final int sizeClass = sizeClassOf(classCapacity);
+        ByteBuffer buffer = threadCaches.get().get(sizeClass).pollFirst();
+        if (buffer == null) {
+            buffer = arena.get(sizeClass).poll();
+            if (buffer != null) {
+                arenaCounts[sizeClass].decrementAndGet();
+            }
+        }
+        if (buffer == null) {
+            return lease(allocateBuffer(classCapacity));
+        }
+        buffer.clear();
+        return lease(buffer);
+    }
+
+    @Override
+    public void release(final ByteBuffer buffer) {
+        if (buffer == null || !isPoolable(buffer)) {
+            return;
+        }
+        if (leasedBuffers != null && !leasedBuffers.remove(buffer)) {
+            // not handed out by this pool or released already
+            return;
+        }
+        leased.decrementAndGet();
+        final int sizeClass = sizeClassOf(buffer.capacity());
+        final Deque<ByteBuffer> cache = threadCaches.get().get(sizeClass);
+        if (cache.size() < threadCacheSize) {
+            cache.addFirst(buffer);
+        } else if (arenaCounts[sizeClass].incrementAndGet() <= arenaSize) {
+            arena.get(sizeClass).add(buffer);
+        } else {
+            arenaCounts[sizeClass].decrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the number of pooled buffers allocated and not released yet.
+     * Buffers larger than the maximal pooled capacity are not counted.
+     *
+     * @return the number of outstanding buffers.
+     */
+    public long getLeasedCount() {
+        return leased.get();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder buffer = new StringBuilder();
+        buffer.append("[direct=").append(direct)
+                .append(", minCapacity=").append(minCapacity)
+                .append(", maxCapacity=").append(maxCapacity)
+                .append(", leased=").append(leased.get())
+                .append("]");
+        return buffer.toString();
+    }
+
+}
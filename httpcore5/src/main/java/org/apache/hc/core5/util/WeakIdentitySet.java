@@ -0,0 +1,99 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.util;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Thread safe set of objects compared by identity that does not keep its
+ * elements from being garbage collected.
+ */
+final class WeakIdentitySet<T> {
+
+    private final ConcurrentMap<Key<T>, Boolean> map;
+    private final ReferenceQueue<T> queue;
+
+    WeakIdentitySet() {
+        this.map = new ConcurrentHashMap<>();
+        this.queue = new ReferenceQueue<>();
+    }
+
+    private void expunge() {
+        Reference<? extends T> ref;
+        while ((ref = queue.poll()) != null) {
+            map.remove(ref);
+        }
+    }
+
+    boolean add(final T object) {
+        expunge();
+        return map.putIfAbsent(new Key<>(object, queue), Boolean.TRUE) == null;
+    }
+
+    boolean remove(final T object) {
+        expunge();
+        return map.remove(new Key<>(object, null)) != null;
+    }
+
+    int size() {
+        expunge();
+        return map.size();
+    }
+
+    private static final class Key<T> extends WeakReference<T> {
+
+        private final int hash;
+
+        Key(final T object, final ReferenceQueue<T> queue) {
+            super(object, queue);
+            this.hash = System.identityHashCode(object);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (obj instanceof Key) {
+                final Object object = get();
+                return object != null && object == ((Key<?>) obj).get();
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+    }
+
+}
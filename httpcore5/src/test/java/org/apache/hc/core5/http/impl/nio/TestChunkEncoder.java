@@ -32,6 +32,7 @@
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 
+import org.apache.hc.core5.http.GatheringByteChannelMock;
 import org.apache.hc.core5.http.WritableByteChannelMock;
 import org.apache.hc.core5.http.impl.BasicHttpTransportMetrics;
 import org.apache.hc.core5.http.message.BasicHeader;
@@ -67,6 +68,49 @@ public void testBasicCoding() throws Exception {
         Assert.assertEquals("[chunk-coded; completed: true]", encoder.toString());
     }
 
+    @Test
+    public void testGatheringWrite() throws Exception {
+        final GatheringByteChannelMock channel = new GatheringByteChannelMock(64);
+        final SessionOutputBuffer outbuf = new SessionOutputBufferImpl(1024, 128);
+        final BasicHttpTransportMetrics metrics = new BasicHttpTransportMetrics();
+        final ChunkEncoder encoder = new ChunkEncoder(channel, outbuf, metrics);
+
+        final ByteBuffer src = CodecTestUtils.wrap("0123456789ABCDEF");
+        Assert.assertEquals(16, encoder.write(src));
+        Assert.assertFalse(src.hasRemaining());
+        Assert.assertEquals(1, channel.getWriteCount());
+        Assert.assertFalse(outbuf.hasData());
+        Assert.assertEquals(22, metrics.getBytesTransferred());
+
+        encoder.complete();
+        outbuf.flush(channel);
+
+        final String s = channel.dump(StandardCharsets.US_ASCII);
+        Assert.assertEquals("10\r\n0123456789ABCDEF\r\n0\r\n\r\n", s);
+    }
+
+    @Test
+    public void testGatheringWriteChannelSaturated() throws Exception {
+        final GatheringByteChannelMock channel = new GatheringByteChannelMock(64, 8);
+        final SessionOutputBuffer outbuf = new SessionOutputBufferImpl(1024, 128);
+        final BasicHttpTransportMetrics metrics = new BasicHttpTransportMetrics();
+        final ChunkEncoder encoder = new ChunkEncoder(channel, outbuf, metrics);
+
+        final ByteBuffer src = CodecTestUtils.wrap("0123456789ABCDEF");
+        Assert.assertEquals(16, encoder.write(src));
+        Assert.assertFalse(src.hasRemaining());
+        Assert.assertEquals(8, metrics.getBytesTransferred());
+        Assert.assertEquals(14, outbuf.length());
+
+        while (outbuf.hasData()) {
+            channel.flush();
+            outbuf.flush(channel);
+        }
+
+        final String s = channel.dump(StandardCharsets.US_ASCII);
+        Assert.assertEquals("10\r\n0123456789ABCDEF\r\n", s);
+    }
+
     @Test
     public void testChunkNoExceed() throws Exception {
         final WritableByteChannelMock channel = new WritableByteChannelMock(64);
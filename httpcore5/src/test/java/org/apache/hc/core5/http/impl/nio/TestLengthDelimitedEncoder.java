@@ -34,6 +34,7 @@
 import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 
+import org.apache.hc.core5.http.GatheringByteChannelMock;
 import org.apache.hc.core5.http.WritableByteChannelMock;
 import org.apache.hc.core5.http.impl.BasicHttpTransportMetrics;
 import org.apache.hc.core5.http.nio.SessionOutputBuffer;
@@ -379,7 +380,8 @@ public void testCodingNoFragmentBuffering() throws Exception {
 
         Mockito.verify(channel, Mockito.times(2)).write(ArgumentMatchers.<ByteBuffer>any());
         Mockito.verify(outbuf, Mockito.never()).write(ArgumentMatchers.<ByteBuffer>any());
-        Mockito.verify(outbuf, Mockito.times(1)).flush(channel);
+        Mockito.verify(outbuf, Mockito.never()).flush(channel);
+        Mockito.verify(outbuf, Mockito.times(1)).flush(ArgumentMatchers.eq(channel), ArgumentMatchers.<ByteBuffer>any());
 
         Assert.assertEquals(13, metrics.getBytesTransferred());
 
@@ -389,6 +391,28 @@ public void testCodingNoFragmentBuffering() throws Exception {
         Assert.assertEquals("header\r\nstuff", s);
     }
 
+    @Test
+    public void testCodingGatheringWrite() throws Exception {
+        final GatheringByteChannelMock channel = new GatheringByteChannelMock(64);
+        final SessionOutputBuffer outbuf = new SessionOutputBufferImpl(1024, 128);
+        final BasicHttpTransportMetrics metrics = new BasicHttpTransportMetrics();
+
+        final CharArrayBuffer chbuffer = new CharArrayBuffer(16);
+        chbuffer.append("header");
+        outbuf.writeLine(chbuffer);
+        final LengthDelimitedEncoder encoder = new LengthDelimitedEncoder(channel, outbuf, metrics,
+            5, 0);
+        Assert.assertEquals(5, encoder.write(CodecTestUtils.wrap("stuff")));
+
+        Assert.assertEquals(1, channel.getWriteCount());
+        Assert.assertFalse(outbuf.hasData());
+        Assert.assertEquals(13, metrics.getBytesTransferred());
+        Assert.assertTrue(encoder.isCompleted());
+
+        final String s = channel.dump(StandardCharsets.US_ASCII);
+        Assert.assertEquals("header\r\nstuff", s);
+    }
+
     @Test
     public void testCodingFragmentBuffering() throws Exception {
         final WritableByteChannelMock channel = Mockito.spy(new WritableByteChannelMock(64));
@@ -477,7 +501,8 @@ public void testCodingFragmentBufferingLargeFragment() throws Exception {
 
         Mockito.verify(channel, Mockito.times(2)).write(ArgumentMatchers.<ByteBuffer>any());
         Mockito.verify(outbuf, Mockito.never()).write(ArgumentMatchers.<ByteBuffer>any());
-        Mockito.verify(outbuf, Mockito.times(1)).flush(channel);
+        Mockito.verify(outbuf, Mockito.never()).flush(channel);
+        Mockito.verify(outbuf, Mockito.times(1)).flush(ArgumentMatchers.eq(channel), ArgumentMatchers.<ByteBuffer>any());
 
         Assert.assertEquals(13, metrics.getBytesTransferred());
 
@@ -528,7 +553,8 @@ public void testCodingFragmentBufferingTinyFragments2() throws Exception {
 
         Mockito.verify(channel, Mockito.times(4)).write(ArgumentMatchers.<ByteBuffer>any());
         Mockito.verify(outbuf, Mockito.times(3)).write(ArgumentMatchers.<ByteBuffer>any());
-        Mockito.verify(outbuf, Mockito.times(2)).flush(channel);
+        Mockito.verify(outbuf, Mockito.times(1)).flush(channel);
+        Mockito.verify(outbuf, Mockito.times(1)).flush(ArgumentMatchers.eq(channel), ArgumentMatchers.<ByteBuffer>any());
 
         Assert.assertEquals(18, metrics.getBytesTransferred());
 
@@ -603,7 +629,8 @@ public void testCodingFragmentBufferingBufferFlush2() throws Exception {
 
         Mockito.verify(channel, Mockito.times(2)).write(ArgumentMatchers.<ByteBuffer>any());
         Mockito.verify(outbuf, Mockito.times(1)).write(ArgumentMatchers.<ByteBuffer>any());
-        Mockito.verify(outbuf, Mockito.times(1)).flush(channel);
+        Mockito.verify(outbuf, Mockito.never()).flush(channel);
+        Mockito.verify(outbuf, Mockito.times(1)).flush(ArgumentMatchers.eq(channel), ArgumentMatchers.<ByteBuffer>any());
 
         Assert.assertEquals(21, metrics.getBytesTransferred());
         Assert.assertEquals(0, outbuf.length());
@@ -634,7 +661,8 @@ public void testCodingFragmentBufferingChannelSaturated() throws Exception {
 
         Mockito.verify(channel, Mockito.times(5)).write(ArgumentMatchers.<ByteBuffer>any());
         Mockito.verify(outbuf, Mockito.times(6)).write(ArgumentMatchers.<ByteBuffer>any());
-        Mockito.verify(outbuf, Mockito.times(4)).flush(channel);
+        Mockito.verify(outbuf, Mockito.times(3)).flush(channel);
+        Mockito.verify(outbuf, Mockito.times(1)).flush(ArgumentMatchers.eq(channel), ArgumentMatchers.<ByteBuffer>any());
 
         Assert.assertEquals(8, metrics.getBytesTransferred());
 
@@ -658,9 +686,10 @@ public void testCodingFragmentBufferingChannelSaturated2() throws Exception {
         Assert.assertEquals(1, encoder.write(CodecTestUtils.wrap("-")));
         Assert.assertEquals(1, encoder.write(CodecTestUtils.wrap("much more stuff")));
 
-        Mockito.verify(channel, Mockito.times(3)).write(ArgumentMatchers.<ByteBuffer>any());
+        Mockito.verify(channel, Mockito.times(2)).write(ArgumentMatchers.<ByteBuffer>any());
         Mockito.verify(outbuf, Mockito.times(3)).write(ArgumentMatchers.<ByteBuffer>any());
-        Mockito.verify(outbuf, Mockito.times(1)).flush(channel);
+        Mockito.verify(outbuf, Mockito.never()).flush(channel);
+        Mockito.verify(outbuf, Mockito.times(1)).flush(ArgumentMatchers.eq(channel), ArgumentMatchers.<ByteBuffer>any());
 
         Assert.assertEquals(8, metrics.getBytesTransferred());
 
@@ -41,10 +41,13 @@
 import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
 
+import org.apache.hc.core5.http.GatheringByteChannelMock;
 import org.apache.hc.core5.http.MessageConstraintException;
 import org.apache.hc.core5.http.nio.SessionInputBuffer;
 import org.apache.hc.core5.http.nio.SessionOutputBuffer;
 import org.apache.hc.core5.util.CharArrayBuffer;
+import org.apache.hc.core5.util.PooledByteBufferAllocator;
+import org.apache.hc.core5.util.SimpleByteBufferAllocator;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -622,4 +625,286 @@ public void testUnmappableInputActionReplace() throws Exception {
         Assert.assertEquals("This text contains a circumflex ? !!!\r\n", result);
     }
 
+    @Test
+    public void testFlushWithSources() throws Exception {
+        final SessionOutputBuffer outbuf = new SessionOutputBufferImpl(1024, 16);
+        final CharArrayBuffer chbuffer = new CharArrayBuffer(16);
+        chbuffer.append("head");
+        outbuf.writeLine(chbuffer);
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final ByteBuffer src = ByteBuffer.wrap("body".getBytes(StandardCharsets.US_ASCII));
+        Assert.assertEquals(10, outbuf.flush(newChannel(baos), src));
+        Assert.assertFalse(outbuf.hasData());
+        Assert.assertFalse(src.hasRemaining());
+        Assert.assertEquals("head\r\nbody", new String(baos.toByteArray(), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testFlushWithSourcesGathering() throws Exception {
+        final SessionOutputBuffer outbuf = new SessionOutputBufferImpl(1024, 16);
+        final CharArrayBuffer chbuffer = new CharArrayBuffer(16);
+        chbuffer.append("head");
+        outbuf.writeLine(chbuffer);
+
+        final GatheringByteChannelMock channel = new GatheringByteChannelMock(64, 4);
+        final ByteBuffer src1 = ByteBuffer.wrap("body".getBytes(StandardCharsets.US_ASCII));
+        final ByteBuffer src2 = ByteBuffer.wrap("tail".getBytes(StandardCharsets.US_ASCII));
+        Assert.assertEquals(4, outbuf.flush(channel, src1, src2));
+        Assert.assertEquals(1, channel.getWriteCount());
+        Assert.assertEquals(2, outbuf.length());
+        Assert.assertEquals(4, src1.remaining());
+
+        channel.flush();
+        Assert.assertEquals(4, outbuf.flush(channel, src1, src2));
+        Assert.assertFalse(outbuf.hasData());
+        Assert.assertEquals(2, src1.remaining());
+
+        channel.flush();
+        Assert.assertEquals(4, outbuf.flush(channel, src1, src2));
+        Assert.assertEquals(2, src2.remaining());
+        Assert.assertEquals("head\r\nbodyta", channel.dump(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testSharedBuffer() throws Exception {
+        final SessionInputBufferImpl inbuf = new SessionInputBufferImpl(16, 16);
+        final ByteBuffer shared = ByteBuffer.allocate(64);
+
+        inbuf.bind(shared);
+        Assert.assertSame(shared, inbuf.buffer());
+        inbuf.fill(newChannel("One\r\nTwo\r\nThr"));
+        final CharArrayBuffer line = new CharArrayBuffer(16);
+        Assert.assertTrue(inbuf.readLine(line, false));
+        Assert.assertEquals("One", line.toString());
+        inbuf.unbind();
+
+        // only the leftover is retained
+        Assert.assertNotSame(shared, inbuf.buffer());
+        Assert.assertEquals(8, inbuf.buffer().capacity());
+        Assert.assertEquals(8, inbuf.length());
+
+        inbuf.bind(shared);
+        inbuf.fill(newChannel("ee\r\n"));
+        line.clear();
+        Assert.assertTrue(inbuf.readLine(line, false));
+        Assert.assertEquals("Two", line.toString());
+        line.clear();
+        Assert.assertTrue(inbuf.readLine(line, false));
+        Assert.assertEquals("Three", line.toString());
+        inbuf.unbind();
+
+        Assert.assertFalse(inbuf.hasData());
+        Assert.assertEquals(0, inbuf.buffer().capacity());
+
+        // the private buffer gets re-allocated when filled without a shared buffer
+        Assert.assertEquals(4, inbuf.fill(newChannel("Four")));
+        Assert.assertEquals(16, inbuf.buffer().capacity());
+    }
+
+    @Test
+    public void testSharedBufferLeftoverAllocated() throws Exception {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator(true);
+        final SessionInputBufferImpl inbuf = new SessionInputBufferImpl(16, 16, 0, null, allocator);
+        final ByteBuffer shared = ByteBuffer.allocate(64);
+
+        inbuf.bind(shared);
+        // the private buffer goes back to the allocator while the shared one is bound
+        final long leased = allocator.getLeasedCount();
+        inbuf.fill(newChannel("One\r\nTwo"));
+        final CharArrayBuffer line = new CharArrayBuffer(16);
+        Assert.assertTrue(inbuf.readLine(line, false));
+        inbuf.unbind();
+
+        // the leftover is held by a buffer of the allocator
+        Assert.assertTrue(inbuf.buffer().isDirect());
+        Assert.assertEquals(leased + 1, allocator.getLeasedCount());
+        Assert.assertEquals(3, inbuf.length());
+        line.clear();
+        inbuf.fill(newChannel("\r\n"));
+        Assert.assertTrue(inbuf.readLine(line, false));
+        Assert.assertEquals("Two", line.toString());
+        Assert.assertTrue(inbuf.release());
+        Assert.assertEquals(leased, allocator.getLeasedCount());
+    }
+
+    @Test
+    public void testSharedBufferOutgrown() throws Exception {
+        final SessionInputBufferImpl inbuf = new SessionInputBufferImpl(16, 16);
+        final ByteBuffer shared = ByteBuffer.allocate(4);
+
+        inbuf.bind(shared);
+        final ReadableByteChannel channel = newChannel("0123456789");
+        while (inbuf.fill(channel) > 0) {
+        }
+        Assert.assertNotSame(shared, inbuf.buffer());
+        inbuf.unbind();
+        Assert.assertEquals(10, inbuf.length());
+    }
+
+    @Test
+    public void testReleaseBuffer() throws Exception {
+        final SessionOutputBufferImpl outbuf = new SessionOutputBufferImpl(16, 16);
+        final ByteArrayOutputStream outstream = new ByteArrayOutputStream();
+        final WritableByteChannel channel = newChannel(outstream);
+
+        outbuf.writeLine(new CharArrayBuffer(16));
+        Assert.assertFalse(outbuf.release());
+        Assert.assertEquals(16, outbuf.buffer().capacity());
+        outbuf.flush(channel);
+        Assert.assertTrue(outbuf.release());
+        Assert.assertEquals(0, outbuf.buffer().capacity());
+        Assert.assertFalse(outbuf.hasData());
+
+        // the buffer gets re-allocated as soon as data is written
+        final CharArrayBuffer chbuffer = new CharArrayBuffer(16);
+        chbuffer.append("stuff");
+        outbuf.writeLine(chbuffer);
+        Assert.assertEquals(16, outbuf.buffer().capacity());
+        Assert.assertEquals(7, outbuf.length());
+        outbuf.flush(channel);
+        Assert.assertEquals("\r\nstuff\r\n", new String(outstream.toByteArray(), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testPooledBuffers() throws Exception {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator(false, 16, 1024, 4, 4);
+        final SessionInputBufferImpl inbuf = new SessionInputBufferImpl(16, 16, 0, null, allocator);
+        final SessionOutputBufferImpl outbuf = new SessionOutputBufferImpl(16, 16, null, allocator);
+        Assert.assertEquals(2, allocator.getLeasedCount());
+
+        // expansion returns the outgrown buffer to the pool
+        inbuf.fill(newChannel("0123456789012345678901234567890123456789"));
+        inbuf.fill(newChannel("0123456789012345678901234567890123456789"));
+        Assert.assertEquals(2, allocator.getLeasedCount());
+
+        final CharArrayBuffer chbuffer = new CharArrayBuffer(16);
+        chbuffer.append("stuff");
+        outbuf.writeLine(chbuffer);
+        outbuf.flush(newChannel(new ByteArrayOutputStream()));
+        Assert.assertTrue(outbuf.release());
+        Assert.assertEquals(1, allocator.getLeasedCount());
+
+        inbuf.dispose();
+        outbuf.dispose();
+        Assert.assertEquals(0, allocator.getLeasedCount());
+    }
+
+    @Test
+    public void testReadWriteLineDirectBuffers() throws Exception {
+        final SessionOutputBufferImpl outbuf = new SessionOutputBufferImpl(16, 4, null,
+                SimpleByteBufferAllocator.DIRECT);
+        Assert.assertTrue(outbuf.buffer().isDirect());
+        final CharArrayBuffer chbuffer = new CharArrayBuffer(32);
+        chbuffer.append("a fairly long line of text");
+        outbuf.writeLine(chbuffer);
+        chbuffer.clear();
+        chbuffer.append("two");
+        outbuf.writeLine(chbuffer);
+
+        final ByteArrayOutputStream outstream = new ByteArrayOutputStream();
+        final WritableByteChannel outChannel = newChannel(outstream);
+        outbuf.flush(outChannel);
+        final byte[] bytes = outstream.toByteArray();
+        Assert.assertEquals("a fairly long line of text\r\ntwo\r\n", new String(bytes, StandardCharsets.US_ASCII));
+
+        final SessionInputBufferImpl inbuf = new SessionInputBufferImpl(16, 4, 0, null,
+                SimpleByteBufferAllocator.DIRECT);
+        final ReadableByteChannel inChannel = newChannel(bytes);
+        while (inbuf.fill(inChannel) > 0) {
+        }
+        Assert.assertTrue(inbuf.buffer().isDirect());
+        final CharArrayBuffer line = new CharArrayBuffer(32);
+        Assert.assertTrue(inbuf.readLine(line, true));
+        Assert.assertEquals("a fairly long line of text", line.toString());
+        line.clear();
+        Assert.assertTrue(inbuf.readLine(line, true));
+        Assert.assertEquals("two", line.toString());
+        Assert.assertFalse(inbuf.hasData());
+    }
+
+    @Test
+    public void testAdaptiveReadSize() throws Exception {
+        final SessionInputBufferImpl inbuf = new SessionInputBufferImpl(16, 16, 0, null,
+                SimpleByteBufferAllocator.HEAP, 8, 64);
+        Assert.assertEquals(16, inbuf.getReceiveBufferSize());
+
+        // full reads double the read size up to the maximum
+        final ReadableByteChannel channel = newChannel(new byte[100]);
+        Assert.assertEquals(16, inbuf.fill(channel));
+        Assert.assertEquals(32, inbuf.getReceiveBufferSize());
+        inbuf.clear();
+        Assert.assertEquals(32, inbuf.fill(channel));
+        Assert.assertEquals(32, inbuf.buffer().capacity());
+        Assert.assertEquals(64, inbuf.getReceiveBufferSize());
+        inbuf.clear();
+        Assert.assertEquals(52, inbuf.fill(channel));
+        Assert.assertEquals(64, inbuf.buffer().capacity());
+        Assert.assertEquals(64, inbuf.getReceiveBufferSize());
+        inbuf.clear();
+
+        // consecutive small reads halve the read size down to the minimum
+        Assert.assertEquals(2, inbuf.fill(newChannel("ab")));
+        Assert.assertEquals(64, inbuf.getReceiveBufferSize());
+        inbuf.clear();
+        Assert.assertEquals(2, inbuf.fill(newChannel("ab")));
+        Assert.assertEquals(32, inbuf.getReceiveBufferSize());
+        inbuf.clear();
+        Assert.assertEquals(2, inbuf.fill(newChannel("ab")));
+        // buffers up to twice the read size are kept
+        Assert.assertEquals(64, inbuf.buffer().capacity());
+        for (int i = 0; i < 6; i++) {
+            inbuf.clear();
+            inbuf.fill(newChannel("ab"));
+        }
+        Assert.assertEquals(8, inbuf.getReceiveBufferSize());
+        inbuf.clear();
+        inbuf.fill(newChannel("ab"));
+        Assert.assertEquals(16, inbuf.buffer().capacity());
+        inbuf.clear();
+
+        // retained data is never discarded
+        final ReadableByteChannel channel2 = newChannel("0123456789abcdefgh");
+        Assert.assertEquals(16, inbuf.fill(channel2));
+        Assert.assertEquals(16, inbuf.getReceiveBufferSize());
+        Assert.assertEquals(2, inbuf.fill(channel2));
+        Assert.assertEquals(18, inbuf.length());
+    }
+
+    @Test
+    public void testAdaptiveReadSizeRoundedCapacity() throws Exception {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator(false, 256, 1024, 4, 4);
+        final SessionInputBufferImpl inbuf = new SessionInputBufferImpl(300, 16, 0, null,
+                allocator, 300, 1000);
+        Assert.assertEquals(300, inbuf.getReceiveBufferSize());
+
+        // the allocator rounds the capacity up to a power of two
+        Assert.assertEquals(2, inbuf.fill(newChannel("ab")));
+        final ByteBuffer buffer = inbuf.buffer();
+        Assert.assertEquals(512, buffer.capacity());
+        for (int i = 0; i < 4; i++) {
+            inbuf.clear();
+            Assert.assertEquals(2, inbuf.fill(newChannel("ab")));
+            Assert.assertSame(buffer, inbuf.buffer());
+        }
+        Assert.assertEquals(1, allocator.getLeasedCount());
+
+        // a full read of the read size grows it
+        inbuf.clear();
+        Assert.assertEquals(512, inbuf.fill(newChannel(new byte[1000])));
+        Assert.assertEquals(600, inbuf.getReceiveBufferSize());
+    }
+
+    @Test
+    public void testFixedReadSize() throws Exception {
+        final SessionInputBufferImpl inbuf = new SessionInputBufferImpl(16, 16);
+        Assert.assertEquals(16, inbuf.getReceiveBufferSize());
+        inbuf.fill(newChannel("0123456789012345678901234567890123456789"));
+        inbuf.fill(newChannel("0123456789012345678901234567890123456789"));
+        Assert.assertEquals(34, inbuf.getReceiveBufferSize());
+        inbuf.clear();
+        inbuf.fill(newChannel("ab"));
+        Assert.assertEquals(34, inbuf.getReceiveBufferSize());
+    }
+
 }
@@ -37,6 +37,9 @@
 import org.apache.hc.core5.http.nio.BasicDataStreamChannel;
 import org.apache.hc.core5.http.nio.DataStreamChannel;
 import org.apache.hc.core5.http.nio.StreamChannel;
+import org.apache.hc.core5.util.ByteBufferAllocator;
+import org.apache.hc.core5.util.PooledByteBufferAllocator;
+import org.apache.hc.core5.util.SimpleByteBufferAllocator;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -52,7 +55,16 @@ public ChunkByteAsyncEntityProducer(
                 final int fragmentSizeHint,
                 final ContentType contentType,
                 final byte[]... content) {
-            super(bufferSize, fragmentSizeHint, contentType);
+            this(bufferSize, fragmentSizeHint, contentType, SimpleByteBufferAllocator.HEAP, content);
+        }
+
+        public ChunkByteAsyncEntityProducer(
+                final int bufferSize,
+                final int fragmentSizeHint,
+                final ContentType contentType,
+                final ByteBufferAllocator allocator,
+                final byte[]... content) {
+            super(bufferSize, fragmentSizeHint, contentType, allocator);
             this.content = content;
         }
 
@@ -79,10 +91,12 @@ public int available() {
 
         @Override
         public void failed(final Exception cause) {
+            releaseResources();
         }
 
         @Override
         public void releaseResources() {
+            super.releaseResources();
         }
 
     };
@@ -142,4 +156,25 @@ public void testProduceDataWithBuffering() throws Exception {
         Assert.assertEquals("7890", byteChannel.dump(StandardCharsets.US_ASCII));
     }
 
+    @Test
+    public void testAbortReleasesBuffer() throws Exception {
+
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator();
+        final AsyncEntityProducer producer = new ChunkByteAsyncEntityProducer(
+                256, 5, ContentType.TEXT_PLAIN, allocator,
+                new byte[] { '1', '2', '3' },
+                new byte[] { '4', '5', '6' });
+
+        final WritableByteChannelMock byteChannel = new WritableByteChannelMock(1024);
+        final DataStreamChannel streamChannel = new BasicDataStreamChannel(byteChannel);
+
+        producer.produce(streamChannel);
+        Assert.assertEquals(1, allocator.getLeasedCount());
+
+        producer.failed(new IOException("aborted"));
+        Assert.assertEquals(0, allocator.getLeasedCount());
+        producer.releaseResources();
+        Assert.assertEquals(0, allocator.getLeasedCount());
+    }
+
 }
@@ -0,0 +1,114 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.http.nio.entity;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.WritableByteChannelMock;
+import org.apache.hc.core5.http.nio.BasicDataStreamChannel;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+import org.apache.hc.core5.util.PooledByteBufferAllocator;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestFileEntityProducer {
+
+    private File file;
+
+    @Before
+    public void setup() throws Exception {
+        file = File.createTempFile("content", ".bin");
+        try (final OutputStream outstream = new FileOutputStream(file)) {
+            outstream.write("0123456789".getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        file.delete();
+    }
+
+    @Test
+    public void testProduceReleasesBuffer() throws Exception {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator();
+        final FileEntityProducer producer = new FileEntityProducer(file, 256, ContentType.TEXT_PLAIN, allocator);
+
+        final WritableByteChannelMock byteChannel = new WritableByteChannelMock(1024);
+        final DataStreamChannel streamChannel = new BasicDataStreamChannel(byteChannel);
+
+        while (byteChannel.isOpen()) {
+            producer.produce(streamChannel);
+        }
+        Assert.assertEquals("0123456789", byteChannel.dump(StandardCharsets.US_ASCII));
+        Assert.assertEquals(0, allocator.getLeasedCount());
+    }
+
+    @Test
+    public void testFailureReleasesBuffer() throws Exception {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator();
+        final FileEntityProducer producer = new FileEntityProducer(file, 256, ContentType.TEXT_PLAIN, allocator);
+
+        // the channel takes only part of the content
+        final WritableByteChannelMock byteChannel = new WritableByteChannelMock(1024, 4);
+        final DataStreamChannel streamChannel = new BasicDataStreamChannel(byteChannel);
+
+        producer.produce(streamChannel);
+        Assert.assertTrue(byteChannel.isOpen());
+        Assert.assertEquals(1, allocator.getLeasedCount());
+
+        final IOException cause = new IOException("aborted");
+        producer.failed(cause);
+        Assert.assertSame(cause, producer.getException());
+        Assert.assertEquals(0, allocator.getLeasedCount());
+    }
+
+    @Test
+    public void testReleaseResourcesReleasesBuffer() throws Exception {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator();
+        final FileEntityProducer producer = new FileEntityProducer(file, 256, ContentType.TEXT_PLAIN, allocator);
+
+        final WritableByteChannelMock byteChannel = new WritableByteChannelMock(1024, 4);
+        final DataStreamChannel streamChannel = new BasicDataStreamChannel(byteChannel);
+
+        producer.produce(streamChannel);
+        Assert.assertEquals(1, allocator.getLeasedCount());
+
+        producer.releaseResources();
+        Assert.assertEquals(0, allocator.getLeasedCount());
+        producer.releaseResources();
+        Assert.assertEquals(0, allocator.getLeasedCount());
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.reactor;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * Runs a {@link SingleCoreIOReactor} on a dedicated thread for tests.
+ */
+final class SingleCoreIOReactorRunner {
+
+    static final String THREAD_NAME = "test-dispatcher";
+
+    static final IOEventHandlerFactory NO_HANDLER_FACTORY = new IOEventHandlerFactory() {
+
+        @Override
+        public IOEventHandler createHandler(final TlsCapableIOSession ioSession, final Object attachment) {
+            return null;
+        }
+
+    };
+
+    private final Queue<ExceptionEvent> auditLog;
+    private final SingleCoreIOReactor ioReactor;
+    private final Thread thread;
+
+    SingleCoreIOReactorRunner(final IOEventHandlerFactory eventHandlerFactory, final IOReactorConfig config) {
+        this.auditLog = new ConcurrentLinkedQueue<>();
+        this.ioReactor = new SingleCoreIOReactor(
+                this.auditLog,
+                eventHandlerFactory,
+                config,
+                null,
+                null,
+                null);
+        this.thread = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                ioReactor.execute();
+            }
+
+        }, THREAD_NAME);
+    }
+
+    SingleCoreIOReactorRunner(final IOReactorConfig config) {
+        this(NO_HANDLER_FACTORY, config);
+    }
+
+    SingleCoreIOReactor getIOReactor() {
+        return this.ioReactor;
+    }
+
+    Queue<ExceptionEvent> getAuditLog() {
+        return this.auditLog;
+    }
+
+    SingleCoreIOReactorRunner start() {
+        this.thread.start();
+        return this;
+    }
+
+    void shutdown() throws InterruptedException {
+        this.ioReactor.initiateShutdown();
+        this.ioReactor.awaitShutdown(TimeValue.ofSeconds(5));
+        this.thread.join(5000);
+    }
+
+}
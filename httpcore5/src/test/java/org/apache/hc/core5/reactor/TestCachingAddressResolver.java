@@ -0,0 +1,199 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestCachingAddressResolver {
+
+    static class QueuedExecutor implements Executor {
+
+        final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void execute(final Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            for (final Runnable task : tasks) {
+                task.run();
+            }
+            tasks.clear();
+        }
+
+    }
+
+    static class TestResolver extends CachingAddressResolver {
+
+        final AtomicInteger lookups = new AtomicInteger(0);
+
+        TestResolver(final Executor executor, final TimeValue ttl, final TimeValue negativeTtl) {
+            super(executor, ttl, negativeTtl);
+        }
+
+        @Override
+        protected InetAddress[] lookup(final String host) throws UnknownHostException {
+            lookups.incrementAndGet();
+            if (host.equals("unknown")) {
+                throw new UnknownHostException(host);
+            }
+            return new InetAddress[] { InetAddress.getByAddress(host, new byte[] { 10, 0, 0, 1 }) };
+        }
+
+    }
+
+    @Test
+    public void testLookupOffCallerThreadAndShared() throws Exception {
+        final QueuedExecutor executor = new QueuedExecutor();
+        final TestResolver resolver = new TestResolver(executor, TimeValue.ofMinutes(1), TimeValue.ofMinutes(1));
+
+        final Future<InetAddress[]> future1 = resolver.resolve("somehost", null);
+        final Future<InetAddress[]> future2 = resolver.resolve("SomeHost", null);
+        Assert.assertFalse(future1.isDone());
+        Assert.assertFalse(future2.isDone());
+        Assert.assertEquals(1, executor.tasks.size());
+
+        executor.runAll();
+        Assert.assertEquals(1, resolver.lookups.get());
+        Assert.assertEquals("10.0.0.1", future1.get()[0].getHostAddress());
+        Assert.assertEquals("10.0.0.1", future2.get()[0].getHostAddress());
+
+        final Future<InetAddress[]> future3 = resolver.resolve("somehost", null);
+        Assert.assertTrue(future3.isDone());
+        Assert.assertEquals(1, resolver.lookups.get());
+        Assert.assertTrue(executor.tasks.isEmpty());
+    }
+
+    @Test
+    public void testNegativeCaching() throws Exception {
+        final QueuedExecutor executor = new QueuedExecutor();
+        final TestResolver resolver = new TestResolver(executor, TimeValue.ofMinutes(1), TimeValue.ofMinutes(1));
+
+        final Future<InetAddress[]> future1 = resolver.resolve("unknown", null);
+        executor.runAll();
+        try {
+            future1.get();
+            Assert.fail("ExecutionException expected");
+        } catch (final ExecutionException ex) {
+            Assert.assertTrue(ex.getCause() instanceof UnknownHostException);
+        }
+        final Future<InetAddress[]> future2 = resolver.resolve("unknown", null);
+        Assert.assertTrue(future2.isDone());
+        Assert.assertEquals(1, resolver.lookups.get());
+    }
+
+    @Test
+    public void testExpiry() throws Exception {
+        final QueuedExecutor executor = new QueuedExecutor();
+        final TestResolver resolver = new TestResolver(executor, TimeValue.ZERO_MILLISECONDS, TimeValue.ZERO_MILLISECONDS);
+
+        resolver.resolve("somehost", null);
+        executor.runAll();
+        Thread.sleep(5);
+        final Future<InetAddress[]> future = resolver.resolve("somehost", null);
+        Assert.assertFalse(future.isDone());
+        executor.runAll();
+        Assert.assertTrue(future.isDone());
+        Assert.assertEquals(2, resolver.lookups.get());
+    }
+
+    @Test
+    public void testLiteralAddress() throws Exception {
+        final QueuedExecutor executor = new QueuedExecutor();
+        final TestResolver resolver = new TestResolver(executor, TimeValue.ofMinutes(1), TimeValue.ofMinutes(1));
+
+        final Future<InetAddress[]> future = resolver.resolve("127.0.0.1", null);
+        Assert.assertTrue(future.isDone());
+        Assert.assertEquals("127.0.0.1", future.get()[0].getHostAddress());
+        Assert.assertEquals(0, resolver.lookups.get());
+        Assert.assertTrue(executor.tasks.isEmpty());
+    }
+
+    @Test
+    public void testDefaultExecutorBounded() throws Exception {
+        final int blocked = CachingAddressResolver.DEFAULT_MAX_LOOKUP_THREADS
+                + CachingAddressResolver.DEFAULT_MAX_QUEUED_LOOKUPS;
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger running = new AtomicInteger(0);
+        final AtomicInteger maxRunning = new AtomicInteger(0);
+        final CachingAddressResolver resolver = new CachingAddressResolver() {
+
+            @Override
+            protected InetAddress[] lookup(final String host) throws UnknownHostException {
+                final int n = running.incrementAndGet();
+                for (;;) {
+                    final int max = maxRunning.get();
+                    if (n <= max || maxRunning.compareAndSet(max, n)) {
+                        break;
+                    }
+                }
+                try {
+                    release.await();
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                }
+                return new InetAddress[] { InetAddress.getByAddress(host, new byte[] { 10, 0, 0, 1 }) };
+            }
+
+        };
+        final List<Future<InetAddress[]>> futures = new ArrayList<>();
+        for (int i = 0; i < blocked; i++) {
+            futures.add(resolver.resolve("host" + i, null));
+        }
+        // Lookups beyond the queue capacity are rejected rather than spawning threads
+        final Future<InetAddress[]> rejected = resolver.resolve("one-too-many", null);
+        try {
+            rejected.get(1, TimeUnit.SECONDS);
+            Assert.fail("ExecutionException expected");
+        } catch (final ExecutionException ex) {
+            Assert.assertTrue(ex.getCause() instanceof RejectedExecutionException);
+        }
+        release.countDown();
+        for (final Future<InetAddress[]> future : futures) {
+            Assert.assertNotNull(future.get(5, TimeUnit.SECONDS));
+        }
+        Assert.assertTrue(maxRunning.get() <= CachingAddressResolver.DEFAULT_MAX_LOOKUP_THREADS);
+    }
+
+}
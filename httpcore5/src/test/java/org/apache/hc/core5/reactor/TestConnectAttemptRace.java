@@ -0,0 +1,257 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.nio.channels.ServerSocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.concurrent.BasicFuture;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestConnectAttemptRace {
+
+    private static final InetAddress GOOD;
+    private static final InetAddress STALLED;
+    private static final InetAddress REFUSED;
+
+    static {
+        try {
+            GOOD = InetAddress.getByAddress(new byte[] { 127, 0, 0, 1 });
+            STALLED = InetAddress.getByAddress(new byte[] { 127, 0, 0, 2 });
+            REFUSED = InetAddress.getByAddress(new byte[] { 127, 0, 0, 3 });
+        } catch (final IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private final List<AutoCloseable> resources = new ArrayList<>();
+    private SingleCoreIOReactor ioReactor;
+    private Thread thread;
+    private int port;
+
+    private SingleCoreIOReactor createReactor(final InetAddress[] addresses, final TimeValue attemptDelay) {
+        return new SingleCoreIOReactor(
+                new ConcurrentLinkedQueue<ExceptionEvent>(),
+                new IOEventHandlerFactory() {
+
+                    @Override
+                    public IOEventHandler createHandler(final TlsCapableIOSession ioSession, final Object attachment) {
+                        return new IOEventHandler() {
+
+                            @Override
+                            public void connected(final IOSession session) {
+                            }
+
+                            @Override
+                            public void inputReady(final IOSession session) {
+                            }
+
+                            @Override
+                            public void outputReady(final IOSession session) {
+                            }
+
+                            @Override
+                            public void timeout(final IOSession session) {
+                            }
+
+                            @Override
+                            public void exception(final IOSession session, final Exception cause) {
+                            }
+
+                            @Override
+                            public void disconnected(final IOSession session) {
+                            }
+
+                        };
+                    }
+
+                },
+                IOReactorConfig.custom()
+                        .setConnectAttemptDelay(attemptDelay)
+                        .setAddressResolver(new AddressResolver() {
+
+                            @Override
+                            public Future<InetAddress[]> resolve(final String host, final FutureCallback<InetAddress[]> callback) {
+                                final BasicFuture<InetAddress[]> future = new BasicFuture<>(callback);
+                                future.completed(addresses);
+                                return future;
+                            }
+
+                        })
+                        .build(),
+                null,
+                null,
+                null);
+    }
+
+    private void start(final InetAddress[] addresses, final TimeValue attemptDelay) {
+        ioReactor = createReactor(addresses, attemptDelay);
+        thread = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                ioReactor.execute();
+            }
+
+        });
+        thread.start();
+    }
+
+    @Before
+    public void setup() throws Exception {
+        final ServerSocketChannel good = ServerSocketChannel.open();
+        resources.add(good);
+        good.bind(new InetSocketAddress(GOOD, 0));
+        port = good.socket().getLocalPort();
+    }
+
+    /**
+     * Binds a listener that never accepts and fills up its backlog,
+     * so that further connection attempts get no response.
+     */
+    private void bindStalledListener() throws Exception {
+        final ServerSocketChannel stalled = ServerSocketChannel.open();
+        resources.add(stalled);
+        try {
+            stalled.bind(new InetSocketAddress(STALLED, port), 1);
+        } catch (final IOException ex) {
+            Assume.assumeNoException(ex);
+        }
+        for (int i = 0; i < 20; i++) {
+            final Socket socket = new Socket();
+            resources.add(socket);
+            try {
+                socket.connect(new InetSocketAddress(STALLED, port), 200);
+            } catch (final SocketTimeoutException ex) {
+                return;
+            }
+        }
+        Assume.assumeTrue("Unable to saturate listener backlog", false);
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        if (ioReactor != null) {
+            ioReactor.initiateShutdown();
+            ioReactor.awaitShutdown(TimeValue.ofSeconds(5));
+            thread.join(5000);
+        }
+        for (final AutoCloseable resource : resources) {
+            resource.close();
+        }
+    }
+
+    @Test
+    public void testInterleave() throws Exception {
+        final InetAddress v6a = InetAddress.getByName("::1");
+        final InetAddress v6b = InetAddress.getByName("::2");
+        final InetAddress v4a = InetAddress.getByName("10.0.0.1");
+        final InetAddress v4b = InetAddress.getByName("10.0.0.2");
+        final InetAddress v4c = InetAddress.getByName("10.0.0.3");
+        final InetSocketAddress[] addresses = ConnectAttemptRace.interleave(
+                new InetAddress[] { v6a, v6b, v4a, v4b, v4c }, 80);
+        Assert.assertEquals(5, addresses.length);
+        Assert.assertEquals(v6a, addresses[0].getAddress());
+        Assert.assertEquals(v4a, addresses[1].getAddress());
+        Assert.assertEquals(v6b, addresses[2].getAddress());
+        Assert.assertEquals(v4b, addresses[3].getAddress());
+        Assert.assertEquals(v4c, addresses[4].getAddress());
+        Assert.assertEquals(80, addresses[4].getPort());
+    }
+
+    @Test
+    public void testUnresponsiveAddressSkipped() throws Exception {
+        bindStalledListener();
+        start(new InetAddress[] { STALLED, GOOD }, TimeValue.ofMillis(100));
+
+        final long start = System.currentTimeMillis();
+        final Future<IOSession> future = ioReactor.connect(
+                new HttpHost("somehost", port), null, null, TimeValue.ofSeconds(30), null, null);
+        final IOSession session = future.get(5, TimeUnit.SECONDS);
+        Assert.assertTrue(System.currentTimeMillis() - start >= 100);
+        Assert.assertEquals(new InetSocketAddress(GOOD, port), session.getRemoteAddress());
+        session.close();
+    }
+
+    @Test
+    public void testRefusedAddressSkippedWithoutDelay() throws Exception {
+        start(new InetAddress[] { REFUSED, GOOD }, TimeValue.ofSeconds(30));
+
+        final Future<IOSession> future = ioReactor.connect(
+                new HttpHost("somehost", port), null, null, TimeValue.ofSeconds(30), null, null);
+        final IOSession session = future.get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(new InetSocketAddress(GOOD, port), session.getRemoteAddress());
+        session.close();
+    }
+
+    @Test
+    public void testNoAddressResolved() throws Exception {
+        start(new InetAddress[0], TimeValue.ofMillis(100));
+
+        final Future<IOSession> future = ioReactor.connect(
+                new HttpHost("somehost", port), null, null, TimeValue.ofSeconds(30), null, null);
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            Assert.fail("ExecutionException expected");
+        } catch (final ExecutionException ex) {
+            Assert.assertTrue(ex.getCause() instanceof UnknownHostException);
+        }
+    }
+
+    @Test
+    public void testAllAttemptsFailed() throws Exception {
+        start(new InetAddress[] { REFUSED, REFUSED }, TimeValue.ofMillis(100));
+
+        final Future<IOSession> future = ioReactor.connect(
+                new HttpHost("somehost", port), null, null, TimeValue.ofSeconds(30), null, null);
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            Assert.fail("ExecutionException expected");
+        } catch (final ExecutionException ex) {
+            Assert.assertTrue(ex.getCause() instanceof IOException);
+        }
+    }
+
+}
@@ -0,0 +1,125 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestIODispatchStrategies {
+
+    static class Load implements IODispatcherLoad {
+
+        final int sessionCount;
+        final int pendingCount;
+        final long eventLoopLatency;
+
+        Load(final int sessionCount, final int pendingCount, final long eventLoopLatency) {
+            this.sessionCount = sessionCount;
+            this.pendingCount = pendingCount;
+            this.eventLoopLatency = eventLoopLatency;
+        }
+
+        @Override
+        public int getSessionCount() {
+            return sessionCount;
+        }
+
+        @Override
+        public int getPendingCount() {
+            return pendingCount;
+        }
+
+        @Override
+        public long getEventLoopLatency() {
+            return eventLoopLatency;
+        }
+
+    }
+
+    @Test
+    public void testRoundRobin() {
+        final IODispatchStrategy strategy = IODispatchStrategies.roundRobin();
+        final IODispatcherLoad[] loads = new IODispatcherLoad[] {
+                new Load(100, 0, 0), new Load(0, 0, 0), new Load(0, 0, 0) };
+        final int[] counts = new int[loads.length];
+        for (int i = 0; i < 30; i++) {
+            counts[strategy.select(loads)]++;
+        }
+        Assert.assertArrayEquals(new int[] { 10, 10, 10 }, counts);
+    }
+
+    @Test
+    public void testLeastSessions() {
+        final IODispatchStrategy strategy = IODispatchStrategies.leastSessions();
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(1, strategy.select(new IODispatcherLoad[] {
+                    new Load(10, 0, 0), new Load(5, 1, 1000), new Load(3, 5, 0) }));
+        }
+    }
+
+    @Test
+    public void testLeastSessionsTiesSpread() {
+        final IODispatchStrategy strategy = IODispatchStrategies.leastSessions();
+        final IODispatcherLoad[] loads = new IODispatcherLoad[] {
+                new Load(1, 0, 0), new Load(1, 0, 0), new Load(2, 0, 0) };
+        final int[] counts = new int[loads.length];
+        for (int i = 0; i < 30; i++) {
+            counts[strategy.select(loads)]++;
+        }
+        Assert.assertTrue(counts[0] > 0);
+        Assert.assertTrue(counts[1] > 0);
+        Assert.assertEquals(0, counts[2]);
+    }
+
+    @Test
+    public void testLeastLatency() {
+        final IODispatchStrategy strategy = IODispatchStrategies.leastLatency();
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(2, strategy.select(new IODispatcherLoad[] {
+                    new Load(0, 0, 5000000), new Load(1, 0, 2000000), new Load(10, 0, 1000000) }));
+            Assert.assertEquals(1, strategy.select(new IODispatcherLoad[] {
+                    new Load(3, 0, 1000000), new Load(2, 0, 1000000), new Load(10, 0, 3000000) }));
+        }
+    }
+
+    @Test
+    public void testLeastLatencyResolution() {
+        final IODispatchStrategy strategy = IODispatchStrategies.leastLatency();
+        for (int i = 0; i < 10; i++) {
+            // Latencies within the same millisecond are considered equal
+            Assert.assertEquals(1, strategy.select(new IODispatcherLoad[] {
+                    new Load(5, 0, 1200), new Load(2, 0, 1300), new Load(3, 2, 1100) }));
+            Assert.assertEquals(0, strategy.select(new IODispatcherLoad[] {
+                    new Load(5, 0, 1200), new Load(2, 0, 1300000), new Load(3, 2, 1100000) }));
+        }
+        final IODispatchStrategy fine = IODispatchStrategies.leastLatency(TimeValue.ofNanoseconds(1));
+        Assert.assertEquals(2, fine.select(new IODispatcherLoad[] {
+                new Load(5, 0, 1200), new Load(2, 0, 1300), new Load(3, 2, 1100) }));
+    }
+
+}
@@ -0,0 +1,266 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestIOEventLoop {
+
+    private SingleCoreIOReactorRunner runner;
+    private SingleCoreIOReactor ioReactor;
+
+    @Before
+    public void setup() throws Exception {
+        runner = new SingleCoreIOReactorRunner(IOReactorConfig.custom()
+                .setSelectInterval(5000)
+                .setSharedReadBufferSize(1024)
+                .build()).start();
+        ioReactor = runner.getIOReactor();
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        runner.shutdown();
+    }
+
+    @Test
+    public void testExecute() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(2);
+        final List<Boolean> inEventLoop = new CopyOnWriteArrayList<>();
+        final Runnable task = new Runnable() {
+
+            @Override
+            public void run() {
+                inEventLoop.add(ioReactor.inEventLoop());
+                latch.countDown();
+            }
+
+        };
+        Assert.assertFalse(ioReactor.inEventLoop());
+        ioReactor.execute(task);
+        ioReactor.execute(task);
+        // Must not wait for the select interval to elapse
+        Assert.assertTrue(latch.await(2, TimeUnit.SECONDS));
+        Assert.assertEquals(2, inEventLoop.size());
+        Assert.assertTrue(inEventLoop.get(0));
+        Assert.assertTrue(inEventLoop.get(1));
+    }
+
+    @Test
+    public void testExecuteAfterShutdown() throws Exception {
+        final List<String> executed = new CopyOnWriteArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        ioReactor.execute(new Runnable() {
+
+            @Override
+            public void run() {
+                executed.add("accepted");
+                latch.countDown();
+            }
+
+        });
+        Assert.assertTrue(latch.await(2, TimeUnit.SECONDS));
+        runner.shutdown();
+        Assert.assertEquals(IOReactorStatus.SHUT_DOWN, ioReactor.getStatus());
+        try {
+            ioReactor.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    executed.add("rejected");
+                }
+
+            });
+            Assert.fail("RejectedExecutionException should have been thrown");
+        } catch (final RejectedExecutionException ex) {
+            // expected
+        }
+        Assert.assertEquals(1, executed.size());
+    }
+
+    @Test
+    public void testSchedule() throws Exception {
+        final List<String> executed = new CopyOnWriteArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        final long start = System.nanoTime();
+        ioReactor.schedule(new Runnable() {
+
+            @Override
+            public void run() {
+                executed.add("second");
+                latch.countDown();
+            }
+
+        }, TimeValue.ofMillis(200));
+        ioReactor.schedule(new Runnable() {
+
+            @Override
+            public void run() {
+                executed.add("first");
+            }
+
+        }, TimeValue.ofMillis(100));
+        Assert.assertTrue(latch.await(2, TimeUnit.SECONDS));
+        Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200));
+        Assert.assertEquals(2, executed.size());
+        Assert.assertEquals("first", executed.get(0));
+        Assert.assertEquals("second", executed.get(1));
+    }
+
+    @Test
+    public void testScheduleCancelled() throws Exception {
+        final List<String> executed = new CopyOnWriteArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        final Cancellable cancellable = ioReactor.schedule(new Runnable() {
+
+            @Override
+            public void run() {
+                executed.add("cancelled");
+            }
+
+        }, TimeValue.ofMillis(50));
+        ioReactor.schedule(new Runnable() {
+
+            @Override
+            public void run() {
+                executed.add("done");
+                latch.countDown();
+            }
+
+        }, TimeValue.ofMillis(100));
+        Assert.assertTrue(cancellable.cancel());
+        Assert.assertFalse(cancellable.cancel());
+        Assert.assertTrue(latch.await(2, TimeUnit.SECONDS));
+        Assert.assertEquals(1, executed.size());
+        Assert.assertEquals("done", executed.get(0));
+    }
+
+    @Test
+    public void testScheduleCancelledMany() throws Exception {
+        final List<String> executed = new CopyOnWriteArrayList<>();
+        final Runnable task = new Runnable() {
+
+            @Override
+            public void run() {
+                executed.add("cancelled");
+            }
+
+        };
+        final List<Cancellable> cancellables = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            cancellables.add(ioReactor.schedule(task, TimeValue.ofMillis(i % 2 == 0 ? 1000 : 3600000)));
+        }
+        for (final Cancellable cancellable : cancellables) {
+            Assert.assertTrue(cancellable.cancel());
+        }
+        final CountDownLatch latch = new CountDownLatch(1);
+        final Cancellable done = ioReactor.schedule(new Runnable() {
+
+            @Override
+            public void run() {
+                executed.add("done");
+                latch.countDown();
+            }
+
+        }, TimeValue.ofMillis(50));
+        Assert.assertTrue(latch.await(2, TimeUnit.SECONDS));
+        Assert.assertEquals(1, executed.size());
+        Assert.assertEquals("done", executed.get(0));
+        // Executed tasks can no longer be cancelled
+        Assert.assertFalse(done.cancel());
+    }
+
+    @Test
+    public void testScheduleCancelledDroppedAtHead() throws Exception {
+        final Runnable task = new Runnable() {
+
+            @Override
+            public void run() {
+            }
+
+        };
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(ioReactor.schedule(task, TimeValue.ofMillis(10)).cancel());
+        }
+        final CountDownLatch latch = new CountDownLatch(1);
+        ioReactor.schedule(new Runnable() {
+
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+
+        }, TimeValue.ofMillis(100));
+        Assert.assertTrue(latch.await(2, TimeUnit.SECONDS));
+        // Cancelled tasks dropped at the head of the queue are no longer counted
+        Assert.assertEquals(0, ioReactor.getCancelledTaskCount());
+    }
+
+    @Test
+    public void testReadBuffers() throws Exception {
+        Assert.assertNull(ioReactor.acquireReadBuffer());
+
+        final List<ByteBuffer> buffers = new CopyOnWriteArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        ioReactor.execute(new Runnable() {
+
+            @Override
+            public void run() {
+                final ByteBuffer buffer1 = ioReactor.acquireReadBuffer();
+                final ByteBuffer buffer2 = ioReactor.acquireReadBuffer();
+                buffer2.put((byte) 'a');
+                ioReactor.releaseReadBuffer(buffer1);
+                ioReactor.releaseReadBuffer(buffer2);
+                buffers.add(buffer1);
+                buffers.add(buffer2);
+                buffers.add(ioReactor.acquireReadBuffer());
+                latch.countDown();
+            }
+
+        });
+        Assert.assertTrue(latch.await(2, TimeUnit.SECONDS));
+        Assert.assertEquals(3, buffers.size());
+        Assert.assertNotSame(buffers.get(0), buffers.get(1));
+        Assert.assertEquals(1024, buffers.get(0).capacity());
+        Assert.assertSame(buffers.get(1), buffers.get(2));
+        Assert.assertEquals(0, buffers.get(2).position());
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.function.Callback;
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestIOReactorMetrics {
+
+    private SingleCoreIOReactorRunner runner;
+    private SingleCoreIOReactor ioReactor;
+
+    @Before
+    public void setup() throws Exception {
+        runner = new SingleCoreIOReactorRunner(IOReactorConfig.custom()
+                .setSelectInterval(10)
+                .setMetricsEnabled(true)
+                .build()).start();
+        ioReactor = runner.getIOReactor();
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        runner.shutdown();
+    }
+
+    @Test
+    public void testMetricsSnapshot() throws Exception {
+        Thread.sleep(100);
+        final IOReactorMetrics metrics = ioReactor.getMetrics();
+        Assert.assertEquals(SingleCoreIOReactorRunner.THREAD_NAME, metrics.getName());
+        Assert.assertTrue(metrics.getIterationCount() > 0);
+        Assert.assertTrue(metrics.getSelectWaitTime() > 0);
+        Assert.assertEquals(0, metrics.getEventCount());
+        Assert.assertEquals(0, metrics.getSessionCount());
+        Assert.assertEquals(0, metrics.getPendingChannelCount());
+        Assert.assertEquals(0, metrics.getPendingRequestCount());
+        Assert.assertEquals(0, metrics.getClosedSessionCount());
+    }
+
+    @Test
+    public void testCountsWithMetricsDisabled() throws Exception {
+        final SingleCoreIOReactorRunner plainRunner = new SingleCoreIOReactorRunner(IOReactorConfig.custom()
+                .setSelectInterval(10)
+                .build()).start();
+        try {
+            Thread.sleep(100);
+            final IOReactorMetrics metrics = plainRunner.getIOReactor().getMetrics();
+            // Counts are maintained either way, only clock reads are skipped
+            Assert.assertTrue(metrics.getIterationCount() > 0);
+            Assert.assertEquals(0, metrics.getSelectWaitTime());
+            Assert.assertEquals(0, metrics.getProcessingTime());
+        } finally {
+            plainRunner.shutdown();
+        }
+    }
+
+    @Test
+    public void testMetricsSubscription() throws Exception {
+        final List<IOReactorMetrics> reported = new CopyOnWriteArrayList<>();
+        final List<Boolean> inEventLoop = new CopyOnWriteArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(3);
+        final Cancellable subscription = ioReactor.subscribeMetrics(TimeValue.ofMillis(20), new Callback<IOReactorMetrics>() {
+
+            @Override
+            public void execute(final IOReactorMetrics metrics) {
+                reported.add(metrics);
+                inEventLoop.add(ioReactor.inEventLoop());
+                latch.countDown();
+            }
+
+        });
+        Assert.assertTrue(latch.await(2, TimeUnit.SECONDS));
+        Assert.assertTrue(subscription.cancel());
+        Assert.assertFalse(subscription.cancel());
+        Assert.assertFalse(inEventLoop.contains(Boolean.FALSE));
+        final int count = reported.size();
+        Thread.sleep(100);
+        Assert.assertTrue(reported.size() <= count + 1);
+        Assert.assertTrue(reported.get(1).getIterationCount() >= reported.get(0).getIterationCount());
+    }
+
+}
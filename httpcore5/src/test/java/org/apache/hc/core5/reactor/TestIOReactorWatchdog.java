@@ -0,0 +1,105 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestIOReactorWatchdog {
+
+    private SingleCoreIOReactorRunner runner;
+    private SingleCoreIOReactor ioReactor;
+    private Queue<ExceptionEvent> auditLog;
+    private Thread watchdogThread;
+
+    @Before
+    public void setup() throws Exception {
+        runner = new SingleCoreIOReactorRunner(IOReactorConfig.custom()
+                .setStallThreshold(TimeValue.ofMillis(50))
+                .build());
+        ioReactor = runner.getIOReactor();
+        auditLog = runner.getAuditLog();
+        watchdogThread = new Thread(new IOReactorWatchdog(new SingleCoreIOReactor[] { ioReactor }, 50));
+        runner.start();
+        watchdogThread.start();
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        runner.shutdown();
+        watchdogThread.join(5000);
+        Assert.assertFalse(watchdogThread.isAlive());
+    }
+
+    @Test
+    public void testStallReported() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        ioReactor.execute(new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(300);
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                latch.countDown();
+            }
+
+        });
+        Assert.assertTrue(latch.await(2, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        Assert.assertEquals(1, auditLog.size());
+        final Throwable cause = auditLog.peek().getCause();
+        Assert.assertTrue(cause instanceof IOReactorStallException);
+        final IOReactorStallException ex = (IOReactorStallException) cause;
+        Assert.assertNull(ex.getSessionId());
+        Assert.assertTrue(ex.getDuration() >= 50);
+        Assert.assertTrue(ex.getMessage().contains(SingleCoreIOReactorRunner.THREAD_NAME));
+        boolean sleeping = false;
+        for (final StackTraceElement element : ex.getStackTrace()) {
+            if (element.getClassName().equals(Thread.class.getName()) && element.getMethodName().equals("sleep")) {
+                sleeping = true;
+            }
+        }
+        Assert.assertTrue(sleeping);
+    }
+
+    @Test
+    public void testNoStallWhenIdle() throws Exception {
+        Thread.sleep(200);
+        Assert.assertTrue(auditLog.isEmpty());
+    }
+
+}
@@ -0,0 +1,207 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.reactor;
+
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestIOSessionImpl {
+
+    /**
+     * Event loop that queues submitted tasks until they are run explicitly
+     * and lets the test decide whether the caller is the I/O reactor thread.
+     */
+    static class ManualEventLoop implements IOEventLoop {
+
+        final Queue<Runnable> tasks = new ArrayDeque<>();
+        boolean inEventLoop;
+        int wakeups;
+
+        @Override
+        public boolean inEventLoop() {
+            return inEventLoop;
+        }
+
+        @Override
+        public void execute(final Runnable task) {
+            tasks.add(task);
+            // the I/O reactor wakes up its selector for every submitted task
+            wakeups++;
+        }
+
+        @Override
+        public Cancellable schedule(final Runnable task, final TimeValue delay) {
+            throw new UnsupportedOperationException();
+        }
+
+        void runTasks() {
+            final boolean previous = inEventLoop;
+            inEventLoop = true;
+            try {
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    task.run();
+                }
+            } finally {
+                inEventLoop = previous;
+            }
+        }
+
+    }
+
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private SocketChannel socketChannel;
+    private SocketChannel acceptedChannel;
+    private SelectionKey key;
+    private ManualEventLoop eventLoop;
+    private IOSessionImpl session;
+
+    @Before
+    public void setup() throws Exception {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress("localhost", 0));
+        socketChannel = SocketChannel.open(serverChannel.getLocalAddress());
+        acceptedChannel = serverChannel.accept();
+        socketChannel.configureBlocking(false);
+        key = socketChannel.register(selector, 0);
+        eventLoop = new ManualEventLoop();
+        session = new IOSessionImpl(key, socketChannel, eventLoop, null);
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        session.close();
+        acceptedChannel.close();
+        serverChannel.close();
+        selector.close();
+    }
+
+    @Test
+    public void testUpdateInEventLoop() throws Exception {
+        eventLoop.inEventLoop = true;
+        session.setEvent(SelectionKey.OP_READ);
+        Assert.assertEquals(SelectionKey.OP_READ, key.interestOps());
+        session.setEvent(SelectionKey.OP_WRITE);
+        Assert.assertEquals(SelectionKey.OP_READ | SelectionKey.OP_WRITE, key.interestOps());
+        session.clearEvent(SelectionKey.OP_READ);
+        Assert.assertEquals(SelectionKey.OP_WRITE, key.interestOps());
+        session.setEventMask(0);
+        Assert.assertEquals(0, key.interestOps());
+        Assert.assertTrue(eventLoop.tasks.isEmpty());
+        Assert.assertEquals(0, eventLoop.wakeups);
+    }
+
+    @Test
+    public void testUpdatesOutsideEventLoopCoalesced() throws Exception {
+        session.setEvent(SelectionKey.OP_READ);
+        session.setEvent(SelectionKey.OP_WRITE);
+        session.clearEvent(SelectionKey.OP_WRITE);
+        session.setEventMask(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        Assert.assertEquals(0, key.interestOps());
+        Assert.assertEquals(SelectionKey.OP_READ | SelectionKey.OP_WRITE, session.getEventMask());
+        Assert.assertEquals(1, eventLoop.tasks.size());
+        Assert.assertEquals(1, eventLoop.wakeups);
+
+        eventLoop.runTasks();
+        Assert.assertEquals(SelectionKey.OP_READ | SelectionKey.OP_WRITE, key.interestOps());
+
+        // Another update after the pending one has been applied posts a new task
+        session.clearEvent(SelectionKey.OP_READ);
+        Assert.assertEquals(1, eventLoop.tasks.size());
+        Assert.assertEquals(2, eventLoop.wakeups);
+        eventLoop.runTasks();
+        Assert.assertEquals(SelectionKey.OP_WRITE, key.interestOps());
+    }
+
+    @Test
+    public void testNoOpUpdate() throws Exception {
+        session.setEvent(SelectionKey.OP_READ);
+        eventLoop.runTasks();
+        Assert.assertEquals(1, eventLoop.wakeups);
+
+        session.setEvent(SelectionKey.OP_READ);
+        session.clearEvent(SelectionKey.OP_WRITE);
+        session.setEventMask(SelectionKey.OP_READ);
+        Assert.assertTrue(eventLoop.tasks.isEmpty());
+        Assert.assertEquals(1, eventLoop.wakeups);
+        Assert.assertEquals(SelectionKey.OP_READ, key.interestOps());
+    }
+
+    @Test
+    public void testInterleavedUpdates() throws Exception {
+        // Off-thread update pending
+        session.setEvent(SelectionKey.OP_WRITE);
+        Assert.assertEquals(1, eventLoop.tasks.size());
+
+        // Reactor thread update applies the combined mask right away
+        eventLoop.inEventLoop = true;
+        session.setEvent(SelectionKey.OP_READ);
+        Assert.assertEquals(SelectionKey.OP_READ | SelectionKey.OP_WRITE, key.interestOps());
+
+        // Off-thread update while the earlier task is still pending is coalesced
+        eventLoop.inEventLoop = false;
+        session.clearEvent(SelectionKey.OP_WRITE);
+        Assert.assertEquals(1, eventLoop.tasks.size());
+
+        // Reactor thread update followed by the stale pending task
+        eventLoop.inEventLoop = true;
+        session.clearEvent(SelectionKey.OP_READ);
+        Assert.assertEquals(0, key.interestOps());
+        eventLoop.inEventLoop = false;
+        session.setEventMask(SelectionKey.OP_WRITE);
+        eventLoop.runTasks();
+        Assert.assertEquals(SelectionKey.OP_WRITE, session.getEventMask());
+        Assert.assertEquals(SelectionKey.OP_WRITE, key.interestOps());
+        Assert.assertEquals(1, eventLoop.wakeups);
+    }
+
+    @Test
+    public void testNoUpdateAfterClose() throws Exception {
+        session.setEvent(SelectionKey.OP_READ);
+        session.close();
+        eventLoop.runTasks();
+        session.setEvent(SelectionKey.OP_WRITE);
+        Assert.assertTrue(eventLoop.tasks.isEmpty());
+        Assert.assertEquals(1, eventLoop.wakeups);
+    }
+
+}
@@ -0,0 +1,107 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestReadBudget {
+
+    static class TestChannel implements ByteChannel {
+
+        final ByteBuffer content;
+
+        TestChannel(final String s) {
+            this.content = ByteBuffer.wrap(s.getBytes(StandardCharsets.US_ASCII));
+        }
+
+        @Override
+        public int read(final ByteBuffer dst) throws IOException {
+            if (!content.hasRemaining()) {
+                return -1;
+            }
+            int n = 0;
+            while (content.hasRemaining() && dst.hasRemaining()) {
+                dst.put(content.get());
+                n++;
+            }
+            return n;
+        }
+
+        @Override
+        public int write(final ByteBuffer src) throws IOException {
+            final int n = src.remaining();
+            src.position(src.limit());
+            return n;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+        }
+
+    }
+
+    @Test
+    public void testReadLimitedPerEvent() throws Exception {
+        final ReadBudget readBudget = new ReadBudget(4);
+        final ByteChannel channel = readBudget.wrap(new TestChannel("0123456789"));
+        final ByteBuffer dst = ByteBuffer.allocate(16);
+
+        Assert.assertEquals(4, channel.read(dst));
+        Assert.assertEquals(16, dst.limit());
+        Assert.assertEquals(0, channel.read(dst));
+        Assert.assertEquals(0, readBudget.getRemaining());
+
+        readBudget.reset();
+        Assert.assertEquals(4, channel.read(dst));
+        readBudget.reset();
+        Assert.assertEquals(2, channel.read(dst));
+        Assert.assertEquals(2, readBudget.getRemaining());
+        Assert.assertEquals(-1, channel.read(dst));
+
+        dst.flip();
+        Assert.assertEquals("0123456789", StandardCharsets.US_ASCII.decode(dst).toString());
+    }
+
+    @Test
+    public void testWriteNotLimited() throws Exception {
+        final ReadBudget readBudget = new ReadBudget(4);
+        final ByteChannel channel = readBudget.wrap(new TestChannel(""));
+        Assert.assertEquals(10, channel.write(ByteBuffer.allocate(10)));
+    }
+
+}
@@ -0,0 +1,142 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.reactor;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestSelectSpin {
+
+    private static final int SPIN_COUNT = 100;
+
+    private SingleCoreIOReactorRunner runner;
+    private SingleCoreIOReactor ioReactor;
+    private CountDownLatch inputLatch;
+
+    @Before
+    public void setup() throws Exception {
+        inputLatch = new CountDownLatch(1);
+        runner = new SingleCoreIOReactorRunner(
+                new IOEventHandlerFactory() {
+
+                    @Override
+                    public IOEventHandler createHandler(final TlsCapableIOSession ioSession, final Object attachment) {
+                        return new IOEventHandler() {
+
+                            @Override
+                            public void connected(final IOSession session) {
+                            }
+
+                            @Override
+                            public void inputReady(final IOSession session) {
+                                final ByteChannel channel = session.channel();
+                                try {
+                                    int n;
+                                    while ((n = channel.read(ByteBuffer.allocate(16))) > 0) {
+                                    }
+                                    if (n == -1) {
+                                        // Do not hold up the graceful shutdown of the I/O reactor
+                                        session.close();
+                                    }
+                                } catch (final IOException ignore) {
+                                }
+                                inputLatch.countDown();
+                            }
+
+                            @Override
+                            public void outputReady(final IOSession session) {
+                            }
+
+                            @Override
+                            public void timeout(final IOSession session) {
+                            }
+
+                            @Override
+                            public void exception(final IOSession session, final Exception cause) {
+                            }
+
+                            @Override
+                            public void disconnected(final IOSession session) {
+                            }
+
+                        };
+                    }
+
+                },
+                IOReactorConfig.custom()
+                        .setSelectInterval(5000)
+                        .setSelectSpinCount(SPIN_COUNT)
+                        .setMetricsEnabled(true)
+                        .build()).start();
+        ioReactor = runner.getIOReactor();
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        runner.shutdown();
+    }
+
+    @Test
+    public void testSpinAfterIOEvents() throws Exception {
+        try (final ServerSocketChannel serverChannel = ServerSocketChannel.open()) {
+            serverChannel.bind(new InetSocketAddress("localhost", 0));
+            try (final SocketChannel clientChannel = SocketChannel.open(serverChannel.getLocalAddress())) {
+                final SocketChannel socketChannel = serverChannel.accept();
+                socketChannel.configureBlocking(false);
+                ioReactor.enqueueChannel(socketChannel);
+                clientChannel.write(ByteBuffer.wrap(new byte[] {1, 2, 3}));
+                Assert.assertTrue(inputLatch.await(2, TimeUnit.SECONDS));
+
+                // The I/O reactor keeps polling for a number of iterations
+                // and then falls back to blocking select
+                final long deadline = System.currentTimeMillis() + 2000;
+                while (ioReactor.getMetrics().getIterationCount() < SPIN_COUNT
+                        && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(10);
+                }
+                Assert.assertTrue(ioReactor.getMetrics().getIterationCount() >= SPIN_COUNT);
+                Thread.sleep(200);
+                final long iterationCount = ioReactor.getMetrics().getIterationCount();
+                Thread.sleep(200);
+                Assert.assertEquals(iterationCount, ioReactor.getMetrics().getIterationCount());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,174 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.reactor;
+
+import java.io.IOException;
+
+import org.apache.hc.core5.io.ShutdownType;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestTimeoutWheel {
+
+    static class TestChannel extends InternalChannel {
+
+        int timeout;
+        boolean open = true;
+        int timeoutCount;
+
+        TestChannel(final TimeoutWheel timeoutWheel, final int timeout) {
+            super(timeoutWheel);
+            this.timeout = timeout;
+        }
+
+        @Override
+        void onIOEvent(final int ops) throws IOException {
+        }
+
+        @Override
+        void onTimeout() throws IOException {
+            timeoutCount++;
+        }
+
+        @Override
+        void onException(final Exception cause) {
+        }
+
+        @Override
+        int getTimeout() {
+            return timeout;
+        }
+
+        @Override
+        boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void shutdown(final ShutdownType shutdownType) {
+            open = false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            open = false;
+        }
+
+    }
+
+    @Test
+    public void testExpiry() throws Exception {
+        final long now = System.currentTimeMillis();
+        final TimeoutWheel wheel = new TimeoutWheel(10, 8, now);
+        final TestChannel channel = new TestChannel(wheel, 50);
+        channel.updateTimeout();
+        wheel.expire(now);
+        Assert.assertEquals(1, wheel.size());
+        Assert.assertEquals(0, channel.timeoutCount);
+
+        final long deadline = channel.getTimeoutDeadline();
+        wheel.expire(deadline - 10);
+        Assert.assertEquals(0, channel.timeoutCount);
+        wheel.expire(deadline + 20);
+        Assert.assertEquals(1, channel.timeoutCount);
+        // Channels that remain open keep on timing out
+        Assert.assertEquals(1, wheel.size());
+        wheel.expire(deadline + 40);
+        Assert.assertEquals(2, channel.timeoutCount);
+
+        channel.open = false;
+        wheel.expire(deadline + 60);
+        Assert.assertEquals(2, channel.timeoutCount);
+        Assert.assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testDeadlineBeyondWheelSpan() throws Exception {
+        final long now = System.currentTimeMillis();
+        final TimeoutWheel wheel = new TimeoutWheel(10, 4, now);
+        final TestChannel channel = new TestChannel(wheel, 200);
+        channel.updateTimeout();
+        wheel.expire(now);
+
+        final long deadline = channel.getTimeoutDeadline();
+        for (long t = now + 10; t < deadline; t += 10) {
+            wheel.expire(t);
+            Assert.assertEquals(0, channel.timeoutCount);
+        }
+        wheel.expire(deadline + 10);
+        Assert.assertEquals(1, channel.timeoutCount);
+    }
+
+    @Test
+    public void testTimeoutUpdate() throws Exception {
+        final long now = System.currentTimeMillis();
+        final TimeoutWheel wheel = new TimeoutWheel(10, 8, now);
+        final TestChannel channel = new TestChannel(wheel, 0);
+        channel.updateTimeout();
+        wheel.expire(now);
+        Assert.assertEquals(0, wheel.size());
+
+        channel.timeout = 1000;
+        channel.updateTimeout();
+        wheel.expire(now);
+        Assert.assertEquals(1, wheel.size());
+
+        channel.timeout = 20;
+        channel.updateTimeout();
+        wheel.expire(channel.getTimeoutDeadline() + 10);
+        Assert.assertEquals(1, channel.timeoutCount);
+
+        channel.timeout = 0;
+        channel.updateTimeout();
+        wheel.expire(now + 2000);
+        Assert.assertEquals(1, channel.timeoutCount);
+        Assert.assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        final long now = System.currentTimeMillis();
+        final TimeoutWheel wheel = new TimeoutWheel(10, 8, now);
+        final TestChannel channel1 = new TestChannel(wheel, 30);
+        final TestChannel channel2 = new TestChannel(wheel, 30);
+        final TestChannel channel3 = new TestChannel(wheel, 30);
+        channel1.updateTimeout();
+        channel2.updateTimeout();
+        channel3.updateTimeout();
+        wheel.expire(now);
+        Assert.assertEquals(3, wheel.size());
+
+        channel2.cancelTimeout();
+        Assert.assertEquals(2, wheel.size());
+        wheel.expire(now + 100);
+        Assert.assertEquals(1, channel1.timeoutCount);
+        Assert.assertEquals(0, channel2.timeoutCount);
+        Assert.assertEquals(1, channel3.timeoutCount);
+    }
+
+}
@@ -0,0 +1,201 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor.ssl;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hc.core5.util.ByteBufferAllocator;
+import org.apache.hc.core5.util.PooledByteBufferAllocator;
+import org.apache.hc.core5.util.SimpleByteBufferAllocator;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link SSLBufferPool}.
+ *
+ */
+public class TestSSLBufferPool {
+
+    static class CountingAllocator implements ByteBufferAllocator {
+
+        final AtomicInteger allocated = new AtomicInteger(0);
+        final AtomicInteger released = new AtomicInteger(0);
+
+        @Override
+        public ByteBuffer allocate(final int capacity) {
+            allocated.incrementAndGet();
+            return ByteBuffer.allocate(capacity);
+        }
+
+        @Override
+        public void release(final ByteBuffer buffer) {
+            released.incrementAndGet();
+        }
+
+    }
+
+    @Test
+    public void testSizeClasses() throws Exception {
+        final SSLBufferPool pool = new SSLBufferPool(SimpleByteBufferAllocator.HEAP, 4);
+        Assert.assertEquals(1024, pool.allocate(0).capacity());
+        Assert.assertEquals(1024, pool.allocate(1024).capacity());
+        Assert.assertEquals(16384, pool.allocate(16384).capacity());
+        Assert.assertEquals(17408, pool.allocate(16709).capacity());
+        Assert.assertEquals(4, pool.getLeasedCount());
+        try {
+            pool.allocate(-1);
+            Assert.fail("IllegalArgumentException should have been thrown");
+        } catch (final IllegalArgumentException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testAllocatorUsed() throws Exception {
+        final SSLBufferPool pool = new SSLBufferPool(SimpleByteBufferAllocator.DIRECT, 4);
+        final ByteBuffer buffer = pool.allocate(16709);
+        Assert.assertTrue(buffer.isDirect());
+        pool.release(buffer);
+        Assert.assertSame(buffer, pool.allocate(16709));
+    }
+
+    @Test
+    public void testReuse() throws Exception {
+        final CountingAllocator allocator = new CountingAllocator();
+        final SSLBufferPool pool = new SSLBufferPool(allocator, 4);
+        final ByteBuffer buffer1 = pool.allocate(16709);
+        buffer1.put((byte) 1);
+        buffer1.limit(10);
+        pool.release(buffer1);
+        Assert.assertEquals(0, pool.getLeasedCount());
+        Assert.assertEquals(1, pool.getAvailableCount());
+        Assert.assertEquals(17408, pool.getAvailableBytes());
+
+        final ByteBuffer buffer2 = pool.allocate(16800);
+        Assert.assertSame(buffer1, buffer2);
+        Assert.assertEquals(0, buffer2.position());
+        Assert.assertEquals(buffer2.capacity(), buffer2.limit());
+        Assert.assertEquals(0, pool.getAvailableCount());
+        Assert.assertNotSame(buffer2, pool.allocate(16709));
+        Assert.assertEquals(2, pool.getLeasedCount());
+        Assert.assertEquals(2, allocator.allocated.get());
+        Assert.assertEquals(0, allocator.released.get());
+    }
+
+    @Test
+    public void testMaxIdle() throws Exception {
+        final CountingAllocator allocator = new CountingAllocator();
+        final SSLBufferPool pool = new SSLBufferPool(allocator, 2);
+        final ByteBuffer[] buffers = new ByteBuffer[4];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = pool.allocate(16384);
+        }
+        for (final ByteBuffer buffer : buffers) {
+            pool.release(buffer);
+        }
+        Assert.assertEquals(0, pool.getLeasedCount());
+        Assert.assertEquals(2, pool.getAvailableCount());
+        Assert.assertEquals(2, allocator.released.get());
+        pool.clear();
+        Assert.assertEquals(0, pool.getAvailableCount());
+        Assert.assertEquals(0, pool.getAvailableBytes());
+        Assert.assertEquals(4, allocator.released.get());
+    }
+
+    @Test
+    public void testDoubleRelease() throws Exception {
+        final SSLBufferPool pool = new SSLBufferPool(SimpleByteBufferAllocator.HEAP, 4);
+        final ByteBuffer buffer = pool.allocate(1024);
+        pool.release(buffer);
+        pool.release(buffer);
+        Assert.assertEquals(0, pool.getLeasedCount());
+        Assert.assertEquals(1, pool.getAvailableCount());
+        Assert.assertSame(buffer, pool.allocate(1024));
+        Assert.assertNotSame(buffer, pool.allocate(1024));
+    }
+
+    @Test
+    public void testForeignBuffers() throws Exception {
+        final CountingAllocator allocator = new CountingAllocator();
+        final SSLBufferPool pool = new SSLBufferPool(allocator, 4);
+        pool.allocate(1024);
+        pool.release(ByteBuffer.allocate(2048));
+        pool.release(ByteBuffer.allocate(1000));
+        pool.release(ByteBuffer.allocate(1024).asReadOnlyBuffer());
+        pool.release(null);
+        Assert.assertEquals(1, pool.getLeasedCount());
+        Assert.assertEquals(0, pool.getAvailableCount());
+        // buffers of unknown capacity go to the allocator
+        Assert.assertEquals(2, allocator.released.get());
+    }
+
+    @Test
+    public void testPooledAllocator() throws Exception {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator(false, 1024, 64 * 1024, 4, 4);
+        final SSLBufferPool pool = new SSLBufferPool(allocator, 1);
+        final ByteBuffer buffer1 = pool.allocate(16709);
+        final ByteBuffer buffer2 = pool.allocate(32768);
+        // the allocator rounds capacities up to a power of two
+        Assert.assertEquals(32768, buffer1.capacity());
+        Assert.assertEquals(2, pool.getLeasedCount());
+        Assert.assertEquals(2, allocator.getLeasedCount());
+
+        pool.release(buffer1);
+        Assert.assertEquals(1, pool.getLeasedCount());
+        Assert.assertEquals(1, pool.getAvailableCount());
+        Assert.assertEquals(32768, pool.getAvailableBytes());
+        Assert.assertSame(buffer1, pool.allocate(16709));
+        Assert.assertEquals(0, pool.getAvailableCount());
+
+        pool.release(buffer1);
+        pool.release(buffer2);
+        Assert.assertEquals(0, pool.getLeasedCount());
+        Assert.assertEquals(1, pool.getAvailableCount());
+        // buffers beyond the idle limit go back to the allocator
+        Assert.assertEquals(1, allocator.getLeasedCount());
+        pool.clear();
+        Assert.assertEquals(0, allocator.getLeasedCount());
+    }
+
+    @Test
+    public void testPooledSSLBuffer() throws Exception {
+        final SSLBufferPool pool = new SSLBufferPool();
+        final SSLBuffer sslBuffer = SSLBufferManagement.create(SSLBufferManagement.POOLED, 16709, pool);
+        Assert.assertFalse(sslBuffer.isAcquired());
+        final ByteBuffer buffer = sslBuffer.acquire();
+        Assert.assertSame(buffer, sslBuffer.acquire());
+        Assert.assertEquals(1, pool.getLeasedCount());
+        buffer.put((byte) 1);
+        Assert.assertTrue(sslBuffer.hasData());
+        sslBuffer.release();
+        Assert.assertFalse(sslBuffer.isAcquired());
+        Assert.assertEquals(0, pool.getLeasedCount());
+        Assert.assertEquals(1, pool.getAvailableCount());
+    }
+
+}
@@ -0,0 +1,191 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.util;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link PooledByteBufferAllocator}.
+ *
+ */
+public class TestPooledByteBufferAllocator {
+
+    @Test
+    public void testSizeClasses() throws Exception {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator(false, 100, 1000, 4, 4);
+        Assert.assertEquals(128, allocator.allocate(0).capacity());
+        Assert.assertEquals(128, allocator.allocate(100).capacity());
+        Assert.assertEquals(256, allocator.allocate(129).capacity());
+        Assert.assertEquals(1024, allocator.allocate(1000).capacity());
+        Assert.assertEquals(1025, allocator.allocate(1025).capacity());
+        // buffers above the largest size class are not pooled and not counted
+        Assert.assertEquals(4, allocator.getLeasedCount());
+        try {
+            allocator.allocate(-1);
+            Assert.fail("IllegalArgumentException should have been thrown");
+        } catch (final IllegalArgumentException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testReuse() throws Exception {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator(false);
+        final ByteBuffer buffer1 = allocator.allocate(1000);
+        buffer1.put((byte) 1);
+        buffer1.limit(10);
+        allocator.release(buffer1);
+        Assert.assertEquals(0, allocator.getLeasedCount());
+
+        final ByteBuffer buffer2 = allocator.allocate(600);
+        Assert.assertSame(buffer1, buffer2);
+        Assert.assertEquals(0, buffer2.position());
+        Assert.assertEquals(buffer2.capacity(), buffer2.limit());
+        Assert.assertNotSame(buffer2, allocator.allocate(600));
+        Assert.assertEquals(2, allocator.getLeasedCount());
+    }
+
+    @Test
+    public void testDirect() throws Exception {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator(true);
+        final ByteBuffer buffer = allocator.allocate(1024);
+        Assert.assertTrue(buffer.isDirect());
+        allocator.release(buffer);
+        Assert.assertSame(buffer, allocator.allocate(1024));
+
+        // buffers of another kind are not pooled
+        allocator.release(ByteBuffer.allocate(1024));
+        Assert.assertEquals(1, allocator.getLeasedCount());
+        Assert.assertTrue(allocator.allocate(1024).isDirect());
+    }
+
+    @Test
+    public void testOversizedBuffersNotPooled() throws Exception {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator(false, 256, 1024, 4, 4);
+        final ByteBuffer buffer = allocator.allocate(2048);
+        Assert.assertEquals(2048, buffer.capacity());
+        allocator.release(buffer);
+        Assert.assertEquals(0, allocator.getLeasedCount());
+        Assert.assertNotSame(buffer, allocator.allocate(2048));
+    }
+
+    @Test
+    public void testSharedArena() throws Exception {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator(false, 256, 1024, 0, 1);
+        final ByteBuffer buffer1 = allocator.allocate(256);
+        final ByteBuffer buffer2 = allocator.allocate(256);
+        allocator.release(buffer1);
+        allocator.release(buffer2);
+        Assert.assertEquals(0, allocator.getLeasedCount());
+
+        // released buffers overflow into the arena shared by all threads
+        final AtomicReference<ByteBuffer> ref = new AtomicReference<>();
+        final Thread thread = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                ref.set(allocator.allocate(256));
+            }
+
+        });
+        thread.start();
+        thread.join();
+        Assert.assertSame(buffer1, ref.get());
+        Assert.assertNotSame(buffer2, allocator.allocate(256));
+    }
+
+    @Test
+    public void testThreadCache() throws Exception {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator(false, 256, 1024, 1, 0);
+        final ByteBuffer buffer = allocator.allocate(256);
+        allocator.release(buffer);
+
+        final AtomicReference<ByteBuffer> ref = new AtomicReference<>();
+        final Thread thread = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                ref.set(allocator.allocate(256));
+            }
+
+        });
+        thread.start();
+        thread.join();
+        Assert.assertNotSame(buffer, ref.get());
+        Assert.assertSame(buffer, allocator.allocate(256));
+    }
+
+    @Test
+    public void testDoubleReleaseTracked() throws Exception {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator(false, 256, 1024, 4, 4, true);
+        final ByteBuffer buffer = allocator.allocate(256);
+        allocator.release(buffer);
+        allocator.release(buffer);
+        Assert.assertEquals(0, allocator.getLeasedCount());
+
+        // the buffer must be handed out to one owner only
+        final ByteBuffer buffer1 = allocator.allocate(256);
+        final ByteBuffer buffer2 = allocator.allocate(256);
+        Assert.assertSame(buffer, buffer1);
+        Assert.assertNotSame(buffer1, buffer2);
+        Assert.assertEquals(2, allocator.getLeasedCount());
+    }
+
+    @Test
+    public void testForeignBuffersIgnoredTracked() throws Exception {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator(false, 256, 1024, 4, 4, true);
+        final ByteBuffer buffer = allocator.allocate(512);
+        allocator.release(ByteBuffer.wrap(new byte[512]));
+        allocator.release(ByteBuffer.allocate(256));
+        allocator.release(buffer.slice());
+        allocator.release(buffer.duplicate());
+        Assert.assertEquals(1, allocator.getLeasedCount());
+        Assert.assertNotSame(buffer, allocator.allocate(512));
+
+        allocator.release(buffer);
+        Assert.assertEquals(1, allocator.getLeasedCount());
+        Assert.assertSame(buffer, allocator.allocate(512));
+    }
+
+    @Test
+    public void testUnpoolableBuffersIgnored() throws Exception {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator(false, 256, 1024, 4, 4);
+        final ByteBuffer buffer = allocator.allocate(512);
+        allocator.release(ByteBuffer.allocate(300));
+        allocator.release(ByteBuffer.allocate(128));
+        allocator.release(ByteBuffer.allocateDirect(512));
+        allocator.release(ByteBuffer.allocate(512).asReadOnlyBuffer());
+        allocator.release(ByteBuffer.wrap(new byte[1024], 512, 512).slice());
+        Assert.assertEquals(1, allocator.getLeasedCount());
+        Assert.assertNotSame(buffer, allocator.allocate(512));
+    }
+
+}